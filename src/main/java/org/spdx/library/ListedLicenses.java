@@ -33,11 +33,14 @@ import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicense;
 import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicenseException;
 import org.spdx.storage.IModelStore;
 import org.spdx.storage.listedlicense.IListedLicenseStore;
+import org.spdx.storage.listedlicense.LicenseIdDictionary;
 import org.spdx.storage.listedlicense.SpdxListedLicenseLocalStore;
 import org.spdx.storage.listedlicense.SpdxListedLicenseModelStore;
 import org.spdx.storage.listedlicense.SpdxListedLicenseWebStore;
 import org.spdx.storage.listedlicense.SpdxV2ListedLicenseModelStore;
 import org.spdx.storage.listedlicense.SpdxV3ListedLicenseModelStore;
+import org.spdx.utility.compare.CompiledLicenseTemplate;
+import org.spdx.utility.compare.SpdxCompareException;
 
 /**
  * Singleton class which holds the listed licenses
@@ -49,6 +52,13 @@ public class ListedLicenses {
 	
 	static final Logger logger = LoggerFactory.getLogger(ListedLicenses.class.getName());
 
+	/**
+	 * Default maximum number of compiled license and exception templates retained - large enough for the
+	 * complete license list
+	 */
+	public static final int DEFAULT_COMPILED_TEMPLATE_CACHE_SIZE = 2000;
+	static final String COMPILED_TEMPLATE_CACHE_SIZE_PROPERTY = "org.spdx.compiledTemplateCacheSize";
+
 	Properties licenseProperties;
     boolean onlyUseLocalLicenses;
 	private IListedLicenseStore baseModelStore;
@@ -59,6 +69,8 @@ public class ListedLicenses {
 	private Map<String, ListedLicense> spdxListedLicenseMap;
 	private Map<String, org.spdx.library.model.v2.license.ListedLicenseException> spdxListedExceptionMapCompatV2;
 	private Map<String, ListedLicenseException> spdxListedExceptionMap;
+	private final Map<String, CompiledLicenseTemplate> compiledLicenseTemplates;	// least recently used first
+	private final Map<String, CompiledLicenseTemplate> compiledExceptionTemplates;	// least recently used first
 
 	/**
 	 * Lock for any modifications to the underlying licenseModelStore
@@ -71,9 +83,33 @@ public class ListedLicenses {
 	private ListedLicenses() {
 		onlyUseLocalLicenses = Boolean.parseBoolean(Configuration.getInstance().getProperty("org.spdx.useJARLicenseInfoOnly",
 				 "false"));
+		int compiledTemplateCacheSize = DEFAULT_COMPILED_TEMPLATE_CACHE_SIZE;
+		try {
+			compiledTemplateCacheSize = Integer.parseInt(Configuration.getInstance().getProperty(COMPILED_TEMPLATE_CACHE_SIZE_PROPERTY,
+					String.valueOf(DEFAULT_COMPILED_TEMPLATE_CACHE_SIZE)));
+		} catch (NumberFormatException ex) {
+			logger.warn("Invalid {} property - using the default of {}", COMPILED_TEMPLATE_CACHE_SIZE_PROPERTY, DEFAULT_COMPILED_TEMPLATE_CACHE_SIZE);
+		}
+		compiledLicenseTemplates = newTemplateCache(compiledTemplateCacheSize);
+		compiledExceptionTemplates = newTemplateCache(compiledTemplateCacheSize);
 		initializeLicenseModelStore();
 	}
 
+	/**
+	 * @param maxSize maximum number of compiled templates to retain
+	 * @return a map which removes the least recently used compiled template once the maximum size is exceeded
+	 */
+	private static Map<String, CompiledLicenseTemplate> newTemplateCache(final int maxSize) {
+		return new LinkedHashMap<String, CompiledLicenseTemplate>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CompiledLicenseTemplate> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
 	/**
 	 * Initializes the license model store for managing SPDX listed licenses and
 	 * exceptions
@@ -145,7 +181,7 @@ public class ListedLicenses {
     }
 
 	/**
-	 * Reset all cached license information and reload the license IDs
+	 * Reset all cached license information, including the compiled license templates, and reload the license IDs
 	 * <p>
 	 * NOTE: This method should be used with caution as it can negatively
 	 * impact performance due to the reloading process.
@@ -238,6 +274,66 @@ public class ListedLicenses {
 		return getSpdxListedLicenseExceptions().get(exceptionId);
 	}
 
+	/**
+	 * Retrieve the compiled template for an SPDX listed license
+	 * <p>
+	 * The template is parsed once for the license list version and retained in a size limited cache
+	 * which is cleared by {@link #resetListedLicenses()}.
+	 * </p>
+	 *
+	 * @param licenseId The SPDX Listed License ID.
+	 * @return The compiled license template, or {@code null} if not in the SPDX License List.
+	 * @throws InvalidSPDXAnalysisException If an error occurs while retrieving the license.
+	 * @throws SpdxCompareException If the license template is not valid.
+	 */
+	public CompiledLicenseTemplate getCompiledLicenseTemplate(String licenseId) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		synchronized (compiledLicenseTemplates) {
+			CompiledLicenseTemplate retval = compiledLicenseTemplates.get(licenseId);
+			if (Objects.nonNull(retval)) {
+				return retval;
+			}
+		}
+		ListedLicense license = getListedLicenseById(licenseId);
+		if (Objects.isNull(license)) {
+			return null;
+		}
+		CompiledLicenseTemplate compiled = CompiledLicenseTemplate.compile(license);
+		synchronized (compiledLicenseTemplates) {
+			CompiledLicenseTemplate existing = compiledLicenseTemplates.putIfAbsent(licenseId, compiled);
+			return Objects.isNull(existing) ? compiled : existing;
+		}
+	}
+
+	/**
+	 * Retrieve the compiled template for an SPDX listed license exception
+	 * <p>
+	 * The template is parsed once for the license list version and retained in a size limited cache
+	 * which is cleared by {@link #resetListedLicenses()}.
+	 * </p>
+	 *
+	 * @param exceptionId The SPDX Listed License Exception ID.
+	 * @return The compiled exception template, or {@code null} if not in the SPDX License List.
+	 * @throws InvalidSPDXAnalysisException If an error occurs while retrieving the exception.
+	 * @throws SpdxCompareException If the exception template is not valid.
+	 */
+	public CompiledLicenseTemplate getCompiledExceptionTemplate(String exceptionId) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		synchronized (compiledExceptionTemplates) {
+			CompiledLicenseTemplate retval = compiledExceptionTemplates.get(exceptionId);
+			if (Objects.nonNull(retval)) {
+				return retval;
+			}
+		}
+		ListedLicenseException exception = getListedExceptionById(exceptionId);
+		if (Objects.isNull(exception)) {
+			return null;
+		}
+		CompiledLicenseTemplate compiled = CompiledLicenseTemplate.compile(exception);
+		synchronized (compiledExceptionTemplates) {
+			CompiledLicenseTemplate existing = compiledExceptionTemplates.putIfAbsent(exceptionId, compiled);
+			return Objects.isNull(existing) ? compiled : existing;
+		}
+	}
+
 	/**
 	 * Retrieve a list of all SPDX listed license IDs
 	 *
@@ -442,6 +538,34 @@ public class ListedLicenses {
 		return this.baseModelStore.listedExceptionIdCaseSensitive(exceptionId);
 	}
 
+	/**
+	 * Retrieve an immutable case-insensitive dictionary of the listed license IDs
+	 * <p>
+	 * Lookups in the dictionary do not allocate or lock and can be made against a
+	 * subrange of a larger buffer.  The dictionary reflects the IDs at the time it was
+	 * retrieved.
+	 * </p>
+	 *
+	 * @return The {@link LicenseIdDictionary} of listed license IDs.
+	 */
+	public LicenseIdDictionary getLicenseIdDictionary() {
+		return this.baseModelStore.getLicenseIdDictionary();
+	}
+
+	/**
+	 * Retrieve an immutable case-insensitive dictionary of the listed exception IDs
+	 * <p>
+	 * Lookups in the dictionary do not allocate or lock and can be made against a
+	 * subrange of a larger buffer.  The dictionary reflects the IDs at the time it was
+	 * retrieved.
+	 * </p>
+	 *
+	 * @return The {@link LicenseIdDictionary} of listed exception IDs.
+	 */
+	public LicenseIdDictionary getExceptionIdDictionary() {
+		return this.baseModelStore.getExceptionIdDictionary();
+	}
+
 	/**
 	 * Retrieve the model store for listed licenses using the SPDX version 3 model
 	 *
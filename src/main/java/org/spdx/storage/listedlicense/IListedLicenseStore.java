@@ -72,6 +72,20 @@ public interface IListedLicenseStore extends IModelStore {
 	 */
 	Optional<String> listedExceptionIdCaseSensitive(String exceptionId);
 
+	/**
+	 * @return immutable case-insensitive dictionary of the listed license IDs for the current license list
+	 */
+	default LicenseIdDictionary getLicenseIdDictionary() {
+		return new LicenseIdDictionary(getSpdxListedLicenseIds(), getLicenseListVersion());
+	}
+
+	/**
+	 * @return immutable case-insensitive dictionary of the listed exception IDs for the current license list
+	 */
+	default LicenseIdDictionary getExceptionIdDictionary() {
+		return new LicenseIdDictionary(getSpdxListedExceptionIds(), getLicenseListVersion());
+	}
+
 	/**
 	 * @return the CreationInfo used for all SPDX listed licenses and listed exceptions
 	 * @throws InvalidSPDXAnalysisException on error inflating the creation info
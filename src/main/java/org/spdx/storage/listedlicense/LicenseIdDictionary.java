@@ -0,0 +1,206 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.storage.listedlicense;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable case-insensitive dictionary of listed license or listed exception IDs
+ * <p>
+ * The IDs are held in an open addressing hash table built once for a license list version.  Lookups
+ * fold the case of each character while hashing and comparing, so they do not allocate, and since the
+ * dictionary is never modified after construction, lookups do not need any locks.  Lookups may be made
+ * against any <code>CharSequence</code>, including a subrange of a larger buffer.
+ * <p>
+ * Each ID is assigned an index from <code>0</code> to <code>size() - 1</code> in the order the IDs were
+ * supplied, and lookups return the interned case-sensitive ID string.
+ *
+ * @author Gary O'Neall
+ */
+public final class LicenseIdDictionary {
+
+	private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+	private static final int FNV_PRIME = 0x01000193;
+
+	private final String licenseListVersion;
+	private final String[] ids;
+	/**
+	 * Hash table of the ID index plus one - zero indicates an empty slot
+	 */
+	private final int[] table;
+	private final int mask;
+
+	/**
+	 * @param ids case-sensitive IDs - IDs which differ only by case are only added once
+	 * @param licenseListVersion version of the license list the IDs were loaded from
+	 */
+	public LicenseIdDictionary(Collection<String> ids, @Nullable String licenseListVersion) {
+		this.licenseListVersion = licenseListVersion;
+		int capacity = Integer.highestOneBit(Math.max(4, ids.size() * 2 - 1)) << 1;
+		this.table = new int[capacity];
+		this.mask = capacity - 1;
+		List<String> uniqueIds = new ArrayList<>(ids.size());
+		for (String id:ids) {
+			int slot = hash(id, 0, id.length()) & mask;
+			boolean duplicate = false;
+			while (table[slot] != 0) {
+				if (equalsIgnoreCase(uniqueIds.get(table[slot] - 1), id, 0, id.length())) {
+					duplicate = true;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (!duplicate) {
+				uniqueIds.add(id.intern());
+				table[slot] = uniqueIds.size();
+			}
+		}
+		this.ids = uniqueIds.toArray(new String[0]);
+	}
+
+	/**
+	 * @param id case-insensitive ID
+	 * @return the index of the ID or -1 if the ID is not in the dictionary
+	 */
+	public int indexOf(CharSequence id) {
+		return indexOf(id, 0, id.length());
+	}
+
+	/**
+	 * @param buffer characters containing the ID
+	 * @param start index of the first character of the ID in the buffer
+	 * @param end index after the last character of the ID in the buffer
+	 * @return the index of the ID or -1 if the ID is not in the dictionary
+	 */
+	public int indexOf(CharSequence buffer, int start, int end) {
+		int slot = hash(buffer, start, end) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			if (equalsIgnoreCase(ids[entry - 1], buffer, start, end)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param id case-insensitive ID
+	 * @return true if the ID is in the dictionary
+	 */
+	public boolean contains(CharSequence id) {
+		return indexOf(id, 0, id.length()) >= 0;
+	}
+
+	/**
+	 * @param buffer characters containing the ID
+	 * @param start index of the first character of the ID in the buffer
+	 * @param end index after the last character of the ID in the buffer
+	 * @return true if the ID is in the dictionary
+	 */
+	public boolean contains(CharSequence buffer, int start, int end) {
+		return indexOf(buffer, start, end) >= 0;
+	}
+
+	/**
+	 * @param id case-insensitive ID
+	 * @return the case-sensitive ID or null if the ID is not in the dictionary
+	 */
+	public @Nullable String caseSensitiveId(CharSequence id) {
+		return caseSensitiveId(id, 0, id.length());
+	}
+
+	/**
+	 * @param buffer characters containing the ID
+	 * @param start index of the first character of the ID in the buffer
+	 * @param end index after the last character of the ID in the buffer
+	 * @return the case-sensitive ID or null if the ID is not in the dictionary
+	 */
+	public @Nullable String caseSensitiveId(CharSequence buffer, int start, int end) {
+		int index = indexOf(buffer, start, end);
+		return index < 0 ? null : ids[index];
+	}
+
+	/**
+	 * @param index index of the ID
+	 * @return the case-sensitive ID
+	 */
+	public String getId(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * @return the number of IDs in the dictionary
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * @return unmodifiable list of the case-sensitive IDs in index order
+	 */
+	public List<String> getIds() {
+		return Collections.unmodifiableList(Arrays.asList(ids));
+	}
+
+	/**
+	 * @return the version of the license list the IDs were loaded from
+	 */
+	public @Nullable String getLicenseListVersion() {
+		return licenseListVersion;
+	}
+
+	/**
+	 * @param c character
+	 * @return case folded character
+	 */
+	private static char fold(char c) {
+		if (c < 128) {
+			return c >= 'A' && c <= 'Z' ? (char)(c + ('a' - 'A')) : c;
+		}
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	private static int hash(CharSequence buffer, int start, int end) {
+		int h = FNV_OFFSET_BASIS;
+		for (int i = start; i < end; i++) {
+			h = (h ^ fold(buffer.charAt(i))) * FNV_PRIME;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean equalsIgnoreCase(String id, CharSequence buffer, int start, int end) {
+		if (id.length() != end - start) {
+			return false;
+		}
+		for (int i = 0; i < id.length(); i++) {
+			char c1 = id.charAt(i);
+			char c2 = buffer.charAt(start + i);
+			if (c1 != c2 && fold(c1) != fold(c2)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -33,6 +33,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Stream;
@@ -85,6 +87,14 @@ public abstract class SpdxListedLicenseModelStore implements IListedLicenseStore
 	 * Map of lower case to correct case exception IDs
 	 */
 	Map<String, String> exceptionIds = new HashMap<>();
+	/**
+	 * Lock-free lookup of the license IDs - replaced when the license IDs are loaded
+	 */
+	private volatile IdLookup licenseIdLookup = new IdLookup(new LicenseIdDictionary(Collections.emptyList(), null));
+	/**
+	 * Lock-free lookup of the exception IDs - replaced when the exception IDs are loaded
+	 */
+	private volatile IdLookup exceptionIdLookup = new IdLookup(new LicenseIdDictionary(Collections.emptyList(), null));
 	Map<String, LicenseJson> listedLicenseCache = null;
 	Map<String, ExceptionJson> listedExceptionCache = null;
 	Map<String, CrossRefJson> crossRefs = new HashMap<>();
@@ -193,12 +203,102 @@ public abstract class SpdxListedLicenseModelStore implements IListedLicenseStore
 						logger.warn("Unable to close JSON TOC reader", e);
 					}
             	}
+            	// rebuilt even if the load fails so the lookups always match the ID maps
+            	licenseIdLookup = new IdLookup(new LicenseIdDictionary(licenseIds.values(), licenseListVersion));
+            	exceptionIdLookup = new IdLookup(new LicenseIdDictionary(exceptionIds.values(), licenseListVersion));
             }
         } finally {
             listedLicenseModificationLock.writeLock().unlock();
         }
 	}
 
+	/**
+	 * Case-insensitive lookup of IDs which does not need any locks
+	 * <p>
+	 * The IDs loaded from the license list are held in an immutable {@link LicenseIdDictionary}.  IDs created
+	 * or deleted after the load are held in small concurrent overlays, so each change is applied in constant
+	 * time rather than rebuilding the dictionary.  Changes must be made within the write lock.
+	 */
+	private static final class IdLookup {
+		private final LicenseIdDictionary loaded;
+		/**
+		 * Map of lower case to correct case IDs created since the load
+		 */
+		private final Map<String, String> added = new ConcurrentHashMap<>();
+		/**
+		 * Lower case loaded IDs deleted since the load
+		 */
+		private final Set<String> removed = ConcurrentHashMap.newKeySet();
+		/**
+		 * Dictionary of the current IDs - null if the IDs changed since the dictionary was built
+		 */
+		private volatile LicenseIdDictionary dictionary;
+
+		IdLookup(LicenseIdDictionary loaded) {
+			this.loaded = loaded;
+			this.dictionary = loaded;
+		}
+
+		/**
+		 * @param id case-insensitive ID
+		 * @return the case-sensitive ID or null if the ID is not present
+		 */
+		@Nullable String caseSensitiveId(String id) {
+			if (!removed.isEmpty() && removed.contains(id.toLowerCase())) {
+				return null;
+			}
+			String retval = loaded.caseSensitiveId(id);
+			if (retval == null && !added.isEmpty()) {
+				retval = added.get(id.toLowerCase());
+			}
+			return retval;
+		}
+
+		/**
+		 * @param id case-sensitive ID to add
+		 */
+		void add(String id) {
+			if (loaded.contains(id)) {
+				removed.remove(id.toLowerCase());
+			} else {
+				added.put(id.toLowerCase(), id);
+			}
+			dictionary = null;
+		}
+
+		/**
+		 * @param id ID to remove
+		 */
+		void remove(String id) {
+			if (loaded.contains(id)) {
+				removed.add(id.toLowerCase());
+			} else {
+				added.remove(id.toLowerCase());
+			}
+			dictionary = null;
+		}
+
+		/**
+		 * Must be called within the read lock so the IDs do not change while the dictionary is built
+		 * @return a dictionary of the current IDs
+		 */
+		LicenseIdDictionary getDictionary() {
+			LicenseIdDictionary retval = dictionary;
+			if (retval == null) {
+				List<String> ids = new ArrayList<>();
+				for (String id:loaded.getIds()) {
+					if (!removed.contains(id.toLowerCase())) {
+						ids.add(id);
+					}
+				}
+				ids.addAll(added.values());
+				retval = new LicenseIdDictionary(ids, loaded.getLicenseListVersion());
+				dictionary = retval;
+			}
+			return retval;
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.spdx.storage.IModelStore#exists(java.lang.String, java.lang.String)
 	 */
@@ -268,6 +368,7 @@ public abstract class SpdxListedLicenseModelStore implements IListedLicenseStore
 				}
 				this.licenseIds.put(id.toLowerCase(), id);
 				this.listedLicenseCache.put(id, new LicenseJson(id));
+				this.licenseIdLookup.add(id);
 			} else if ((isSpdx3 && SpdxConstantsV3.EXPANDED_LICENSING_LISTED_LICENSE_EXCEPTION.equals(typedValue.getType())) || 
 					(!isSpdx3 && SpdxConstantsCompatV2.CLASS_SPDX_LISTED_LICENSE_EXCEPTION.equals(typedValue.getType()))) {
 				if (this.licenseIds.containsKey(id.toLowerCase()) || this.exceptionIds.containsKey(id.toLowerCase())) {
@@ -276,6 +377,7 @@ public abstract class SpdxListedLicenseModelStore implements IListedLicenseStore
 				}
 				this.exceptionIds.put(id.toLowerCase(), id);
 				this.listedExceptionCache.put(id,  new ExceptionJson(id));
+				this.exceptionIdLookup.add(id);
 			} else if (this.licenseCreationInfo.getTypedValue().equals(typedValue)) {
 				logger.warn("Ignoring the creation of a creationInfo for the listed license store");
 			} else if (this.licenseCreator.getTypedValue().equals(typedValue)) {
@@ -858,12 +960,7 @@ public abstract class SpdxListedLicenseModelStore implements IListedLicenseStore
 	 * @return true if the licenseId belongs to an SPDX listed license
 	 */
 	public boolean isSpdxListedLicenseId(String listedLicenseDocumentUri, String licenseId) {
-		this.listedLicenseModificationLock.readLock().lock();
-		try {
-			return this.licenseIds.containsKey(licenseId.toLowerCase());
-		} finally {
-			this.listedLicenseModificationLock.readLock().unlock();
-		}
+		return this.licenseIdLookup.caseSensitiveId(licenseId) != null;
 	}
 	
 	/**
@@ -872,12 +969,7 @@ public abstract class SpdxListedLicenseModelStore implements IListedLicenseStore
 	 * @return true if the exceptionId belongs to an SPDX listed exception
 	 */
 	public boolean isSpdxListedExceptionId(String listedLicenseDocumentUri, String exceptionId) {
-		this.listedLicenseModificationLock.readLock().lock();
-		try {
-			return this.exceptionIds.containsKey(exceptionId.toLowerCase());
-		} finally {
-			this.listedLicenseModificationLock.readLock().unlock();
-		}
+		return this.exceptionIdLookup.caseSensitiveId(exceptionId) != null;
 	}
 	
 	@Override
@@ -1226,20 +1318,30 @@ public abstract class SpdxListedLicenseModelStore implements IListedLicenseStore
 	
 	@Override
 	public Optional<String> listedLicenseIdCaseSensitive(String licenseId) {
+		return Optional.ofNullable(this.licenseIdLookup.caseSensitiveId(licenseId));
+	}
+	
+	
+	@Override
+	public Optional<String> listedExceptionIdCaseSensitive(String exceptionId) {
+		return Optional.ofNullable(this.exceptionIdLookup.caseSensitiveId(exceptionId));
+	}
+
+	@Override
+	public LicenseIdDictionary getLicenseIdDictionary() {
 		listedLicenseModificationLock.readLock().lock();
 		try {
-			return Optional.ofNullable(this.licenseIds.get(licenseId.toLowerCase()));
+			return this.licenseIdLookup.getDictionary();
 		} finally {
 			listedLicenseModificationLock.readLock().unlock();
 		}
 	}
-	
-	
+
 	@Override
-	public Optional<String> listedExceptionIdCaseSensitive(String exceptionId) {
+	public LicenseIdDictionary getExceptionIdDictionary() {
 		listedLicenseModificationLock.readLock().lock();
 		try {
-			return Optional.ofNullable(this.exceptionIds.get(exceptionId.toLowerCase()));
+			return this.exceptionIdLookup.getDictionary();
 		} finally {
 			listedLicenseModificationLock.readLock().unlock();
 		}
@@ -1269,9 +1371,11 @@ public abstract class SpdxListedLicenseModelStore implements IListedLicenseStore
 			if (licenseIds.containsKey(id.toLowerCase())) {
 				this.listedLicenseCache.remove(id);
 				this.licenseIds.remove(id.toLowerCase());
+				this.licenseIdLookup.remove(id);
 			} else if (exceptionIds.containsKey(id.toLowerCase())) {
 				this.listedExceptionCache.remove(id);
 				this.exceptionIds.remove(id.toLowerCase());
+				this.exceptionIdLookup.remove(id);
 			} else if (crossRefs.containsKey(id)) {
 				this.crossRefs.remove(id);
 			} else {
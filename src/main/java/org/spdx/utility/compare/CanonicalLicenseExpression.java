@@ -0,0 +1,559 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ListedLicenses;
+import org.spdx.library.model.v3_0_1.expandedlicensing.ConjunctiveLicenseSet;
+import org.spdx.library.model.v3_0_1.expandedlicensing.DisjunctiveLicenseSet;
+import org.spdx.library.model.v3_0_1.expandedlicensing.LicenseAddition;
+import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicense;
+import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicenseException;
+import org.spdx.library.model.v3_0_1.expandedlicensing.NoAssertionLicense;
+import org.spdx.library.model.v3_0_1.expandedlicensing.NoneLicense;
+import org.spdx.library.model.v3_0_1.expandedlicensing.OrLaterOperator;
+import org.spdx.library.model.v3_0_1.expandedlicensing.WithAdditionOperator;
+import org.spdx.library.model.v3_0_1.simplelicensing.AnyLicenseInfo;
+import org.spdx.library.model.v3_0_1.simplelicensing.LicenseExpression;
+
+/**
+ * Immutable canonical form of a license expression
+ * <p>
+ * The canonical form flattens nested AND and OR sets (<code>A AND (B AND C)</code> becomes
+ * <code>A AND B AND C</code>), removes duplicate operands, sorts the operands, and uses the case
+ * sensitive form of listed license and exception IDs.  Two license expressions which are equal
+ * by {@link LicenseCompareHelper#isLicenseEqual(AnyLicenseInfo, AnyLicenseInfo, Map)} will
+ * have the same canonical form.
+ * <p>
+ * A 64-bit structural hash is computed once when the canonical form is created, so the canonical
+ * expressions can be used directly as keys when grouping licenses.
+ * <p>
+ * Listed licenses and exceptions are rendered by their ID.  Custom licenses and additions are rendered
+ * by their object URI, optionally translated using a map of URIs (e.g. the extracted license
+ * translation map used by the <code>SpdxComparer</code>).  The SPDX ID of a custom license or addition
+ * (e.g. <code>LicenseRef-1</code>) is available from {@link #getLicenseId()} but is not part of the
+ * canonical form.
+ *
+ * @author Gary O'Neall
+ */
+public final class CanonicalLicenseExpression implements Comparable<CanonicalLicenseExpression> {
+
+	/**
+	 * Kind of node in the canonical expression tree
+	 */
+	public enum Kind {
+		/**
+		 * Listed license identified by its license ID
+		 */
+		LISTED_LICENSE,
+		/**
+		 * Custom license or extracted license info identified by its (translated) URI
+		 */
+		CUSTOM_LICENSE,
+		/**
+		 * Listed license exception identified by its exception ID
+		 */
+		LISTED_EXCEPTION,
+		/**
+		 * Custom license addition identified by its (translated) URI
+		 */
+		CUSTOM_ADDITION,
+		/**
+		 * License followed by the <code>+</code> operator
+		 */
+		OR_LATER,
+		/**
+		 * License <code>WITH</code> an exception or addition
+		 */
+		WITH,
+		/**
+		 * Conjunctive (<code>AND</code>) license set
+		 */
+		AND,
+		/**
+		 * Disjunctive (<code>OR</code>) license set
+		 */
+		OR,
+		/**
+		 * NONE license
+		 */
+		NONE,
+		/**
+		 * NOASSERTION license
+		 */
+		NOASSERTION,
+		/**
+		 * Any other license info rendered by its string value
+		 */
+		OTHER
+	}
+
+	static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	static final long FNV_PRIME = 0x100000001b3L;
+
+	private final Kind kind;
+	private final String id;
+	private final String licenseId;	// SPDX ID of a custom license or addition
+	private final List<CanonicalLicenseExpression> operands;
+	private final String text;
+	private final long hash;
+
+	/**
+	 * @param kind kind of node
+	 * @param id ID or URI for leaf nodes, null for operators
+	 * @param operands operands in canonical order - empty for leaf nodes
+	 */
+	private CanonicalLicenseExpression(Kind kind, @Nullable String id, List<CanonicalLicenseExpression> operands) {
+		this(kind, id, null, operands);
+	}
+
+	/**
+	 * @param kind kind of node
+	 * @param id ID or URI for leaf nodes, null for operators
+	 * @param licenseId SPDX ID of a custom license or addition, null if not known or for other nodes
+	 * @param operands operands in canonical order - empty for leaf nodes
+	 */
+	private CanonicalLicenseExpression(Kind kind, @Nullable String id, @Nullable String licenseId,
+			List<CanonicalLicenseExpression> operands) {
+		this.kind = kind;
+		this.id = id;
+		this.licenseId = licenseId;
+		this.operands = Collections.unmodifiableList(operands);
+		this.text = render();
+		this.hash = computeHash();
+	}
+
+	/**
+	 * @param license license to convert to the canonical form
+	 * @return canonical form of the license
+	 * @throws InvalidSPDXAnalysisException on errors reading properties from the SPDX model
+	 */
+	public static CanonicalLicenseExpression canonicalize(AnyLicenseInfo license) throws InvalidSPDXAnalysisException {
+		return canonicalize(license, null);
+	}
+
+	/**
+	 * @param license license to convert to the canonical form
+	 * @param xlationMap optional map of custom license and addition URIs to the URIs used in the canonical form
+	 * @return canonical form of the license
+	 * @throws InvalidSPDXAnalysisException on errors reading properties from the SPDX model
+	 */
+	public static CanonicalLicenseExpression canonicalize(AnyLicenseInfo license,
+			@Nullable Map<String, String> xlationMap) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(license, "License can not be null");
+		if (license instanceof ConjunctiveLicenseSet) {
+			return createSet(Kind.AND, canonicalizeAll(((ConjunctiveLicenseSet)license).getMembers(), xlationMap));
+		} else if (license instanceof DisjunctiveLicenseSet) {
+			return createSet(Kind.OR, canonicalizeAll(((DisjunctiveLicenseSet)license).getMembers(), xlationMap));
+		} else if (license instanceof OrLaterOperator) {
+			return new CanonicalLicenseExpression(Kind.OR_LATER, null,
+					Collections.singletonList(canonicalize(((OrLaterOperator)license).getSubjectLicense(), xlationMap)));
+		} else if (license instanceof WithAdditionOperator) {
+			List<CanonicalLicenseExpression> withOperands = new ArrayList<>(2);
+			withOperands.add(canonicalize(((WithAdditionOperator)license).getSubjectExtendableLicense(), xlationMap));
+			withOperands.add(canonicalizeAddition(((WithAdditionOperator)license).getSubjectAddition(), xlationMap));
+			return new CanonicalLicenseExpression(Kind.WITH, null, withOperands);
+		} else if (license instanceof ListedLicense) {
+			return createListedLicense(LicenseCompareHelper.licenseUriToLicenseId(license.getObjectUri()));
+		} else if (license instanceof NoneLicense) {
+			return none();
+		} else if (license instanceof NoAssertionLicense) {
+			return noAssertion();
+		} else if (license instanceof LicenseExpression) {
+			return new CanonicalLicenseExpression(Kind.OTHER, license.toString(), Collections.emptyList());
+		} else {
+			return new CanonicalLicenseExpression(Kind.CUSTOM_LICENSE,
+					translate(license.getObjectUri(), xlationMap), license.getId(), Collections.emptyList());
+		}
+	}
+
+	/**
+	 * @param license SPDX 2.X license to convert to the canonical form
+	 * @return canonical form of the license
+	 * @throws InvalidSPDXAnalysisException on errors reading properties from the SPDX model
+	 */
+	public static CanonicalLicenseExpression canonicalize(org.spdx.library.model.v2.license.AnyLicenseInfo license) throws InvalidSPDXAnalysisException {
+		return canonicalize(license, null);
+	}
+
+	/**
+	 * @param license SPDX 2.X license to convert to the canonical form
+	 * @param xlationMap optional map of extracted license URIs to the URIs used in the canonical form
+	 * @return canonical form of the license
+	 * @throws InvalidSPDXAnalysisException on errors reading properties from the SPDX model
+	 */
+	public static CanonicalLicenseExpression canonicalize(org.spdx.library.model.v2.license.AnyLicenseInfo license,
+			@Nullable Map<String, String> xlationMap) throws InvalidSPDXAnalysisException {
+		Objects.requireNonNull(license, "License can not be null");
+		if (license instanceof org.spdx.library.model.v2.license.ConjunctiveLicenseSet) {
+			return createSet(Kind.AND, canonicalizeAllCompatV2(
+					((org.spdx.library.model.v2.license.ConjunctiveLicenseSet)license).getMembers(), xlationMap));
+		} else if (license instanceof org.spdx.library.model.v2.license.DisjunctiveLicenseSet) {
+			return createSet(Kind.OR, canonicalizeAllCompatV2(
+					((org.spdx.library.model.v2.license.DisjunctiveLicenseSet)license).getMembers(), xlationMap));
+		} else if (license instanceof org.spdx.library.model.v2.license.OrLaterOperator) {
+			return new CanonicalLicenseExpression(Kind.OR_LATER, null, Collections.singletonList(
+					canonicalize(((org.spdx.library.model.v2.license.OrLaterOperator)license).getLicense(), xlationMap)));
+		} else if (license instanceof org.spdx.library.model.v2.license.WithExceptionOperator) {
+			org.spdx.library.model.v2.license.WithExceptionOperator with = (org.spdx.library.model.v2.license.WithExceptionOperator)license;
+			List<CanonicalLicenseExpression> withOperands = new ArrayList<>(2);
+			withOperands.add(canonicalize(with.getLicense(), xlationMap));
+			org.spdx.library.model.v2.license.LicenseException exception = with.getException();
+			if (exception instanceof org.spdx.library.model.v2.license.ListedLicenseException) {
+				withOperands.add(createListedException(exception.getLicenseExceptionId()));
+			} else {
+				withOperands.add(new CanonicalLicenseExpression(Kind.CUSTOM_ADDITION,
+						translate(exception.getObjectUri(), xlationMap), exception.getId(), Collections.emptyList()));
+			}
+			return new CanonicalLicenseExpression(Kind.WITH, null, withOperands);
+		} else if (license instanceof org.spdx.library.model.v2.license.SpdxListedLicense) {
+			return createListedLicense(((org.spdx.library.model.v2.license.SpdxListedLicense)license).getLicenseId());
+		} else if (license instanceof org.spdx.library.model.v2.license.SpdxNoneLicense) {
+			return none();
+		} else if (license instanceof org.spdx.library.model.v2.license.SpdxNoAssertionLicense) {
+			return noAssertion();
+		} else if (license instanceof org.spdx.library.model.v2.license.InvalidLicenseExpression) {
+			return new CanonicalLicenseExpression(Kind.OTHER, license.toString(), Collections.emptyList());
+		} else {
+			return new CanonicalLicenseExpression(Kind.CUSTOM_LICENSE,
+					translate(license.getObjectUri(), xlationMap), license.getId(), Collections.emptyList());
+		}
+	}
+
+	/**
+	 * @param licenseId case-insensitive listed license ID
+	 * @return canonical listed license
+	 */
+	public static CanonicalLicenseExpression listedLicense(String licenseId) {
+		return createListedLicense(licenseId);
+	}
+
+	/**
+	 * @param idOrUri custom license ID or URI
+	 * @return canonical custom license
+	 */
+	public static CanonicalLicenseExpression customLicense(String idOrUri) {
+		return new CanonicalLicenseExpression(Kind.CUSTOM_LICENSE, idOrUri, Collections.emptyList());
+	}
+
+	/**
+	 * @param uri custom license URI
+	 * @param licenseId SPDX ID of the custom license (e.g. <code>LicenseRef-1</code>)
+	 * @return canonical custom license
+	 */
+	public static CanonicalLicenseExpression customLicense(String uri, String licenseId) {
+		return new CanonicalLicenseExpression(Kind.CUSTOM_LICENSE, uri, licenseId, Collections.emptyList());
+	}
+
+	/**
+	 * @param exceptionId case-insensitive listed exception ID
+	 * @return canonical listed exception
+	 */
+	public static CanonicalLicenseExpression listedException(String exceptionId) {
+		return createListedException(exceptionId);
+	}
+
+	/**
+	 * @param idOrUri custom addition ID or URI
+	 * @return canonical custom addition
+	 */
+	public static CanonicalLicenseExpression customAddition(String idOrUri) {
+		return new CanonicalLicenseExpression(Kind.CUSTOM_ADDITION, idOrUri, Collections.emptyList());
+	}
+
+	/**
+	 * @param uri custom addition URI
+	 * @param licenseId SPDX ID of the custom addition (e.g. <code>AdditionRef-1</code>)
+	 * @return canonical custom addition
+	 */
+	public static CanonicalLicenseExpression customAddition(String uri, String licenseId) {
+		return new CanonicalLicenseExpression(Kind.CUSTOM_ADDITION, uri, licenseId, Collections.emptyList());
+	}
+
+	/**
+	 * @return canonical NONE license
+	 */
+	public static CanonicalLicenseExpression none() {
+		return new CanonicalLicenseExpression(Kind.NONE, null, Collections.emptyList());
+	}
+
+	/**
+	 * @return canonical NOASSERTION license
+	 */
+	public static CanonicalLicenseExpression noAssertion() {
+		return new CanonicalLicenseExpression(Kind.NOASSERTION, null, Collections.emptyList());
+	}
+
+	/**
+	 * @param license license the <code>+</code> operator applies to
+	 * @return canonical or-later expression
+	 */
+	public static CanonicalLicenseExpression orLater(CanonicalLicenseExpression license) {
+		return new CanonicalLicenseExpression(Kind.OR_LATER, null, Collections.singletonList(license));
+	}
+
+	/**
+	 * @param license license the addition applies to
+	 * @param addition exception or addition
+	 * @return canonical <code>WITH</code> expression
+	 */
+	public static CanonicalLicenseExpression with(CanonicalLicenseExpression license, CanonicalLicenseExpression addition) {
+		List<CanonicalLicenseExpression> withOperands = new ArrayList<>(2);
+		withOperands.add(license);
+		withOperands.add(addition);
+		return new CanonicalLicenseExpression(Kind.WITH, null, withOperands);
+	}
+
+	/**
+	 * @param operands canonical operands
+	 * @return canonical conjunctive set - or the only operand if there is a single unique operand
+	 */
+	public static CanonicalLicenseExpression and(Collection<CanonicalLicenseExpression> operands) {
+		return createSet(Kind.AND, new ArrayList<>(operands));
+	}
+
+	/**
+	 * @param operands canonical operands
+	 * @return canonical disjunctive set - or the only operand if there is a single unique operand
+	 */
+	public static CanonicalLicenseExpression or(Collection<CanonicalLicenseExpression> operands) {
+		return createSet(Kind.OR, new ArrayList<>(operands));
+	}
+
+	/**
+	 * @param addition license addition
+	 * @param xlationMap optional URI translation map
+	 * @return canonical form of the addition
+	 */
+	private static CanonicalLicenseExpression canonicalizeAddition(LicenseAddition addition,
+			@Nullable Map<String, String> xlationMap) {
+		if (addition instanceof ListedLicenseException) {
+			return createListedException(LicenseCompareHelper.licenseUriToLicenseId(addition.getObjectUri()));
+		} else {
+			return new CanonicalLicenseExpression(Kind.CUSTOM_ADDITION,
+					translate(addition.getObjectUri(), xlationMap), addition.getId(), Collections.emptyList());
+		}
+	}
+
+	private static List<CanonicalLicenseExpression> canonicalizeAll(Collection<AnyLicenseInfo> members,
+			@Nullable Map<String, String> xlationMap) throws InvalidSPDXAnalysisException {
+		List<CanonicalLicenseExpression> retval = new ArrayList<>(members.size());
+		for (AnyLicenseInfo member:members) {
+			retval.add(canonicalize(member, xlationMap));
+		}
+		return retval;
+	}
+
+	private static List<CanonicalLicenseExpression> canonicalizeAllCompatV2(
+			Collection<org.spdx.library.model.v2.license.AnyLicenseInfo> members,
+			@Nullable Map<String, String> xlationMap) throws InvalidSPDXAnalysisException {
+		List<CanonicalLicenseExpression> retval = new ArrayList<>(members.size());
+		for (org.spdx.library.model.v2.license.AnyLicenseInfo member:members) {
+			retval.add(canonicalize(member, xlationMap));
+		}
+		return retval;
+	}
+
+	private static String translate(String uri, @Nullable Map<String, String> xlationMap) {
+		if (xlationMap == null) {
+			return uri;
+		}
+		String xlated = xlationMap.get(uri);
+		return xlated == null ? uri : xlated;
+	}
+
+	private static CanonicalLicenseExpression createListedLicense(String licenseId) {
+		return new CanonicalLicenseExpression(Kind.LISTED_LICENSE,
+				ListedLicenses.getListedLicenses().listedLicenseIdCaseSensitive(licenseId).orElse(licenseId),
+				Collections.emptyList());
+	}
+
+	private static CanonicalLicenseExpression createListedException(String exceptionId) {
+		return new CanonicalLicenseExpression(Kind.LISTED_EXCEPTION,
+				ListedLicenses.getListedLicenses().listedExceptionIdCaseSensitive(exceptionId).orElse(exceptionId),
+				Collections.emptyList());
+	}
+
+	/**
+	 * Create a flattened, sorted and de-duplicated set
+	 * @param kind AND or OR
+	 * @param members canonical members of the set
+	 * @return canonical set - or the only member if the set has a single unique member
+	 */
+	private static CanonicalLicenseExpression createSet(Kind kind, List<CanonicalLicenseExpression> members) {
+		List<CanonicalLicenseExpression> flattened = new ArrayList<>(members.size());
+		for (CanonicalLicenseExpression member:members) {
+			if (member.kind == kind) {
+				flattened.addAll(member.operands);
+			} else {
+				flattened.add(member);
+			}
+		}
+		Collections.sort(flattened);
+		List<CanonicalLicenseExpression> unique = new ArrayList<>(flattened.size());
+		for (CanonicalLicenseExpression member:flattened) {
+			if (unique.isEmpty() || !unique.get(unique.size()-1).equals(member)) {
+				unique.add(member);
+			}
+		}
+		if (unique.size() == 1) {
+			return unique.get(0);
+		}
+		return new CanonicalLicenseExpression(kind, null, unique);
+	}
+
+	/**
+	 * @return the stable string rendering of this node
+	 */
+	private String render() {
+		switch (kind) {
+			case NONE: return LicenseInfoFactory.NONE_LICENSE_NAME;
+			case NOASSERTION: return LicenseInfoFactory.NOASSERTION_LICENSE_NAME;
+			case OR_LATER: return operands.get(0).text + "+";
+			case WITH: return operands.get(0).text + " WITH " + operands.get(1).text;
+			case AND:
+			case OR: {
+				StringBuilder sb = new StringBuilder();
+				String operator = kind == Kind.AND ? " AND " : " OR ";
+				for (CanonicalLicenseExpression operand:operands) {
+					if (sb.length() > 0) {
+						sb.append(operator);
+					}
+					if (operand.kind == Kind.AND || operand.kind == Kind.OR) {
+						sb.append('(');
+						sb.append(operand.text);
+						sb.append(')');
+					} else {
+						sb.append(operand.text);
+					}
+				}
+				return sb.toString();
+			}
+			default: return id;
+		}
+	}
+
+	/**
+	 * @return 64-bit structural hash combining the kind, ID and operand hashes
+	 */
+	private long computeHash() {
+		long h = FNV_OFFSET_BASIS;
+		h = (h ^ kind.ordinal()) * FNV_PRIME;
+		if (id != null) {
+			for (byte b:id.getBytes(StandardCharsets.UTF_8)) {
+				h = (h ^ (b & 0xff)) * FNV_PRIME;
+			}
+		}
+		for (CanonicalLicenseExpression operand:operands) {
+			h = mix(h ^ operand.hash) * FNV_PRIME;
+		}
+		return mix(h);
+	}
+
+	/**
+	 * Finalization step from the SplitMix64 generator to spread the bits of the hash
+	 * @param z value to mix
+	 * @return mixed value
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @return the kind of this node
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return the license ID, exception ID, or URI for leaf nodes; null for operators
+	 */
+	public @Nullable String getId() {
+		return id;
+	}
+
+	/**
+	 * @return the SPDX ID (e.g. <code>LicenseRef-1</code>) of a custom license or addition, or null if not known
+	 * or for other kinds of nodes
+	 */
+	public @Nullable String getLicenseId() {
+		return licenseId;
+	}
+
+	/**
+	 * @return the operands in canonical order - empty for leaf nodes
+	 */
+	public List<CanonicalLicenseExpression> getOperands() {
+		return operands;
+	}
+
+	/**
+	 * @return the 64-bit structural hash of the canonical expression
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * @return the stable string rendering of the canonical expression
+	 */
+	@Override
+	public String toString() {
+		return text;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int)(hash ^ (hash >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof CanonicalLicenseExpression)) {
+			return false;
+		}
+		CanonicalLicenseExpression other = (CanonicalLicenseExpression)o;
+		return hash == other.hash && kind == other.kind && text.equals(other.text);
+	}
+
+	@Override
+	public int compareTo(CanonicalLicenseExpression o) {
+		int retval = text.compareTo(o.text);
+		if (retval == 0) {
+			retval = kind.compareTo(o.kind);
+		}
+		return retval;
+	}
+}
@@ -20,6 +20,7 @@ package org.spdx.utility.compare;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,12 +45,17 @@ public class CompareTemplateOutputHandler implements
 		ILicenseTemplateOutputHandler {
 	private static final int MAX_NEXT_NORMAL_TEXT_SEARCH_LENGTH = 15;	// Maximum number of tokens to compare when searching for a normal text match
 	private static final int MIN_TOKENS_NORMAL_TEXT_SEARCH = 3;	// Minimum number of tokens to match of normal text to match after a variable block to bound greedy regex var text
+	private static final long NO_DEADLINE = Long.MIN_VALUE;
+	private static final int DEADLINE_CHECK_INTERVAL = 256;	// number of checks between reading the clock
 	
 	class ParseInstruction {
 		LicenseTemplateRule rule;
 		String text;
 		List<ParseInstruction> subInstructions;
 		ParseInstruction parent;
+		private String[] textTokens = null;	// normalized tokens for the text - tokenized once when the text is set
+		private String[] searchTokens = null;	// leading text tokens used when searching for this text following a rule
+		private Pattern matchPattern = null;	// compiled match for a variable rule
 
 		private boolean skip = false;	// skip this instruction in matching
 		private boolean skipFirstTextToken = false;	// skip the first text token
@@ -70,9 +76,9 @@ public class CompareTemplateOutputHandler implements
 		 */
 		ParseInstruction(LicenseTemplateRule rule, String text, ParseInstruction parent) {
 			this.rule = rule;
-			this.text = text;
 			this.subInstructions = new ArrayList<>();
 			this.parent = parent;
+			setText(text);
 		}
 
 		/**
@@ -151,6 +157,34 @@ public class CompareTemplateOutputHandler implements
 		 */
 		public void setText(String text) {
 			this.text = text;
+			if (text == null) {
+				this.textTokens = null;
+				this.searchTokens = null;
+			} else {
+				this.textTokens = LicenseTextHelper.tokenizeLicenseText(text, new HashMap<>());
+				this.searchTokens = textTokens.length > MAX_NEXT_NORMAL_TEXT_SEARCH_LENGTH ?
+						Arrays.copyOf(textTokens, MAX_NEXT_NORMAL_TEXT_SEARCH_LENGTH) : textTokens;
+			}
+		}
+
+		/**
+		 * @return the normalized tokens for the text of this instruction or {@code null} if there is no text
+		 */
+		public String[] getTextTokens() {
+			return textTokens;
+		}
+
+		/**
+		 * Reset any state retained from a previous match for this instruction and all sub-instructions
+		 * so that the instruction tree can be matched against another compare text
+		 */
+		void resetMatchState() {
+			this.skip = false;
+			this.skipFirstTextToken = false;
+			this.lastOptionalDifference = null;
+			for (ParseInstruction sub:subInstructions) {
+				sub.resetMatchState();
+			}
 		}
 
 		/**
@@ -280,12 +314,12 @@ public class CompareTemplateOutputHandler implements
 			if (this.skip) {
 				return startToken;
 			}
+			checkDeadline();
 			int nextToken = startToken;
 			if (this.rule == null) {
 				if (this.text != null) {
-					Map<Integer, LineColumn> textLocations = new HashMap<>();
-					String[] textTokens = LicenseTextHelper.tokenizeLicenseText(text, textLocations);
-					if (this.skipFirstTextToken) {
+					String[] textTokens = this.textTokens;
+					if (this.skipFirstTextToken && textTokens.length > 0) {
 						textTokens = Arrays.copyOfRange(textTokens, 1, textTokens.length);
 					}
 					nextToken = compareText(textTokens, matchTokens, nextToken, this);
@@ -315,7 +349,7 @@ public class CompareTemplateOutputHandler implements
 				if (this.onlyText() || this.parent == null) {
 					// optimization, don't go through the effort to subset the text
 					for (ParseInstruction sub:subInstructions) {
-						DifferenceDescription optionalDifference = new DifferenceDescription();
+						DifferenceDescription optionalDifference = newDifferenceDescription();
 						nextToken = sub.match(matchTokens, nextToken, endToken, originalText, 
 								optionalDifference, tokenToLocation);
 						if (nextToken < 0) {
@@ -358,7 +392,8 @@ public class CompareTemplateOutputHandler implements
 								  String[] matchTokens, int startToken, String originalText,
 								  Map<Integer, LineColumn> tokenToLocation, boolean ignoreOptionalDifferences) throws LicenseParserException {
 			for (int matchingStartToken:matchingStartTokens) {
-				DifferenceDescription matchDifferences = new DifferenceDescription();
+				checkDeadline();
+				DifferenceDescription matchDifferences = newDifferenceDescription();
 				int matchLocation = startToken;
 				for (ParseInstruction sub:subInstructions) {
 					matchLocation = sub.match(matchTokens, matchLocation, matchingStartToken-1, originalText, 
@@ -423,12 +458,13 @@ public class CompareTemplateOutputHandler implements
 			int nextMatchingStart = startToken;
 			// Go through the preceding optional rules.  If there is enough token matches, add it to the result list
 			for (int optionalSub:leadingOptionalSubInstructions) {
-				DifferenceDescription tempDiffDescription = new DifferenceDescription();
+				DifferenceDescription tempDiffDescription = newDifferenceDescription();
 				int nextOptMatchingStart = nextMatchingStart;
 				int optTokenAfterMatch = subInstructions.get(optionalSub).match(matchTokens, nextOptMatchingStart, endToken, originalText, tempDiffDescription, tokenToLocation, true);
 				while (optTokenAfterMatch <= nextOptMatchingStart && -optTokenAfterMatch <= endToken 
 						&& !tempDiffDescription.differenceFound && nextOptMatchingStart <= endToken) {
 					// while we didn't find a match
+					checkDeadline();
 					nextOptMatchingStart++;
 					optTokenAfterMatch = subInstructions.get(optionalSub).match(matchTokens, nextOptMatchingStart, endToken, originalText, tempDiffDescription, tokenToLocation, true);
 				}
@@ -448,17 +484,17 @@ public class CompareTemplateOutputHandler implements
 				return retval;
 			}
 			
-			Map<Integer, LineColumn> normalTextLocations = new HashMap<>();
-			String[] textTokens = LicenseTextHelper.tokenizeLicenseText(subInstructions.get(firstNormalTextIndex).getText(), normalTextLocations);
-			if (textTokens.length > MAX_NEXT_NORMAL_TEXT_SEARCH_LENGTH) {
-				textTokens = Arrays.copyOf(textTokens, MAX_NEXT_NORMAL_TEXT_SEARCH_LENGTH);
-			}
+			String[] textTokens = subInstructions.get(firstNormalTextIndex).searchTokens;
 
 			int tokenAfterMatch = compareText(textTokens, matchTokens, nextMatchingStart, null);
 			boolean foundEnoughTokens = false;
+			AnchorIndex anchorIndex = getAnchorIndex(matchTokens);
 			while (!foundEnoughTokens && nextMatchingStart <= endToken && !differences.differenceFound) {
-				while (tokenAfterMatch < 0 && -tokenAfterMatch <= endToken) {			
-					nextMatchingStart = nextMatchingStart + 1;
+				checkDeadline();
+				while (tokenAfterMatch < 0 && -tokenAfterMatch <= endToken) {
+					// skip over the start tokens which can not match the text
+					checkDeadline();
+					nextMatchingStart = anchorIndex.nextCandidate(textTokens, nextMatchingStart + 1, endToken);
 					tokenAfterMatch = compareText(textTokens, matchTokens, nextMatchingStart, null);
 				}
 				if (tokenAfterMatch < 0) {
@@ -479,7 +515,7 @@ public class CompareTemplateOutputHandler implements
 					foundEnoughTokens = true;
 				} else {
 					// Not enough text tokens, we need to make sure everything matches beyond this point
-					DifferenceDescription tempDiffDescription = new DifferenceDescription();
+					DifferenceDescription tempDiffDescription = newDifferenceDescription();
 					int nextCheckToken = subInstructions.get(firstNormalTextIndex).match(matchTokens, nextMatchingStart, endToken, originalText, tempDiffDescription, tokenToLocation, true);
 					int nextCheckSubInstruction = firstNormalTextIndex + 1;
 					while (nextCheckToken > 0 &&
@@ -537,11 +573,12 @@ public class CompareTemplateOutputHandler implements
 			if (differences.isDifferenceFound()) {
 				return -1;
 			}
+			Pattern matchPattern = getMatchPattern();
 			for (int matchingStartToken:matchingStartTokens) {
-				String compareText = LicenseCompareHelper.locateOriginalText(originalText, startToken, matchingStartToken-1, tokenToLocation, matchTokens);
-				Pattern matchPattern = Pattern.compile(rule.getMatch(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-				Matcher matcher = matchPattern.matcher(compareText);
-                if (matcher.find() && matcher.start() <= 0) {
+				checkDeadline();
+				String compareText = locateOriginalText(originalText, startToken, matchingStartToken-1, tokenToLocation, matchTokens);
+				Matcher matcher = matchPattern.matcher(deadlineNanos == NO_DEADLINE ? compareText : new DeadlineCharSequence(compareText));
+                if (matcher.lookingAt()) {
                     int numMatched = numTokensMatched(compareText, matcher.end());
                     return startToken + numMatched;
                 }
@@ -552,6 +589,20 @@ public class CompareTemplateOutputHandler implements
 			return -1;
 		}
 
+		/**
+		 * The pattern is compiled on first use and retained for later matches.  It is recompiled only if the
+		 * match for the rule has changed (e.g. when adjacent variable rules are combined).
+		 *
+		 * @return compiled pattern for the match of the variable rule
+		 */
+		private Pattern getMatchPattern() {
+			String match = rule.getMatch();
+			if (matchPattern == null || !matchPattern.pattern().equals(match)) {
+				matchPattern = Pattern.compile(match, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+			}
+			return matchPattern;
+		}
+
 		/**
 		 * Retrieve the difference description for the last optional rule that did not match
 		 *
@@ -766,6 +817,141 @@ public class CompareTemplateOutputHandler implements
 		}
 	}
 	
+	/**
+	 * Index of the positions of equivalent tokens in the compare text
+	 * <p>
+	 * Used to find the text following a variable or optional rule.  Rather than trying a text compare at every
+	 * token position, only the positions where the first token of the text (or the first token after skipping
+	 * skippable tokens) is found are compared.  All other positions would fail the compare on the first token.
+	 */
+	static class AnchorIndex {
+		private static final int[] NO_POSITIONS = new int[0];
+
+		final String[] tokens;
+		private final Map<String, int[]> positionsByKey = new HashMap<>();
+		private final boolean[] skippable;
+		private final int[] nextNonSkippable;	// index of the first non-skippable token at or after the index
+		private final int[] previousNonSkippable;	// index of the last non-skippable token before the index or -1
+
+		/**
+		 * @param tokens tokens to index
+		 */
+		AnchorIndex(String[] tokens) {
+			this.tokens = tokens;
+			Map<String, List<Integer>> positions = new HashMap<>();
+			skippable = new boolean[tokens.length];
+			for (int i = 0; i < tokens.length; i++) {
+				positions.computeIfAbsent(LicenseTokens.tokenKey(tokens[i]), k -> new ArrayList<>()).add(i);
+				skippable[i] = LicenseTextHelper.canSkip(tokens[i]);
+			}
+			for (Map.Entry<String, List<Integer>> entry:positions.entrySet()) {
+				int[] tokenPositions = new int[entry.getValue().size()];
+				for (int i = 0; i < tokenPositions.length; i++) {
+					tokenPositions[i] = entry.getValue().get(i);
+				}
+				positionsByKey.put(entry.getKey(), tokenPositions);
+			}
+			nextNonSkippable = new int[tokens.length + 1];
+			nextNonSkippable[tokens.length] = tokens.length;
+			for (int i = tokens.length - 1; i >= 0; i--) {
+				nextNonSkippable[i] = skippable[i] ? nextNonSkippable[i + 1] : i;
+			}
+			previousNonSkippable = new int[tokens.length + 1];
+			previousNonSkippable[0] = -1;
+			for (int i = 1; i <= tokens.length; i++) {
+				previousNonSkippable[i] = skippable[i - 1] ? previousNonSkippable[i - 1] : i - 1;
+			}
+		}
+
+		/**
+		 * @param token token
+		 * @return sorted positions of the tokens equivalent to the token
+		 */
+		private int[] positionsOf(String token) {
+			int[] retval = positionsByKey.get(LicenseTokens.tokenKey(token));
+			return retval == null ? NO_POSITIONS : retval;
+		}
+
+		/**
+		 * @param positions sorted positions
+		 * @param start minimum position
+		 * @return index in positions of the first position at or after start
+		 */
+		private static int firstIndexAtOrAfter(int[] positions, int start) {
+			int index = Arrays.binarySearch(positions, start);
+			return index >= 0 ? index : -index - 1;
+		}
+
+		/**
+		 * Find the first start token at or after <code>start</code> where comparing the text tokens could either
+		 * match or fail after <code>endToken</code>.  Comparing at any token between <code>start</code> and the
+		 * returned value fails at or before <code>endToken</code>.
+		 *
+		 * @param textTokens tokens of the text to find
+		 * @param start first start token to consider
+		 * @param endToken last token of the search
+		 * @return the next start token to compare
+		 */
+		int nextCandidate(String[] textTokens, int start, int endToken) {
+			if (textTokens.length == 0 || start >= tokens.length) {
+				return start;
+			}
+			int firstNonSkippableText = 0;
+			while (firstNonSkippableText < textTokens.length && LicenseTextHelper.canSkip(textTokens[firstNonSkippableText])) {
+				firstNonSkippableText++;
+			}
+			if (firstNonSkippableText >= textTokens.length) {
+				return start;
+			}
+			// the first text token matches the token at the start
+			int retval = Integer.MAX_VALUE;
+			int[] firstPositions = positionsOf(textTokens[0]);
+			int index = firstIndexAtOrAfter(firstPositions, start);
+			if (index < firstPositions.length) {
+				retval = firstPositions[index];
+			}
+			// the first non-skippable text token matches the first non-skippable token after the start
+			int firstNonSkippable = nextNonSkippable[start];
+			int[] nonSkippablePositions = positionsOf(textTokens[firstNonSkippableText]);
+			for (index = firstIndexAtOrAfter(nonSkippablePositions, firstNonSkippable);
+					index < nonSkippablePositions.length; index++) {
+				int position = nonSkippablePositions[index];
+				if (!skippable[position]) {
+					retval = Math.min(retval, position == firstNonSkippable ? start : previousNonSkippable[position] + 1);
+					break;
+				}
+			}
+			// the compare would fail after the end token since there are only skippable tokens up to the end token
+			int end = Math.min(Math.max(endToken, 0), tokens.length);
+			retval = Math.min(retval, Math.max(start, previousNonSkippable[end] + 1));
+			return retval;
+		}
+	}
+
+	/**
+	 * Text to compare which is normalized and tokenized once so that it can be compared to many templates
+	 */
+	public static class NormalizedText {
+		private final String text;
+		private final String[] tokens;
+		private final Map<Integer, LineColumn> tokenToLocation = new HashMap<>();
+
+		/**
+		 * @param compareText text to compare
+		 */
+		public NormalizedText(String compareText) {
+			this.text = normalizeCompareText(compareText);
+			this.tokens = LicenseTextHelper.tokenizeLicenseText(this.text, tokenToLocation);
+		}
+
+		/**
+		 * @return the normalized text
+		 */
+		public String getText() {
+			return text;
+		}
+	}
+
 	/**
 	 * Information about any difference found
 	 */
@@ -774,6 +960,9 @@ public class CompareTemplateOutputHandler implements
 		private boolean differenceFound;
 		private String differenceMessage;
 		private List<LineColumn> differences;
+		private final boolean recordDetails;	// if false, only record whether a difference was found
+		private boolean timedOut = false;
+		private boolean textTooLarge = false;
 		
 		/**
 		 * Creates a difference description
@@ -786,6 +975,7 @@ public class CompareTemplateOutputHandler implements
 			this.differenceFound = differenceFound;
 			this.differenceMessage = differenceMessage;
 			this.differences = differences;
+			this.recordDetails = true;
 		}
 
 		/**
@@ -795,6 +985,63 @@ public class CompareTemplateOutputHandler implements
 			this.differenceFound = false;
 			this.differenceMessage = "No difference found";
 			this.differences = new ArrayList<>();
+			this.recordDetails = true;
+		}
+
+		/**
+		 * Creates a difference description which only records if a difference is found - the difference
+		 * message and locations are not recorded
+		 *
+		 * @param recordDetails if true, record the difference message and locations
+		 */
+		private DifferenceDescription(boolean recordDetails) {
+			this.differenceFound = false;
+			this.differenceMessage = null;
+			this.differences = Collections.emptyList();
+			this.recordDetails = recordDetails;
+		}
+
+		/**
+		 * @param timeoutMillis time allowed for the comparison in milliseconds
+		 * @return a difference description for a comparison which did not complete in the time allowed
+		 */
+		static DifferenceDescription timedOut(long timeoutMillis) {
+			DifferenceDescription retval = new DifferenceDescription(true,
+					"Comparison did not complete within " + timeoutMillis + " milliseconds", new ArrayList<>());
+			retval.timedOut = true;
+			return retval;
+		}
+
+		/**
+		 * @param maxLength maximum number of characters which can be compared
+		 * @return a difference description for a text which was not compared because it is too large
+		 */
+		static DifferenceDescription textTooLarge(int maxLength) {
+			DifferenceDescription retval = new DifferenceDescription(true, "Text is longer than the maximum of " + maxLength +
+					" characters which can be compared to a template", new ArrayList<>());
+			retval.textTooLarge = true;
+			return retval;
+		}
+
+		/**
+		 * Check whether the text was not compared because it is longer than
+		 * {@link LicenseCompareHelper#getMaxCompareTextLength()}.  If the text is too large,
+		 * {@link #isDifferenceFound()} is also true but the text was not compared to the template.
+		 *
+		 * @return {@code true} if the text was too large to compare; {@code false} otherwise.
+		 */
+		public boolean isTextTooLarge() {
+			return textTooLarge;
+		}
+
+		/**
+		 * Check whether the comparison was stopped before it completed because the time allowed was exceeded.  If
+		 * the comparison timed out, {@link #isDifferenceFound()} is also true but the text may match.
+		 *
+		 * @return {@code true} if the comparison timed out; {@code false} otherwise.
+		 */
+		public boolean isTimedOut() {
+			return timedOut;
 		}
 
 		/**
@@ -862,6 +1109,10 @@ public class CompareTemplateOutputHandler implements
 		 */
 		public void addDifference(LineColumn location, String token, String msg, String text, 
 				LicenseTemplateRule rule, DifferenceDescription lastOptionalDifference) {
+			if (!recordDetails) {
+				this.differenceFound = true;
+				return;
+			}
 			if (token == null) {
 				token = "";
 			}
@@ -906,6 +1157,12 @@ public class CompareTemplateOutputHandler implements
 	DifferenceDescription differences = new DifferenceDescription();
 	ParseInstruction currentOptionalInstruction = null;
 	boolean parsingComplete = false;
+	private String lineOffsetsText = null;	// text for which the line offsets were computed
+	private int[] lineOffsets = null;	// character offset of the start of each line in lineOffsetsText
+	private AnchorIndex anchorIndex = null;	// index of the tokens currently being matched
+	private boolean recordDifferenceDetails = true;	// if false, the current match only determines if the text matches
+	private long deadlineNanos = NO_DEADLINE;	// System.nanoTime() after which the current match is stopped
+	private int deadlineCheckCountdown = DEADLINE_CHECK_INTERVAL;
 
 	/**
 	 * Construct a new {@link CompareTemplateOutputHandler} with the specified text to compare
@@ -918,11 +1175,108 @@ public class CompareTemplateOutputHandler implements
 	 * @throws IOException This is not to be expected since we are using StringReaders
 	 */
 	public CompareTemplateOutputHandler(String compareText) throws IOException {
-		this.compareText = LicenseTextHelper.normalizeText(
-				LicenseTextHelper.replaceMultWord(LicenseTextHelper.replaceSpaceComma(compareText)));
+		this.compareText = normalizeCompareText(compareText);
 		this.compareTokens = LicenseTextHelper.tokenizeLicenseText(this.compareText, tokenToLocation);
 	}
+
+	/**
+	 * Construct a new {@link CompareTemplateOutputHandler} which only builds the parse instructions for a template
+	 * <p>
+	 * Once the template has been parsed, the same handler can be used to compare any number of texts
+	 * using {@link #compare(String)} without re-parsing or re-tokenizing the template.
+	 */
+	public CompareTemplateOutputHandler() {
+		this.compareText = null;
+		this.compareTokens = null;
+	}
+
+	/**
+	 * @param compareText text to compare
+	 * @return text normalized in the same way as the template text
+	 */
+	private static String normalizeCompareText(String compareText) {
+		return LicenseTextHelper.normalizeText(
+				LicenseTextHelper.replaceMultWord(LicenseTextHelper.replaceSpaceComma(compareText)));
+	}
 	
+	/**
+	 * @param matchTokens tokens being matched
+	 * @return index of the positions of the match tokens, created once for each array of match tokens
+	 */
+	private AnchorIndex getAnchorIndex(String[] matchTokens) {
+		if (anchorIndex == null || anchorIndex.tokens != matchTokens) {
+			anchorIndex = new AnchorIndex(matchTokens);
+		}
+		return anchorIndex;
+	}
+
+	/**
+	 * Locate the original text between two tokens using the character offsets of the lines in the text
+	 * <p>
+	 * Produces the same result as {@link LicenseCompareHelper#locateOriginalText(String, int, int, Map, String[])}
+	 * without re-reading the text line by line for every call.  The line offsets are computed once per text.
+	 *
+	 * @param originalText Original text used go generate the tokens
+	 * @param startToken index of the first token
+	 * @param endToken index of the last token
+	 * @param tokenToLocation Map of token index to line/column where the token was found in the original text
+	 * @param tokens tokens for the original text
+	 * @return the original text between the start and end tokens
+	 */
+	String locateOriginalText(String originalText, int startToken, int endToken,
+			Map<Integer, LineColumn> tokenToLocation, String[] tokens) {
+		if (startToken > endToken) {
+			return "";
+		}
+		LineColumn start = tokenToLocation.get(startToken);
+		if (start == null) {
+			return "";
+		}
+		if (originalText.indexOf('\r') >= 0) {
+			// line breaks other than a line feed are converted by the line reader
+			return LicenseCompareHelper.locateOriginalText(originalText, startToken, endToken, tokenToLocation, tokens);
+		}
+		if (originalText != lineOffsetsText) {
+			lineOffsets = computeLineOffsets(originalText);
+			lineOffsetsText = originalText;
+		}
+		if (start.getLine() > lineOffsets.length) {
+			return "";
+		}
+		int startOffset = lineOffsets[start.getLine()-1] + start.getColumn();
+		LineColumn end = tokenToLocation.get(endToken);
+		if (end == null) {
+			// read until the end of the text - the lines are concatenated without separators
+			String retval = originalText.substring(startOffset);
+			return retval.indexOf('\n') < 0 ? retval : retval.replace("\n", "");
+		}
+		if (end.getLine() > lineOffsets.length || end.getColumn() + end.getLen() <= 0) {
+			return LicenseCompareHelper.locateOriginalText(originalText, startToken, endToken, tokenToLocation, tokens);
+		}
+		return originalText.substring(startOffset, lineOffsets[end.getLine()-1] + end.getColumn() + end.getLen());
+	}
+
+	/**
+	 * @param text text without carriage returns
+	 * @return the character offset for the start of each line as read by a line reader
+	 */
+	private static int[] computeLineOffsets(String text) {
+		if (text.isEmpty()) {
+			return new int[0];
+		}
+		List<Integer> offsets = new ArrayList<>();
+		offsets.add(0);
+		int lastStart = text.length() - 1;
+		for (int i = text.indexOf('\n'); i >= 0 && i < lastStart; i = text.indexOf('\n', i + 1)) {
+			offsets.add(i + 1);
+		}
+		int[] retval = new int[offsets.size()];
+		for (int i = 0; i < retval.length; i++) {
+			retval[i] = offsets.get(i);
+		}
+		return retval;
+	}
+
 	/**
 	 * Compares the given text tokens against the match tokens starting from a specific token index
 	 *
@@ -938,6 +1292,7 @@ public class CompareTemplateOutputHandler implements
 		if (textTokens.length == 0) {
 			return startToken;
 		}
+		checkDeadline();
 		int textTokenCounter = 0;
 		String nextTextToken = LicenseTextHelper.getTokenAt(textTokens, textTokenCounter++);
 		int matchTokenCounter = startToken;
@@ -969,7 +1324,7 @@ public class CompareTemplateOutputHandler implements
 				if (LicenseTextHelper.tokensEquivalent(nextMatchToken, nextTextToken)) {
 					nextTextToken = LicenseTextHelper.getTokenAt(textTokens, textTokenCounter++);
 					if (nextTextToken != null) {
-						nextMatchToken = LicenseTextHelper.getTokenAt(compareTokens, matchTokenCounter++);
+						nextMatchToken = LicenseTextHelper.getTokenAt(matchTokens, matchTokenCounter++);
 					}	
 				} else {
 					if (textTokenCounter == textTokens.length &&
@@ -1086,15 +1441,204 @@ public class CompareTemplateOutputHandler implements
 	 */
 	@Override
 	public void completeParsing() throws LicenseParserException {
-		int nextTokenIndex = this.topLevelInstruction.match(compareTokens, 0, compareTokens.length-1, compareText, differences, tokenToLocation);
-		if (nextTokenIndex > 0 && nextTokenIndex < compareTokens.length) {
-			this.differences.addDifference(tokenToLocation.get(nextTokenIndex), 
-					LicenseTextHelper.getTokenAt(compareTokens, nextTokenIndex), 
-					"Additional text found after the end of the expected license text", null, null, null);
+		if (compareTokens != null) {
+			synchronized (topLevelInstruction) {
+				matchInstructions(compareTokens, compareText, tokenToLocation, differences);
+			}
 		}
 		parsingComplete = true;
 	}
 
+	/**
+	 * Compare text against the already parsed template
+	 * <p>
+	 * The parse instructions, including the tokenized template text, are reused between comparisons.
+	 *
+	 * @param text text to compare
+	 * @return details on the differences found
+	 * @throws LicenseParserException if the template has not been completely parsed or on license parsing errors
+	 */
+	public DifferenceDescription compare(String text) throws LicenseParserException {
+		return compare(new NormalizedText(text));
+	}
+
+	/**
+	 * Compare normalized text against the already parsed template
+	 *
+	 * @param text normalized text to compare
+	 * @return details on the differences found
+	 * @throws LicenseParserException if the template has not been completely parsed or on license parsing errors
+	 */
+	public DifferenceDescription compare(NormalizedText text) throws LicenseParserException {
+		return compare(text, true);
+	}
+
+	/**
+	 * Determine if normalized text matches the already parsed template
+	 * <p>
+	 * No difference messages or locations are created, which makes this faster than {@link #compare(NormalizedText)}
+	 * when only the result is needed.
+	 *
+	 * @param text normalized text to compare
+	 * @return true if the text matches the template
+	 * @throws LicenseParserException if the template has not been completely parsed or on license parsing errors
+	 */
+	public boolean isMatch(NormalizedText text) throws LicenseParserException {
+		return !compare(text, false).isDifferenceFound();
+	}
+
+	/**
+	 * Compare normalized text against the already parsed template, stopping if the comparison takes too long
+	 *
+	 * @param text normalized text to compare
+	 * @param timeoutMillis maximum time for the comparison in milliseconds
+	 * @return details on the differences found - {@link DifferenceDescription#isTimedOut()} is true if the
+	 * comparison did not complete in time
+	 * @throws LicenseParserException if the template has not been completely parsed or on license parsing errors
+	 */
+	public DifferenceDescription compare(NormalizedText text, long timeoutMillis) throws LicenseParserException {
+		return compare(text, true, timeoutMillis);
+	}
+
+	/**
+	 * Determine if normalized text matches the already parsed template, stopping if the comparison takes too long
+	 * <p>
+	 * No difference messages or locations are created.
+	 *
+	 * @param text normalized text to compare
+	 * @param timeoutMillis maximum time for the comparison in milliseconds
+	 * @return result indicating if a difference was found - {@link DifferenceDescription#isTimedOut()} is true if
+	 * the comparison did not complete in time
+	 * @throws LicenseParserException if the template has not been completely parsed or on license parsing errors
+	 */
+	public DifferenceDescription compareWithoutDetails(NormalizedText text, long timeoutMillis) throws LicenseParserException {
+		return compare(text, false, timeoutMillis);
+	}
+
+	/**
+	 * @param text normalized text to compare
+	 * @param recordDetails if true, record the difference messages and locations
+	 * @return the differences found
+	 * @throws LicenseParserException if the template has not been completely parsed or on license parsing errors
+	 */
+	private DifferenceDescription compare(NormalizedText text, boolean recordDetails) throws LicenseParserException {
+		return compare(text, recordDetails, -1);
+	}
+
+	/**
+	 * @param text normalized text to compare
+	 * @param recordDetails if true, record the difference messages and locations
+	 * @param timeoutMillis maximum time for the comparison in milliseconds - negative for no limit
+	 * @return the differences found
+	 * @throws LicenseParserException if the template has not been completely parsed or on license parsing errors
+	 */
+	private DifferenceDescription compare(NormalizedText text, boolean recordDetails, long timeoutMillis) throws LicenseParserException {
+		if (!parsingComplete) {
+			throw new LicenseParserException("Compare was called prior to completing the parsing.  The method <code>competeParsing()</code> most be called prior to calling <code>compare()</code>");
+		}
+		DifferenceDescription result = recordDetails ? new DifferenceDescription() : new DifferenceDescription(false);
+		synchronized (topLevelInstruction) {
+			topLevelInstruction.resetMatchState();
+			recordDifferenceDetails = recordDetails;
+			deadlineNanos = timeoutMillis < 0 ? NO_DEADLINE : System.nanoTime() + timeoutMillis * 1000000L;
+			deadlineCheckCountdown = 0;
+			try {
+				matchInstructions(text.tokens, text.text, text.tokenToLocation, result);
+			} catch (CompareTimeoutException e) {
+				return DifferenceDescription.timedOut(timeoutMillis);
+			} finally {
+				recordDifferenceDetails = true;
+				deadlineNanos = NO_DEADLINE;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Stop the current match if the deadline has passed - the clock is only read every
+	 * {@link #DEADLINE_CHECK_INTERVAL} calls
+	 *
+	 * @throws CompareTimeoutException if the deadline for the current match has passed
+	 */
+	private void checkDeadline() {
+		if (deadlineNanos != NO_DEADLINE && --deadlineCheckCountdown <= 0) {
+			deadlineCheckCountdown = DEADLINE_CHECK_INTERVAL;
+			if (System.nanoTime() - deadlineNanos > 0) {
+				throw new CompareTimeoutException();
+			}
+		}
+	}
+
+	/**
+	 * Thrown within the match when the deadline has passed - always caught by the compare
+	 */
+	private static class CompareTimeoutException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		CompareTimeoutException() {
+			super("Compare timed out", null, false, false);
+		}
+	}
+
+	/**
+	 * Character sequence which checks the deadline as characters are read so that a variable rule
+	 * regular expression which backtracks heavily is stopped
+	 */
+	private class DeadlineCharSequence implements CharSequence {
+		private final CharSequence text;
+
+		DeadlineCharSequence(CharSequence text) {
+			this.text = text;
+		}
+
+		@Override
+		public int length() {
+			return text.length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			checkDeadline();
+			return text.charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new DeadlineCharSequence(text.subSequence(start, end));
+		}
+
+		@Override
+		public String toString() {
+			return text.toString();
+		}
+	}
+
+	/**
+	 * @return a new difference description which records details only if the current match records details
+	 */
+	private DifferenceDescription newDifferenceDescription() {
+		return recordDifferenceDetails ? new DifferenceDescription() : new DifferenceDescription(false);
+	}
+
+	/**
+	 * Match the parse instructions against tokenized text
+	 *
+	 * @param tokens tokens for the text to match
+	 * @param text normalized text used to create the tokens
+	 * @param locations Map of token index to line/column where the token was found in the text
+	 * @param result description of the differences found to be updated
+	 * @throws LicenseParserException on license parsing errors
+	 */
+	private void matchInstructions(String[] tokens, String text, Map<Integer, LineColumn> locations,
+			DifferenceDescription result) throws LicenseParserException {
+		int nextTokenIndex = this.topLevelInstruction.match(tokens, 0, tokens.length-1, text, result, locations);
+		if (nextTokenIndex > 0 && nextTokenIndex < tokens.length) {
+			result.addDifference(locations.get(nextTokenIndex), 
+					LicenseTextHelper.getTokenAt(tokens, nextTokenIndex), 
+					"Additional text found after the end of the expected license text", null, null, null);
+		}
+	}
+
 	/**
 	 * Compares the text against the compareText
 	 *
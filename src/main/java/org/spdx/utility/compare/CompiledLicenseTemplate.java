@@ -0,0 +1,237 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.model.v3_0_1.expandedlicensing.License;
+import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicenseException;
+import org.spdx.licenseTemplate.LicenseParserException;
+import org.spdx.utility.compare.CompareTemplateOutputHandler.DifferenceDescription;
+import org.spdx.utility.compare.CompareTemplateOutputHandler.NormalizedText;
+
+/**
+ * A license or exception template parsed once for any number of comparisons
+ * <p>
+ * Holds the parse instructions and tokenized template text used for the full comparison along with the
+ * regular expressions and quick match text used to find the template within a larger text.
+ * <p>
+ * Compiled templates for the SPDX listed licenses and exceptions are cached by
+ * {@link org.spdx.library.ListedLicenses}.  A compiled template may be shared between threads - comparisons
+ * against the same template are serialized.
+ *
+ * @author Gary O'Neall
+ */
+public class CompiledLicenseTemplate {
+
+	private final String template;
+	private final TemplateRegexMatcher regexMatcher;
+	private final CompareTemplateOutputHandler compareHandler;
+	private FilteredTextViews filteredTextViews = null;	// created on first use
+	private TemplateWithinTextScanner withinTextScanner = null;	// created on first use
+
+	/**
+	 * @param template license or exception template in the standard template format
+	 * @throws SpdxCompareException on invalid templates
+	 */
+	public CompiledLicenseTemplate(String template) throws SpdxCompareException {
+		this.template = template;
+		this.regexMatcher = new TemplateRegexMatcher(template);
+		this.compareHandler = regexMatcher.getCompareHandler();
+	}
+
+	/**
+	 * @param license license to compile
+	 * @return the compiled standard license template, or the license text if the license has no template
+	 * @throws SpdxCompareException on invalid templates
+	 * @throws InvalidSPDXAnalysisException on errors reading properties from the SPDX model
+	 */
+	public static CompiledLicenseTemplate compile(License license) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		return new CompiledLicenseTemplate(LicenseCompareHelper.getLicenseTemplate(license));
+	}
+
+	/**
+	 * @param exception exception to compile
+	 * @return the compiled standard exception template, or the exception text if the exception has no template
+	 * @throws SpdxCompareException on invalid templates
+	 * @throws InvalidSPDXAnalysisException on errors reading properties from the SPDX model
+	 */
+	public static CompiledLicenseTemplate compile(ListedLicenseException exception) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		return new CompiledLicenseTemplate(LicenseCompareHelper.getExceptionTemplate(exception));
+	}
+
+	/**
+	 * @return the template used to create the compiled template
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * The views are created from a single parse of the template on first use and retained with the compiled template
+	 * @return the filtered text of the template for all combinations of var and optional text handling
+	 * @throws SpdxCompareException on invalid templates
+	 */
+	public synchronized FilteredTextViews getFilteredTextViews() throws SpdxCompareException {
+		if (filteredTextViews == null) {
+			filteredTextViews = new FilteredTextViews(template);
+		}
+		return filteredTextViews;
+	}
+
+	/**
+	 * Compare text to the template using the SPDX matching guidelines
+	 * @param compareText text to compare
+	 * @return any differences found
+	 * @throws SpdxCompareException on comparison errors
+	 */
+	public DifferenceDescription compare(String compareText) throws SpdxCompareException {
+		if (LicenseCompareHelper.isCompareTextTooLarge(compareText)) {
+			return LicenseCompareHelper.textTooLargeDifference();
+		}
+		try {
+			return compareHandler.compare(LicenseCompareHelper.normalizeCompareText(compareText));
+		} catch (LicenseParserException e) {
+			throw new SpdxCompareException("Invalid template found during compare: "+e.getMessage(),e);
+		}
+	}
+
+	/**
+	 * Compare text to the template using the SPDX matching guidelines, stopping if the comparison takes too long
+	 * @param compareText text to compare
+	 * @param timeoutMillis maximum time for the comparison in milliseconds
+	 * @return any differences found - {@link DifferenceDescription#isTimedOut()} is true if the comparison did not
+	 * complete in time
+	 * @throws SpdxCompareException on comparison errors
+	 */
+	public DifferenceDescription compare(String compareText, long timeoutMillis) throws SpdxCompareException {
+		if (LicenseCompareHelper.isCompareTextTooLarge(compareText)) {
+			return LicenseCompareHelper.textTooLargeDifference();
+		}
+		try {
+			return compareHandler.compare(LicenseCompareHelper.normalizeCompareText(compareText), timeoutMillis);
+		} catch (LicenseParserException e) {
+			throw new SpdxCompareException("Invalid template found during compare: "+e.getMessage(),e);
+		}
+	}
+
+	/**
+	 * @param compareText text to compare
+	 * @return true if the text matches the template using the SPDX matching guidelines
+	 * @throws SpdxCompareException on comparison errors
+	 */
+	public boolean isMatch(String compareText) throws SpdxCompareException {
+		if (LicenseCompareHelper.isCompareTextTooLarge(compareText)) {
+			return false;
+		}
+		return isMatch(LicenseCompareHelper.normalizeCompareText(compareText));
+	}
+
+	/**
+	 * Compare text read from a reader to the template - reading stops once the text is longer than
+	 * {@link LicenseCompareHelper#getMaxCompareTextLength()}
+	 * @param reader reader for the text to compare - the reader is not closed
+	 * @return any differences found
+	 * @throws SpdxCompareException on comparison errors
+	 * @throws IOException on errors reading from the reader
+	 */
+	public DifferenceDescription compare(Reader reader) throws SpdxCompareException, IOException {
+		String compareText = LicenseCompareHelper.readCompareText(reader);
+		return compareText == null ? LicenseCompareHelper.textTooLargeDifference() : compare(compareText);
+	}
+
+	/**
+	 * Determine if text read from a reader matches the template - reading stops once the text is longer than
+	 * {@link LicenseCompareHelper#getMaxCompareTextLength()}
+	 * @param reader reader for the text to compare - the reader is not closed
+	 * @return true if the text matches the template using the SPDX matching guidelines
+	 * @throws SpdxCompareException on comparison errors
+	 * @throws IOException on errors reading from the reader
+	 */
+	public boolean isMatch(Reader reader) throws SpdxCompareException, IOException {
+		String compareText = LicenseCompareHelper.readCompareText(reader);
+		return compareText != null && isMatch(compareText);
+	}
+
+	/**
+	 * @param compareText text normalized by {@link LicenseCompareHelper#normalizeCompareText(String)}
+	 * @return true if the text matches the template
+	 * @throws SpdxCompareException on comparison errors
+	 */
+	boolean isMatch(NormalizedText compareText) throws SpdxCompareException {
+		try {
+			return compareHandler.isMatch(compareText);
+		} catch (LicenseParserException e) {
+			throw new SpdxCompareException("Invalid template found during compare: "+e.getMessage(),e);
+		}
+	}
+
+	/**
+	 * @param compareText text normalized by {@link LicenseCompareHelper#normalizeCompareText(String)}
+	 * @param timeoutMillis maximum time for the comparison in milliseconds
+	 * @return whether a difference was found or the comparison timed out - no difference details are recorded
+	 * @throws SpdxCompareException on comparison errors
+	 */
+	DifferenceDescription compareWithoutDetails(NormalizedText compareText, long timeoutMillis) throws SpdxCompareException {
+		try {
+			return compareHandler.compareWithoutDetails(compareText, timeoutMillis);
+		} catch (LicenseParserException e) {
+			throw new SpdxCompareException("Invalid template found during compare: "+e.getMessage(),e);
+		}
+	}
+
+	/**
+	 * @param text text to search
+	 * @return true if the template is found within the text (perhaps along with other text before and/or after)
+	 * @throws SpdxCompareException on comparison errors
+	 * @throws InvalidSPDXAnalysisException on errors normalizing the text
+	 */
+	public boolean isMatchWithinText(String text) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		return regexMatcher.isTemplateMatchWithinText(text);
+	}
+
+	/**
+	 * Search text read from a reader in windows so that the memory used does not depend on the size of the text
+	 * @param reader reader for the text to search - the reader is not closed
+	 * @return true if the template is found within the text (perhaps along with other text before and/or after)
+	 * @throws IOException on errors reading from the reader
+	 */
+	public boolean isMatchWithinText(Reader reader) throws IOException {
+		return !getWithinTextScanner().findMatchingIdsInReader(reader).isEmpty();
+	}
+
+	/**
+	 * @return a scanner for only this template
+	 */
+	private synchronized TemplateWithinTextScanner getWithinTextScanner() {
+		if (withinTextScanner == null) {
+			withinTextScanner = TemplateWithinTextScanner.fromCompiledTemplates(Collections.singletonMap(template, this));
+		}
+		return withinTextScanner;
+	}
+
+	/**
+	 * @return the regular expression matcher for the template
+	 */
+	TemplateRegexMatcher getRegexMatcher() {
+		return regexMatcher;
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
+import org.spdx.licenseTemplate.LicenseTextHelper;
+
+/**
+ * Extracted licenses of a document with the license texts tokenized once and indexed by normalized text
+ * <p>
+ * Each license text is reduced to two keys using the same token normalization as
+ * {@link LicenseTextHelper#isLicenseTextEquivalent(String, String)}:
+ * <ul>
+ * <li>The text key - every normalized token and whether it can be skipped.  Texts with equal text keys
+ * are always equivalent, so identical texts are matched by hash without a text comparison.</li>
+ * <li>The near match key - the normalized tokens which can not be skipped.  Equivalent texts always have
+ * equal near match keys, so the full text comparison is only run between texts with equal near match keys.</li>
+ * </ul>
+ * The results are the same as comparing every pair of license texts.  An index is immutable once constructed
+ * and may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+class ExtractedLicenseTextIndex {
+
+	/**
+	 * Key for licenses with no text - only equivalent to licenses with no text or an empty text
+	 */
+	private static final List<String> NO_TEXT_KEY = Collections.singletonList(null);
+
+	private final ExtractedLicenseInfo[] licenses;
+	private final String[][] tokens;
+	private final List<String>[] textKeys;
+	private final List<String>[] nearMatchKeys;
+	/**
+	 * Positions of the licenses for each near match key
+	 */
+	private final Map<List<String>, List<Integer>> positionsByNearMatchKey = new HashMap<>();
+	/**
+	 * Positions of the licenses with no text or an empty text
+	 */
+	private final List<Integer> noOrEmptyTextPositions = new ArrayList<>();
+
+	/**
+	 * @param extractedLicenses licenses to index in the order they are to be matched
+	 * @throws InvalidSPDXAnalysisException on errors reading the license texts
+	 */
+	@SuppressWarnings("unchecked")
+	ExtractedLicenseTextIndex(Collection<ExtractedLicenseInfo> extractedLicenses) throws InvalidSPDXAnalysisException {
+		this.licenses = extractedLicenses.toArray(new ExtractedLicenseInfo[0]);
+		this.tokens = new String[licenses.length][];
+		this.textKeys = new List[licenses.length];
+		this.nearMatchKeys = new List[licenses.length];
+		for (int i = 0; i < licenses.length; i++) {
+			String text = licenses[i].getExtractedText();
+			List<String> nearMatchKey;
+			if (text == null || text.isEmpty()) {
+				noOrEmptyTextPositions.add(i);
+			}
+			if (text == null) {
+				textKeys[i] = NO_TEXT_KEY;
+				nearMatchKey = NO_TEXT_KEY;
+			} else {
+				tokens[i] = LicenseTextHelper.tokenizeLicenseText(text, new HashMap<>());
+				List<String> textKey = new ArrayList<>(tokens[i].length);
+				nearMatchKey = new ArrayList<>();
+				for (String token:tokens[i]) {
+					String normalized = LicenseTokens.tokenKey(token);
+					boolean skippable = LicenseTextHelper.canSkip(token);
+					textKey.add((skippable ? "s" : "t") + normalized);
+					// tokens normalized to a skippable token may be matched to a skipped token in the other text
+					if (!skippable && !LicenseTextHelper.canSkip(normalized)) {
+						nearMatchKey.add(normalized);
+					}
+				}
+				textKeys[i] = textKey;
+			}
+			nearMatchKeys[i] = nearMatchKey;
+			positionsByNearMatchKey.computeIfAbsent(nearMatchKey, k -> new ArrayList<>()).add(i);
+		}
+	}
+
+	/**
+	 * @return the number of licenses in the index
+	 */
+	int size() {
+		return licenses.length;
+	}
+
+	/**
+	 * @param position position of the license in the index
+	 * @return the license
+	 */
+	ExtractedLicenseInfo getLicense(int position) {
+		return licenses[position];
+	}
+
+	/**
+	 * @param position position of the license in the index
+	 * @return a key for the license text - licenses with equal keys have equivalent text
+	 */
+	List<String> getTextKey(int position) {
+		return textKeys[position];
+	}
+
+	/**
+	 * @param other index containing the license to match
+	 * @param position position of the license in the other index
+	 * @return licenses in this index with text equivalent to the license text in the other index in the
+	 * order of this index
+	 */
+	List<ExtractedLicenseInfo> findEquivalentLicenses(ExtractedLicenseTextIndex other, int position) {
+		List<ExtractedLicenseInfo> retval = new ArrayList<>();
+		List<String> textKey = other.textKeys[position];
+		if (textKey == NO_TEXT_KEY) {
+			for (int candidate:noOrEmptyTextPositions) {
+				retval.add(licenses[candidate]);
+			}
+			return retval;
+		}
+		List<Integer> candidates = positionsByNearMatchKey.getOrDefault(other.nearMatchKeys[position], Collections.emptyList());
+		if (other.tokens[position].length == 0 && other.noOrEmptyTextPositions.contains(position)) {
+			// an empty text is also equivalent to no text
+			TreeSet<Integer> withNoText = new TreeSet<>(candidates);
+			withNoText.addAll(positionsByNearMatchKey.getOrDefault(NO_TEXT_KEY, Collections.emptyList()));
+			candidates = new ArrayList<>(withNoText);
+		}
+		for (int candidate:candidates) {
+			if (textKeys[candidate] == NO_TEXT_KEY || textKeys[candidate].equals(textKey) ||
+					LicenseTextHelper.isLicenseTextEquivalent(other.tokens[position], tokens[candidate])) {
+				retval.add(licenses[candidate]);
+			}
+		}
+		return retval;
+	}
+}
@@ -27,6 +27,7 @@ import java.util.regex.Pattern;
 import org.spdx.licenseTemplate.ILicenseTemplateOutputHandler;
 import org.spdx.licenseTemplate.LicenseTemplateRule;
 import org.spdx.licenseTemplate.LicenseTextHelper;
+import org.spdx.licenseTemplate.LineColumn;
 
 /**
  * Filter the template output to create a list of strings filtering out optional and/or var text
@@ -77,6 +78,7 @@ public class FilterTemplateOutputHandler implements ILicenseTemplateOutputHandle
 	StringBuilder currentString = new StringBuilder();
 	private int optionalDepth = 0;	// depth of optional rules
 	private Map<Integer, List<String>> optionalTokens = new HashMap<>(); // map of optional dept to a list of tokens for the optional text
+	private final Map<Integer, LineColumn> unusedTokenLocations = new HashMap<>();	// token locations are not needed for the filtered text
 
 	/**
 	 * @param includeVarText if true, include the default variable text
@@ -111,7 +113,8 @@ public class FilterTemplateOutputHandler implements ILicenseTemplateOutputHandle
 			currentString.append(text);
 		} else if (OptionalTextHandling.REGEX_USING_TOKENS.equals(optionalTextHandling)) {
 			optionalTokens.get(optionalDepth).addAll(Arrays.asList(
-					LicenseTextHelper.tokenizeLicenseText(text, new HashMap<>())));
+					LicenseTextHelper.tokenizeLicenseText(text, unusedTokenLocations)));
+			unusedTokenLocations.clear();
 		}
 	}
 
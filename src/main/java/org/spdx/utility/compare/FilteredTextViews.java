@@ -0,0 +1,146 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.spdx.licenseTemplate.ILicenseTemplateOutputHandler;
+import org.spdx.licenseTemplate.LicenseParserException;
+import org.spdx.licenseTemplate.LicenseTemplateRule;
+import org.spdx.licenseTemplate.LicenseTemplateRuleException;
+import org.spdx.licenseTemplate.SpdxLicenseTemplateHelper;
+
+/**
+ * The filtered text of a license template for every combination of
+ * {@link FilterTemplateOutputHandler.VarTextHandling} and {@link FilterTemplateOutputHandler.OptionalTextHandling}
+ * <p>
+ * All of the filtered texts are created from a single parse of the template.  The views for the SPDX listed
+ * licenses and exceptions are retained with the compiled templates - see
+ * {@link CompiledLicenseTemplate#getFilteredTextViews()}.
+ * <p>
+ * The views are immutable and may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+@SuppressWarnings("deprecation")
+public class FilteredTextViews {
+
+	private final Map<FilterTemplateOutputHandler.VarTextHandling,
+			Map<FilterTemplateOutputHandler.OptionalTextHandling, List<String>>> views =
+			new EnumMap<>(FilterTemplateOutputHandler.VarTextHandling.class);
+
+	/**
+	 * @param licenseTemplate license template containing optional and var tags
+	 * @throws SpdxCompareException on invalid templates
+	 */
+	public FilteredTextViews(String licenseTemplate) throws SpdxCompareException {
+		final FilterTemplateOutputHandler[] handlers = new FilterTemplateOutputHandler[
+				FilterTemplateOutputHandler.VarTextHandling.values().length *
+				FilterTemplateOutputHandler.OptionalTextHandling.values().length];
+		for (FilterTemplateOutputHandler.VarTextHandling varTextHandling:FilterTemplateOutputHandler.VarTextHandling.values()) {
+			for (FilterTemplateOutputHandler.OptionalTextHandling optionalTextHandling:FilterTemplateOutputHandler.OptionalTextHandling.values()) {
+				handlers[index(varTextHandling, optionalTextHandling)] = new FilterTemplateOutputHandler(varTextHandling, optionalTextHandling);
+			}
+		}
+		try {
+			SpdxLicenseTemplateHelper.parseTemplate(licenseTemplate, new ILicenseTemplateOutputHandler() {
+
+				@Override
+				public void text(String text) {
+					for (FilterTemplateOutputHandler handler:handlers) {
+						handler.text(text);
+					}
+				}
+
+				@Override
+				public void variableRule(LicenseTemplateRule rule) {
+					for (FilterTemplateOutputHandler handler:handlers) {
+						handler.variableRule(rule);
+					}
+				}
+
+				@Override
+				public void beginOptional(LicenseTemplateRule rule) {
+					for (FilterTemplateOutputHandler handler:handlers) {
+						handler.beginOptional(rule);
+					}
+				}
+
+				@Override
+				public void endOptional(LicenseTemplateRule rule) {
+					for (FilterTemplateOutputHandler handler:handlers) {
+						handler.endOptional(rule);
+					}
+				}
+
+				@Override
+				public void completeParsing() throws LicenseParserException {
+					for (FilterTemplateOutputHandler handler:handlers) {
+						handler.completeParsing();
+					}
+				}
+			});
+		} catch (LicenseTemplateRuleException e) {
+			throw new SpdxCompareException("Invalid template rule found during filter: "+e.getMessage(),e);
+		} catch (LicenseParserException e) {
+			throw new SpdxCompareException("Invalid template found during filter: "+e.getMessage(),e);
+		}
+		for (FilterTemplateOutputHandler.VarTextHandling varTextHandling:FilterTemplateOutputHandler.VarTextHandling.values()) {
+			Map<FilterTemplateOutputHandler.OptionalTextHandling, List<String>> optionalViews =
+					new EnumMap<>(FilterTemplateOutputHandler.OptionalTextHandling.class);
+			for (FilterTemplateOutputHandler.OptionalTextHandling optionalTextHandling:FilterTemplateOutputHandler.OptionalTextHandling.values()) {
+				optionalViews.put(optionalTextHandling, Collections.unmodifiableList(
+						handlers[index(varTextHandling, optionalTextHandling)].getFilteredText()));
+			}
+			views.put(varTextHandling, optionalViews);
+		}
+	}
+
+	/**
+	 * @param varTextHandling var text handling
+	 * @param optionalTextHandling optional text handling
+	 * @return index of the handler for the combination
+	 */
+	private static int index(FilterTemplateOutputHandler.VarTextHandling varTextHandling,
+			FilterTemplateOutputHandler.OptionalTextHandling optionalTextHandling) {
+		return varTextHandling.ordinal() * FilterTemplateOutputHandler.OptionalTextHandling.values().length + optionalTextHandling.ordinal();
+	}
+
+	/**
+	 * @param varTextHandling include original, exclude, or include the regex (enclosed with "~~~") for "var" text
+	 * @param optionalTextHandling include optional text, exclude, or include a regex for the optional text
+	 * @return unmodifiable list of strings equal to
+	 * {@link LicenseCompareHelper#getNonOptionalLicenseText(String, FilterTemplateOutputHandler.VarTextHandling,
+	 * FilterTemplateOutputHandler.OptionalTextHandling)}
+	 */
+	public List<String> getFilteredText(FilterTemplateOutputHandler.VarTextHandling varTextHandling,
+			FilterTemplateOutputHandler.OptionalTextHandling optionalTextHandling) {
+		return views.get(varTextHandling).get(optionalTextHandling);
+	}
+
+	/**
+	 * @param varTextHandling include original, exclude, or include the regex (enclosed with "~~~") for "var" text
+	 * @return unmodifiable list of strings for all non-optional text
+	 */
+	public List<String> getNonOptionalText(FilterTemplateOutputHandler.VarTextHandling varTextHandling) {
+		return getFilteredText(varTextHandling, FilterTemplateOutputHandler.OptionalTextHandling.OMIT);
+	}
+}
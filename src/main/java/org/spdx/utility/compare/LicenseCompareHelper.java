@@ -19,8 +19,10 @@ package org.spdx.utility.compare;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -31,6 +33,7 @@ import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.spdx.Configuration;
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.ListedLicenses;
 import org.spdx.library.model.v2.SpdxConstantsCompatV2;
@@ -41,12 +44,14 @@ import org.spdx.library.model.v3_0_1.expandedlicensing.License;
 import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicense;
 import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicenseException;
 import org.spdx.library.model.v3_0_1.simplelicensing.AnyLicenseInfo;
+import org.spdx.storage.IModelStore;
 import org.spdx.licenseTemplate.LicenseParserException;
 import org.spdx.licenseTemplate.LicenseTemplateRuleException;
 import org.spdx.licenseTemplate.LicenseTextHelper;
 import org.spdx.licenseTemplate.LineColumn;
 import org.spdx.licenseTemplate.SpdxLicenseTemplateHelper;
 import org.spdx.utility.compare.CompareTemplateOutputHandler.DifferenceDescription;
+import org.spdx.utility.compare.CompareTemplateOutputHandler.NormalizedText;
 import org.spdx.utility.compare.FilterTemplateOutputHandler.OptionalTextHandling;
 import org.spdx.utility.compare.FilterTemplateOutputHandler.VarTextHandling;
 
@@ -60,6 +65,26 @@ public class LicenseCompareHelper {
 	
 	static final Logger logger = LoggerFactory.getLogger(LicenseCompareHelper.class);
 
+	private static TemplateWithinTextScanner licenseWithinTextScanner = null;
+	private static List<String> licenseWithinTextScannerKey = null;	// license IDs
+	private static ListedLicenses licenseWithinTextScannerSource = null;	// listed licenses used to create the scanner
+	private static TemplateWithinTextScanner exceptionWithinTextScanner = null;
+	private static List<String> exceptionWithinTextScannerKey = null;	// exception IDs
+	private static ListedLicenses exceptionWithinTextScannerSource = null;	// listed licenses used to create the scanner
+	private static LicenseSimilarityIndex licenseSimilarityIndex = null;
+	private static ListedLicenses licenseSimilarityIndexSource = null;	// listed licenses used to create the index
+
+	/**
+	 * Default maximum number of characters in a text compared to a license or exception template
+	 */
+	public static final int DEFAULT_MAX_COMPARE_TEXT_LENGTH = 2000000;
+	/**
+	 * Configuration property for the maximum number of characters in a text compared to a license or exception template
+	 */
+	public static final String MAX_COMPARE_TEXT_LENGTH_PROPERTY = "org.spdx.maxCompareTextLength";
+
+	private static volatile int maxCompareTextLength = readMaxCompareTextLength();
+
 	protected static final Integer CROSS_REF_NUM_WORDS_MATCH = 80;
 	
 	protected static final Pattern REGEX_QUANTIFIER_PATTERN = Pattern.compile(".*\\.\\{(\\d+),(\\d+)}$");
@@ -299,6 +324,25 @@ public class LicenseCompareHelper {
         }
 	}
 
+	/**
+	 * Determine if two licenses are satisfied by exactly the same sets of licenses - e.g.
+	 * <code>MIT OR (MIT AND Apache-2.0)</code> is equivalent to <code>MIT</code>
+	 * <p>
+	 * Use a {@link LicenseExpressionSolver} directly when comparing many licenses.
+	 *
+	 * @param license1 first license to compare
+	 * @param license2 second license to compare
+	 * @param xlationMap Mapping the license URIs from license 1 to license 2
+	 * @return true if the licenses are equivalent
+	 * @throws SpdxCompareException on comparison errors
+	 * @throws InvalidSPDXAnalysisException on errors reading reading properties from the SPDX model
+	 */
+	public static boolean isLicenseEquivalent(AnyLicenseInfo license1,
+			AnyLicenseInfo license2, Map<String, String> xlationMap) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		return new LicenseExpressionSolver().isEquivalent(CanonicalLicenseExpression.canonicalize(license1, xlationMap),
+				CanonicalLicenseExpression.canonicalize(license2));
+	}
+
 	/**
 	 * Compares two license sets using the xlationMap for the non-standard license IDs
 	 * @param licenseInfos1 first set of licenses to compare
@@ -371,6 +415,10 @@ public class LicenseCompareHelper {
 	/**
 	 * Compare the provided text against a license template using SPDX matching
 	 * guidelines
+	 * <p>
+	 * Texts longer than {@link #getMaxCompareTextLength()} characters are not compared.  The result for
+	 * such a text has {@link DifferenceDescription#isTextTooLarge()} and
+	 * {@link DifferenceDescription#isDifferenceFound()} set.
 	 *
 	 * @param template    Template in the standard template format used for
 	 *                    comparison
@@ -379,6 +427,9 @@ public class LicenseCompareHelper {
 	 * @throws SpdxCompareException on comparison errors
 	 */
 	public static DifferenceDescription isTextMatchingTemplate(String template, String compareText) throws SpdxCompareException {
+		if (isCompareTextTooLarge(compareText)) {
+			return textTooLargeDifference();
+		}
 		CompareTemplateOutputHandler compareTemplateOutputHandler;
 		try {
 			compareTemplateOutputHandler = new CompareTemplateOutputHandler(LicenseTextHelper.removeLineSeparators(removeCommentChars(compareText)));
@@ -396,6 +447,166 @@ public class LicenseCompareHelper {
 		return compareTemplateOutputHandler.getDifferences();
 	}
 
+	/**
+	 * Compare the provided text against a license template using SPDX matching
+	 * guidelines, stopping the comparison if it takes longer than the timeout
+	 * <p>
+	 * The comparison is stopped cooperatively within the calling thread, so a template and text which
+	 * require excessive backtracking can not stall the caller.  Texts longer than
+	 * {@link #getMaxCompareTextLength()} characters are not compared - see {@link DifferenceDescription#isTextTooLarge()}.
+	 *
+	 * @param template    Template in the standard template format used for
+	 *                    comparison
+	 * @param compareText Text to compare using the template
+	 * @param timeoutMillis maximum time for the comparison in milliseconds
+	 * @return Any differences found - {@link DifferenceDescription#isTimedOut()} is true if the comparison
+	 * did not complete in time
+	 * @throws SpdxCompareException on comparison errors
+	 */
+	public static DifferenceDescription isTextMatchingTemplate(String template, String compareText, long timeoutMillis) throws SpdxCompareException {
+		if (isCompareTextTooLarge(compareText)) {
+			return textTooLargeDifference();
+		}
+		try {
+			return parseCompareTemplate(template).compare(normalizeCompareText(compareText), timeoutMillis);
+		} catch (LicenseParserException e) {
+			throw new SpdxCompareException("Invalid template found during compare: "+e.getMessage(),e);
+		}
+	}
+
+	/**
+	 * Determine if the provided text matches a license template using SPDX matching guidelines
+	 * <p>
+	 * Faster than {@link #isTextMatchingTemplate(String, String)} when the differences are not needed since
+	 * the comparison does not create any difference descriptions.  Returns false without comparing for texts
+	 * longer than {@link #getMaxCompareTextLength()} characters.
+	 *
+	 * @param template    Template in the standard template format used for
+	 *                    comparison
+	 * @param compareText Text to compare using the template
+	 * @return true if the text matches the template
+	 * @throws SpdxCompareException on comparison errors
+	 */
+	public static boolean textMatchesTemplate(String template, String compareText) throws SpdxCompareException {
+		if (isCompareTextTooLarge(compareText)) {
+			return false;
+		}
+		return isTextMatchingTemplate(template, normalizeCompareText(compareText));
+	}
+
+	/**
+	 * Texts longer than the maximum compare text length are not compared to templates - this guards against
+	 * large allocations when tokenizing very large texts
+	 * <p>
+	 * The maximum is read once from the {@value #MAX_COMPARE_TEXT_LENGTH_PROPERTY} configuration property and
+	 * defaults to {@value #DEFAULT_MAX_COMPARE_TEXT_LENGTH}.
+	 * @return the maximum number of characters in a text compared to a license or exception template
+	 */
+	public static int getMaxCompareTextLength() {
+		return maxCompareTextLength;
+	}
+
+	/**
+	 * @param maxLength maximum number of characters in a text compared to a license or exception template -
+	 * use <code>Integer.MAX_VALUE</code> to compare texts of any length
+	 */
+	public static void setMaxCompareTextLength(int maxLength) {
+		if (maxLength < 0) {
+			throw new IllegalArgumentException("Maximum compare text length can not be negative");
+		}
+		maxCompareTextLength = maxLength;
+	}
+
+	/**
+	 * @return the maximum compare text length from the configuration or the default if not configured
+	 */
+	private static int readMaxCompareTextLength() {
+		String value = Configuration.getInstance().getProperty(MAX_COMPARE_TEXT_LENGTH_PROPERTY);
+		if (Objects.isNull(value)) {
+			return DEFAULT_MAX_COMPARE_TEXT_LENGTH;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException ex) {
+			logger.warn("Invalid {} property - using the default of {}", MAX_COMPARE_TEXT_LENGTH_PROPERTY, DEFAULT_MAX_COMPARE_TEXT_LENGTH);
+			return DEFAULT_MAX_COMPARE_TEXT_LENGTH;
+		}
+	}
+
+	/**
+	 * @param compareText text to compare
+	 * @return true if the text is longer than the maximum compare text length
+	 */
+	static boolean isCompareTextTooLarge(String compareText) {
+		return compareText.length() > getMaxCompareTextLength();
+	}
+
+	/**
+	 * @return difference description for a text longer than the maximum compare text length
+	 */
+	static DifferenceDescription textTooLargeDifference() {
+		return DifferenceDescription.textTooLarge(maxCompareTextLength);
+	}
+
+	/**
+	 * Read the text to compare, stopping once the maximum compare text length is exceeded
+	 * @param reader reader for the text - the reader is not closed
+	 * @return the text or null if the text is longer than the maximum compare text length
+	 * @throws IOException on errors reading from the reader
+	 */
+	static @Nullable String readCompareText(Reader reader) throws IOException {
+		int maxLength = getMaxCompareTextLength();
+		StringBuilder sb = new StringBuilder();
+		char[] buf = new char[8192];
+		int numRead;
+		while ((numRead = reader.read(buf, 0, (int)Math.min(buf.length, (long)maxLength - sb.length() + 1))) > 0) {
+			sb.append(buf, 0, numRead);
+			if (sb.length() > maxLength) {
+				return null;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param compareText text to compare to templates
+	 * @return text normalized and tokenized for comparison to any number of templates
+	 */
+	static NormalizedText normalizeCompareText(String compareText) {
+		return new NormalizedText(LicenseTextHelper.removeLineSeparators(removeCommentChars(compareText)));
+	}
+
+	/**
+	 * @param template Template in the standard template format used for comparison
+	 * @param compareText normalized text to compare
+	 * @return true if the text matches the template
+	 * @throws SpdxCompareException on comparison errors
+	 */
+	private static boolean isTextMatchingTemplate(String template, NormalizedText compareText) throws SpdxCompareException {
+		try {
+			return parseCompareTemplate(template).isMatch(compareText);
+		} catch (LicenseParserException e) {
+			throw new SpdxCompareException("Invalid template found during compare: "+e.getMessage(),e);
+		}
+	}
+
+	/**
+	 * @param template Template in the standard template format
+	 * @return a handler containing the parsed template which can compare any number of texts
+	 * @throws SpdxCompareException on invalid templates
+	 */
+	static CompareTemplateOutputHandler parseCompareTemplate(String template) throws SpdxCompareException {
+		CompareTemplateOutputHandler compareTemplateOutputHandler = new CompareTemplateOutputHandler();
+		try {
+			SpdxLicenseTemplateHelper.parseTemplate(removeCommentChars(template), compareTemplateOutputHandler);
+		} catch (LicenseTemplateRuleException e) {
+			throw new SpdxCompareException("Invalid template rule found during compare: "+e.getMessage(),e);
+		} catch (LicenseParserException e) {
+			throw new SpdxCompareException("Invalid template found during compare: "+e.getMessage(),e);
+		}
+		return compareTemplateOutputHandler;
+	}
+
 	/**
 	 * Compares license text to the license text of an SPDX Standard License
 	 * @param license SPDX Standard License to compare
@@ -405,11 +616,35 @@ public class LicenseCompareHelper {
 	 * @throws InvalidSPDXAnalysisException on errors reading reading properties from the SPDX model
 	 */
 	public static DifferenceDescription isTextStandardLicense(License license, String compareText) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		if (license instanceof ListedLicense && isListedLicenseStore(license.getModelStore())) {
+			CompiledLicenseTemplate compiled = ListedLicenses.getListedLicenses().getCompiledLicenseTemplate(
+					licenseUriToLicenseId(license.getObjectUri()));
+			if (Objects.nonNull(compiled)) {
+				return compiled.compare(compareText);
+			}
+		}
+		return isTextMatchingTemplate(getLicenseTemplate(license), compareText);
+	}
+
+	/**
+	 * @param modelStore model store
+	 * @return true if the model store is the store for the currently loaded SPDX listed licenses
+	 */
+	private static boolean isListedLicenseStore(IModelStore modelStore) {
+		return modelStore == ListedLicenses.getListedLicenses().getLicenseModelStore();
+	}
+
+	/**
+	 * @param license license
+	 * @return the standard license template or the license text if there is no template
+	 * @throws InvalidSPDXAnalysisException on errors reading reading properties from the SPDX model
+	 */
+	static String getLicenseTemplate(License license) throws InvalidSPDXAnalysisException {
 		String licenseTemplate = license.getStandardLicenseTemplate().orElse("");
 		if (licenseTemplate.trim().isEmpty()) {
 			licenseTemplate = license.getLicenseText();
 		}
-		return isTextMatchingTemplate(licenseTemplate, compareText);
+		return licenseTemplate;
 	}
 	
 	/**
@@ -421,11 +656,27 @@ public class LicenseCompareHelper {
 	 * @throws InvalidSPDXAnalysisException on errors reading reading properties from the SPDX model
 	 */
 	public static DifferenceDescription isTextStandardException(ListedLicenseException exception, String compareText) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		if (isListedLicenseStore(exception.getModelStore())) {
+			CompiledLicenseTemplate compiled = ListedLicenses.getListedLicenses().getCompiledExceptionTemplate(
+					licenseUriToLicenseId(exception.getObjectUri()));
+			if (Objects.nonNull(compiled)) {
+				return compiled.compare(compareText);
+			}
+		}
+		return isTextMatchingTemplate(getExceptionTemplate(exception), compareText);
+	}
+
+	/**
+	 * @param exception listed exception
+	 * @return the standard exception template or the exception text if there is no template
+	 * @throws InvalidSPDXAnalysisException on errors reading reading properties from the SPDX model
+	 */
+	static String getExceptionTemplate(ListedLicenseException exception) throws InvalidSPDXAnalysisException {
 		String exceptionTemplate = exception.getStandardAdditionTemplate().orElse("");
 		if (exceptionTemplate.trim().isEmpty()) {
 			exceptionTemplate = exception.getAdditionText();
 		}
-		return isTextMatchingTemplate(exceptionTemplate, compareText);
+		return exceptionTemplate;
 	}
 
 	/**
@@ -436,6 +687,13 @@ public class LicenseCompareHelper {
 	 */
 	public static boolean isStandardLicenseWithinText(String text, ListedLicense license) {
 		try {
+			if (isListedLicenseStore(license.getModelStore())) {
+				CompiledLicenseTemplate compiled = ListedLicenses.getListedLicenses().getCompiledLicenseTemplate(
+						licenseUriToLicenseId(license.getObjectUri()));
+				if (Objects.nonNull(compiled)) {
+					return compiled.isMatchWithinText(text);
+				}
+			}
 			return new TemplateRegexMatcher(license.getStandardLicenseTemplate().orElse(license.getLicenseText())).isTemplateMatchWithinText(text);
 		} catch (SpdxCompareException e) {
             logger.warn("Compare error getting optional text for license {}", license.getObjectUri(), e);
@@ -459,6 +717,13 @@ public class LicenseCompareHelper {
 		}
 		boolean result = false;
 		try {
+			if (isListedLicenseStore(exception.getModelStore())) {
+				CompiledLicenseTemplate compiled = ListedLicenses.getListedLicenses().getCompiledExceptionTemplate(
+						licenseUriToLicenseId(exception.getObjectUri()));
+				if (Objects.nonNull(compiled)) {
+					return compiled.isMatchWithinText(text);
+				}
+			}
 			return new TemplateRegexMatcher(exception.getStandardAdditionTemplate().orElse(exception.getAdditionText())).isTemplateMatchWithinText(text);
 		} catch (SpdxCompareException e) {
             logger.warn("Compare error getting optional text for license exception ID {}", exception.getObjectUri(), e);
@@ -471,18 +736,23 @@ public class LicenseCompareHelper {
 	/**
 	 * Returns a list of SPDX Listed Exception ID's that match the text provided using
 	 * the SPDX matching guidelines.
+	 * No IDs are returned for texts longer than {@link #getMaxCompareTextLength()} characters.
 	 * @param exceptionText Text to compare to the listed exception texts
 	 * @return List of SPDX listed exception IDs that match
 	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the listed exceptions
 	 * @throws SpdxCompareException If an error occurs in the comparison
 	 */
 	public static List<String> listAllListedExceptionIdsMatched(String exceptionText) throws InvalidSPDXAnalysisException, SpdxCompareException {
-		List<String> listedExceptionIds = ListedLicenses.getListedLicenses().getSpdxListedExceptionIds();
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
 		List<String> matchingIds  = new ArrayList<>();
-		for (String exceptionId : listedExceptionIds) {
-			ListedLicenseException exception = ListedLicenses.getListedLicenses().getListedExceptionById(exceptionId);
-			if (!isTextStandardException(exception, exceptionText).isDifferenceFound()) {
-				matchingIds.add(licenseUriToLicenseId(exception.getObjectUri()));
+		if (isCompareTextTooLarge(exceptionText)) {
+			return matchingIds;
+		}
+		NormalizedText normalizedText = normalizeCompareText(exceptionText);
+		for (String exceptionId : listedLicenses.getSpdxListedExceptionIds()) {
+			CompiledLicenseTemplate compiled = listedLicenses.getCompiledExceptionTemplate(exceptionId);
+			if (Objects.nonNull(compiled) && compiled.isMatch(normalizedText)) {
+				matchingIds.add(exceptionId);
 			}
 		}
 		return matchingIds;
@@ -491,23 +761,107 @@ public class LicenseCompareHelper {
 	/**
 	 * Returns a list of SPDX Listed License ID's that match the text provided using
 	 * the SPDX matching guidelines.
+	 * No IDs are returned for texts longer than {@link #getMaxCompareTextLength()} characters.
 	 * @param licenseText Text to compare to the listed license texts
 	 * @return List of SPDX listed license IDs that match
 	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the listed licenses
 	 * @throws SpdxCompareException If an error occurs in the comparison
 	 */
 	public static List<String> listAllListedLicenseIdsMatched(String licenseText) throws InvalidSPDXAnalysisException, SpdxCompareException {
-		List<String> listedLicenseIds = ListedLicenses.getListedLicenses().getSpdxListedLicenseIds();
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+		List<String> matchingIds  = new ArrayList<>();
+		if (isCompareTextTooLarge(licenseText)) {
+			return matchingIds;
+		}
+		NormalizedText normalizedText = normalizeCompareText(licenseText);
+		for (String listedLicId : listedLicenses.getSpdxListedLicenseIds()) {
+			CompiledLicenseTemplate compiled = listedLicenses.getCompiledLicenseTemplate(listedLicId);
+			if (Objects.nonNull(compiled) && compiled.isMatch(normalizedText)) {
+				matchingIds.add(listedLicId);
+			}
+		}
+		return matchingIds;
+	}
+
+	/**
+	 * Returns a list of SPDX Listed Exception ID's that match the text provided using
+	 * the SPDX matching guidelines, skipping any exception whose comparison takes longer than the timeout
+	 * No IDs are returned for texts longer than {@link #getMaxCompareTextLength()} characters.
+	 * @param exceptionText Text to compare to the listed exception texts
+	 * @param timeoutMillis maximum time for the comparison to each exception in milliseconds
+	 * @param timedOutIds if not null, the IDs of any exceptions whose comparison timed out are added
+	 * @return List of SPDX listed exception IDs that match
+	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the listed exceptions
+	 * @throws SpdxCompareException If an error occurs in the comparison
+	 */
+	public static List<String> listAllListedExceptionIdsMatched(String exceptionText, long timeoutMillis,
+			@Nullable List<String> timedOutIds) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
 		List<String> matchingIds  = new ArrayList<>();
-		for (String listedLicId : listedLicenseIds) {
-			ListedLicense license = ListedLicenses.getListedLicenses().getListedLicenseById(listedLicId);
-			if (!isTextStandardLicense(license, licenseText).isDifferenceFound()) {
-				matchingIds.add(licenseUriToLicenseId(license.getObjectUri()));
+		if (isCompareTextTooLarge(exceptionText)) {
+			return matchingIds;
+		}
+		NormalizedText normalizedText = normalizeCompareText(exceptionText);
+		for (String exceptionId : listedLicenses.getSpdxListedExceptionIds()) {
+			CompiledLicenseTemplate compiled = listedLicenses.getCompiledExceptionTemplate(exceptionId);
+			if (Objects.nonNull(compiled)) {
+				addTimedMatch(compiled, exceptionId, normalizedText, timeoutMillis, matchingIds, timedOutIds);
 			}
 		}
 		return matchingIds;
 	}
 
+	/**
+	 * Returns a list of SPDX Listed License ID's that match the text provided using
+	 * the SPDX matching guidelines, skipping any license whose comparison takes longer than the timeout
+	 * No IDs are returned for texts longer than {@link #getMaxCompareTextLength()} characters.
+	 * @param licenseText Text to compare to the listed license texts
+	 * @param timeoutMillis maximum time for the comparison to each license in milliseconds
+	 * @param timedOutIds if not null, the IDs of any licenses whose comparison timed out are added
+	 * @return List of SPDX listed license IDs that match
+	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the listed licenses
+	 * @throws SpdxCompareException If an error occurs in the comparison
+	 */
+	public static List<String> listAllListedLicenseIdsMatched(String licenseText, long timeoutMillis,
+			@Nullable List<String> timedOutIds) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+		List<String> matchingIds  = new ArrayList<>();
+		if (isCompareTextTooLarge(licenseText)) {
+			return matchingIds;
+		}
+		NormalizedText normalizedText = normalizeCompareText(licenseText);
+		for (String listedLicId : listedLicenses.getSpdxListedLicenseIds()) {
+			CompiledLicenseTemplate compiled = listedLicenses.getCompiledLicenseTemplate(listedLicId);
+			if (Objects.nonNull(compiled)) {
+				addTimedMatch(compiled, listedLicId, normalizedText, timeoutMillis, matchingIds, timedOutIds);
+			}
+		}
+		return matchingIds;
+	}
+
+	/**
+	 * Compare the text to a compiled template within a time limit
+	 * @param compiled compiled template
+	 * @param id ID of the license or exception
+	 * @param normalizedText normalized text to compare
+	 * @param timeoutMillis maximum time for the comparison in milliseconds
+	 * @param matchingIds the ID is added if the text matches
+	 * @param timedOutIds if not null, the ID is added if the comparison times out
+	 * @throws SpdxCompareException If an error occurs in the comparison
+	 */
+	private static void addTimedMatch(CompiledLicenseTemplate compiled, String id, NormalizedText normalizedText,
+			long timeoutMillis, List<String> matchingIds, @Nullable List<String> timedOutIds) throws SpdxCompareException {
+		DifferenceDescription result = compiled.compareWithoutDetails(normalizedText, timeoutMillis);
+		if (result.isTimedOut()) {
+			logger.warn("Comparison to {} timed out after {} milliseconds - skipping", id, timeoutMillis);
+			if (Objects.nonNull(timedOutIds)) {
+				timedOutIds.add(id);
+			}
+		} else if (!result.isDifferenceFound()) {
+			matchingIds.add(id);
+		}
+	}
+
 	/**
 	 * Returns an array of SPDX Listed License ID's that match the text provided using
 	 * the SPDX matching guidelines.  Deprecated in favor of <code>listAllListedLicenseIdsMatched(String licenseText)</code>
@@ -534,17 +888,125 @@ public class LicenseCompareHelper {
 		List<String> result = new ArrayList<>();
 
 		if (text != null && !text.isEmpty() && licenseIds != null && !licenseIds.isEmpty()) {
-			for (String stdLicId : licenseIds) {
-				ListedLicense license = ListedLicenses.getListedLicenses().getListedLicenseById(stdLicId);
-				if (isStandardLicenseWithinText(text, license)) {
-					result.add(licenseUriToLicenseId(license.getObjectUri()));
+			result.addAll(getLicenseWithinTextScanner(licenseIds).findMatchingIds(text));
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Returns a list of SPDX Standard License ID's that were found within text read from a reader, using
+	 * the SPDX matching guidelines.  The text is searched in windows so that memory use does not depend on the
+	 * size of the text.
+	 * @param reader reader for the text to compare to all the standard licenses - the reader is not closed
+	 * @return List of SPDX standard license IDs that match
+	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the standard licenses
+	 * @throws IOException on errors reading from the reader
+	 */
+	public static List<String> matchingStandardLicenseIdsWithinReader(Reader reader) throws InvalidSPDXAnalysisException, IOException {
+		return getLicenseWithinTextScanner(ListedLicenses.getListedLicenses().getSpdxListedLicenseIds()).findMatchingIdsInReader(reader);
+	}
+
+	/**
+	 * Returns a list of SPDX Standard License Exception ID's that were found within text read from a reader, using
+	 * the SPDX matching guidelines.  The text is searched in windows so that memory use does not depend on the
+	 * size of the text.
+	 * @param reader reader for the text to compare to all the standard license exceptions - the reader is not closed
+	 * @return List of SPDX standard license exception IDs that match
+	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the standard license exceptions
+	 * @throws IOException on errors reading from the reader
+	 */
+	public static List<String> matchingStandardLicenseExceptionIdsWithinReader(Reader reader) throws InvalidSPDXAnalysisException, IOException {
+		return getExceptionWithinTextScanner(ListedLicenses.getListedLicenses().getSpdxListedExceptionIds()).findMatchingIdsInReader(reader);
+	}
+
+	/**
+	 * Ranks the SPDX listed licenses by their estimated similarity to the text - useful for suggesting the closest
+	 * listed license for a text which does not match any listed license
+	 * @param text Text to compare to all the standard licenses
+	 * @param k maximum number of results
+	 * @return up to <code>k</code> listed licenses with the highest estimated similarity in order of decreasing similarity
+	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the standard licenses
+	 */
+	public static List<LicenseSimilarityIndex.SimilarityScore> closestListedLicenses(String text, int k) throws InvalidSPDXAnalysisException {
+		return getLicenseSimilarityIndex().findClosest(text, k);
+	}
+
+	/**
+	 * The index is retained and reused until the listed licenses are reset
+	 * @return a similarity index for all listed licenses
+	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the standard licenses
+	 */
+	static synchronized LicenseSimilarityIndex getLicenseSimilarityIndex() throws InvalidSPDXAnalysisException {
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+		if (listedLicenses != licenseSimilarityIndexSource) {
+			Map<String, String> templates = new LinkedHashMap<>();
+			for (String licenseId : listedLicenses.getSpdxListedLicenseIds()) {
+				ListedLicense license = listedLicenses.getListedLicenseById(licenseId);
+				if (Objects.nonNull(license)) {
+					templates.put(licenseId, getLicenseTemplate(license));
 				}
 			}
+			licenseSimilarityIndex = new LicenseSimilarityIndex(templates);
+			licenseSimilarityIndexSource = listedLicenses;
 		}
+		return licenseSimilarityIndex;
+	}
 
-		return result;
+	/**
+	 * The scanner is retained and reused for the same license IDs until the listed licenses are reset
+	 * @param licenseIds listed license IDs
+	 * @return a scanner to find the listed licenses within text
+	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the standard licenses
+	 */
+	static synchronized TemplateWithinTextScanner getLicenseWithinTextScanner(List<String> licenseIds) throws InvalidSPDXAnalysisException {
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+		if (listedLicenses != licenseWithinTextScannerSource || !licenseIds.equals(licenseWithinTextScannerKey)) {
+			Map<String, CompiledLicenseTemplate> templates = new LinkedHashMap<>();
+			for (String stdLicId : licenseIds) {
+				try {
+					CompiledLicenseTemplate compiled = listedLicenses.getCompiledLicenseTemplate(stdLicId);
+					if (Objects.nonNull(compiled)) {
+						templates.put(stdLicId, compiled);
+					}
+				} catch (SpdxCompareException e) {
+					logger.warn("Compare error parsing the template for license {}", stdLicId, e);
+				}
+			}
+			licenseWithinTextScanner = TemplateWithinTextScanner.fromCompiledTemplates(templates);
+			licenseWithinTextScannerKey = new ArrayList<>(licenseIds);
+			licenseWithinTextScannerSource = listedLicenses;
+		}
+		return licenseWithinTextScanner;
 	}
 
+	/**
+	 * The scanner is retained and reused for the same exception IDs until the listed licenses are reset
+	 * @param licenseExceptionIds listed exception IDs
+	 * @return a scanner to find the listed exceptions within text
+	 * @throws InvalidSPDXAnalysisException If an error occurs accessing the standard license exceptions
+	 */
+	static synchronized TemplateWithinTextScanner getExceptionWithinTextScanner(List<String> licenseExceptionIds) throws InvalidSPDXAnalysisException {
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+		if (listedLicenses != exceptionWithinTextScannerSource || !licenseExceptionIds.equals(exceptionWithinTextScannerKey)) {
+			Map<String, CompiledLicenseTemplate> templates = new LinkedHashMap<>();
+			for (String stdLicExcId : licenseExceptionIds) {
+				try {
+					CompiledLicenseTemplate compiled = listedLicenses.getCompiledExceptionTemplate(stdLicExcId);
+					if (Objects.nonNull(compiled)) {
+						templates.put(stdLicExcId, compiled);
+					}
+				} catch (SpdxCompareException e) {
+					logger.warn("Compare error parsing the template for exception {}", stdLicExcId, e);
+				}
+			}
+			exceptionWithinTextScanner = TemplateWithinTextScanner.fromCompiledTemplates(templates);
+			exceptionWithinTextScannerKey = new ArrayList<>(licenseExceptionIds);
+			exceptionWithinTextScannerSource = listedLicenses;
+		}
+		return exceptionWithinTextScanner;
+	}
 
 	/**
 	 * Returns a list of SPDX Standard License ID's that were found within the text, using
@@ -570,12 +1032,7 @@ public class LicenseCompareHelper {
 		List<String> result = new ArrayList<>();
 
 		if (text != null && !text.isEmpty() && licenseExceptionIds != null && !licenseExceptionIds.isEmpty()) {
-			for (String stdLicExcId : licenseExceptionIds) {
-				ListedLicenseException licenseException = ListedLicenses.getListedLicenses().getListedExceptionById(stdLicExcId);
-				if (isStandardLicenseExceptionWithinText(text, licenseException)) {
-					result.add(licenseUriToLicenseId(licenseException.getObjectUri()));
-				}
-			}
+			result.addAll(getExceptionWithinTextScanner(licenseExceptionIds).findMatchingIds(text));
 		}
 
 		return result;
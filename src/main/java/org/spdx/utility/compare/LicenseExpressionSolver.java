@@ -0,0 +1,320 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.spdx.utility.compare.CanonicalLicenseExpression.Kind;
+
+/**
+ * Boolean algebra over license expressions
+ * <p>
+ * Each license term (a license, a license with the <code>+</code> operator, or a license <code>WITH</code>
+ * an exception) is mapped to a variable index.  Since license expressions only use AND and OR, they are
+ * monotone boolean functions, and the minimal sets of terms which satisfy an expression (the minimal
+ * disjunctive normal form with absorption applied) are unique.  The minimal sets are represented as
+ * bit sets over the variable indexes, which makes equivalence, implication, simplification and
+ * choosing a set of licenses fast set operations.
+ * <p>
+ * The variable indexes and the minimal sets for each distinct expression are retained by the solver,
+ * so a single solver should be reused for many expressions.  The solver is not thread safe.
+ *
+ * @author Gary O'Neall
+ */
+public class LicenseExpressionSolver {
+
+	/**
+	 * Default maximum number of minimal satisfying sets for a single expression
+	 */
+	public static final int DEFAULT_MAX_SETS = 10000;
+	static final int MAX_CACHED_EXPRESSIONS = 100000;
+
+	private final int maxSets;
+	private final Map<CanonicalLicenseExpression, Integer> variableIndexes = new HashMap<>();
+	private final List<CanonicalLicenseExpression> variables = new ArrayList<>();
+	private final Map<CanonicalLicenseExpression, List<BitSet>> minimalSetCache = new HashMap<>();
+
+	/**
+	 * Create a solver limited to {@link #DEFAULT_MAX_SETS} minimal satisfying sets per expression
+	 */
+	public LicenseExpressionSolver() {
+		this(DEFAULT_MAX_SETS);
+	}
+
+	/**
+	 * @param maxSets maximum number of minimal satisfying sets for a single expression
+	 */
+	public LicenseExpressionSolver(int maxSets) {
+		this.maxSets = maxSets;
+	}
+
+	/**
+	 * @param expression license expression
+	 * @return the minimal sets of license terms which satisfy the expression
+	 * @throws SpdxCompareException if the expression has more than the maximum number of minimal sets
+	 */
+	public List<Set<CanonicalLicenseExpression>> getSatisfyingLicenseSets(CanonicalLicenseExpression expression) throws SpdxCompareException {
+		List<Set<CanonicalLicenseExpression>> retval = new ArrayList<>();
+		for (BitSet bits:minimalSets(expression)) {
+			retval.add(toTerms(bits));
+		}
+		return retval;
+	}
+
+	/**
+	 * @param expression1 first license expression
+	 * @param expression2 second license expression
+	 * @return true if the two expressions are satisfied by exactly the same sets of licenses
+	 * @throws SpdxCompareException if an expression has more than the maximum number of minimal sets
+	 */
+	public boolean isEquivalent(CanonicalLicenseExpression expression1, CanonicalLicenseExpression expression2) throws SpdxCompareException {
+		if (expression1.equals(expression2)) {
+			return true;
+		}
+		List<BitSet> sets1 = minimalSets(expression1);
+		List<BitSet> sets2 = minimalSets(expression2);
+		return sets1.size() == sets2.size() && new HashSet<>(sets1).equals(new HashSet<>(sets2));
+	}
+
+	/**
+	 * @param expression1 first license expression
+	 * @param expression2 second license expression
+	 * @return true if any set of licenses satisfying <code>expression1</code> also satisfies <code>expression2</code>
+	 * @throws SpdxCompareException if an expression has more than the maximum number of minimal sets
+	 */
+	public boolean implies(CanonicalLicenseExpression expression1, CanonicalLicenseExpression expression2) throws SpdxCompareException {
+		if (expression1.equals(expression2)) {
+			return true;
+		}
+		List<BitSet> sets2 = minimalSets(expression2);
+		for (BitSet set1:minimalSets(expression1)) {
+			if (!containsSubsetOf(sets2, set1)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Simplify an expression by removing redundant operands - e.g. <code>MIT OR (MIT AND Apache-2.0)</code>
+	 * simplifies to <code>MIT</code>
+	 * <p>
+	 * An operand of an OR is removed if it implies another operand and an operand of an AND is removed if it
+	 * is implied by another operand.  The result is equivalent to the original expression.
+	 * @param expression license expression
+	 * @return the simplified expression
+	 * @throws SpdxCompareException if an expression has more than the maximum number of minimal sets
+	 */
+	public CanonicalLicenseExpression simplify(CanonicalLicenseExpression expression) throws SpdxCompareException {
+		if (expression.getKind() != Kind.AND && expression.getKind() != Kind.OR) {
+			return expression;
+		}
+		List<CanonicalLicenseExpression> operands = new ArrayList<>();
+		for (CanonicalLicenseExpression operand:expression.getOperands()) {
+			operands.add(simplify(operand));
+		}
+		boolean isOr = expression.getKind() == Kind.OR;
+		boolean[] removed = new boolean[operands.size()];
+		for (int i = 0; i < operands.size(); i++) {
+			for (int j = 0; j < operands.size(); j++) {
+				if (i == j || removed[j]) {
+					continue;
+				}
+				boolean redundant = isOr ? implies(operands.get(i), operands.get(j)) :
+					implies(operands.get(j), operands.get(i));
+				if (redundant) {
+					removed[i] = true;
+					break;
+				}
+			}
+		}
+		List<CanonicalLicenseExpression> remaining = new ArrayList<>();
+		for (int i = 0; i < operands.size(); i++) {
+			if (!removed[i]) {
+				remaining.add(operands.get(i));
+			}
+		}
+		return isOr ? CanonicalLicenseExpression.or(remaining) : CanonicalLicenseExpression.and(remaining);
+	}
+
+	/**
+	 * Choose the smallest set of licenses which satisfies the expression using only allowed license terms
+	 * @param expression license expression
+	 * @param allowed returns true if a license term (a license, a license with the <code>+</code> operator,
+	 * or a license <code>WITH</code> an exception) may be used
+	 * @return the smallest set of allowed license terms satisfying the expression, or empty if the expression
+	 * can not be satisfied using allowed terms.  Ties are broken using the order of the canonical rendering.
+	 * @throws SpdxCompareException if the expression has more than the maximum number of minimal sets
+	 */
+	public Optional<Set<CanonicalLicenseExpression>> chooseLicenses(CanonicalLicenseExpression expression,
+			Predicate<CanonicalLicenseExpression> allowed) throws SpdxCompareException {
+		Set<CanonicalLicenseExpression> best = null;
+		Map<Integer, Boolean> allowedVariables = new HashMap<>();
+		for (BitSet set:minimalSets(expression)) {
+			if (best != null && set.cardinality() > best.size()) {
+				continue;
+			}
+			boolean allAllowed = true;
+			for (int i = set.nextSetBit(0); i >= 0 && allAllowed; i = set.nextSetBit(i + 1)) {
+				final int variable = i;
+				allAllowed = allowedVariables.computeIfAbsent(variable, k -> allowed.test(variables.get(variable)));
+			}
+			if (allAllowed) {
+				Set<CanonicalLicenseExpression> candidate = toTerms(set);
+				if (best == null || candidate.size() < best.size() ||
+						candidate.toString().compareTo(best.toString()) < 0) {
+					best = candidate;
+				}
+			}
+		}
+		return Optional.ofNullable(best);
+	}
+
+	/**
+	 * Choose the smallest set of licenses which satisfies the expression using only license terms allowed by the policy
+	 * @param expression license expression
+	 * @param policy license policy
+	 * @return the smallest set of license terms allowed by the policy satisfying the expression, or empty if the
+	 * expression can not be satisfied using licenses allowed by the policy
+	 * @throws SpdxCompareException if the expression has more than the maximum number of minimal sets
+	 */
+	public Optional<Set<CanonicalLicenseExpression>> chooseLicenses(CanonicalLicenseExpression expression,
+			LicensePolicy policy) throws SpdxCompareException {
+		return chooseLicenses(expression, policy::isAllowed);
+	}
+
+	/**
+	 * @param term license term
+	 * @return the variable index for the term
+	 */
+	private int getVariable(CanonicalLicenseExpression term) {
+		Integer retval = variableIndexes.get(term);
+		if (retval == null) {
+			retval = variables.size();
+			variables.add(term);
+			variableIndexes.put(term, retval);
+		}
+		return retval;
+	}
+
+	private Set<CanonicalLicenseExpression> toTerms(BitSet bits) {
+		Set<CanonicalLicenseExpression> retval = new TreeSet<>();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			retval.add(variables.get(i));
+		}
+		return retval;
+	}
+
+	/**
+	 * @param expression license expression
+	 * @return the minimal sets of variables satisfying the expression - the returned list must not be modified
+	 * @throws SpdxCompareException if the expression has more than the maximum number of minimal sets
+	 */
+	private List<BitSet> minimalSets(CanonicalLicenseExpression expression) throws SpdxCompareException {
+		List<BitSet> retval = minimalSetCache.get(expression);
+		if (retval != null) {
+			return retval;
+		}
+		switch (expression.getKind()) {
+			case OR: {
+				List<BitSet> union = new ArrayList<>();
+				for (CanonicalLicenseExpression operand:expression.getOperands()) {
+					union.addAll(minimalSets(operand));
+				}
+				retval = minimize(union);
+				break;
+			}
+			case AND: {
+				retval = Collections.singletonList(new BitSet());
+				for (CanonicalLicenseExpression operand:expression.getOperands()) {
+					List<BitSet> product = new ArrayList<>();
+					for (BitSet left:retval) {
+						for (BitSet right:minimalSets(operand)) {
+							BitSet combined = (BitSet)left.clone();
+							combined.or(right);
+							product.add(combined);
+						}
+					}
+					retval = minimize(product);
+					if (retval.size() > maxSets) {
+						break;
+					}
+				}
+				break;
+			}
+			default: {
+				BitSet bits = new BitSet();
+				bits.set(getVariable(expression));
+				retval = Collections.singletonList(bits);
+			}
+		}
+		if (retval.size() > maxSets) {
+			throw new SpdxCompareException("License expression "+expression+" has more than "+maxSets+" minimal sets of licenses");
+		}
+		retval = Collections.unmodifiableList(retval);
+		if (minimalSetCache.size() >= MAX_CACHED_EXPRESSIONS) {
+			minimalSetCache.clear();
+		}
+		minimalSetCache.put(expression, retval);
+		return retval;
+	}
+
+	/**
+	 * Remove duplicate sets and any set which is a superset of another set (absorption)
+	 * @param sets sets of variables
+	 * @return minimal sets
+	 */
+	private static List<BitSet> minimize(List<BitSet> sets) {
+		List<BitSet> sorted = new ArrayList<>(sets);
+		sorted.sort(Comparator.comparingInt(BitSet::cardinality));
+		List<BitSet> retval = new ArrayList<>();
+		for (BitSet set:sorted) {
+			if (!containsSubsetOf(retval, set)) {
+				retval.add(set);
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * @param sets sets of variables
+	 * @param superset candidate superset
+	 * @return true if any of the sets is a subset of (or equal to) the superset
+	 */
+	private static boolean containsSubsetOf(List<BitSet> sets, BitSet superset) {
+		for (BitSet set:sets) {
+			BitSet difference = (BitSet)set.clone();
+			difference.andNot(superset);
+			if (difference.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,266 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.ListedLicenses;
+import org.spdx.library.model.v3_0_1.simplelicensing.AnyLicenseInfo;
+import org.spdx.utility.compare.CanonicalLicenseExpression.Kind;
+
+/**
+ * Compiled license policy built once from allow and deny lists
+ * <p>
+ * The policy is evaluated against the {@link CanonicalLicenseExpression} form of a license, so the
+ * store-backed model objects are only read once per expression and the allow and deny lookups are hash
+ * lookups.  Instances are immutable and may be shared between threads.
+ * <p>
+ * Evaluation follows the same rules as {@link LicenseCompareHelper#isLicensePassWhiteList(AnyLicenseInfo, String...)}
+ * and {@link LicenseCompareHelper#isLicensePassBlackList(AnyLicenseInfo, String...)}: a conjunctive license set passes
+ * if all of its members pass, a disjunctive license set passes if any member passes, and any other expression
+ * (a license, a license with the <code>+</code> operator, or a license <code>WITH</code> an exception) is looked
+ * up by its rendering.  A license passes if it is not denied and either the allow list is empty or it is allowed.
+ * <p>
+ * In addition, an exception may be allowed only with specific licenses - for example
+ * <code>Classpath-exception-2.0</code> only with <code>GPL-2.0-only</code>.  A license <code>WITH</code> such an
+ * exception passes if the license itself passes and it is one of the licenses the exception is allowed with.
+ * <p>
+ * Listed license and exception IDs are matched case insensitively.  Custom licenses and additions are matched
+ * by either their object URI or their SPDX ID (e.g. <code>LicenseRef-1</code>).
+ *
+ * @author Gary O'Neall
+ */
+public class LicensePolicy {
+
+	/**
+	 * Builder for a license policy
+	 */
+	public static class Builder {
+
+		private final Set<String> allowed = new HashSet<>();
+		private final Set<String> denied = new HashSet<>();
+		private final Map<String, Set<String>> exceptionRules = new HashMap<>();
+
+		/**
+		 * @param licenses license IDs or expressions (e.g. <code>GPL-2.0+</code> or <code>GPL-2.0-only WITH Classpath-exception-2.0</code>) to allow
+		 * @return this builder
+		 */
+		public Builder allow(String... licenses) {
+			for (String license:licenses) {
+				allowed.add(normalizeKey(license));
+			}
+			return this;
+		}
+
+		/**
+		 * @param licenses license IDs or expressions to deny
+		 * @return this builder
+		 */
+		public Builder deny(String... licenses) {
+			for (String license:licenses) {
+				denied.add(normalizeKey(license));
+			}
+			return this;
+		}
+
+		/**
+		 * Allow an exception only when it is applied to one of the <code>licenses</code>
+		 * @param exceptionId exception or addition ID
+		 * @param licenses license IDs the exception is allowed with
+		 * @return this builder
+		 */
+		public Builder allowExceptionWith(String exceptionId, String... licenses) {
+			Set<String> licenseKeys = exceptionRules.computeIfAbsent(normalizeException(exceptionId), k -> new HashSet<>());
+			for (String license:licenses) {
+				licenseKeys.add(normalizeKey(license));
+			}
+			return this;
+		}
+
+		/**
+		 * @return the compiled license policy
+		 */
+		public LicensePolicy build() {
+			return new LicensePolicy(this);
+		}
+	}
+
+	private final Set<String> allowed;
+	private final Set<String> denied;
+	private final Map<String, Set<String>> exceptionRules;
+
+	private LicensePolicy(Builder builder) {
+		this.allowed = Collections.unmodifiableSet(new HashSet<>(builder.allowed));
+		this.denied = Collections.unmodifiableSet(new HashSet<>(builder.denied));
+		Map<String, Set<String>> rules = new HashMap<>();
+		for (Map.Entry<String, Set<String>> entry:builder.exceptionRules.entrySet()) {
+			rules.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<>(entry.getValue())));
+		}
+		this.exceptionRules = Collections.unmodifiableMap(rules);
+	}
+
+	/**
+	 * @return a new builder for a license policy
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @param license license to evaluate
+	 * @return true if the license passes the policy
+	 * @throws InvalidSPDXAnalysisException on errors reading properties from the SPDX model
+	 */
+	public boolean isAllowed(AnyLicenseInfo license) throws InvalidSPDXAnalysisException {
+		if (license == null) {
+			return allowed.isEmpty();
+		}
+		return isAllowed(CanonicalLicenseExpression.canonicalize(license));
+	}
+
+	/**
+	 * @param license SPDX 2.X license to evaluate
+	 * @return true if the license passes the policy
+	 * @throws InvalidSPDXAnalysisException on errors reading properties from the SPDX model
+	 */
+	public boolean isAllowed(org.spdx.library.model.v2.license.AnyLicenseInfo license) throws InvalidSPDXAnalysisException {
+		if (license == null) {
+			return allowed.isEmpty();
+		}
+		return isAllowed(CanonicalLicenseExpression.canonicalize(license));
+	}
+
+	/**
+	 * @param expression canonical license expression to evaluate
+	 * @return true if the expression passes the policy
+	 */
+	public boolean isAllowed(CanonicalLicenseExpression expression) {
+		switch (expression.getKind()) {
+			case AND:
+				for (CanonicalLicenseExpression operand:expression.getOperands()) {
+					if (!isAllowed(operand)) {
+						return false;
+					}
+				}
+				return true;
+			case OR:
+				for (CanonicalLicenseExpression operand:expression.getOperands()) {
+					if (isAllowed(operand)) {
+						return true;
+					}
+				}
+				return false;
+			default:
+				return isTermAllowed(expression);
+		}
+	}
+
+	/**
+	 * Evaluate a collection of license expressions, evaluating each distinct canonical expression only once
+	 * @param expressions canonical license expressions to evaluate
+	 * @return map of each distinct expression to true if it passes the policy
+	 */
+	public Map<CanonicalLicenseExpression, Boolean> evaluate(Collection<CanonicalLicenseExpression> expressions) {
+		Map<CanonicalLicenseExpression, Boolean> retval = new HashMap<>();
+		for (CanonicalLicenseExpression expression:expressions) {
+			if (!retval.containsKey(expression)) {
+				retval.put(expression, isAllowed(expression));
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * @param term license, or-later or with expression
+	 * @return true if the term is not denied and is allowed
+	 */
+	private boolean isTermAllowed(CanonicalLicenseExpression term) {
+		if (matches(denied, term)) {
+			return false;
+		}
+		if (allowed.isEmpty() || matches(allowed, term)) {
+			return true;
+		}
+		if (term.getKind() == Kind.WITH) {
+			CanonicalLicenseExpression subject = term.getOperands().get(0);
+			Set<String> permittedLicenses = getExceptionRule(term.getOperands().get(1));
+			return permittedLicenses != null && matches(permittedLicenses, subject) && isTermAllowed(subject);
+		}
+		return false;
+	}
+
+	/**
+	 * @param addition exception or addition term
+	 * @return the licenses the exception is allowed with or null if there is no rule for the exception
+	 */
+	private Set<String> getExceptionRule(CanonicalLicenseExpression addition) {
+		Set<String> retval = exceptionRules.get(addition.getId());
+		if (retval == null && addition.getLicenseId() != null) {
+			retval = exceptionRules.get(addition.getLicenseId());
+		}
+		return retval;
+	}
+
+	/**
+	 * @param keys normalized license keys
+	 * @param term canonical term
+	 * @return true if the rendering of the term, or for a custom license or addition its SPDX ID, is in the keys
+	 */
+	private static boolean matches(Set<String> keys, CanonicalLicenseExpression term) {
+		if (keys.isEmpty()) {
+			return false;
+		}
+		String key = term.toString();
+		if (keys.contains(key)) {
+			return true;
+		}
+		return term.getLicenseId() != null && keys.contains(term.getLicenseId());
+	}
+
+	/**
+	 * Normalize a license ID or simple expression to the rendering used by the canonical expressions
+	 * @param license license ID, <code>ID+</code> or <code>ID WITH exceptionId</code>
+	 * @return normalized key
+	 */
+	static String normalizeKey(String license) {
+		String trimmed = license.trim();
+		String[] parts = trimmed.split("\\s+(?i:WITH)\\s+");
+		if (parts.length == 2) {
+			return normalizeKey(parts[0]) + " WITH " + normalizeException(parts[1]);
+		}
+		if (trimmed.endsWith("+")) {
+			return normalizeLicense(trimmed.substring(0, trimmed.length() - 1).trim()) + "+";
+		}
+		return normalizeLicense(trimmed);
+	}
+
+	private static String normalizeLicense(String licenseId) {
+		return ListedLicenses.getListedLicenses().listedLicenseIdCaseSensitive(licenseId).orElse(licenseId);
+	}
+
+	private static String normalizeException(String exceptionId) {
+		String trimmed = exceptionId.trim();
+		return ListedLicenses.getListedLicenses().listedExceptionIdCaseSensitive(trimmed).orElse(trimmed);
+	}
+}
@@ -0,0 +1,343 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spdx.licenseTemplate.LicenseTextHelper;
+import org.spdx.licenseTemplate.LineColumn;
+
+/**
+ * Ranks license or exception templates by their similarity to a text
+ * <p>
+ * Each template is reduced to its non-optional text including the original text for variables (see
+ * {@link LicenseCompareHelper#getNonOptionalLicenseText(String, FilterTemplateOutputHandler.VarTextHandling)}) and the set of
+ * overlapping {@link #SHINGLE_SIZE} word sequences is hashed.  Words are normalized using the same equivalent
+ * words as the license comparison and punctuation is ignored.  The score is the Jaccard similarity of the
+ * word sequences in the text and the template.
+ * <p>
+ * The word sequences are also summarized by a MinHash signature.  The fraction of equal signature values
+ * estimates the Jaccard similarity, which quickly selects the candidates for the closest templates.  Only
+ * the candidates are scored using the word sequences.
+ * <p>
+ * Scores are intended to suggest the closest templates - use
+ * {@link LicenseCompareHelper#isTextMatchingTemplate(String, String)} to determine if the text matches.
+ * <p>
+ * The index is immutable once constructed and may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+@SuppressWarnings("deprecation")
+public class LicenseSimilarityIndex {
+
+	static final Logger logger = LoggerFactory.getLogger(LicenseSimilarityIndex.class);
+
+	/**
+	 * Default number of hash values in each signature
+	 */
+	public static final int DEFAULT_NUM_HASHES = 128;
+	/**
+	 * Number of words in each overlapping word sequence
+	 */
+	public static final int SHINGLE_SIZE = 3;
+	/**
+	 * Number of candidates selected using the signatures for each result requested
+	 */
+	static final int CANDIDATE_FACTOR = 4;
+	static final int MIN_CANDIDATES = 20;
+
+	/**
+	 * Template ID and the similarity of the template to a text
+	 */
+	public static class SimilarityScore {
+		private final String id;
+		private final double score;
+
+		/**
+		 * @param id ID of the template
+		 * @param score similarity between 0 and 1
+		 */
+		public SimilarityScore(String id, double score) {
+			this.id = id;
+			this.score = score;
+		}
+
+		/**
+		 * @return the ID of the template
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * @return the similarity between 0 (nothing in common) and 1 (same word sequences)
+		 */
+		public double getScore() {
+			return score;
+		}
+
+		@Override
+		public String toString() {
+			return id + ": " + score;
+		}
+	}
+
+	private final int numHashes;
+	private final long[] seeds;
+	private final List<String> ids = new ArrayList<>();
+	private final int[] signatures;	// numHashes values for each template
+	private final List<long[]> templateShingles = new ArrayList<>();	// sorted unique word sequence hashes for each template
+
+	/**
+	 * @param templates map of ID to the license or exception template
+	 */
+	public LicenseSimilarityIndex(Map<String, String> templates) {
+		this(templates, DEFAULT_NUM_HASHES);
+	}
+
+	/**
+	 * @param templates map of ID to the license or exception template
+	 * @param numHashes number of hash values in each signature - more values select the candidates more
+	 * accurately at the cost of speed
+	 */
+	public LicenseSimilarityIndex(Map<String, String> templates, int numHashes) {
+		if (numHashes < 1) {
+			throw new IllegalArgumentException("Number of hashes must be positive");
+		}
+		this.numHashes = numHashes;
+		this.seeds = new long[numHashes];
+		long seed = 0x5DEECE66DL;
+		for (int i = 0; i < numHashes; i++) {
+			seed = mix(seed + i);
+			seeds[i] = seed;
+		}
+		List<int[]> templateSignatures = new ArrayList<>();
+		for (Map.Entry<String, String> entry:templates.entrySet()) {
+			List<String> segments;
+			try {
+				segments = LicenseCompareHelper.getNonOptionalLicenseText(
+						LicenseCompareHelper.removeCommentChars(entry.getValue()), FilterTemplateOutputHandler.VarTextHandling.ORIGINAL);
+			} catch (SpdxCompareException e) {
+				logger.warn("Compare error getting the non-optional text for {}", entry.getKey(), e);
+				continue;
+			}
+			long[] shingles = shingles(segments);
+			ids.add(entry.getKey());
+			templateShingles.add(shingles);
+			templateSignatures.add(signature(shingles));
+		}
+		signatures = new int[ids.size() * numHashes];
+		for (int i = 0; i < templateSignatures.size(); i++) {
+			System.arraycopy(templateSignatures.get(i), 0, signatures, i * numHashes, numHashes);
+		}
+	}
+
+	/**
+	 * @param text text to compare
+	 * @param k maximum number of results
+	 * @return up to <code>k</code> templates with the highest similarity to the text in order of
+	 * decreasing similarity - templates with no similarity are not included
+	 */
+	public List<SimilarityScore> findClosest(String text, int k) {
+		if (text == null || text.isEmpty() || k < 1) {
+			return new ArrayList<>();
+		}
+		long[] textShingles = shingles(Collections.singletonList(LicenseCompareHelper.removeCommentChars(text)));
+		int[] textSignature = signature(textShingles);
+		int numCandidates = Math.max(k * CANDIDATE_FACTOR, MIN_CANDIDATES);
+		// minimum heap on the number of equal signature values, ties removing the later template first
+		PriorityQueue<int[]> candidates = new PriorityQueue<>(numCandidates + 1, (a, b) -> a[1] != b[1] ?
+				Integer.compare(a[1], b[1]) : Integer.compare(b[0], a[0]));
+		for (int template = 0; template < ids.size(); template++) {
+			int equal = countEqual(template, textSignature);
+			if (equal > 0) {
+				candidates.add(new int[] {template, equal});
+				if (candidates.size() > numCandidates) {
+					candidates.remove();
+				}
+			}
+		}
+		List<SimilarityScore> retval = new ArrayList<>(candidates.size());
+		List<int[]> ordered = new ArrayList<>(candidates);
+		ordered.sort((a, b) -> Integer.compare(a[0], b[0]));
+		for (int[] candidate:ordered) {
+			double score = jaccard(templateShingles.get(candidate[0]), textShingles);
+			if (score > 0) {
+				retval.add(new SimilarityScore(ids.get(candidate[0]), score));
+			}
+		}
+		// stable sort keeps the template order for equal scores
+		retval.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+		return retval.size() > k ? new ArrayList<>(retval.subList(0, k)) : retval;
+	}
+
+	/**
+	 * @param text text to compare
+	 * @param id ID of a template in the index
+	 * @return the similarity between the text and the template, or 0 if the ID is not in the index
+	 */
+	public double getScore(String text, String id) {
+		int template = ids.indexOf(id);
+		if (template < 0 || text == null || text.isEmpty()) {
+			return 0;
+		}
+		return jaccard(templateShingles.get(template),
+				shingles(Collections.singletonList(LicenseCompareHelper.removeCommentChars(text))));
+	}
+
+	/**
+	 * @return IDs of all templates in the index
+	 */
+	public List<String> getIds() {
+		return Collections.unmodifiableList(ids);
+	}
+
+	/**
+	 * @param template index of the template
+	 * @param textSignature signature for the text
+	 * @return number of signature values for the template equal to the text signature values
+	 */
+	private int countEqual(int template, int[] textSignature) {
+		int offset = template * numHashes;
+		int retval = 0;
+		for (int i = 0; i < numHashes; i++) {
+			if (signatures[offset + i] == textSignature[i] && textSignature[i] != Integer.MAX_VALUE) {
+				retval++;
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * @param shingles1 sorted unique hashes
+	 * @param shingles2 sorted unique hashes
+	 * @return size of the intersection divided by the size of the union
+	 */
+	private static double jaccard(long[] shingles1, long[] shingles2) {
+		int i = 0;
+		int j = 0;
+		int intersection = 0;
+		while (i < shingles1.length && j < shingles2.length) {
+			if (shingles1[i] == shingles2[j]) {
+				intersection++;
+				i++;
+				j++;
+			} else if (shingles1[i] < shingles2[j]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		int union = shingles1.length + shingles2.length - intersection;
+		return union == 0 ? 0 : (double)intersection / union;
+	}
+
+	/**
+	 * @param segments segments of text - word sequences do not span segments
+	 * @return sorted unique hashes of the word sequences
+	 */
+	private static long[] shingles(List<String> segments) {
+		List<Long> hashes = new ArrayList<>();
+		Map<Integer, LineColumn> unusedLocations = new HashMap<>();
+		for (String segment:segments) {
+			String normalized = LicenseTextHelper.normalizeText(LicenseTextHelper.replaceMultWord(
+					LicenseTextHelper.replaceSpaceComma(LicenseTextHelper.removeLineSeparators(segment))));
+			List<Integer> wordHashes = new ArrayList<>();
+			for (String token:LicenseTextHelper.tokenizeLicenseText(normalized, unusedLocations)) {
+				if (isWord(token)) {
+					wordHashes.add(LicenseTokens.tokenKey(token).hashCode());
+				}
+			}
+			unusedLocations.clear();
+			int shingleSize = Math.min(SHINGLE_SIZE, wordHashes.size());
+			for (int start = 0; shingleSize > 0 && start + shingleSize <= wordHashes.size(); start++) {
+				long shingle = 0;
+				for (int i = start; i < start + shingleSize; i++) {
+					shingle = shingle * 31 + wordHashes.get(i);
+				}
+				hashes.add(mix(shingle));
+			}
+		}
+		long[] retval = new long[hashes.size()];
+		for (int i = 0; i < retval.length; i++) {
+			retval[i] = hashes.get(i);
+		}
+		Arrays.sort(retval);
+		int unique = 0;
+		for (int i = 0; i < retval.length; i++) {
+			if (i == 0 || retval[i] != retval[i - 1]) {
+				retval[unique++] = retval[i];
+			}
+		}
+		return Arrays.copyOf(retval, unique);
+	}
+
+	/**
+	 * @param shingles hashes of the word sequences
+	 * @return the MinHash signature of the word sequences, all {@link Integer#MAX_VALUE} if there are no words
+	 */
+	private int[] signature(long[] shingles) {
+		int[] retval = new int[numHashes];
+		Arrays.fill(retval, Integer.MAX_VALUE);
+		for (long shingle:shingles) {
+			for (int i = 0; i < numHashes; i++) {
+				int value = (int)(mix(shingle ^ seeds[i]) >>> 34);	// non-negative and never MAX_VALUE
+				if (value < retval[i]) {
+					retval[i] = value;
+				}
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * @param token token from the tokenized text
+	 * @return true if the token contains a letter or digit and can not be skipped
+	 */
+	private static boolean isWord(String token) {
+		if (LicenseTextHelper.canSkip(token)) {
+			return false;
+		}
+		for (int i = 0; i < token.length(); i++) {
+			if (Character.isLetterOrDigit(token.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * SplitMix64 finalizer
+	 * @param value value to mix
+	 * @return well distributed hash of the value
+	 */
+	private static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
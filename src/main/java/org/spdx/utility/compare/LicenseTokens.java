@@ -0,0 +1,49 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.regex.Pattern;
+
+import org.spdx.licenseTemplate.LicenseTextHelper;
+
+/**
+ * Normalization of license text tokens shared by the license text indexes
+ *
+ * @author Gary O'Neall
+ */
+final class LicenseTokens {
+
+	private static final Pattern DASHES_PATTERN = Pattern.compile("[\\u2010\\u2011\\u2012\\u2013\\u2014\\u2015\\uFE58\\uFF0D\\-]{1,2}");
+
+	private LicenseTokens() {
+		// static utility class
+	}
+
+	/**
+	 * Two tokens are equivalent per {@link LicenseTextHelper#tokensEquivalent(String, String)} if and only if
+	 * they have the same key
+	 *
+	 * @param token license text token
+	 * @return key for the token
+	 */
+	static String tokenKey(String token) {
+		String key = DASHES_PATTERN.matcher(token.trim().toLowerCase()).replaceAll("-");
+		String normalized = LicenseTextHelper.NORMALIZE_TOKENS.get(key);
+		return normalized == null ? key : normalized;
+	}
+}
@@ -22,22 +22,32 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.TypedValue;
 import org.spdx.library.SpdxModelFactory;
 import org.spdx.library.model.v2.Annotation;
 import org.spdx.library.model.v2.Checksum;
 import org.spdx.library.model.v2.ExternalDocumentRef;
+import org.spdx.library.model.v2.ExternalSpdxElement;
 import org.spdx.library.model.v2.ModelObjectV2;
 import org.spdx.library.model.v2.Relationship;
 import org.spdx.library.model.v2.SpdxConstantsCompatV2;
@@ -50,7 +60,6 @@ import org.spdx.library.model.v2.SpdxPackageVerificationCode;
 import org.spdx.library.model.v2.SpdxSnippet;
 import org.spdx.library.model.v2.license.AnyLicenseInfo;
 import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
-import org.spdx.licenseTemplate.LicenseTextHelper;
 /**
  * Performs a comparison between two or more SPDX documents and holds the results of the comparison
  * <p>
@@ -65,6 +74,16 @@ import org.spdx.licenseTemplate.LicenseTextHelper;
  * perform the comparison are synchronized and a flag is used to throw an error for any
  * calls to getters when a compare is in progress.  There is a small theoretical window in the
  * getters where the compare operation is started in the middle of a get operation.
+ <p>
+ * If an executor is provided to the constructor, the comparisons between each pair of documents are run
+ * concurrently on the executor.  The field by field comparisons of the packages and snippets are also run
+ * on the executor, one task for each package or snippet name which adds the elements in document order.
+ * The element lists for each document are collected and sorted once and the results are merged in document
+ * order, so the results are identical to the sequential comparison.  The model
+ * stores for the documents must support concurrent reads.
+ * <p>
+ * Files and packages with the same content digest in both documents are not compared field by field since
+ * no differences would be found - see {@link SpdxElementDigests}.
  * 
  * @author Gary O'Neall
  */
@@ -73,6 +92,11 @@ public class SpdxComparer {
 	
 	static final Logger logger = LoggerFactory.getLogger(SpdxComparer.class);
 	
+	private final Executor executor;	// null to compare sequentially
+	/**
+	 * Content digests of the files and packages used to skip comparing identical elements
+	 */
+	private final SpdxElementDigests elementDigests = new SpdxElementDigests();
 	private List<SpdxDocument> spdxDocs = null;
 	private boolean differenceFound = false;
 	private boolean compareInProgress = false;
@@ -103,6 +127,11 @@ public class SpdxComparer {
 	 * being equivalent 
 	 */
 	private final Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap = new HashMap<>();
+	/**
+	 * Object URIs of all extracted license infos in the compared documents - used to detect changes to the
+	 * extracted license infos in {@link #compareChanged(Collection)}
+	 */
+	private final Set<String> extractedLicenseUris = new HashSet<>();
 
 	private boolean creatorInformationEquals;
 	
@@ -122,6 +151,13 @@ public class SpdxComparer {
 	 * is an SPDXReview with the same filename name but a different file property
 	 */
 	private final Map<SpdxDocument, Map<SpdxDocument, List<SpdxFileDifference>>> fileDifferences = new HashMap<>();
+	
+	/**
+	 * Holds the results of comparing each pair of files with the same name keyed by the object URIs of the
+	 * two files - the value is null if no difference was found.  Used to skip comparing files which have not
+	 * changed in {@link #compareChanged(Collection)}
+	 */
+	private final Map<SpdxDocument, Map<SpdxDocument, Map<String, SpdxFileDifference>>> fileComparisons = new HashMap<>();
 
 	// Package compare results
 	/**
@@ -151,7 +187,14 @@ public class SpdxComparer {
 	private final Map<String, SpdxSnippetComparer>  snippetComparers = new HashMap<>();
 	
 	public SpdxComparer() {
-		// Default empty constructor
+		this(null);
+	}
+
+	/**
+	 * @param executor executor used to compare pairs of documents concurrently, or null to compare sequentially
+	 */
+	public SpdxComparer(@Nullable Executor executor) {
+		this.executor = executor;
 	}
 	
 	/**
@@ -174,10 +217,83 @@ public class SpdxComparer {
 	public synchronized void compare(List<SpdxDocument> spdxDocuments) throws InvalidSPDXAnalysisException, SpdxCompareException {
 		//TODO: Add a monitor function which allows for cancel
 		clearCompareResults();
+		this.elementDigests.clear();
 		this.spdxDocs = spdxDocuments;
 		differenceFound = false;
 		performCompare();	
 	}
+	
+	/**
+	 * Updates the results of the previous comparison after elements in the compared documents have changed
+	 * <p>
+	 * Only the comparisons affected by the changed elements are performed again.  Pairs of files are only
+	 * compared again if either file changed, packages are only compared again if a package with the same name
+	 * changed or contains a changed file, and snippets are only compared again if a snippet or file changed.
+	 * Document level information is always compared again.  If an extracted license info changed, the documents
+	 * are completely compared again since the license IDs mapped between the documents may change.
+	 * <p>
+	 * The changed elements must include every element added, removed or modified since the previous comparison,
+	 * including elements whose relationships or annotations changed.
+	 * @param changedElementUris object URIs of the changed elements in any of the compared documents
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 * @throws SpdxCompareException if no comparison has been performed or on compare errors
+	 */
+	public synchronized void compareChanged(Collection<String> changedElementUris) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		if (Objects.isNull(this.spdxDocs)) {
+			throw new SpdxCompareException("No compare has been performed");
+		}
+		Set<String> changedUris = new HashSet<>(changedElementUris);
+		if (changedUris.isEmpty()) {
+			return;
+		}
+		Set<String> changedTypes = new HashSet<>();
+		for (String uri:changedUris) {
+			boolean found = false;
+			for (SpdxDocument spdxDoc:spdxDocs) {
+				Optional<TypedValue> typedValue = spdxDoc.getModelStore().getTypedValue(uri);
+				if (typedValue.isPresent()) {
+					changedTypes.add(typedValue.get().getType());
+					found = true;
+				}
+			}
+			if (!found) {
+				changedTypes.add(null);	// removed element - could be any type
+			}
+		}
+		if (changedTypes.contains(SpdxConstantsCompatV2.CLASS_SPDX_EXTRACTED_LICENSING_INFO) ||
+				!Collections.disjoint(changedUris, this.extractedLicenseUris)) {
+			compare(this.spdxDocs);
+			return;
+		}
+		boolean filesChanged = changedTypes.contains(SpdxConstantsCompatV2.CLASS_SPDX_FILE) || changedTypes.contains(null);
+		this.elementDigests.invalidate(changedUris);
+		compareInProgress = true;
+		try {
+			differenceFound = !_isExtractedLicensingInfoEqualsNoCheck();
+			compareDocumentFields();
+			if (filesChanged || changedTypes.contains(SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET)) {
+				compareSnippets();
+			} else if (!_isSnippetsEqualsNoCheck()) {
+				this.differenceFound = true;
+			}
+			if (filesChanged) {
+				compareFiles(changedUris);
+			} else if (!_isFilesEqualsNoCheck()) {
+				this.differenceFound = true;
+			}
+			if (filesChanged || changedTypes.contains(SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE)) {
+				comparePackages(changedUris, filesChanged);
+			} else if (!_isPackagesEqualsNoCheck()) {
+				this.differenceFound = true;
+			}
+			compareCreators();
+			compareDocumentAnnotations();
+			compareDocumentRelationships();
+			compareExternalDocumentRefs();
+		} finally {
+			compareInProgress = false;
+		}
+	}
 
 	/**
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
@@ -186,17 +302,20 @@ public class SpdxComparer {
 	 */
 	private void performCompare() throws InvalidSPDXAnalysisException, SpdxCompareException {
 		compareInProgress = true;
-		differenceFound = false;
-		compareExtractedLicenseInfos();	// note - this must be done first to build the translation map of IDs
-		compareDocumentFields();
-		compareSnippets();
-		compareFiles();
-		comparePackages();
-		compareCreators();
-		compareDocumentAnnotations();
-		compareDocumentRelationships();
-		compareExternalDocumentRefs();
-		compareInProgress = false;	
+		try {
+			differenceFound = false;
+			compareExtractedLicenseInfos();	// note - this must be done first to build the translation map of IDs
+			compareDocumentFields();
+			compareSnippets();
+			compareFiles(null);
+			comparePackages(null, false);
+			compareCreators();
+			compareDocumentAnnotations();
+			compareDocumentRelationships();
+			compareExternalDocumentRefs();
+		} finally {
+			compareInProgress = false;
+		}
 	}
 
 	/**
@@ -211,14 +330,15 @@ public class SpdxComparer {
 		}
 		this.uniqueSnippets.clear();
 		this.snippetComparers.clear();
-		// N x N comparison of all snippets
+		// collect and sort the snippets once for each document
+		final List<List<SpdxSnippet>> docSnippets = new ArrayList<>();
 		for (int i = 0; i < spdxDocs.size(); i++) {
-			List<SpdxSnippet> snippetsA;
-			Stream<SpdxSnippet> snippetStreamA = null;
+			List<SpdxSnippet> snippets;
+			Stream<SpdxSnippet> snippetStream = null;
 			try {
-			    snippetStreamA = (Stream<SpdxSnippet>)SpdxModelFactory.getSpdxObjects(spdxDocs.get(i).getModelStore(), null, 
+			    snippetStream = (Stream<SpdxSnippet>)SpdxModelFactory.getSpdxObjects(spdxDocs.get(i).getModelStore(), null, 
 			    				SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET, spdxDocs.get(i).getDocumentUri(), null);
-				snippetsA = snippetStreamA.collect(Collectors.toList());
+				snippets = snippetStream.collect(Collectors.toList());
 			} catch (InvalidSPDXAnalysisException e) {
 				try {
 					throw new SpdxCompareException("Error collecting snippets from SPDX document "+spdxDocs.get(i).getName(), e);
@@ -226,49 +346,27 @@ public class SpdxComparer {
 					throw new SpdxCompareException("Error collecting snippets from SPDX document ", e);
 				}
 			} finally {
-			    if (Objects.nonNull(snippetStreamA)) {
-			        snippetStreamA.close();
+			    if (Objects.nonNull(snippetStream)) {
+			        snippetStream.close();
 			    }
 			}
 			// note - the snippet arrays MUST be sorted for the comparator methods to work
-			Collections.sort(snippetsA);
-			addSnippetComparers(spdxDocs.get(i), snippetsA);
-			Map<SpdxDocument, List<SpdxSnippet>> uniqueAMap = this.uniqueSnippets.get(spdxDocs.get(i));
-			if (uniqueAMap == null) {
-				uniqueAMap = new HashMap<>();
-			}
-			for (int j = 0; j < spdxDocs.size(); j++) {
-				if (j == i) {
-					continue;
-				}
-				List<SpdxSnippet> snippetsB;
-				Stream<SpdxSnippet> snippetStreamB = null;
-				try {
-				    snippetStreamB = (Stream<SpdxSnippet>)SpdxModelFactory.getSpdxObjects(spdxDocs.get(j).getModelStore(),
-				    		null, SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET, spdxDocs.get(j).getDocumentUri(), null);
-					snippetsB = snippetStreamB.collect(Collectors.toList());
-				} catch (InvalidSPDXAnalysisException e) {
-					try {
-						throw new SpdxCompareException("Error collecting snippets from SPDX document "+spdxDocs.get(j).getName(), e);
-					} catch (InvalidSPDXAnalysisException e1) {
-						throw new SpdxCompareException("Error collecting snippets from SPDX document ", e);
-					}
-				} finally {
-				    if (Objects.nonNull(snippetStreamB)) {
-				        snippetStreamB.close();
-				    }
-				}
-				//Note that the files arrays must be sorted for the find methods to work
-				Collections.sort(snippetsB);
-				List<SpdxSnippet> uniqueAB = findUniqueSnippets(snippetsA, snippetsB);
-				if (!uniqueAB.isEmpty()) {
-					uniqueAMap.put(spdxDocs.get(j), uniqueAB);
-				}
-			}
-			if (!uniqueAMap.isEmpty()) {
-				this.uniqueSnippets.put(spdxDocs.get(i), uniqueAMap);
-			}
+			Collections.sort(snippets);
+			docSnippets.add(snippets);
 		}
+		try {
+			addSnippetComparers(docSnippets);
+		} catch (InvalidSPDXAnalysisException e) {
+			throw new SpdxCompareException("Exception comparing SPDX snippets",e);
+		}
+		// N x N comparison of all snippets
+		List<List<List<SpdxSnippet>>> pairResults;
+		try {
+			pairResults = comparePairs((i, j) -> findUniqueSnippets(docSnippets.get(i), docSnippets.get(j)));
+		} catch (InvalidSPDXAnalysisException e) {
+			throw new SpdxCompareException("Error comparing snippets", e);
+		}
+		mergePairResults(pairResults, this.uniqueSnippets);
 		if (!_isSnippetsEqualsNoCheck()) {
 			this.differenceFound = true;
 		}		
@@ -279,7 +377,7 @@ public class SpdxComparer {
 	 * @param snippetsB snippets to compare
 	 * @return list of snippets which are in B but not in A
 	 */
-	private List<SpdxSnippet> findUniqueSnippets(List<SpdxSnippet> snippetsA,
+	static List<SpdxSnippet> findUniqueSnippets(List<SpdxSnippet> snippetsA,
 			List<SpdxSnippet> snippetsB) {
 		int bIndex = 0;
 		int aIndex = 0;
@@ -308,57 +406,45 @@ public class SpdxComparer {
 	}
 
 	/**
-	 * @param spdxDocument Document containing the snippets
-	 * @param snippets the snippets
-	 * @throws SpdxCompareException on error
+	 * Add the snippets of each document to the snippet comparers - the snippets with different names are
+	 * compared concurrently if an executor was provided when constructing this comparer
+	 * @param docSnippets snippets for each document
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 * @throws SpdxCompareException on compare errors
 	 */
-	private void addSnippetComparers(
-			SpdxDocument spdxDocument,
-			List<SpdxSnippet> snippets) throws SpdxCompareException {
-		for (SpdxSnippet snippet:snippets) {
-			SpdxSnippetComparer comparer = this.snippetComparers.get(snippet.toString());
-			if (comparer == null) {
-				comparer = new SpdxSnippetComparer(extractedLicenseIdMap);
-				this.snippetComparers.put(snippet.toString(), comparer);
-			}
-			try {
-				comparer.addDocumentSnippet(spdxDocument, snippet);
-			} catch (InvalidSPDXAnalysisException e) {
-				throw new SpdxCompareException("Exception comparing SPDX snippets",e);
+	private void addSnippetComparers(List<List<SpdxSnippet>> docSnippets) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		Map<String, List<ElementComparison>> comparisonsByName = new LinkedHashMap<>();
+		for (int i = 0; i < spdxDocs.size(); i++) {
+			final SpdxDocument spdxDocument = spdxDocs.get(i);
+			for (SpdxSnippet snippet:docSnippets.get(i)) {
+				SpdxSnippetComparer comparer = this.snippetComparers.get(snippet.toString());
+				if (comparer == null) {
+					comparer = new SpdxSnippetComparer(extractedLicenseIdMap);
+					this.snippetComparers.put(snippet.toString(), comparer);
+				}
+				final SpdxSnippetComparer snippetComparer = comparer;
+				comparisonsByName.computeIfAbsent(snippet.toString(), k -> new ArrayList<>())
+						.add(() -> snippetComparer.addDocumentSnippet(spdxDocument, snippet));
 			}
 		}
+		runComparisons(comparisonsByName.values());
 	}
 
 	/**
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
-	 * 
+	 * @throws SpdxCompareException on compare errors
 	 */
-	private void compareExternalDocumentRefs() throws InvalidSPDXAnalysisException {
+	private void compareExternalDocumentRefs() throws InvalidSPDXAnalysisException, SpdxCompareException {
 		// this will be a N x N comparison of all external document relationships to fill the
 		// hashmap uniqueExternalDocumentRefs
-		for (int i = 0; i < spdxDocs.size(); i++) {
-			Collection<ExternalDocumentRef> externalDocRefsA = spdxDocs.get(i).getExternalDocumentRefs();
-			Map<SpdxDocument, List<ExternalDocumentRef>> uniqueAMap = uniqueExternalDocumentRefs.get(spdxDocs.get(i));
-			if (uniqueAMap == null) {
-				uniqueAMap = new HashMap<>();
-				// We will put this into the hashmap at the end of this method if it is not empty
-			}
-			for (int j = 0; j < spdxDocs.size(); j++) {
-				if (j == i) {
-					continue;	// skip comparing to ourself
-				}
-				Collection<ExternalDocumentRef> externalDocRefsB = spdxDocs.get(j).getExternalDocumentRefs();
-
-				// find any external refs in A that are not in B
-				List<ExternalDocumentRef> uniqueA = findUniqueExternalDocumentRefs(externalDocRefsA, externalDocRefsB);
-				if (!uniqueA.isEmpty()) {
-					uniqueAMap.put(spdxDocs.get(j), uniqueA);					
-				}
-			}
-			if (!uniqueAMap.isEmpty()) {
-				this.uniqueExternalDocumentRefs.put(spdxDocs.get(i), uniqueAMap);
-			}
-		}
+		this.uniqueExternalDocumentRefs.clear();
+		final List<Collection<ExternalDocumentRef>> docExternalDocRefs = new ArrayList<>();
+		for (SpdxDocument spdxDoc:spdxDocs) {
+			docExternalDocRefs.add(spdxDoc.getExternalDocumentRefs());
+		}
+		// find any external refs in A that are not in B
+		mergePairResults(comparePairs((i, j) -> findUniqueExternalDocumentRefs(
+				docExternalDocRefs.get(i), docExternalDocRefs.get(j))), this.uniqueExternalDocumentRefs);
 		if (!this._isExternalDocumentRefsEqualsNoCheck()) {
 			this.differenceFound = true;
 		}	
@@ -367,33 +453,19 @@ public class SpdxComparer {
 	/**
 	 * Compare all of the document level relationships
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 * @throws SpdxCompareException on compare errors
 	 */
-	private void compareDocumentRelationships() throws InvalidSPDXAnalysisException {
+	private void compareDocumentRelationships() throws InvalidSPDXAnalysisException, SpdxCompareException {
 		// this will be a N x N comparison of all document level relationships to fill the
 		// hashmap uniqueDocumentRelationships
-		for (int i = 0; i < spdxDocs.size(); i++) {
-			Collection<Relationship> relationshipsA = spdxDocs.get(i).getRelationships();
-			Map<SpdxDocument, List<Relationship>> uniqueAMap = uniqueDocumentRelationships.get(spdxDocs.get(i));
-			if (uniqueAMap == null) {
-				uniqueAMap = new HashMap<>();
-				// We will put this into the hashmap at the end of this method if it is not empty
-			}
-			for (int j = 0; j < spdxDocs.size(); j++) {
-				if (j == i) {
-					continue;	// skip comparing to ourself
-				}
-				Collection<Relationship> relationshipsB = spdxDocs.get(j).getRelationships();
-
-				// find any creators in A that are not in B
-				List<Relationship> uniqueA = findUniqueRelationships(relationshipsA, relationshipsB);
-				if (!uniqueA.isEmpty()) {
-					uniqueAMap.put(spdxDocs.get(j), uniqueA);					
-				}
-			}
-			if (!uniqueAMap.isEmpty()) {
-				this.uniqueDocumentRelationships.put(spdxDocs.get(i), uniqueAMap);
-			}
-		}
+		this.uniqueDocumentRelationships.clear();
+		final List<Collection<Relationship>> docRelationships = new ArrayList<>();
+		for (SpdxDocument spdxDoc:spdxDocs) {
+			docRelationships.add(spdxDoc.getRelationships());
+		}
+		// find any relationships in A that are not in B
+		mergePairResults(comparePairs((i, j) -> findUniqueRelationships(
+				docRelationships.get(i), docRelationships.get(j))), this.uniqueDocumentRelationships);
 		if (!this._isDocumentRelationshipsEqualsNoCheck()) {
 			this.differenceFound = true;
 		}	
@@ -402,101 +474,296 @@ public class SpdxComparer {
 	/**
 	 * Compare all of the Document level annotations
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 * @throws SpdxCompareException on compare errors
 	 */
-	private void compareDocumentAnnotations() throws InvalidSPDXAnalysisException {
+	private void compareDocumentAnnotations() throws InvalidSPDXAnalysisException, SpdxCompareException {
 		// this will be a N x N comparison of all document level annotations to fill the
 		// hashmap uniqueAnnotations
+		this.uniqueDocumentAnnotations.clear();
+		final List<Collection<Annotation>> docAnnotations = new ArrayList<>();
+		for (SpdxDocument spdxDoc:spdxDocs) {
+			docAnnotations.add(spdxDoc.getAnnotations());
+		}
+		// find any annotations in A that are not in B
+		mergePairResults(comparePairs((i, j) -> findUniqueAnnotations(
+				docAnnotations.get(i), docAnnotations.get(j))), this.uniqueDocumentAnnotations);
+		if (!this._isDocumentAnnotationsEqualsNoCheck()) {
+			this.differenceFound = true;
+		}	
+	}
+
+	/**
+	 * @param changedUris object URIs of the elements changed since the previous comparison, or null to
+	 * compare all files
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 * @throws SpdxCompareException on compare errors
+	 * 
+	 */
+	private void compareFiles(@Nullable final Set<String> changedUris) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		this.uniqueFiles.clear();
+		this.fileDifferences.clear();
+		// collect, sort and index the files by name once for each document
+		final List<SpdxFileIndex> docFiles = new ArrayList<>();
+		for (SpdxDocument spdxDoc:spdxDocs) {
+			docFiles.add(SpdxFileIndex.sortedByName(collectAllFiles(spdxDoc)));
+		}
+		// N x N comparison of all files
+		mergePairResults(comparePairs((i, j) -> docFiles.get(i).findUniqueFiles(docFiles.get(j))), this.uniqueFiles);
+		final Map<SpdxDocument, Map<SpdxDocument, Map<String, SpdxFileDifference>>> previousComparisons =
+				Objects.isNull(changedUris) ? Collections.emptyMap() : new HashMap<>(this.fileComparisons);
+		this.fileComparisons.clear();
+		List<List<Map<String, SpdxFileDifference>>> pairComparisons = comparePairs((i, j) -> compareMatchingFiles(
+				spdxDocs.get(i), spdxDocs.get(j), docFiles.get(i), docFiles.get(j), this.extractedLicenseIdMap,
+				this.elementDigests, previousComparisons.getOrDefault(spdxDocs.get(i), Collections.emptyMap())
+						.getOrDefault(spdxDocs.get(j), Collections.emptyMap()), changedUris));
+		List<List<List<SpdxFileDifference>>> pairResults = new ArrayList<>();
 		for (int i = 0; i < spdxDocs.size(); i++) {
-			Collection<Annotation> annotationsA = spdxDocs.get(i).getAnnotations();
-			Map<SpdxDocument, List<Annotation>> uniqueAMap = uniqueDocumentAnnotations.get(spdxDocs.get(i));
-			if (uniqueAMap == null) {
-				uniqueAMap = new HashMap<>();
-				// We will put this into the hashmap at the end of this method if it is not empty
-			}
+			List<List<SpdxFileDifference>> row = new ArrayList<>();
 			for (int j = 0; j < spdxDocs.size(); j++) {
-				if (j == i) {
-					continue;	// skip comparing to ourself
+				if (i == j) {
+					row.add(null);
+					continue;
 				}
-				Collection<Annotation> annotationsB = spdxDocs.get(j).getAnnotations();
+				Map<String, SpdxFileDifference> comparisons = pairComparisons.get(i).get(j);
+				this.fileComparisons.computeIfAbsent(spdxDocs.get(i), k -> new HashMap<>()).put(spdxDocs.get(j), comparisons);
+				row.add(comparisons.values().stream().filter(Objects::nonNull).collect(Collectors.toList()));
+			}
+			pairResults.add(row);
+		}
+		mergePairResults(pairResults, this.fileDifferences);
+		if (!_isFilesEqualsNoCheck()) {
+			this.differenceFound = true;
+		}
+	}
 
-				// find any creators in A that are not in B
-				List<Annotation> uniqueA = findUniqueAnnotations(annotationsA, annotationsB);
-				if (!uniqueA.isEmpty()) {
-					uniqueAMap.put(spdxDocs.get(j), uniqueA);					
+	/**
+	 * Compares the files in A and B with the same name reusing the previous comparisons for unchanged files
+	 * @param docA document containing files A
+	 * @param docB document containing files B
+	 * @param filesA index of the source files
+	 * @param filesB index of the files to compare
+	 * @param licenseIdXlationMap map of extracted license IDs between the documents
+	 * @param elementDigests content digests used to skip comparing identical files
+	 * @param previousComparisons previous results of comparing files A to files B
+	 * @param changedUris object URIs of the elements changed since the previous comparison, or null to
+	 * compare all files
+	 * @return the file differences, or null if no difference was found, for each pair of files in matching order
+	 * keyed by {@link #fileComparisonKey(SpdxFile, SpdxFile)}
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	private static Map<String, SpdxFileDifference> compareMatchingFiles(SpdxDocument docA, SpdxDocument docB,
+			SpdxFileIndex filesA, SpdxFileIndex filesB,
+			Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> licenseIdXlationMap,
+			SpdxElementDigests elementDigests, Map<String, SpdxFileDifference> previousComparisons,
+			@Nullable Set<String> changedUris) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		Map<String, SpdxFileDifference> retval = new LinkedHashMap<>();
+		for (int[] match:filesA.findMatchingPositions(filesB)) {
+			SpdxFile fileA = filesA.getFiles()[match[0]];
+			SpdxFile fileB = filesB.getFiles()[match[1]];
+			String key = fileComparisonKey(fileA, fileB);
+			if (Objects.nonNull(changedUris) && previousComparisons.containsKey(key) &&
+					!changedUris.contains(fileA.getObjectUri()) && !changedUris.contains(fileB.getObjectUri())) {
+				retval.put(key, previousComparisons.get(key));
+				continue;
+			}
+			SpdxFileComparer fileComparer = new SpdxFileComparer(licenseIdXlationMap, elementDigests);
+			fileComparer.addDocumentFile(docA, fileA);
+			fileComparer.addDocumentFile(docB, fileB);
+			retval.put(key, fileComparer.isDifferenceFound() ? fileComparer.getFileDifference(docA, docB) : null);
+		}
+		return retval;
+	}
+
+	/**
+	 * @param fileA file in document A
+	 * @param fileB file in document B
+	 * @return key for the comparison of the two files
+	 */
+	private static String fileComparisonKey(SpdxFile fileA, SpdxFile fileB) {
+		return fileA.getObjectUri() + " " + fileB.getObjectUri();
+	}
+
+	/**
+	 * Compares document <code>i</code> to document <code>j</code>
+	 * @param <T> type of the comparison result
+	 */
+	@FunctionalInterface
+	private interface PairComparison<T> {
+		/**
+		 * @param i index of the first document
+		 * @param j index of the document compared to the first document
+		 * @return the result of the comparison
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 * @throws SpdxCompareException on compare errors
+		 */
+		T compare(int i, int j) throws InvalidSPDXAnalysisException, SpdxCompareException;
+	}
+
+	/**
+	 * Adds an element from one document to the comparer for the elements with the same name
+	 */
+	@FunctionalInterface
+	private interface ElementComparison {
+		/**
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 * @throws SpdxCompareException on compare errors
+		 */
+		void compare() throws InvalidSPDXAnalysisException, SpdxCompareException;
+	}
+
+	/**
+	 * Run sequences of element comparisons - each sequence is run in order and the sequences are run
+	 * concurrently on the executor if one was provided when constructing this comparer
+	 * @param sequences sequences of comparisons which do not share any comparers with the other sequences
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 * @throws SpdxCompareException on compare errors
+	 */
+	private void runComparisons(Collection<List<ElementComparison>> sequences) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		if (Objects.isNull(executor) || sequences.size() < 2) {
+			for (List<ElementComparison> sequence:sequences) {
+				for (ElementComparison comparison:sequence) {
+					comparison.compare();
 				}
 			}
-			if (!uniqueAMap.isEmpty()) {
-				this.uniqueDocumentAnnotations.put(spdxDocs.get(i), uniqueAMap);
+			return;
+		}
+		List<FutureTask<Void>> tasks = new ArrayList<>(sequences.size());
+		for (List<ElementComparison> sequence:sequences) {
+			FutureTask<Void> task = new FutureTask<>(() -> {
+				for (ElementComparison comparison:sequence) {
+					comparison.compare();
+				}
+				return null;
+			});
+			tasks.add(task);
+			executor.execute(task);
+		}
+		try {
+			for (FutureTask<Void> task:tasks) {
+				task.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpdxCompareException("Interrupted while comparing SPDX documents", e);
+		} catch (ExecutionException e) {
+			throwCause(e);
+		} finally {
+			for (FutureTask<Void> task:tasks) {
+				task.cancel(false);	// no effect on completed comparisons
 			}
 		}
-		if (!this._isDocumentAnnotationsEqualsNoCheck()) {
-			this.differenceFound = true;
-		}	
 	}
 
 	/**
+	 * @param e exception from a comparison run on the executor
+	 * @throws InvalidSPDXAnalysisException if the comparison failed with an SPDX parsing error
+	 * @throws SpdxCompareException if the comparison failed with a compare error or a checked exception
+	 */
+	private static void throwCause(ExecutionException e) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		Throwable cause = e.getCause();
+		if (cause instanceof SpdxCompareException) {
+			throw (SpdxCompareException)cause;
+		} else if (cause instanceof InvalidSPDXAnalysisException) {
+			throw (InvalidSPDXAnalysisException)cause;
+		} else if (cause instanceof RuntimeException) {
+			throw (RuntimeException)cause;
+		} else if (cause instanceof Error) {
+			throw (Error)cause;
+		} else {
+			throw new SpdxCompareException("Error comparing SPDX documents", cause);
+		}
+	}
+
+	/**
+	 * Compare every document to every other document - the comparisons are run on the executor if
+	 * one was provided when constructing this comparer
+	 * @param <T> type of the comparison result
+	 * @param comparison comparison of two documents which does not modify the comparer
+	 * @return result of comparing document i to document j indexed by i then j - null where i and j are equal
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
 	 * @throws SpdxCompareException on compare errors
-	 * 
 	 */
-	@SuppressWarnings("unchecked")
-	private void compareFiles() throws InvalidSPDXAnalysisException, SpdxCompareException {
-		this.uniqueFiles.clear();
-		this.fileDifferences.clear();
-		// N x N comparison of all files
+	private <T> List<List<T>> comparePairs(PairComparison<T> comparison) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		int numDocs = spdxDocs.size();
+		List<List<T>> retval = new ArrayList<>(numDocs);
+		if (Objects.isNull(executor) || numDocs < 2) {
+			for (int i = 0; i < numDocs; i++) {
+				List<T> row = new ArrayList<>(numDocs);
+				for (int j = 0; j < numDocs; j++) {
+					row.add(i == j ? null : comparison.compare(i, j));
+				}
+				retval.add(row);
+			}
+			return retval;
+		}
+		List<FutureTask<T>> tasks = new ArrayList<>(numDocs * numDocs);
+		for (int i = 0; i < numDocs; i++) {
+			for (int j = 0; j < numDocs; j++) {
+				if (i == j) {
+					tasks.add(null);
+					continue;
+				}
+				final int docIndexA = i;
+				final int docIndexB = j;
+				FutureTask<T> task = new FutureTask<>(() -> comparison.compare(docIndexA, docIndexB));
+				tasks.add(task);
+				executor.execute(task);
+			}
+		}
+		try {
+			for (int i = 0; i < numDocs; i++) {
+				List<T> row = new ArrayList<>(numDocs);
+				for (int j = 0; j < numDocs; j++) {
+					FutureTask<T> task = tasks.get(i * numDocs + j);
+					row.add(Objects.isNull(task) ? null : task.get());
+				}
+				retval.add(row);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpdxCompareException("Interrupted while comparing SPDX documents", e);
+		} catch (ExecutionException e) {
+			throwCause(e);
+		} finally {
+			for (FutureTask<T> task:tasks) {
+				if (Objects.nonNull(task)) {
+					task.cancel(false);	// no effect on completed comparisons
+				}
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * Add the non-empty results of comparing each pair of documents to a result map in document order
+	 * @param <T> type of the compared items
+	 * @param pairResults results from {@link #comparePairs(PairComparison)}
+	 * @param resultMap map of document to a map of the compared document to the non-empty results
+	 */
+	private <T> void mergePairResults(List<List<List<T>>> pairResults,
+			Map<SpdxDocument, Map<SpdxDocument, List<T>>> resultMap) {
 		for (int i = 0; i < spdxDocs.size(); i++) {
-			List<SpdxFile> filesListA;
-			Stream<SpdxFile> fileStreamA = (Stream<SpdxFile>) SpdxModelFactory.getSpdxObjects(
-					spdxDocs.get(i).getModelStore(), null, SpdxConstantsCompatV2.CLASS_SPDX_FILE, 
-					spdxDocs.get(i).getDocumentUri(), null);
-			filesListA = fileStreamA.collect(Collectors.toList());
-			fileStreamA.close();
-			// note - the file arrays MUST be sorted for the comparator methods to work
-			Collections.sort(filesListA);
-			SpdxFile[] filesA = filesListA.toArray(new SpdxFile[0]);
-			Map<SpdxDocument, List<SpdxFile>> uniqueAMap = this.uniqueFiles.get(spdxDocs.get(i));
+			Map<SpdxDocument, List<T>> uniqueAMap = resultMap.get(spdxDocs.get(i));
 			if (uniqueAMap == null) {
 				uniqueAMap = new HashMap<>();
-			}
-			// this map will be added to uniqueFiles at the end if we find anything
-			Map<SpdxDocument, List<SpdxFileDifference>> diffMap = this.fileDifferences.get(spdxDocs.get(i));
-			if (diffMap == null) {
-				diffMap = new HashMap<>();
+				// We will put this into the hashmap at the end if it is not empty
 			}
 			for (int j = 0; j < spdxDocs.size(); j++) {
 				if (j == i) {
-					continue;
-				}
-				 Stream<SpdxFile> fileStreamB = (Stream<SpdxFile>)SpdxModelFactory.getSpdxObjects(
-						 spdxDocs.get(j).getModelStore(), null, SpdxConstantsCompatV2.CLASS_SPDX_FILE, 
-						 spdxDocs.get(j).getDocumentUri(), null);
-				 List<SpdxFile> filesListB = fileStreamB.collect(Collectors.toList());
-				 fileStreamB.close();
-				 //Note that the files arrays must be sorted for the find methods to work
-				Collections.sort(filesListB);
-				SpdxFile[] filesB = filesListB.toArray(new SpdxFile[0]);
-				List<SpdxFile> uniqueAB = findUniqueFiles(filesA, filesB);
-				if (!uniqueAB.isEmpty()) {
-					uniqueAMap.put(spdxDocs.get(j), uniqueAB);
+					continue;	// skip comparing to ourself
 				}
-				List<SpdxFileDifference> differences = findFileDifferences(spdxDocs.get(i), spdxDocs.get(j),
-						filesA, filesB, this.extractedLicenseIdMap);
-				if (!differences.isEmpty()) {
-					diffMap.put(spdxDocs.get(j), differences);
+				List<T> result = pairResults.get(i).get(j);
+				if (!result.isEmpty()) {
+					uniqueAMap.put(spdxDocs.get(j), result);
 				}
 			}
 			if (!uniqueAMap.isEmpty()) {
-				this.uniqueFiles.put(spdxDocs.get(i), uniqueAMap);
-			}
-			if (!diffMap.isEmpty()) {
-				this.fileDifferences.put(spdxDocs.get(i), diffMap);
+				resultMap.put(spdxDocs.get(i), uniqueAMap);
 			}
 		}
-		if (!_isFilesEqualsNoCheck()) {
-			this.differenceFound = true;
-		}
 	}
-	
+
 	/**
 	 * Collect all of the packages present in the SPDX document including packages 
 	 * embedded in other relationships within documents
@@ -543,32 +810,31 @@ public class SpdxComparer {
 	static List<SpdxFileDifference> findFileDifferences(SpdxDocument docA, SpdxDocument docB,
 			SpdxFile[] filesA, SpdxFile[] filesB, 
 			Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> licenseIdXlationMap) throws SpdxCompareException, InvalidSPDXAnalysisException {
-		
+		return findFileDifferences(docA, docB, new SpdxFileIndex(filesA), new SpdxFileIndex(filesB), licenseIdXlationMap);
+	}
+
+	/**
+	 * Returns an array of files differences between A and B where the names
+	 * are the same, but one or more properties are different for that file
+	 * @param docA document containing files A
+	 * @param docB document containing files B
+	 * @param filesA index of the source files
+	 * @param filesB index of the files to compare
+	 * @param licenseIdXlationMap map of extracted license IDs between the documents
+	 * @return a list of files differences between A and B where the names are the same, but one or more properties are different for that file
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	static List<SpdxFileDifference> findFileDifferences(SpdxDocument docA, SpdxDocument docB,
+			SpdxFileIndex filesA, SpdxFileIndex filesB,
+			Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> licenseIdXlationMap) throws SpdxCompareException, InvalidSPDXAnalysisException {
 		List<SpdxFileDifference> alRetval = new ArrayList<>();
-		int aIndex = 0;
-		int bIndex = 0;
-		while (aIndex < filesA.length && bIndex < filesB.length) {
-			int compare = 0;
-			Optional<String> nameA = filesA[aIndex].getName();
-			Optional<String> nameB = filesB[bIndex].getName();
-			if (nameA.isPresent() && nameB.isPresent()) {
-				compare = nameA.get().compareTo(nameB.get());
-			}
-			if (compare == 0) {
-				SpdxFileComparer fileComparer = new SpdxFileComparer(licenseIdXlationMap);
-				fileComparer.addDocumentFile(docA, filesA[aIndex]);
-				fileComparer.addDocumentFile(docB, filesB[bIndex]);
-				if (fileComparer.isDifferenceFound()) {
-					alRetval.add(fileComparer.getFileDifference(docA, docB));
-				}
-				aIndex++;
-				bIndex++;
-			} else if (compare > 0) {
-				// fileA is greater than fileB
-				bIndex++;
-			} else {
-				// fileB is greater than fileA
-				aIndex++;
+		for (int[] match:filesA.findMatchingPositions(filesB)) {
+			SpdxFileComparer fileComparer = new SpdxFileComparer(licenseIdXlationMap);
+			fileComparer.addDocumentFile(docA, filesA.getFiles()[match[0]]);
+			fileComparer.addDocumentFile(docB, filesB.getFiles()[match[1]]);
+			if (fileComparer.isDifferenceFound()) {
+				alRetval.add(fileComparer.getFileDifference(docA, docB));
 			}
 		}
 		return alRetval;
@@ -616,30 +882,7 @@ public class SpdxComparer {
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
 	 */
 	static List<SpdxFile> findUniqueFiles(SpdxFile[] filesA, SpdxFile[] filesB) throws InvalidSPDXAnalysisException {
-		int bIndex = 0;
-		int aIndex = 0;
-		List<SpdxFile> alRetval = new ArrayList<>();
-		while (aIndex < filesA.length) {
-			if (bIndex >= filesB.length) {
-				alRetval.add(filesA[aIndex]);
-				aIndex++;
-			} else {
-				int compareVal = compareStrings(filesA[aIndex].getName(), filesB[bIndex].getName());
-				if (compareVal == 0) {
-					// files are equal
-					aIndex++;
-					bIndex++;
-				} else if (compareVal > 0) {
-					// fileA is greater than fileB
-					bIndex++;
-				} else {
-					// fileB is greater tha fileA
-					alRetval.add(filesA[aIndex]);
-					aIndex++;
-				}
-			}
-		}
-		return alRetval;
+		return new SpdxFileIndex(filesA).findUniqueFiles(new SpdxFileIndex(filesB));
 	}
 
 	/**
@@ -647,7 +890,10 @@ public class SpdxComparer {
 	 * 
 	 */
 	private void compareCreators() throws InvalidSPDXAnalysisException {
+		this.uniqueCreators.clear();
 		this.creatorInformationEquals = true;
+		this.creatorCommentsEqual = true;
+		this.creationDatesEqual = true;
 		this.licenseListVersionEquals = true;
 		// this will be a N x N comparison of all creators to fill the
 		// hashmap uniqueCreators
@@ -727,19 +973,22 @@ public class SpdxComparer {
 
 	/**
 	 * Compares the SPDX documents and sets the appropriate flags
+	 * @param changedUris object URIs of the elements changed since the previous comparison, or null to
+	 * compare all packages
+	 * @param filesChanged true if any of the changed elements may be a file
 	 * @throws SpdxCompareException on compare errors
 	 */
-	private void comparePackages() throws SpdxCompareException {
+	private void comparePackages(@Nullable Set<String> changedUris, boolean filesChanged) throws SpdxCompareException {
 		if (this.spdxDocs == null || this.spdxDocs.isEmpty()) {
 			return;
 		}
 		this.uniquePackages.clear();
-		this.packageComparers.clear();
-		// N x N comparison of all files
+		// collect and sort the packages once for each document
+		final List<List<SpdxPackage>> docPackages = new ArrayList<>();
 		for (int i = 0; i < spdxDocs.size(); i++) {
-			List<SpdxPackage> pkgsA;
+			List<SpdxPackage> pkgs;
 			try {
-				pkgsA = collectAllPackages(spdxDocs.get(i));
+				pkgs = collectAllPackages(spdxDocs.get(i));
 			} catch (InvalidSPDXAnalysisException e) {
 				try {
 					throw new SpdxCompareException("Error collecting packages from SPDX document "+spdxDocs.get(i).getName(), e);
@@ -748,77 +997,118 @@ public class SpdxComparer {
 				}
 			}
 			// note - the package arrays MUST be sorted for the comparator methods to work
-			Collections.sort(pkgsA);
-			addPackageComparers(spdxDocs.get(i), pkgsA, this.extractedLicenseIdMap);
-			Map<SpdxDocument, List<SpdxPackage>> uniqueAMap = this.uniquePackages.get(spdxDocs.get(i));
-			if (uniqueAMap == null) {
-				uniqueAMap = new HashMap<>();
-			}
-			for (int j = 0; j < spdxDocs.size(); j++) {
-				if (j == i) {
-					continue;
+			Collections.sort(pkgs);
+			docPackages.add(pkgs);
+		}
+		Set<String> changedPackageNames = null;
+		if (Objects.isNull(changedUris)) {
+			this.packageComparers.clear();
+		} else {
+			changedPackageNames = findChangedPackageNames(docPackages, changedUris, filesChanged);
+			this.packageComparers.keySet().removeAll(changedPackageNames);
+		}
+		try {
+			addPackageComparers(docPackages, changedPackageNames);
+		} catch (InvalidSPDXAnalysisException e) {
+			throw new SpdxCompareException("Error comparing packages", e);
+		}
+		// N x N comparison of all packages
+		List<List<List<SpdxPackage>>> pairResults;
+		try {
+			pairResults = comparePairs((i, j) -> findUniquePackages(docPackages.get(i), docPackages.get(j)));
+		} catch (InvalidSPDXAnalysisException e) {
+			throw new SpdxCompareException("Error comparing packages", e);
+		}
+		mergePairResults(pairResults, this.uniquePackages);
+		if (!_isPackagesEqualsNoCheck()) {
+			this.differenceFound = true;
+		}		
+	}
+
+	/**
+	 * @param docPackages packages for each document
+	 * @param changedUris object URIs of the elements changed since the previous comparison
+	 * @param filesChanged true if any of the changed elements may be a file
+	 * @return names of the packages which must be compared again - packages which are changed, contain a
+	 * changed file or were previously compared to a changed package
+	 * @throws SpdxCompareException on errors getting the package information
+	 */
+	private Set<String> findChangedPackageNames(List<List<SpdxPackage>> docPackages,
+			Set<String> changedUris, boolean filesChanged) throws SpdxCompareException {
+		Set<String> retval = new HashSet<>();
+		// the name of a changed package may have changed
+		for (Entry<String, SpdxPackageComparer> entry:this.packageComparers.entrySet()) {
+			for (SpdxDocument spdxDoc:spdxDocs) {
+				SpdxPackage pkg = entry.getValue().getDocPackage(spdxDoc);
+				if (Objects.nonNull(pkg) && changedUris.contains(pkg.getObjectUri())) {
+					retval.add(entry.getKey());
 				}
-				List<SpdxPackage> pkgsB;
-				try {
-					pkgsB = collectAllPackages(spdxDocs.get(j));
-				} catch (InvalidSPDXAnalysisException e) {
-					try {
-						throw new SpdxCompareException("Error collecting packages from SPDX document "+spdxDocs.get(i).getName(), e);
-					} catch (InvalidSPDXAnalysisException e1) {
-						throw new SpdxCompareException("Error collecting packages from SPDX document ", e);
+			}
+		}
+		try {
+			for (List<SpdxPackage> pkgs:docPackages) {
+				for (SpdxPackage pkg:pkgs) {
+					Optional<String> pkgName = pkg.getName();
+					if (!pkgName.isPresent() || retval.contains(pkgName.get())) {
+						continue;
+					}
+					if (changedUris.contains(pkg.getObjectUri())) {
+						retval.add(pkgName.get());
+					} else if (filesChanged) {
+						for (SpdxFile file:pkg.getFiles()) {
+							if (changedUris.contains(file.getObjectUri())) {
+								retval.add(pkgName.get());
+								break;
+							}
+						}
 					}
-				}
-				//Note that the files arrays must be sorted for the find methods to work
-				Collections.sort(pkgsB);
-				List<SpdxPackage> uniqueAB = findUniquePackages(pkgsA, pkgsB);
-				if (!uniqueAB.isEmpty()) {
-					uniqueAMap.put(spdxDocs.get(j), uniqueAB);
 				}
 			}
-			if (!uniqueAMap.isEmpty()) {
-				this.uniquePackages.put(spdxDocs.get(i), uniqueAMap);
-			}
+		} catch (InvalidSPDXAnalysisException e) {
+			throw new SpdxCompareException("Error getting changed packages", e);
 		}
-		if (!_isPackagesEqualsNoCheck()) {
-			this.differenceFound = true;
-		}		
+		return retval;
 	}
 
 	/**
-	 * add all the document packages to the multi-comparer
-	 * @param spdxDocument document containing the packages
-	 * @param pkgs package to add
-	 * @param extractedLicenseIdMap map of documents to extracted licenses and ids
+	 * Add the packages of each document to the package comparers - the packages with different names are
+	 * compared concurrently if an executor was provided when constructing this comparer
+	 * @param docPackages packages for each document
+	 * @param pkgNames if not null, only add packages with names in this set
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
 	 * @throws SpdxCompareException on compare errors
 	 */
-	private void addPackageComparers(SpdxDocument spdxDocument,
-			List<SpdxPackage> pkgs, Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap) throws SpdxCompareException {
-		try {
+	private void addPackageComparers(List<List<SpdxPackage>> docPackages,
+			@Nullable Set<String> pkgNames) throws InvalidSPDXAnalysisException, SpdxCompareException {
+		Map<String, List<ElementComparison>> comparisonsByName = new LinkedHashMap<>();
+		for (int i = 0; i < spdxDocs.size(); i++) {
+			final SpdxDocument spdxDocument = spdxDocs.get(i);
 			List<String> addedPackageNames = new ArrayList<>();
-			for (SpdxPackage pkg:pkgs) {
-				if (!pkg.getName().isPresent()) {
+			for (SpdxPackage pkg:docPackages.get(i)) {
+				Optional<String> pkgName = pkg.getName();
+				if (!pkgName.isPresent()) {
 					logger.warn("Missing package name for package comparer.  Skipping unnamed package");
 					continue;
 				}
-				Optional<String> pkgName = pkg.getName();
-				if (pkgName.isPresent()) {
-				    if (addedPackageNames.contains(pkgName.get())) {
-                        logger.warn("Duplicate package names: {}.  Only comparing the first instance", pkgName.get());
-	                    continue;
-	                }
-	                SpdxPackageComparer mpc = this.packageComparers.get(pkgName.get());
-	                if (mpc == null) {
-	                    mpc = new SpdxPackageComparer(extractedLicenseIdMap);
-	                    this.packageComparers.put(pkgName.get(), mpc);
-	                }
-	                mpc.addDocumentPackage(spdxDocument, pkg);
-	                addedPackageNames.add(pkgName.get()); 
+				if (Objects.nonNull(pkgNames) && !pkgNames.contains(pkgName.get())) {
+					continue;
 				}
-				
+				if (addedPackageNames.contains(pkgName.get())) {
+					logger.warn("Duplicate package names: {}.  Only comparing the first instance", pkgName.get());
+					continue;
+				}
+				SpdxPackageComparer mpc = this.packageComparers.get(pkgName.get());
+				if (mpc == null) {
+					mpc = new SpdxPackageComparer(extractedLicenseIdMap, this.elementDigests);
+					this.packageComparers.put(pkgName.get(), mpc);
+				}
+				final SpdxPackageComparer packageComparer = mpc;
+				comparisonsByName.computeIfAbsent(pkgName.get(), k -> new ArrayList<>())
+						.add(() -> packageComparer.addDocumentPackage(spdxDocument, pkg));
+				addedPackageNames.add(pkgName.get());
 			}
-		} catch (InvalidSPDXAnalysisException ex) {
-			throw new SpdxCompareException("Error getting package name", ex);
 		}
+		runComparisons(comparisonsByName.values());
 	}
 
 	/**
@@ -972,34 +1262,44 @@ public class SpdxComparer {
 	 * maps for translating IDs as well as capturing any differences between the
 	 * extracted licensing information
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 * @throws SpdxCompareException on compare errors
      */
-	private void compareExtractedLicenseInfos() throws InvalidSPDXAnalysisException {
+	private void compareExtractedLicenseInfos() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		final List<ExtractedLicenseTextIndex> docExtractedLicenses = new ArrayList<>();
+		this.extractedLicenseUris.clear();
+		for (SpdxDocument spdxDoc:spdxDocs) {
+			Collection<ExtractedLicenseInfo> extractedLicenses = spdxDoc.getExtractedLicenseInfos();
+			// the license texts are tokenized and indexed once for all document pairs
+			docExtractedLicenses.add(new ExtractedLicenseTextIndex(extractedLicenses));
+			for (ExtractedLicenseInfo extractedLicense:extractedLicenses) {
+				this.extractedLicenseUris.add(extractedLicense.getObjectUri());
+			}
+		}
+		List<List<ExtractedLicenseComparison>> pairResults = comparePairs((i, j) -> {
+			ExtractedLicenseComparison result = new ExtractedLicenseComparison();
+			compareLicenses(docExtractedLicenses.get(i), docExtractedLicenses.get(j),
+					result.idMap, result.differences, result.uniqueLicenses);
+			return result;
+		});
 		for (int i = 0; i < spdxDocs.size(); i++) {
-			Collection<ExtractedLicenseInfo> extractedLicensesA = spdxDocs.get(i).getExtractedLicenseInfos();
 			Map<SpdxDocument, List<ExtractedLicenseInfo>> uniqueMap = new HashMap<>();
-				Map<SpdxDocument, List<SpdxLicenseDifference>> differenceMap = new HashMap<>();
-				Map<SpdxDocument, Map<String, String>> licenseIdMap = new HashMap<>();
-
+			Map<SpdxDocument, List<SpdxLicenseDifference>> differenceMap = new HashMap<>();
+			Map<SpdxDocument, Map<String, String>> licenseIdMap = new HashMap<>();
 			for (int j = 0; j < spdxDocs.size(); j++) {
 				if (i == j) {
 					continue;	// no need to compare to ourself;
 				}
-				Map<String, String> idMap = new HashMap<>();
-				List<SpdxLicenseDifference> alDifferences = new ArrayList<>();
-				Collection<ExtractedLicenseInfo> extractedLicensesB = spdxDocs.get(j).getExtractedLicenseInfos();
-				List<ExtractedLicenseInfo> uniqueLicenses = new ArrayList<>();
-				compareLicenses(extractedLicensesA, extractedLicensesB,
-						idMap, alDifferences, uniqueLicenses);
+				ExtractedLicenseComparison result = pairResults.get(i).get(j);
 				// unique
-				if (!uniqueLicenses.isEmpty()) {
-					uniqueMap.put(spdxDocs.get(j), uniqueLicenses);
+				if (!result.uniqueLicenses.isEmpty()) {
+					uniqueMap.put(spdxDocs.get(j), result.uniqueLicenses);
 				}
 				// differences
-				if (!alDifferences.isEmpty()) {
-					differenceMap.put(spdxDocs.get(j), alDifferences);
+				if (!result.differences.isEmpty()) {
+					differenceMap.put(spdxDocs.get(j), result.differences);
 				}
 				// map
-				licenseIdMap.put(spdxDocs.get(j), idMap);
+				licenseIdMap.put(spdxDocs.get(j), result.idMap);
 			}
 			if (!uniqueMap.isEmpty()) {
 				this.uniqueExtractedLicenses.put(spdxDocs.get(i), uniqueMap);
@@ -1014,6 +1314,15 @@ public class SpdxComparer {
 		}
 	}
 
+	/**
+	 * Results of comparing the extracted license infos of two documents
+	 */
+	private static class ExtractedLicenseComparison {
+		final Map<String, String> idMap = new HashMap<>();
+		final List<SpdxLicenseDifference> differences = new ArrayList<>();
+		final List<ExtractedLicenseInfo> uniqueLicenses = new ArrayList<>();
+	}
+
 	/**
 	 * Compares two collections of non standard licenses
 	 * @param extractedLicensesA licenses to compare
@@ -1023,35 +1332,54 @@ public class SpdxComparer {
 	 * @param uniqueLicenses ArrayList if licenses found in the A but not found in B
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
 	 */
-	private void compareLicenses(Collection<ExtractedLicenseInfo> extractedLicensesA,
+	static void compareLicenses(Collection<ExtractedLicenseInfo> extractedLicensesA,
 			Collection<ExtractedLicenseInfo> extractedLicensesB,
 			Map<String, String> idMap,
 			List<SpdxLicenseDifference> alDifferences,
 			List<ExtractedLicenseInfo> uniqueLicenses) throws InvalidSPDXAnalysisException {
+		compareLicenses(new ExtractedLicenseTextIndex(extractedLicensesA), new ExtractedLicenseTextIndex(extractedLicensesB),
+				idMap, alDifferences, uniqueLicenses);
+	}
+
+	/**
+	 * Compares two collections of non standard licenses indexed by license text
+	 * @param extractedLicensesA licenses to compare
+	 * @param extractedLicensesB licenses to compare
+	 * @param idMap Map of license IDs for licenses considered equal
+	 * @param alDifferences Array list of license differences found where the license text is equivalent but other properties are different
+	 * @param uniqueLicenses ArrayList if licenses found in the A but not found in B
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	static void compareLicenses(ExtractedLicenseTextIndex extractedLicensesA,
+			ExtractedLicenseTextIndex extractedLicensesB,
+			Map<String, String> idMap,
+			List<SpdxLicenseDifference> alDifferences,
+			List<ExtractedLicenseInfo> uniqueLicenses) throws InvalidSPDXAnalysisException {
 		idMap.clear();
 		alDifferences.clear();
 		uniqueLicenses.clear();
-		for (ExtractedLicenseInfo licA:extractedLicensesA) {
+		// licenses in A with the same text key have the same text matches in B
+		Map<List<String>, List<ExtractedLicenseInfo>> textMatchesByKey = new HashMap<>();
+		for (int i = 0; i < extractedLicensesA.size(); i++) {
+			ExtractedLicenseInfo licA = extractedLicensesA.getLicense(i);
+			final int position = i;
+			List<ExtractedLicenseInfo> textMatches = textMatchesByKey.computeIfAbsent(extractedLicensesA.getTextKey(i),
+					k -> extractedLicensesB.findEquivalentLicenses(extractedLicensesA, position));
 			boolean foundMatch = false;
-			boolean foundTextMatch = false;
-			for (ExtractedLicenseInfo licB:extractedLicensesB) {
-				if (LicenseTextHelper.isLicenseTextEquivalent(licA.getExtractedText(), 
-						licB.getExtractedText())) {
-					foundTextMatch = true;
-					if (!foundMatch) {
-						idMap.put(licA.getObjectUri(), licB.getObjectUri());
-						// always add to the map any matching licenses.  If more than one, add
-						// the license matches where the entire license match.  This condition checks
-						// to make sure we are not over-writing an exact match
-					}
-					if (nonTextLicenseFieldsEqual(licA, licB)) {
-						foundMatch = true;
-					} else {
-						alDifferences.add(new SpdxLicenseDifference(licA, licB));
-					}
+			for (ExtractedLicenseInfo licB:textMatches) {
+				if (!foundMatch) {
+					idMap.put(licA.getObjectUri(), licB.getObjectUri());
+					// always add to the map any matching licenses.  If more than one, add
+					// the license matches where the entire license match.  This condition checks
+					// to make sure we are not over-writing an exact match
+				}
+				if (nonTextLicenseFieldsEqual(licA, licB)) {
+					foundMatch = true;
+				} else {
+					alDifferences.add(new SpdxLicenseDifference(licA, licB));
 				}
 			}
-			if (!foundTextMatch) {	// we treat the licenses as equivalent if the text matches even if other fields do not match
+			if (textMatches.isEmpty()) {	// we treat the licenses as equivalent if the text matches even if other fields do not match
 				uniqueLicenses.add(licA);
 			}
 		}
@@ -1065,7 +1393,7 @@ public class SpdxComparer {
 	 * @return true if all relevant fields are equal
 	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
 	 */
-	private boolean nonTextLicenseFieldsEqual(
+	private static boolean nonTextLicenseFieldsEqual(
 			ExtractedLicenseInfo spdxNonStandardLicenseA,
 			ExtractedLicenseInfo spdxNonStandardLicenseB) throws InvalidSPDXAnalysisException {
 		
@@ -1184,19 +1512,31 @@ public class SpdxComparer {
 		if (collectionA.size() != collectionB.size()) {
 			return false;
 		}
+		// index B by the equivalence key so that only candidates which can be equivalent are compared
+		Map<List<Object>, List<ModelObjectV2>> keyedB = new HashMap<>();
+		List<ModelObjectV2> unkeyedB = new ArrayList<>();
+		for (ModelObjectV2 elementB:collectionB) {
+			if (Objects.isNull(elementB)) {
+				continue;
+			}
+			List<Object> key = equivalenceKey(elementB);
+			if (Objects.isNull(key)) {
+				unkeyedB.add(elementB);
+			} else {
+				keyedB.computeIfAbsent(key, k -> new ArrayList<>()).add(elementB);
+			}
+		}
 		for (ModelObjectV2 elementA:collectionA) {
 			if (Objects.isNull(elementA)) {
 				continue;
 			}
-			boolean found = false;
-			for (ModelObjectV2 elementB:collectionB) {
-				if (Objects.isNull(elementB)) {
-					continue;
-				}
-				if (elementA.equivalent(elementB)) {
-					found = true;
-					break;
-				}
+			List<Object> key = equivalenceKey(elementA);
+			boolean found;
+			if (Objects.isNull(key)) {
+				found = containsEquivalent(collectionB, elementA);
+			} else {
+				found = containsEquivalent(keyedB.getOrDefault(key, Collections.emptyList()), elementA) ||
+						containsEquivalent(unkeyedB, elementA);
 			}
 			if (!found) {
 				return false;
@@ -1205,6 +1545,45 @@ public class SpdxComparer {
 		return true;
 	}
 
+	/**
+	 * @param collection collection to search
+	 * @param element element to find
+	 * @return true if the collection contains an element equivalent to the element
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	private static boolean containsEquivalent(Collection<? extends ModelObjectV2> collection, ModelObjectV2 element) throws InvalidSPDXAnalysisException {
+		for (ModelObjectV2 candidate:collection) {
+			if (Objects.nonNull(candidate) && element.equivalent(candidate)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Equivalent elements always have equal keys - the element class and the name are compared by the
+	 * model equivalence for SPDX elements
+	 * @param element model object
+	 * @return the class and normalized name of an SPDX element with a name, or null if the object may be
+	 * equivalent to objects with other keys
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	private static List<Object> equivalenceKey(ModelObjectV2 element) throws InvalidSPDXAnalysisException {
+		if (!(element instanceof SpdxElement) || element instanceof ExternalSpdxElement) {
+			return null;
+		}
+		Optional<String> name = ((SpdxElement)element).getName();
+		if (!name.isPresent()) {
+			return null;	// may be equivalent to an element with no name
+		}
+		// names are compared with line endings normalized and leading and trailing whitespace removed
+		String normalizedName = name.get().replace("\r\n", "\n").trim();
+		if (normalizedName.isEmpty() || SpdxConstantsCompatV2.NOASSERTION_VALUE.equals(normalizedName)) {
+			return null;	// may be equivalent to an element with no name
+		}
+		return Arrays.asList(element.getClass(), normalizedName);
+	}
+
 	/**
 	 * Compare two object lists
 	 * @param a1 list
@@ -1345,6 +1724,7 @@ public class SpdxComparer {
 		this.licenseDifferences.clear();
 		this.uniqueExtractedLicenses.clear();
 		this.extractedLicenseIdMap.clear();
+		this.extractedLicenseUris.clear();
 		this.uniqueCreators.clear();
 	}
 
@@ -0,0 +1,436 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spdx.core.IndividualUriValue;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.core.TypedValue;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.PropertyDescriptor;
+
+/**
+ * Cache of comparison summaries keyed by the content hash of the compared documents
+ * <p>
+ * Documents are compared using the {@link StreamingSpdxComparer} and the differences are kept as a
+ * {@link SpdxComparisonSummary}.  Comparing a pair of documents with the same content as a previously
+ * compared pair returns the cached summary without comparing the documents, even if the documents were
+ * read again into a different model store.
+ * <p>
+ * Summaries are kept in memory up to a maximum number of entries, evicting the least recently used
+ * summary.  If a directory is supplied, summaries are also written to the directory in a compact binary
+ * form so they are available to other caches using the same directory.
+ * <p>
+ * A cache may be shared between threads.  A pair of documents being compared by one thread is not compared
+ * again by another thread - the other thread waits for the summary.
+ *
+ * @author Gary O'Neall
+ */
+public class SpdxComparisonCache {
+
+	static final Logger logger = LoggerFactory.getLogger(SpdxComparisonCache.class);
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	private static final String FILE_SUFFIX = ".cmp";
+
+	private final int maxEntries;
+	private final @Nullable Path directory;
+	/**
+	 * Summaries in least recently used order - access must be synchronized on the map
+	 */
+	private final Map<String, SpdxComparisonSummary> entries;
+	private final Map<String, FutureTask<SpdxComparisonSummary>> inProgress = new ConcurrentHashMap<>();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * Create a cache which only keeps summaries in memory
+	 * @param maxEntries maximum number of summaries kept in memory
+	 */
+	public SpdxComparisonCache(int maxEntries) {
+		this.maxEntries = checkMaxEntries(maxEntries);
+		this.directory = null;
+		this.entries = createEntries(maxEntries);
+	}
+
+	/**
+	 * Create a cache which keeps summaries in memory and in a directory
+	 * @param maxEntries maximum number of summaries kept in memory
+	 * @param directory directory for the summaries - created if it does not exist
+	 * @throws IOException if the directory can not be created
+	 */
+	public SpdxComparisonCache(int maxEntries, Path directory) throws IOException {
+		this.maxEntries = checkMaxEntries(maxEntries);
+		this.directory = Files.createDirectories(directory);
+		this.entries = createEntries(maxEntries);
+	}
+
+	private static int checkMaxEntries(int maxEntries) {
+		if (maxEntries < 0) {
+			throw new IllegalArgumentException("Maximum number of entries can not be negative");
+		}
+		return maxEntries;
+	}
+
+	@SuppressWarnings("serial")
+	private static Map<String, SpdxComparisonSummary> createEntries(int maxEntries) {
+		return new LinkedHashMap<String, SpdxComparisonSummary>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SpdxComparisonSummary> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Compare two documents or return the cached summary for documents with the same content
+	 * @param docA original document
+	 * @param docB changed document
+	 * @return the summary of the differences between the documents
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	public SpdxComparisonSummary compare(SpdxDocument docA, SpdxDocument docB) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		String key = contentHash(docA) + "-" + contentHash(docB);
+		SpdxComparisonSummary retval = getEntry(key);
+		if (retval != null) {
+			hitCount.incrementAndGet();
+			return retval;
+		}
+		FutureTask<SpdxComparisonSummary> task = new FutureTask<>(() -> loadOrCompare(key, docA, docB));
+		FutureTask<SpdxComparisonSummary> existing = inProgress.putIfAbsent(key, task);
+		if (existing == null) {
+			try {
+				task.run();
+			} finally {
+				inProgress.remove(key, task);
+			}
+			existing = task;
+		} else {
+			hitCount.incrementAndGet();
+		}
+		try {
+			return existing.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpdxCompareException("Interrupted waiting for the comparison of "
+					+ docA.getDocumentUri() + " and " + docB.getDocumentUri(), e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SpdxCompareException) {
+				throw (SpdxCompareException)cause;
+			} else if (cause instanceof InvalidSPDXAnalysisException) {
+				throw (InvalidSPDXAnalysisException)cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			} else {
+				throw new SpdxCompareException("Error comparing " + docA.getDocumentUri() + " and "
+						+ docB.getDocumentUri(), cause);
+			}
+		}
+	}
+
+	/**
+	 * @param key cache key
+	 * @param docA original document
+	 * @param docB changed document
+	 * @return the summary from memory, the directory or a new comparison
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	private SpdxComparisonSummary loadOrCompare(String key, SpdxDocument docA, SpdxDocument docB) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		SpdxComparisonSummary retval = getEntry(key);	// may have completed since checked
+		if (retval == null) {
+			retval = readFile(key);
+		}
+		if (retval != null) {
+			hitCount.incrementAndGet();
+		} else {
+			missCount.incrementAndGet();
+			List<SpdxComparisonSummary.Difference> differences = new ArrayList<>();
+			new StreamingSpdxComparer(event -> {
+				try {
+					differences.add(SpdxComparisonSummary.toDifference(event));
+				} catch (InvalidSPDXAnalysisException e) {
+					throw new SpdxCompareException("Error reading the elements of a difference", e);
+				}
+			}).compare(docA, docB);
+			retval = new SpdxComparisonSummary(differences);
+			writeFile(key, retval);
+		}
+		synchronized (entries) {
+			entries.put(key, retval);
+		}
+		return retval;
+	}
+
+	/**
+	 * @param key cache key
+	 * @return the summary in memory or null if not in memory
+	 */
+	private @Nullable SpdxComparisonSummary getEntry(String key) {
+		synchronized (entries) {
+			return entries.get(key);
+		}
+	}
+
+	/**
+	 * @param key cache key
+	 * @return the summary in the directory or null if there is no directory or the summary is not in the directory
+	 */
+	private @Nullable SpdxComparisonSummary readFile(String key) {
+		if (directory == null) {
+			return null;
+		}
+		Path file = directory.resolve(key + FILE_SUFFIX);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (InputStream in = Files.newInputStream(file)) {
+			return SpdxComparisonSummary.readFrom(in);
+		} catch (IOException e) {
+			logger.warn("Unable to read cached comparison summary {}; comparing the documents", file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Write the summary to a temporary file and move it into place so readers never see a partial summary
+	 * @param key cache key
+	 * @param summary summary to write
+	 */
+	private void writeFile(String key, SpdxComparisonSummary summary) {
+		if (directory == null) {
+			return;
+		}
+		Path file = directory.resolve(key + FILE_SUFFIX);
+		Path tempFile = null;
+		try {
+			tempFile = Files.createTempFile(directory, key, ".tmp");
+			try (OutputStream out = Files.newOutputStream(tempFile)) {
+				summary.writeTo(out);
+			}
+			try {
+				Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			logger.warn("Unable to write cached comparison summary {}", file, e);
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e1) {
+					logger.warn("Unable to delete temporary file {}", tempFile, e1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all summaries from memory and from the directory
+	 * @throws IOException on errors deleting the summaries in the directory
+	 */
+	public void clear() throws IOException {
+		synchronized (entries) {
+			entries.clear();
+		}
+		if (directory != null) {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+				for (Path file:files) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the maximum number of summaries kept in memory
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * @return the number of comparisons answered without comparing the documents
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of comparisons which compared the documents
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * The hash is of a canonical form of every item in the document namespace.  Element references within the
+	 * document are represented by the SPDX ID and anonymous items by their content, so the hash does not depend
+	 * on the document URI, the order of collections or the model store.  Empty collections are treated the same
+	 * as missing collections.
+	 * @param spdxDocument document to hash
+	 * @return a hex encoded SHA-256 hash of the document content
+	 * @throws InvalidSPDXAnalysisException on errors reading the document
+	 */
+	public static String contentHash(SpdxDocument spdxDocument) throws InvalidSPDXAnalysisException {
+		IModelStore store = spdxDocument.getModelStore();
+		String prefix = spdxDocument.getDocumentUri() + "#";
+		List<String> items = new ArrayList<>();
+		List<TypedValue> typedValues;
+		try (Stream<TypedValue> stream = store.getAllItems(prefix, null)) {
+			typedValues = stream.collect(Collectors.toList());
+		}
+		for (TypedValue typedValue:typedValues) {
+			if (!store.isAnon(typedValue.getObjectUri())) {
+				items.add(canonicalString(typedValue.getObjectUri().substring(prefix.length())) +
+						canonicalItem(store, prefix, typedValue, new HashSet<>()));
+			}
+		}
+		items.sort(null);
+		try {
+			MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+			for (String item:items) {
+				digest.update(item.getBytes(StandardCharsets.UTF_8));
+			}
+			StringBuilder sb = new StringBuilder();
+			for (byte b:digest.digest()) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(DIGEST_ALGORITHM + " is not supported", e);
+		}
+	}
+
+	/**
+	 * @param store store containing the item
+	 * @param prefix document namespace prefix
+	 * @param item item
+	 * @param anonPath object URIs of the anonymous items containing the item - used to stop cycles
+	 * @return canonical form of the type and sorted properties of the item
+	 * @throws InvalidSPDXAnalysisException on errors reading the item
+	 */
+	private static String canonicalItem(IModelStore store, String prefix, TypedValue item, Set<String> anonPath) throws InvalidSPDXAnalysisException {
+		String objectUri = item.getObjectUri();
+		List<String> properties = new ArrayList<>();
+		for (PropertyDescriptor property:store.getPropertyValueDescriptors(objectUri)) {
+			StringBuilder sb = new StringBuilder(canonicalString(property.getNameSpace() + property.getName()));
+			if (store.isCollectionProperty(objectUri, property)) {
+				List<String> values = new ArrayList<>();
+				Iterator<Object> iter = store.listValues(objectUri, property);
+				while (iter.hasNext()) {
+					values.add(canonicalValue(store, prefix, iter.next(), anonPath));
+				}
+				if (values.isEmpty()) {
+					continue;	// reading a collection may create an empty collection
+				}
+				values.sort(null);
+				sb.append('[').append(values.size());
+				for (String value:values) {
+					sb.append(value);
+				}
+				sb.append(']');
+			} else {
+				sb.append(canonicalValue(store, prefix, store.getValue(objectUri, property).orElse(null), anonPath));
+			}
+			properties.add(sb.toString());
+		}
+		properties.sort(null);
+		StringBuilder retval = new StringBuilder("{").append(canonicalString(item.getType()));
+		for (String property:properties) {
+			retval.append(property);
+		}
+		return retval.append('}').toString();
+	}
+
+	/**
+	 * @param store store containing the value
+	 * @param prefix document namespace prefix
+	 * @param value property value
+	 * @param anonPath object URIs of the anonymous items containing the value
+	 * @return canonical form of the value
+	 * @throws InvalidSPDXAnalysisException on errors reading the value
+	 */
+	private static String canonicalValue(IModelStore store, String prefix, @Nullable Object value, Set<String> anonPath) throws InvalidSPDXAnalysisException {
+		if (value == null) {
+			return "n";
+		} else if (value instanceof TypedValue) {
+			TypedValue typedValue = (TypedValue)value;
+			String objectUri = typedValue.getObjectUri();
+			if (store.isAnon(objectUri)) {
+				if (!anonPath.add(objectUri)) {
+					return "c";	// cycle
+				}
+				String retval = "a" + canonicalItem(store, prefix, typedValue, anonPath);
+				anonPath.remove(objectUri);
+				return retval;
+			} else if (objectUri.startsWith(prefix)) {
+				return "r" + canonicalString(objectUri.substring(prefix.length()));
+			} else {
+				return "e" + canonicalString(objectUri);
+			}
+		} else if (value instanceof IndividualUriValue) {
+			return "i" + canonicalString(((IndividualUriValue)value).getIndividualURI());
+		} else if (value instanceof String) {
+			return "s" + canonicalString((String)value);
+		} else {
+			return value.getClass().getSimpleName() + canonicalString(value.toString());
+		}
+	}
+
+	/**
+	 * @param value string value
+	 * @return length prefixed value so different values can not produce the same canonical form
+	 */
+	private static String canonicalString(String value) {
+		return value.length() + ":" + value;
+	}
+}
@@ -0,0 +1,241 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.model.v2.Annotation;
+import org.spdx.library.model.v2.ModelObjectV2;
+import org.spdx.library.model.v2.Relationship;
+import org.spdx.library.model.v2.SpdxElement;
+import org.spdx.utility.compare.SpdxDifferenceEvent.Kind;
+
+/**
+ * Compact summary of the differences found by a {@link StreamingSpdxComparer}
+ * <p>
+ * Each difference is recorded as the kind of difference and a key for the element in each document, so the
+ * summary does not reference the compared documents and can be serialized.  The keys are:
+ * <ul>
+ * <li>The SPDX ID for files, packages, snippets and extracted licenses</li>
+ * <li>The relationship type followed by a space and the SPDX ID of the related element for relationships</li>
+ * <li>The annotator followed by a space and the annotation date for annotations</li>
+ * </ul>
+ * A summary is immutable and may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+public class SpdxComparisonSummary {
+
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * A difference between document A and document B
+	 */
+	public static final class Difference {
+		private final Kind kind;
+		private final String keyA;
+		private final String keyB;
+
+		/**
+		 * @param kind kind of difference
+		 * @param keyA key of the element in document A, or null if the element was added
+		 * @param keyB key of the element in document B, or null if the element was removed
+		 */
+		public Difference(Kind kind, @Nullable String keyA, @Nullable String keyB) {
+			this.kind = kind;
+			this.keyA = keyA;
+			this.keyB = keyB;
+		}
+
+		/**
+		 * @return the kind of difference
+		 */
+		public Kind getKind() {
+			return kind;
+		}
+
+		/**
+		 * @return the key of the element in document A, or null if the element was added
+		 */
+		public @Nullable String getKeyA() {
+			return keyA;
+		}
+
+		/**
+		 * @return the key of the element in document B, or null if the element was removed
+		 */
+		public @Nullable String getKeyB() {
+			return keyB;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Difference)) {
+				return false;
+			}
+			Difference compare = (Difference)o;
+			return kind == compare.kind && Objects.equals(keyA, compare.keyA) && Objects.equals(keyB, compare.keyB);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(kind, keyA, keyB);
+		}
+
+		@Override
+		public String toString() {
+			return kind + ": " + (keyB == null ? keyA : keyB);
+		}
+	}
+
+	private final List<Difference> differences;
+
+	/**
+	 * @param differences differences in the order they were found
+	 */
+	public SpdxComparisonSummary(List<Difference> differences) {
+		this.differences = Collections.unmodifiableList(new ArrayList<>(differences));
+	}
+
+	/**
+	 * @return the differences in the order they were found
+	 */
+	public List<Difference> getDifferences() {
+		return differences;
+	}
+
+	/**
+	 * @return true if any differences were found
+	 */
+	public boolean isDifferenceFound() {
+		return !differences.isEmpty();
+	}
+
+	/**
+	 * @param kind kind of difference
+	 * @return the number of differences of the kind
+	 */
+	public int getDifferenceCount(Kind kind) {
+		int retval = 0;
+		for (Difference difference:differences) {
+			if (difference.kind == kind) {
+				retval++;
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * @param event difference found by the comparer
+	 * @return the difference with the keys of the elements
+	 * @throws InvalidSPDXAnalysisException on errors reading the elements
+	 */
+	static Difference toDifference(SpdxDifferenceEvent event) throws InvalidSPDXAnalysisException {
+		SpdxLicenseDifference licenseDifference = event.getLicenseDifference();
+		if (licenseDifference != null) {
+			return new Difference(event.getKind(), licenseDifference.getIdA(), licenseDifference.getIdB());
+		}
+		return new Difference(event.getKind(), elementKey(event.getElementA()), elementKey(event.getElementB()));
+	}
+
+	/**
+	 * @param element element or null
+	 * @return the key for the element
+	 * @throws InvalidSPDXAnalysisException on errors reading the element
+	 */
+	private static @Nullable String elementKey(@Nullable ModelObjectV2 element) throws InvalidSPDXAnalysisException {
+		if (element == null) {
+			return null;
+		} else if (element instanceof Relationship) {
+			Relationship relationship = (Relationship)element;
+			return relationship.getRelationshipType() + " " +
+					relationship.getRelatedSpdxElement().map(SpdxElement::getId).orElse("");
+		} else if (element instanceof Annotation) {
+			Annotation annotation = (Annotation)element;
+			return annotation.getAnnotator() + " " + annotation.getAnnotationDate();
+		} else {
+			return element.getId();
+		}
+	}
+
+	/**
+	 * Write the summary in a compact binary form which can be read by {@link #readFrom(InputStream)}
+	 * @param out stream to write to - not closed
+	 * @throws IOException on errors writing to the stream
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(FORMAT_VERSION);
+		data.writeInt(differences.size());
+		for (Difference difference:differences) {
+			data.writeByte(difference.kind.ordinal());
+			writeKey(data, difference.keyA);
+			writeKey(data, difference.keyB);
+		}
+		data.flush();
+	}
+
+	private static void writeKey(DataOutputStream data, @Nullable String key) throws IOException {
+		data.writeBoolean(key != null);
+		if (key != null) {
+			data.writeUTF(key);
+		}
+	}
+
+	/**
+	 * @param in stream containing a summary written by {@link #writeTo(OutputStream)} - not closed
+	 * @return the summary
+	 * @throws IOException on errors reading the stream or if the stream does not contain a summary
+	 */
+	public static SpdxComparisonSummary readFrom(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		int version = data.readInt();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported comparison summary format version " + version);
+		}
+		int size = data.readInt();
+		if (size < 0) {
+			throw new IOException("Invalid number of differences " + size);
+		}
+		Kind[] kinds = Kind.values();
+		List<Difference> differences = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			int kind = data.readUnsignedByte();
+			if (kind >= kinds.length) {
+				throw new IOException("Invalid difference kind " + kind);
+			}
+			differences.add(new Difference(kinds[kind], readKey(data), readKey(data)));
+		}
+		return new SpdxComparisonSummary(differences);
+	}
+
+	private static @Nullable String readKey(DataInputStream data) throws IOException {
+		return data.readBoolean() ? data.readUTF() : null;
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import javax.annotation.Nullable;
+
+import org.spdx.library.model.v2.ModelObjectV2;
+
+/**
+ * A single difference found between an original SPDX document (A) and a changed SPDX document (B)
+ * <p>
+ * Elements which are only in document B are added and elements which are only in document A are removed.
+ *
+ * @author Gary O'Neall
+ */
+public class SpdxDifferenceEvent {
+
+	/**
+	 * Kinds of differences
+	 */
+	public enum Kind {
+		FILE_ADDED,
+		FILE_REMOVED,
+		/**
+		 * Files with the same name have different properties - see {@link SpdxDifferenceEvent#getFileDifference()}
+		 */
+		FILE_CHANGED,
+		PACKAGE_ADDED,
+		PACKAGE_REMOVED,
+		/**
+		 * Packages with the same name have different properties - see {@link SpdxDifferenceEvent#getPackageComparer()}
+		 */
+		PACKAGE_CHANGED,
+		/**
+		 * Packages with the same name have different concluded or declared licenses - also reported as
+		 * {@link #PACKAGE_CHANGED}
+		 */
+		PACKAGE_LICENSE_CHANGED,
+		SNIPPET_ADDED,
+		SNIPPET_REMOVED,
+		EXTRACTED_LICENSE_ADDED,
+		EXTRACTED_LICENSE_REMOVED,
+		/**
+		 * Extracted licenses with equivalent text have different properties - see
+		 * {@link SpdxDifferenceEvent#getLicenseDifference()}
+		 */
+		EXTRACTED_LICENSE_CHANGED,
+		DOCUMENT_RELATIONSHIP_ADDED,
+		DOCUMENT_RELATIONSHIP_REMOVED,
+		DOCUMENT_ANNOTATION_ADDED,
+		DOCUMENT_ANNOTATION_REMOVED,
+		/**
+		 * Snippets matched between the documents have different properties - see
+		 * {@link SpdxDifferenceEvent#getSnippetComparer()}
+		 */
+		SNIPPET_CHANGED
+	}
+
+	private final Kind kind;
+	private final ModelObjectV2 elementA;
+	private final ModelObjectV2 elementB;
+	private final Object detail;
+
+	/**
+	 * @param kind kind of difference
+	 * @param elementA element from document A, or null if the element was added
+	 * @param elementB element from document B, or null if the element was removed
+	 * @param detail difference details, if any
+	 */
+	public SpdxDifferenceEvent(Kind kind, @Nullable ModelObjectV2 elementA, @Nullable ModelObjectV2 elementB,
+			@Nullable Object detail) {
+		this.kind = kind;
+		this.elementA = elementA;
+		this.elementB = elementB;
+		this.detail = detail;
+	}
+
+	/**
+	 * @return the kind of difference
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return the element from document A, or null if the element was added
+	 */
+	public @Nullable ModelObjectV2 getElementA() {
+		return elementA;
+	}
+
+	/**
+	 * @return the element from document B, or null if the element was removed
+	 */
+	public @Nullable ModelObjectV2 getElementB() {
+		return elementB;
+	}
+
+	/**
+	 * @return the file differences for {@link Kind#FILE_CHANGED}, otherwise null
+	 */
+	public @Nullable SpdxFileDifference getFileDifference() {
+		return detail instanceof SpdxFileDifference ? (SpdxFileDifference)detail : null;
+	}
+
+	/**
+	 * @return the package comparer for {@link Kind#PACKAGE_CHANGED} and {@link Kind#PACKAGE_LICENSE_CHANGED},
+	 * otherwise null
+	 */
+	public @Nullable SpdxPackageComparer getPackageComparer() {
+		return detail instanceof SpdxPackageComparer ? (SpdxPackageComparer)detail : null;
+	}
+
+	/**
+	 * @return the snippet comparer for {@link Kind#SNIPPET_CHANGED}, otherwise null
+	 */
+	public @Nullable SpdxSnippetComparer getSnippetComparer() {
+		return detail instanceof SpdxSnippetComparer ? (SpdxSnippetComparer)detail : null;
+	}
+
+	/**
+	 * @return the license differences for {@link Kind#EXTRACTED_LICENSE_CHANGED}, otherwise null
+	 */
+	public @Nullable SpdxLicenseDifference getLicenseDifference() {
+		return detail instanceof SpdxLicenseDifference ? (SpdxLicenseDifference)detail : null;
+	}
+
+	@Override
+	public String toString() {
+		ModelObjectV2 element = elementB == null ? elementA : elementB;
+		return kind + (element == null ? "" : ": " + element.getObjectUri());
+	}
+}
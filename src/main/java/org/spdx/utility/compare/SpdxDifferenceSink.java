@@ -0,0 +1,33 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+/**
+ * Receives the differences found by a {@link StreamingSpdxComparer} as they are found
+ *
+ * @author Gary O'Neall
+ */
+@FunctionalInterface
+public interface SpdxDifferenceSink {
+
+	/**
+	 * @param event difference found - the comparer does not retain the event
+	 * @throws SpdxCompareException to stop the comparison
+	 */
+	void difference(SpdxDifferenceEvent event) throws SpdxCompareException;
+}
@@ -0,0 +1,502 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.model.v2.Annotation;
+import org.spdx.library.model.v2.ModelObjectV2;
+import org.spdx.library.model.v2.Relationship;
+import org.spdx.library.model.v2.SpdxConstantsCompatV2;
+import org.spdx.library.model.v2.SpdxCreatorInformation;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxElement;
+import org.spdx.library.model.v2.SpdxFile;
+import org.spdx.library.model.v2.SpdxItem;
+import org.spdx.library.model.v2.SpdxPackage;
+import org.spdx.library.model.v2.SpdxSnippet;
+import org.spdx.library.model.v2.license.AnyLicenseInfo;
+import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
+import org.spdx.library.model.v2.license.SpdxListedLicense;
+import org.spdx.library.model.v2.pointer.ByteOffsetPointer;
+import org.spdx.library.model.v2.pointer.SinglePointer;
+import org.spdx.library.model.v2.pointer.StartEndPointer;
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.compatv2.CompatibleModelStoreWrapper;
+import org.spdx.utility.compare.SpdxMergeConflict.Kind;
+
+/**
+ * Performs a three-way merge of SPDX documents changed independently from a common base document
+ * <p>
+ * Files and packages are matched between the base, ours and theirs documents by name and snippets by the
+ * name of the file they are from and their byte range using hash lookups, so the time to merge grows linearly
+ * with the number of elements.  Elements with the same key in the same document are matched in the order
+ * they are found.  Changes are detected using the same
+ * comparers as the {@link SpdxComparer}:
+ * <ul>
+ * <li>An element changed in only one of ours or theirs is taken from the document where it changed</li>
+ * <li>An element added in only one of ours or theirs is added</li>
+ * <li>An element removed in one of ours or theirs and unchanged in the other is removed</li>
+ * <li>Any other change is reported as a {@link SpdxMergeConflict} and the ours version is used</li>
+ * </ul>
+ * As for the {@link SpdxPackageComparer}, changes to the files in a package are also changes to the package.
+ * Extracted licenses are matched by license text, and document relationships and annotations are merged
+ * by presence.  All other document level properties are taken from ours.
+ * <p>
+ * The merged elements are copied into the target model store using a {@link ModelCopyManager}.  References
+ * from merged elements to a version of an element which was not selected are copied as the selected version
+ * when that version has already been copied - files are copied before packages and snippets.
+ *
+ * @author Gary O'Neall
+ */
+public class SpdxDocumentMerger {
+
+	private static final String[] ITEM_TYPES = new String[] {SpdxConstantsCompatV2.CLASS_SPDX_FILE,
+			SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE, SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET};
+
+	private final IModelStore toStore;
+
+	/**
+	 * @param toStore model store for the merged documents - must be different from the stores of the
+	 * documents being merged
+	 */
+	public SpdxDocumentMerger(IModelStore toStore) {
+		Objects.requireNonNull(toStore, "To store can not be null");
+		this.toStore = toStore;
+	}
+
+	/**
+	 * Merge the changes made in ours and theirs from base
+	 * @param base document ours and theirs were changed from
+	 * @param ours changed document - used for any conflicts
+	 * @param theirs changed document
+	 * @param toDocumentUri document URI for the merged document in the target model store
+	 * @return the merged document and any conflicts found
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	public SpdxMergeResult merge(SpdxDocument base, SpdxDocument ours, SpdxDocument theirs,
+			String toDocumentUri) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		Objects.requireNonNull(base, "Base document can not be null");
+		Objects.requireNonNull(ours, "Ours document can not be null");
+		Objects.requireNonNull(theirs, "Theirs document can not be null");
+		Objects.requireNonNull(toDocumentUri, "To document URI can not be null");
+		for (SpdxDocument doc:new SpdxDocument[] {base, ours, theirs}) {
+			if (toStore.equals(doc.getModelStore())) {
+				throw new SpdxCompareException("The merged document must be in a different model store than the documents being merged");
+			}
+		}
+		if (base.equals(ours) || base.equals(theirs) || ours.equals(theirs)) {
+			throw new SpdxCompareException("The documents being merged must have different document URI's");
+		}
+		return new Merge(base, ours, theirs, toDocumentUri).merge();
+	}
+
+	/**
+	 * Detects changes between two versions of an item
+	 */
+	@FunctionalInterface
+	private interface ItemChangeDetector {
+		boolean isChanged(SpdxDocument docA, SpdxItem itemA, SpdxDocument docB, SpdxItem itemB)
+				throws SpdxCompareException, InvalidSPDXAnalysisException;
+	}
+
+	/**
+	 * Version of an item selected for the merged document
+	 */
+	private static class Selection {
+		final SpdxItem selected;
+		final List<SpdxItem> alternatives;	// other versions to be replaced by the selected version
+
+		Selection(SpdxItem selected, List<SpdxItem> alternatives) {
+			this.selected = selected;
+			this.alternatives = alternatives;
+		}
+	}
+
+	/**
+	 * State of a single merge
+	 */
+	private class Merge {
+		private final SpdxDocument base;
+		private final SpdxDocument ours;
+		private final SpdxDocument theirs;
+		private final String toDocumentUri;
+		private final ModelCopyManager copyManager = new ModelCopyManager();
+		private final SpdxElementDigests elementDigests = new SpdxElementDigests();
+		private final List<SpdxMergeConflict> conflicts = new ArrayList<>();
+		/**
+		 * Map of object URI's for the files, packages and snippets in all documents to the key used to match them
+		 */
+		private final Map<String, String> elementKeys = new HashMap<>();
+		/**
+		 * Keys of the elements in the merged document
+		 */
+		private final Set<String> mergedKeys = new HashSet<>();
+		private Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap;
+		private SpdxDocument mergedDoc;
+		private String toNamespace;
+
+		Merge(SpdxDocument base, SpdxDocument ours, SpdxDocument theirs, String toDocumentUri) {
+			this.base = base;
+			this.ours = ours;
+			this.theirs = theirs;
+			this.toDocumentUri = toDocumentUri;
+		}
+
+		SpdxMergeResult merge() throws SpdxCompareException, InvalidSPDXAnalysisException {
+			extractedLicenseIdMap = buildExtractedLicenseIdMap();
+			mergedDoc = new SpdxDocument(toStore, toDocumentUri, copyManager, true);
+			toNamespace = CompatibleModelStoreWrapper.documentUriToNamespace(toDocumentUri);
+			copyDocumentFields();
+			mergeExtractedLicenses();
+			Map<String, ItemChangeDetector> detectors = new HashMap<>();
+			detectors.put(SpdxConstantsCompatV2.CLASS_SPDX_FILE, (docA, itemA, docB, itemB) -> {
+				SpdxFileComparer comparer = new SpdxFileComparer(extractedLicenseIdMap, elementDigests);
+				comparer.addDocumentFile(docA, (SpdxFile)itemA);
+				comparer.addDocumentFile(docB, (SpdxFile)itemB);
+				return comparer.isDifferenceFound();
+			});
+			detectors.put(SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE, (docA, itemA, docB, itemB) -> {
+				SpdxPackageComparer comparer = new SpdxPackageComparer(extractedLicenseIdMap, elementDigests);
+				comparer.addDocumentPackage(docA, (SpdxPackage)itemA);
+				comparer.addDocumentPackage(docB, (SpdxPackage)itemB);
+				return comparer.isDifferenceFound();
+			});
+			detectors.put(SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET, (docA, itemA, docB, itemB) -> {
+				SpdxSnippetComparer comparer = new SpdxSnippetComparer(extractedLicenseIdMap);
+				comparer.addDocumentSnippet(docA, (SpdxSnippet)itemA);
+				comparer.addDocumentSnippet(docB, (SpdxSnippet)itemB);
+				return comparer.isDifferenceFound();
+			});
+			List<Selection> selections = new ArrayList<>();
+			for (String type:ITEM_TYPES) {
+				selections.addAll(mergeItems(type, detectors.get(type)));
+			}
+			for (Selection selection:selections) {
+				copySelection(selection);
+			}
+			mergeDocumentRelationships();
+			mergeDocumentAnnotations();
+			return new SpdxMergeResult(mergedDoc, conflicts);
+		}
+
+		/**
+		 * @return map of the extracted license IDs considered equal between each pair of the documents
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> buildExtractedLicenseIdMap() throws InvalidSPDXAnalysisException {
+			Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> retval = new HashMap<>();
+			List<SpdxDocument> docs = Arrays.asList(base, ours, theirs);
+			for (SpdxDocument docA:docs) {
+				Map<SpdxDocument, Map<String, String>> docAMap = new HashMap<>();
+				for (SpdxDocument docB:docs) {
+					if (docA != docB) {
+						Map<String, String> idMap = new HashMap<>();
+						SpdxComparer.compareLicenses(docA.getExtractedLicenseInfos(), docB.getExtractedLicenseInfos(),
+								idMap, new ArrayList<>(), new ArrayList<>());
+						docAMap.put(docB, idMap);
+					}
+				}
+				retval.put(docA, docAMap);
+			}
+			return retval;
+		}
+
+		/**
+		 * Copy the document level properties from ours
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private void copyDocumentFields() throws InvalidSPDXAnalysisException {
+			Optional<String> name = ours.getName();
+			if (name.isPresent()) {
+				mergedDoc.setName(name.get());
+			}
+			Optional<String> comment = ours.getComment();
+			if (comment.isPresent()) {
+				mergedDoc.setComment(comment.get());
+			}
+			mergedDoc.setSpecVersion(ours.getSpecVersion());
+			SpdxCreatorInformation creationInfo = ours.getCreationInfo();
+			if (Objects.nonNull(creationInfo)) {
+				mergedDoc.setCreationInfo(creationInfo);
+			}
+			AnyLicenseInfo dataLicense = ours.getDataLicense();
+			if (dataLicense instanceof SpdxListedLicense) {	// otherwise not set
+				mergedDoc.setDataLicense(dataLicense);
+			}
+			mergedDoc.setExternalDocumentRefs(ours.getExternalDocumentRefs());
+		}
+
+		/**
+		 * Merge the extracted licenses matching the licenses by text
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private void mergeExtractedLicenses() throws InvalidSPDXAnalysisException {
+			Map<String, String> oursToBase = extractedLicenseIdMap.get(ours).get(base);
+			Map<String, String> baseToTheirs = extractedLicenseIdMap.get(base).get(theirs);
+			Map<String, String> theirsToBase = extractedLicenseIdMap.get(theirs).get(base);
+			Map<String, String> theirsToOurs = extractedLicenseIdMap.get(theirs).get(ours);
+			for (ExtractedLicenseInfo license:ours.getExtractedLicenseInfos()) {
+				String baseUri = oursToBase.get(license.getObjectUri());
+				if (Objects.isNull(baseUri) || baseToTheirs.containsKey(baseUri)) {
+					mergedDoc.addExtractedLicenseInfos(license);
+				}	// otherwise removed in theirs
+			}
+			for (ExtractedLicenseInfo license:theirs.getExtractedLicenseInfos()) {
+				String oursUri = theirsToOurs.get(license.getObjectUri());
+				if (Objects.nonNull(oursUri)) {
+					String mergedUri = copyManager.getCopiedObjectUri(ours.getModelStore(), oursUri, toStore);
+					if (Objects.nonNull(mergedUri)) {
+						putAlternative(license, mergedUri);
+					}
+				} else if (!theirsToBase.containsKey(license.getObjectUri())) {
+					mergedDoc.addExtractedLicenseInfos(license);
+				}	// otherwise removed in ours
+			}
+		}
+
+		/**
+		 * @param doc document containing the items
+		 * @param type SPDX type of the items
+		 * @return map of the key used to match the items between documents to the items
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private Map<String, SpdxItem> indexItems(SpdxDocument doc, String type) throws InvalidSPDXAnalysisException {
+			Map<String, SpdxItem> retval = new LinkedHashMap<>();
+			Map<String, Integer> keyCounts = new HashMap<>();
+			for (ModelObjectV2 element:StreamingSpdxComparer.collectElements(doc, type)) {
+				SpdxItem item = (SpdxItem)element;
+				String itemKey = item instanceof SpdxSnippet ? snippetKey((SpdxSnippet)item) : item.getName().orElse("").trim();
+				int count = keyCounts.merge(itemKey, 1, Integer::sum);
+				String key = count == 1 ? itemKey : itemKey + " [" + count + "]";
+				retval.put(key, item);
+				elementKeys.put(item.getObjectUri(), type + " " + key);
+			}
+			return retval;
+		}
+
+		/**
+		 * @param snippet snippet
+		 * @return key matching the snippet between documents - the name of the file the snippet is from and the
+		 * byte range, since snippet names are optional
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private String snippetKey(SpdxSnippet snippet) throws InvalidSPDXAnalysisException {
+			SpdxFile fromFile = snippet.getSnippetFromFile();
+			String fileName = Objects.isNull(fromFile) ? "" : fromFile.getName().orElse("").trim();
+			StartEndPointer byteRange = snippet.getByteRange();
+			if (Objects.isNull(byteRange)) {
+				return fileName;
+			}
+			return fileName + " " + pointerKey(byteRange.getStartPointer()) + ":" + pointerKey(byteRange.getEndPointer());
+		}
+
+		/**
+		 * @param pointer start or end of a byte range
+		 * @return the byte offset of the pointer or an empty string if there is no offset
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private String pointerKey(SinglePointer pointer) throws InvalidSPDXAnalysisException {
+			return pointer instanceof ByteOffsetPointer ? Integer.toString(((ByteOffsetPointer)pointer).getOffset()) : "";
+		}
+
+		/**
+		 * Select the versions of the items of a type for the merged document, recording any conflicts
+		 * @param type SPDX type of the items
+		 * @param detector detects changes between two versions of an item
+		 * @return the versions selected for the merged document
+		 * @throws SpdxCompareException on compare errors
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private List<Selection> mergeItems(String type, ItemChangeDetector detector) throws SpdxCompareException, InvalidSPDXAnalysisException {
+			Map<String, SpdxItem> baseItems = indexItems(base, type);
+			Map<String, SpdxItem> oursItems = indexItems(ours, type);
+			Map<String, SpdxItem> theirsItems = indexItems(theirs, type);
+			Set<String> keys = new LinkedHashSet<>(oursItems.keySet());
+			keys.addAll(theirsItems.keySet());
+			List<Selection> retval = new ArrayList<>();
+			for (String key:keys) {
+				SpdxItem baseItem = baseItems.get(key);
+				SpdxItem oursItem = oursItems.get(key);
+				SpdxItem theirsItem = theirsItems.get(key);
+				SpdxItem selected = null;
+				if (Objects.nonNull(baseItem)) {
+					if (Objects.nonNull(oursItem) && Objects.nonNull(theirsItem)) {
+						if (!detector.isChanged(base, baseItem, theirs, theirsItem)) {
+							selected = oursItem;
+						} else if (!detector.isChanged(base, baseItem, ours, oursItem)) {
+							selected = theirsItem;
+						} else {
+							selected = oursItem;
+							if (detector.isChanged(ours, oursItem, theirs, theirsItem)) {
+								conflicts.add(new SpdxMergeConflict(Kind.BOTH_MODIFIED, type, key, baseItem, oursItem, theirsItem));
+							}
+						}
+					} else if (Objects.nonNull(oursItem)) {
+						if (detector.isChanged(base, baseItem, ours, oursItem)) {
+							selected = oursItem;
+							conflicts.add(new SpdxMergeConflict(Kind.DELETED_BY_THEIRS, type, key, baseItem, oursItem, null));
+						}
+					} else if (detector.isChanged(base, baseItem, theirs, theirsItem)) {
+						conflicts.add(new SpdxMergeConflict(Kind.DELETED_BY_OURS, type, key, baseItem, null, theirsItem));
+					}
+				} else if (Objects.nonNull(oursItem)) {
+					selected = oursItem;
+					if (Objects.nonNull(theirsItem) && detector.isChanged(ours, oursItem, theirs, theirsItem)) {
+						conflicts.add(new SpdxMergeConflict(Kind.BOTH_ADDED, type, key, null, oursItem, theirsItem));
+					}
+				} else {
+					selected = theirsItem;
+				}
+				if (Objects.nonNull(selected)) {
+					mergedKeys.add(type + " " + key);
+					List<SpdxItem> alternatives = new ArrayList<>();
+					for (SpdxItem item:new SpdxItem[] {oursItem, theirsItem}) {
+						if (Objects.nonNull(item) && item != selected) {
+							alternatives.add(item);
+						}
+					}
+					retval.add(new Selection(selected, alternatives));
+				}
+			}
+			return retval;
+		}
+
+		/**
+		 * Copy a selected item into the merged document
+		 * @param selection version of the item selected
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private void copySelection(Selection selection) throws InvalidSPDXAnalysisException {
+			IModelStore fromStore = selection.selected.getModelStore();
+			String mergedUri = copyManager.getCopiedObjectUri(fromStore, selection.selected.getObjectUri(), toStore);
+			if (Objects.isNull(mergedUri)) {
+				mergedUri = copyManager.copy(toStore, fromStore, selection.selected.getObjectUri(),
+						mergedDoc.getSpecVersion(), toNamespace).getObjectUri();
+			}
+			for (SpdxItem alternative:selection.alternatives) {
+				putAlternative(alternative, mergedUri);
+			}
+		}
+
+		/**
+		 * Record a version of an element as copied to the merged version so that references to it are
+		 * replaced by the merged version
+		 * @param alternative version of the element not copied
+		 * @param mergedUri object URI of the merged version
+		 */
+		private void putAlternative(ModelObjectV2 alternative, String mergedUri) {
+			if (Objects.isNull(copyManager.getCopiedObjectUri(alternative.getModelStore(),
+					alternative.getObjectUri(), toStore))) {
+				copyManager.putCopiedId(alternative.getModelStore(), alternative.getObjectUri(), toStore, mergedUri);
+			}
+		}
+
+		/**
+		 * Merge the document relationships matching them by relationship type and related element
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private void mergeDocumentRelationships() throws InvalidSPDXAnalysisException {
+			for (Relationship relationship:mergeByPresence(indexRelationships(base.getRelationships()),
+					indexRelationships(ours.getRelationships()), indexRelationships(theirs.getRelationships()))) {
+				Optional<SpdxElement> related = relationship.getRelatedSpdxElement();
+				String relatedKey = related.isPresent() ? elementKeys.get(related.get().getObjectUri()) : null;
+				if (Objects.isNull(relatedKey) || mergedKeys.contains(relatedKey)) {
+					mergedDoc.addRelationship(relationship);
+				}	// otherwise the related element was removed by the merge
+			}
+		}
+
+		/**
+		 * Merge the document annotations matching them by all properties
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private void mergeDocumentAnnotations() throws InvalidSPDXAnalysisException {
+			for (Annotation annotation:mergeByPresence(indexAnnotations(base.getAnnotations()),
+					indexAnnotations(ours.getAnnotations()), indexAnnotations(theirs.getAnnotations()))) {
+				mergedDoc.addAnnotation(annotation);
+			}
+		}
+
+		/**
+		 * @param relationships relationships to index
+		 * @return map of relationships by relationship type and related element key
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private Map<String, Relationship> indexRelationships(Collection<Relationship> relationships) throws InvalidSPDXAnalysisException {
+			Map<String, Relationship> retval = new LinkedHashMap<>();
+			for (Relationship relationship:relationships) {
+				Optional<SpdxElement> related = relationship.getRelatedSpdxElement();
+				String relatedKey = related.isPresent() ?
+						elementKeys.getOrDefault(related.get().getObjectUri(), related.get().getId()) : "";
+				retval.putIfAbsent(relationship.getRelationshipType() + " " + relatedKey, relationship);
+			}
+			return retval;
+		}
+
+		/**
+		 * @param annotations annotations to index
+		 * @return map of annotations by all annotation properties
+		 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+		 */
+		private Map<String, Annotation> indexAnnotations(Collection<Annotation> annotations) throws InvalidSPDXAnalysisException {
+			Map<String, Annotation> retval = new LinkedHashMap<>();
+			for (Annotation annotation:annotations) {
+				retval.putIfAbsent(annotation.getAnnotator() + "\n" + annotation.getAnnotationType() + "\n" +
+						annotation.getAnnotationDate() + "\n" + annotation.getComment(), annotation);
+			}
+			return retval;
+		}
+	}
+
+	/**
+	 * @param baseValues values in the base document by key
+	 * @param oursValues values in the ours document by key
+	 * @param theirsValues values in the theirs document by key
+	 * @return values in ours which were not removed in theirs followed by the values added in theirs
+	 */
+	private static <T> List<T> mergeByPresence(Map<String, T> baseValues, Map<String, T> oursValues,
+			Map<String, T> theirsValues) {
+		List<T> retval = new ArrayList<>();
+		for (Map.Entry<String, T> entry:oursValues.entrySet()) {
+			if (!baseValues.containsKey(entry.getKey()) || theirsValues.containsKey(entry.getKey())) {
+				retval.add(entry.getValue());
+			}
+		}
+		for (Map.Entry<String, T> entry:theirsValues.entrySet()) {
+			if (!baseValues.containsKey(entry.getKey()) && !oursValues.containsKey(entry.getKey())) {
+				retval.add(entry.getValue());
+			}
+		}
+		return retval;
+	}
+}
@@ -0,0 +1,482 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.model.v2.Annotation;
+import org.spdx.library.model.v2.Checksum;
+import org.spdx.library.model.v2.ExternalRef;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxFile;
+import org.spdx.library.model.v2.SpdxItem;
+import org.spdx.library.model.v2.SpdxPackage;
+import org.spdx.library.model.v2.SpdxPackageVerificationCode;
+import org.spdx.library.model.v2.license.AnyLicenseInfo;
+import org.spdx.library.model.v2.license.ConjunctiveLicenseSet;
+import org.spdx.library.model.v2.license.DisjunctiveLicenseSet;
+import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
+import org.spdx.library.model.v2.license.LicenseSet;
+import org.spdx.library.model.v2.license.SpdxListedLicense;
+import org.spdx.library.model.v2.license.SpdxNoAssertionLicense;
+import org.spdx.library.model.v2.license.SpdxNoneLicense;
+import org.spdx.storage.IModelStore;
+
+/**
+ * Side index of content digests for files and packages used to skip comparing the fields of identical elements
+ * <p>
+ * The digest is a SHA-256 hash of a canonical serialization of every field compared by the
+ * {@link SpdxFileComparer} or {@link SpdxPackageComparer}.  Unordered collections are sorted and
+ * extracted licenses are represented by their text, so elements in different documents have the same digest
+ * if the comparers would not find any difference.  Digests are computed once for each element and cached by
+ * the model store and object URI of the element, since documents in different stores may use the same URIs.
+ * <p>
+ * Some elements have no digest and are always compared field by field:
+ * <ul>
+ * <li>Elements with relationships, since relationships are compared using the properties of the related elements</li>
+ * <li>Elements with licenses other than listed licenses, extracted licenses, license sets, NONE or NOASSERTION</li>
+ * <li>Packages with files which have no digest, files with the same name or external references with the same
+ * type and locator</li>
+ * </ul>
+ * Elements with extracted licenses are only considered identical if the extracted licenses are in the extracted
+ * licensing infos of the documents and no two extracted licenses within either document have equivalent text -
+ * otherwise the extracted license IDs mapped between the documents may differ.
+ * <p>
+ * The index may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+class SpdxElementDigests {
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	/**
+	 * Digest of an element
+	 */
+	private static class ElementDigest {
+		final String digest;	// null if the element has no digest
+		final Set<String> extractedLicenseUris;
+		final boolean includesFiles;
+
+		ElementDigest(@Nullable String digest, Set<String> extractedLicenseUris, boolean includesFiles) {
+			this.digest = digest;
+			this.extractedLicenseUris = extractedLicenseUris;
+			this.includesFiles = includesFiles;
+		}
+	}
+
+	/**
+	 * Extracted licenses of a document
+	 */
+	private static class DocumentLicenses {
+		final Set<String> extractedLicenseUris = new HashSet<>();
+		boolean ambiguous = false;	// true if two or more extracted licenses have equivalent text
+	}
+
+	/**
+	 * Key for a cached digest - the model store is compared by identity
+	 */
+	private static final class ElementKey {
+		final IModelStore modelStore;
+		final String objectUri;
+
+		ElementKey(IModelStore modelStore, String objectUri) {
+			this.modelStore = modelStore;
+			this.objectUri = objectUri;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof ElementKey)) {
+				return false;
+			}
+			ElementKey compare = (ElementKey)o;
+			return modelStore == compare.modelStore && objectUri.equals(compare.objectUri);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(modelStore) + objectUri.hashCode();
+		}
+	}
+
+	private static final ElementDigest NO_DIGEST = new ElementDigest(null, Collections.emptySet(), false);
+
+	/**
+	 * Digests by the model store and object URI of the element
+	 */
+	private final Map<ElementKey, ElementDigest> digests = new ConcurrentHashMap<>();
+	private final Map<SpdxDocument, DocumentLicenses> documentLicenses = new ConcurrentHashMap<>();
+
+	/**
+	 * @param docA document containing item A
+	 * @param itemA item to compare
+	 * @param docB document containing item B
+	 * @param itemB item to compare
+	 * @return true if the items have the same digest and the comparers would not find any differences
+	 * @throws InvalidSPDXAnalysisException on errors reading the items
+	 */
+	boolean isIdentical(SpdxDocument docA, SpdxItem itemA, SpdxDocument docB, SpdxItem itemB) throws InvalidSPDXAnalysisException {
+		ElementDigest digestA = getElementDigest(itemA);
+		if (digestA.digest == null) {
+			return false;
+		}
+		ElementDigest digestB = getElementDigest(itemB);
+		if (!digestA.digest.equals(digestB.digest)) {
+			return false;
+		}
+		return isMappedUnambiguously(docA, digestA.extractedLicenseUris) &&
+				isMappedUnambiguously(docB, digestB.extractedLicenseUris);
+	}
+
+	/**
+	 * @param item file or package
+	 * @return the digest of the item, or null if the item has no digest
+	 * @throws InvalidSPDXAnalysisException on errors reading the item
+	 */
+	@Nullable String getDigest(SpdxItem item) throws InvalidSPDXAnalysisException {
+		return getElementDigest(item).digest;
+	}
+
+	/**
+	 * Remove the cached digests for changed elements and for all elements which include the digests of files
+	 * @param changedUris object URIs of the changed elements in any model store
+	 */
+	void invalidate(Collection<String> changedUris) {
+		digests.keySet().removeIf(key -> changedUris.contains(key.objectUri));
+		digests.values().removeIf(digest -> digest.includesFiles);
+		documentLicenses.clear();
+	}
+
+	/**
+	 * Remove all cached digests
+	 */
+	void clear() {
+		digests.clear();
+		documentLicenses.clear();
+	}
+
+	/**
+	 * @param item file or package
+	 * @return the cached or newly computed digest
+	 * @throws InvalidSPDXAnalysisException on errors reading the item
+	 */
+	private ElementDigest getElementDigest(SpdxItem item) throws InvalidSPDXAnalysisException {
+		ElementKey key = new ElementKey(item.getModelStore(), item.getObjectUri());
+		ElementDigest retval = digests.get(key);
+		if (retval == null) {
+			retval = computeDigest(item);
+			digests.put(key, retval);
+		}
+		return retval;
+	}
+
+	/**
+	 * @param spdxDocument document containing the element
+	 * @param extractedLicenseUris object URIs of the extracted licenses used by the element
+	 * @return true if the extracted licenses are mapped to the only extracted license with equivalent text
+	 * in another document
+	 * @throws InvalidSPDXAnalysisException on errors reading the extracted licenses
+	 */
+	private boolean isMappedUnambiguously(SpdxDocument spdxDocument, Set<String> extractedLicenseUris) throws InvalidSPDXAnalysisException {
+		if (extractedLicenseUris.isEmpty()) {
+			return true;
+		}
+		DocumentLicenses licenses = documentLicenses.get(spdxDocument);
+		if (licenses == null) {
+			licenses = new DocumentLicenses();
+			ExtractedLicenseTextIndex index = new ExtractedLicenseTextIndex(spdxDocument.getExtractedLicenseInfos());
+			for (int i = 0; i < index.size(); i++) {
+				licenses.extractedLicenseUris.add(index.getLicense(i).getObjectUri());
+				if (!licenses.ambiguous && index.findEquivalentLicenses(index, i).size() > 1) {
+					licenses.ambiguous = true;	// equivalent to another license in the same document
+				}
+			}
+			documentLicenses.put(spdxDocument, licenses);
+		}
+		return !licenses.ambiguous && licenses.extractedLicenseUris.containsAll(extractedLicenseUris);
+	}
+
+	/**
+	 * @param item file or package
+	 * @return the digest of the fields compared by the item comparers
+	 * @throws InvalidSPDXAnalysisException on errors reading the item
+	 */
+	private ElementDigest computeDigest(SpdxItem item) throws InvalidSPDXAnalysisException {
+		if (!item.getRelationships().isEmpty()) {
+			return NO_DIGEST;
+		}
+		CanonicalForm form = new CanonicalForm();
+		form.add(item.getType());
+		form.add(item.getName());
+		form.add(item.getComment());
+		form.add(item.getCopyrightText());
+		form.add(item.getLicenseComments());
+		form.addAll(item.getAttributionText());
+		if (!form.addLicense(item.getLicenseConcluded()) || !form.addLicenses(item.getLicenseInfoFromFiles())) {
+			return NO_DIGEST;
+		}
+		List<String> annotations = new ArrayList<>();
+		for (Annotation annotation:item.getAnnotations()) {
+			annotations.add(CanonicalForm.join(annotation.getAnnotator(), String.valueOf(annotation.getAnnotationType()),
+					annotation.getAnnotationDate(), annotation.getComment()));
+		}
+		form.addAll(annotations);
+		if (item instanceof SpdxFile) {
+			addFileFields((SpdxFile)item, form);
+		} else if (item instanceof SpdxPackage) {
+			if (!addPackageFields((SpdxPackage)item, form)) {
+				return NO_DIGEST;
+			}
+		} else {
+			return NO_DIGEST;
+		}
+		return new ElementDigest(form.digest(), form.extractedLicenseUris, item instanceof SpdxPackage);
+	}
+
+	/**
+	 * @param file file to add
+	 * @param form canonical form of the file
+	 * @throws InvalidSPDXAnalysisException on errors reading the file
+	 */
+	private static void addFileFields(SpdxFile file, CanonicalForm form) throws InvalidSPDXAnalysisException {
+		form.addChecksums(file.getChecksums());
+		List<String> fileTypes = new ArrayList<>();
+		for (Object fileType:file.getFileTypes()) {
+			fileTypes.add(String.valueOf(fileType));
+		}
+		form.addAll(fileTypes);
+		form.addAll(file.getFileContributors());
+		form.add(file.getNoticeText());
+	}
+
+	/**
+	 * @param pkg package to add
+	 * @param form canonical form of the package
+	 * @return false if the package has no digest
+	 * @throws InvalidSPDXAnalysisException on errors reading the package
+	 */
+	private boolean addPackageFields(SpdxPackage pkg, CanonicalForm form) throws InvalidSPDXAnalysisException {
+		form.add(pkg.getVersionInfo());
+		form.add(pkg.getPackageFileName());
+		form.add(pkg.getSupplier());
+		form.add(pkg.getOriginator());
+		form.add(pkg.getDownloadLocation());
+		Optional<SpdxPackageVerificationCode> verificationCode = pkg.getPackageVerificationCode();
+		form.add(verificationCode.isPresent() ? verificationCode.get().getValue() : null);
+		form.addAll(verificationCode.isPresent() ? verificationCode.get().getExcludedFileNames() : Collections.emptyList());
+		form.addChecksums(pkg.getChecksums());
+		form.add(pkg.getSourceInfo());
+		form.add(pkg.getSummary());
+		form.add(pkg.getDescription());
+		form.add(pkg.getHomepage());
+		form.add(String.valueOf(pkg.isFilesAnalyzed()));
+		if (!form.addLicense(pkg.getLicenseDeclared())) {
+			return false;
+		}
+		// files are matched by name - files with the same name may be matched differently in each package
+		Set<String> fileNames = new HashSet<>();
+		List<String> fileDigests = new ArrayList<>();
+		for (SpdxFile file:pkg.getFiles()) {
+			ElementDigest fileDigest = getElementDigest(file);
+			if (fileDigest.digest == null || !fileNames.add(file.getName().orElse(""))) {
+				return false;
+			}
+			form.extractedLicenseUris.addAll(fileDigest.extractedLicenseUris);
+			fileDigests.add(fileDigest.digest);
+		}
+		form.addAll(fileDigests);
+		// external references are matched by type and locator
+		Set<String> externalRefKeys = new HashSet<>();
+		List<String> externalRefs = new ArrayList<>();
+		for (ExternalRef externalRef:pkg.getExternalRefs()) {
+			String key = CanonicalForm.join(externalRef.getReferenceType() == null ? null : externalRef.getReferenceType().getIndividualURI(),
+					externalRef.getReferenceLocator());
+			if (!externalRefKeys.add(key)) {
+				return false;
+			}
+			externalRefs.add(CanonicalForm.join(key, String.valueOf(externalRef.getReferenceCategory()),
+					externalRef.getComment().orElse(null)));
+		}
+		form.addAll(externalRefs);
+		return true;
+	}
+
+	/**
+	 * Canonical serialization of the fields of an element - every value is length prefixed so different
+	 * field values can not produce the same serialization
+	 */
+	private static class CanonicalForm {
+		private final StringBuilder sb = new StringBuilder();
+		final Set<String> extractedLicenseUris = new HashSet<>();
+
+		/**
+		 * @param values values to join
+		 * @return length prefixed values
+		 */
+		static String join(String... values) {
+			StringBuilder sb = new StringBuilder();
+			for (String value:values) {
+				append(sb, value);
+			}
+			return sb.toString();
+		}
+
+		private static void append(StringBuilder sb, @Nullable String value) {
+			if (value == null) {
+				sb.append("-1:");
+			} else {
+				sb.append(value.length()).append(':').append(value);
+			}
+		}
+
+		void add(@Nullable String value) {
+			append(sb, value);
+		}
+
+		void add(Optional<String> value) {
+			append(sb, value.orElse(null));
+		}
+
+		/**
+		 * Add an unordered collection of values
+		 * @param values values in any order
+		 */
+		void addAll(Collection<String> values) {
+			List<String> sorted = new ArrayList<>(values);
+			sorted.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+			sb.append('[').append(sorted.size());
+			for (String value:sorted) {
+				append(sb, value);
+			}
+			sb.append(']');
+		}
+
+		/**
+		 * @param checksums checksums in any order
+		 * @throws InvalidSPDXAnalysisException on errors reading the checksums
+		 */
+		void addChecksums(Collection<Checksum> checksums) throws InvalidSPDXAnalysisException {
+			List<String> values = new ArrayList<>();
+			for (Checksum checksum:checksums) {
+				values.add(join(String.valueOf(checksum.getAlgorithm()), checksum.getValue()));
+			}
+			addAll(values);
+		}
+
+		/**
+		 * @param license license to add
+		 * @return false if the license has no canonical form
+		 * @throws InvalidSPDXAnalysisException on errors reading the license
+		 */
+		boolean addLicense(@Nullable AnyLicenseInfo license) throws InvalidSPDXAnalysisException {
+			String canonical = canonicalLicense(license);
+			if (canonical == null) {
+				return false;
+			}
+			add(canonical);
+			return true;
+		}
+
+		/**
+		 * @param licenses licenses in any order
+		 * @return false if any license has no canonical form
+		 * @throws InvalidSPDXAnalysisException on errors reading the licenses
+		 */
+		boolean addLicenses(Collection<AnyLicenseInfo> licenses) throws InvalidSPDXAnalysisException {
+			List<String> canonical = new ArrayList<>();
+			for (AnyLicenseInfo license:licenses) {
+				String value = canonicalLicense(license);
+				if (value == null) {
+					return false;
+				}
+				canonical.add(value);
+			}
+			addAll(canonical);
+			return true;
+		}
+
+		/**
+		 * @param license license
+		 * @return a string which is equal for licenses which are equal using
+		 * {@link LicenseCompareHelper#isLicenseEqual(AnyLicenseInfo, AnyLicenseInfo, Map)}, or null if the license
+		 * type is not supported
+		 * @throws InvalidSPDXAnalysisException on errors reading the license
+		 */
+		private @Nullable String canonicalLicense(@Nullable AnyLicenseInfo license) throws InvalidSPDXAnalysisException {
+			if (license == null) {
+				return join((String)null);
+			} else if (license instanceof ConjunctiveLicenseSet || license instanceof DisjunctiveLicenseSet) {
+				List<String> members = new ArrayList<>();
+				for (AnyLicenseInfo member:((LicenseSet)license).getMembers()) {
+					String value = canonicalLicense(member);
+					if (value == null) {
+						return null;
+					}
+					members.add(value);
+				}
+				members.sort(null);
+				StringBuilder set = new StringBuilder(license instanceof ConjunctiveLicenseSet ? "AND" : "OR");
+				set.append('[').append(members.size());
+				for (String member:members) {
+					append(set, member);
+				}
+				return set.append(']').toString();
+			} else if (license.getClass().equals(ExtractedLicenseInfo.class)) {
+				extractedLicenseUris.add(license.getObjectUri());
+				return join("Extracted", ((ExtractedLicenseInfo)license).getExtractedText());
+			} else if (license instanceof SpdxListedLicense) {
+				return join("Listed", ((SpdxListedLicense)license).getLicenseId());
+			} else if (license instanceof SpdxNoneLicense) {
+				return join("Uri", ((SpdxNoneLicense)license).getIndividualURI());
+			} else if (license instanceof SpdxNoAssertionLicense) {
+				return join("Uri", ((SpdxNoAssertionLicense)license).getIndividualURI());
+			} else {
+				return null;
+			}
+		}
+
+		/**
+		 * @return base 64 encoded digest of the canonical form
+		 */
+		String digest() {
+			try {
+				MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+				return Base64.getEncoder().encodeToString(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+			} catch (NoSuchAlgorithmException e) {
+				throw new RuntimeException(DIGEST_ALGORITHM + " is not supported", e);
+			}
+		}
+	}
+}
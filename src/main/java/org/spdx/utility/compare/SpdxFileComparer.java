@@ -25,6 +25,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.annotation.Nullable;
+
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.model.v2.Annotation;
 import org.spdx.library.model.v2.Checksum;
@@ -62,6 +64,15 @@ public class SpdxFileComparer extends SpdxItemComparer {
 		super(extractedLicenseIdMap);
 	}
 	
+	/**
+	 * @param extractedLicenseIdMap map of all extracted license IDs for any SPDX documents to be added to the comparer
+	 * @param elementDigests content digests used to skip comparing identical files, or null to always compare the fields
+	 */
+	SpdxFileComparer(Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap,
+			@Nullable SpdxElementDigests elementDigests) {
+		super(extractedLicenseIdMap, elementDigests);
+	}
+	
 	/**
 	 * Add a file to the comparer and compare to the existing files
 	 * @param spdxDocument document containing the file
@@ -82,7 +93,7 @@ public class SpdxFileComparer extends SpdxItemComparer {
 				filesB = (SpdxFile)entry.getValue();
 			}
 		}
-		if (filesB != null) {
+		if (filesB != null && !isIdenticalToAddedItems(spdxDocument, spdxFile)) {
 			// Checksums
 			compareNewFileChecksums(spdxDocument, spdxFile.getChecksums());
 			// Type
@@ -0,0 +1,168 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.model.v2.SpdxFile;
+
+/**
+ * Files of a document with the file names read once from the model store and indexed by name
+ * <p>
+ * Files are matched between two documents by name using hash lookups rather than a merge of the sorted
+ * files, so no model store reads are needed while matching.  Files with the same name are matched in the
+ * order of the files, which gives the same matches as a merge of files sorted by name.
+ * <p>
+ * An index is immutable once constructed and may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+class SpdxFileIndex {
+
+	private final SpdxFile[] files;
+	private final String[] names;	// null if the file has no name
+	/**
+	 * Positions of the files for each name - used to pair files with the same name
+	 */
+	private final Map<String, List<Integer>> positionsByName = new HashMap<>();
+	/**
+	 * Number of files for each trimmed name - used to find unique files
+	 */
+	private final Map<String, Integer> countByTrimmedName = new HashMap<>();
+
+	/**
+	 * @param files files in the order to be matched - must be sorted by name to match the results of the
+	 * sorted merge
+	 * @throws InvalidSPDXAnalysisException on errors reading the file names
+	 */
+	SpdxFileIndex(SpdxFile[] files) throws InvalidSPDXAnalysisException {
+		this(files, readNames(files));
+	}
+
+	/**
+	 * @param files files in the order to be matched
+	 * @param names names of the files already read from the model store - null if the file has no name
+	 */
+	private SpdxFileIndex(SpdxFile[] files, String[] names) {
+		this.files = files;
+		this.names = names;
+		for (int i = 0; i < files.length; i++) {
+			positionsByName.computeIfAbsent(names[i], k -> new ArrayList<>()).add(i);
+			countByTrimmedName.merge(names[i] == null ? null : names[i].trim(), 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * @param files files
+	 * @return the names of the files - null if the file has no name
+	 * @throws InvalidSPDXAnalysisException on errors reading the file names
+	 */
+	private static String[] readNames(SpdxFile[] files) throws InvalidSPDXAnalysisException {
+		String[] retval = new String[files.length];
+		for (int i = 0; i < files.length; i++) {
+			retval[i] = files[i].getName().orElse(null);
+		}
+		return retval;
+	}
+
+	/**
+	 * @param files files in any order
+	 * @return an index of the files sorted by name in the same order as {@link SpdxFile#compareTo(SpdxFile)}
+	 * @throws InvalidSPDXAnalysisException on errors reading the file names
+	 */
+	static SpdxFileIndex sortedByName(Collection<SpdxFile> files) throws InvalidSPDXAnalysisException {
+		SpdxFile[] unsorted = files.toArray(new SpdxFile[0]);
+		return sortedByName(unsorted, readNames(unsorted));
+	}
+
+	/**
+	 * @param unsorted files in any order
+	 * @param unsortedNames names of the files - null if the file has no name
+	 * @return an index of the files sorted by name in the same order as {@link SpdxFile#compareTo(SpdxFile)}
+	 */
+	private static SpdxFileIndex sortedByName(SpdxFile[] unsorted, String[] unsortedNames) {
+		Integer[] order = new Integer[unsorted.length];
+		for (int i = 0; i < unsorted.length; i++) {
+			order[i] = i;
+		}
+		// stable sort on the names read once - same order as sorting using the SpdxFile compareTo
+		Arrays.sort(order, Comparator.comparing(i -> unsortedNames[i] == null ? "" : unsortedNames[i]));
+		SpdxFile[] sorted = new SpdxFile[unsorted.length];
+		String[] sortedNames = new String[unsorted.length];
+		for (int i = 0; i < order.length; i++) {
+			sorted[i] = unsorted[order[i]];
+			sortedNames[i] = unsortedNames[order[i]];
+		}
+		return new SpdxFileIndex(sorted, sortedNames);
+	}
+
+	/**
+	 * @return the indexed files
+	 */
+	SpdxFile[] getFiles() {
+		return files;
+	}
+
+	/**
+	 * Files are considered the same if the trimmed names are equal
+	 * @param other index of the files to compare
+	 * @return any files in this index with no file of the same name in the other index
+	 */
+	List<SpdxFile> findUniqueFiles(SpdxFileIndex other) {
+		List<SpdxFile> retval = new ArrayList<>();
+		Map<String, Integer> remaining = new HashMap<>(other.countByTrimmedName);
+		for (int i = 0; i < files.length; i++) {
+			String key = names[i] == null ? null : names[i].trim();
+			Integer count = remaining.get(key);
+			if (count == null || count == 0) {
+				retval.add(files[i]);
+			} else {
+				remaining.put(key, count - 1);
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * @param other index of the files to compare
+	 * @return pairs of positions in this index and the other index of files with the same name
+	 */
+	List<int[]> findMatchingPositions(SpdxFileIndex other) {
+		List<int[]> retval = new ArrayList<>();
+		Map<String, Integer> nextMatch = new HashMap<>();
+		for (int i = 0; i < files.length; i++) {
+			List<Integer> otherPositions = other.positionsByName.get(names[i]);
+			if (otherPositions == null) {
+				continue;
+			}
+			int next = nextMatch.getOrDefault(names[i], 0);
+			if (next < otherPositions.size()) {
+				retval.add(new int[] {i, otherPositions.get(next)});
+				nextMatch.put(names[i], next + 1);
+			}
+		}
+		return retval;
+	}
+}
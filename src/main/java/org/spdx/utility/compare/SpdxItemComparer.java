@@ -24,8 +24,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 
+import javax.annotation.Nullable;
+
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.model.v2.Annotation;
 import org.spdx.library.model.v2.Relationship;
@@ -79,10 +82,25 @@ public class SpdxItemComparer {
 	 * Mapping of all extracted license info ID's between all SPDX documents included in the comparer
 	 */
 	protected Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap;
+	
+	/**
+	 * Content digests used to skip comparing identical items - null to always compare the fields
+	 */
+	private final SpdxElementDigests elementDigests;
 
 	
 	public SpdxItemComparer(Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap) {
+		this(extractedLicenseIdMap, null);
+	}
+	
+	/**
+	 * @param extractedLicenseIdMap map of all extracted license IDs for any SPDX documents to be added to the comparer
+	 * @param elementDigests content digests used to skip comparing identical items, or null to always compare the fields
+	 */
+	SpdxItemComparer(Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap,
+			@Nullable SpdxElementDigests elementDigests) {
 		this.extractedLicenseIdMap = extractedLicenseIdMap;
+		this.elementDigests = elementDigests;
 	}
 	
 	/**
@@ -107,7 +125,7 @@ public class SpdxItemComparer {
 		}
 		this.itemInProgress = true;
 		Iterator<Entry<SpdxDocument, SpdxItem>> iter = this.documentItem.entrySet().iterator();
-		if (iter.hasNext()) {
+		if (iter.hasNext() && !isIdenticalToAddedItems(spdxDocument, spdxItem)) {
 			Entry<SpdxDocument, SpdxItem> entry = iter.next();
 			SpdxItem itemB = entry.getValue();
 			Map<String, String> licenseXlationMap = this.extractedLicenseIdMap.get(spdxDocument).get(entry.getKey());
@@ -148,6 +166,25 @@ public class SpdxItemComparer {
 		this.itemInProgress = false;
 	}	
 	
+	/**
+	 * @param spdxDocument document containing the item
+	 * @param spdxItem item to be added
+	 * @return true if the content digest of the item is equal to the digest of every item already added - the
+	 * item can then be added without comparing the fields
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing error
+	 */
+	boolean isIdenticalToAddedItems(SpdxDocument spdxDocument, SpdxItem spdxItem) throws InvalidSPDXAnalysisException {
+		if (Objects.isNull(elementDigests) || this.documentItem.isEmpty()) {
+			return false;
+		}
+		for (Entry<SpdxDocument, SpdxItem> entry:this.documentItem.entrySet()) {
+			if (!elementDigests.isIdentical(spdxDocument, spdxItem, entry.getKey(), entry.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Compares annotations and initializes the uniqueAnnotations
 	 * as well as the annotationsEquals flag and sets the differenceFound to
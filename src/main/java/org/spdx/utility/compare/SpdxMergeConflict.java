@@ -0,0 +1,128 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import javax.annotation.Nullable;
+
+import org.spdx.library.model.v2.SpdxItem;
+
+/**
+ * An element changed in both the "ours" and "theirs" documents of a three-way merge in ways which could
+ * not be reconciled
+ * <p>
+ * The "ours" version of the element is always the one used in the merged document - the "base" and "theirs"
+ * versions are available to resolve the conflict.
+ *
+ * @author Gary O'Neall
+ */
+public class SpdxMergeConflict {
+
+	/**
+	 * Kinds of conflicts
+	 */
+	public enum Kind {
+		/**
+		 * The element was changed differently in ours and theirs
+		 */
+		BOTH_MODIFIED,
+		/**
+		 * Different elements with the same name were added in ours and theirs
+		 */
+		BOTH_ADDED,
+		/**
+		 * The element was removed in ours and changed in theirs - the element is not in the merged document
+		 */
+		DELETED_BY_OURS,
+		/**
+		 * The element was changed in ours and removed in theirs - the element is in the merged document
+		 */
+		DELETED_BY_THEIRS
+	}
+
+	private final Kind kind;
+	private final String elementType;
+	private final String name;
+	private final SpdxItem baseElement;
+	private final SpdxItem oursElement;
+	private final SpdxItem theirsElement;
+
+	/**
+	 * @param kind kind of conflict
+	 * @param elementType SPDX type of the element
+	 * @param name name of the element used to match the element between the documents
+	 * @param baseElement element in the base document, or null if the element was added
+	 * @param oursElement element in the ours document, or null if removed in ours
+	 * @param theirsElement element in the theirs document, or null if removed in theirs
+	 */
+	public SpdxMergeConflict(Kind kind, String elementType, String name, @Nullable SpdxItem baseElement,
+			@Nullable SpdxItem oursElement, @Nullable SpdxItem theirsElement) {
+		this.kind = kind;
+		this.elementType = elementType;
+		this.name = name;
+		this.baseElement = baseElement;
+		this.oursElement = oursElement;
+		this.theirsElement = theirsElement;
+	}
+
+	/**
+	 * @return the kind of conflict
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return the SPDX type of the element
+	 */
+	public String getElementType() {
+		return elementType;
+	}
+
+	/**
+	 * @return the name of the element used to match the element between the documents
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the element in the base document, or null if the element was added
+	 */
+	public @Nullable SpdxItem getBaseElement() {
+		return baseElement;
+	}
+
+	/**
+	 * @return the element in the ours document, or null if removed in ours
+	 */
+	public @Nullable SpdxItem getOursElement() {
+		return oursElement;
+	}
+
+	/**
+	 * @return the element in the theirs document, or null if removed in theirs
+	 */
+	public @Nullable SpdxItem getTheirsElement() {
+		return theirsElement;
+	}
+
+	@Override
+	public String toString() {
+		return kind + " " + elementType + ": " + name;
+	}
+}
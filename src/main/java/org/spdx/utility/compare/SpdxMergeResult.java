@@ -0,0 +1,64 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.spdx.library.model.v2.SpdxDocument;
+
+/**
+ * Result of a three-way merge by the {@link SpdxDocumentMerger}
+ *
+ * @author Gary O'Neall
+ */
+public class SpdxMergeResult {
+
+	private final SpdxDocument mergedDocument;
+	private final List<SpdxMergeConflict> conflicts;
+
+	/**
+	 * @param mergedDocument document containing the merged elements
+	 * @param conflicts conflicts found during the merge
+	 */
+	public SpdxMergeResult(SpdxDocument mergedDocument, List<SpdxMergeConflict> conflicts) {
+		this.mergedDocument = mergedDocument;
+		this.conflicts = Collections.unmodifiableList(conflicts);
+	}
+
+	/**
+	 * @return the document containing the merged elements
+	 */
+	public SpdxDocument getMergedDocument() {
+		return mergedDocument;
+	}
+
+	/**
+	 * @return the conflicts found during the merge
+	 */
+	public List<SpdxMergeConflict> getConflicts() {
+		return conflicts;
+	}
+
+	/**
+	 * @return true if any conflicts were found during the merge
+	 */
+	public boolean isConflictFound() {
+		return !conflicts.isEmpty();
+	}
+}
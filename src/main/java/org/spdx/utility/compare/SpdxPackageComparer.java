@@ -29,6 +29,8 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 
+import javax.annotation.Nullable;
+
 import org.spdx.core.InvalidSPDXAnalysisException;
 import org.spdx.library.model.v2.Checksum;
 import org.spdx.library.model.v2.ExternalRef;
@@ -135,6 +137,15 @@ public class SpdxPackageComparer extends SpdxItemComparer {
 		super(extractedLicenseIdMap);
 	}
 	
+	/**
+	 * @param extractedLicenseIdMap map of all extracted license IDs for any SPDX documents to be added to the comparer
+	 * @param elementDigests content digests used to skip comparing identical packages, or null to always compare the fields
+	 */
+	SpdxPackageComparer(Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap,
+			@Nullable SpdxElementDigests elementDigests) {
+		super(extractedLicenseIdMap, elementDigests);
+	}
+	
 	/**
 	 * Add a package to the comparer and performs the comparison to any existing documents
 	 * @param spdxDocument document containing the package
@@ -163,7 +174,7 @@ public class SpdxPackageComparer extends SpdxItemComparer {
 				licenseXlationMap = this.extractedLicenseIdMap.get(spdxDocument).get(entry.getKey());
 			}
 		}
-		if (pkg2 != null) {
+		if (pkg2 != null && !isIdenticalToAddedItems(spdxDocument, spdxPackage)) {
 			Optional<String> v1 = spdxPackage.getVersionInfo();
 			Optional<String> v2 = pkg2.getVersionInfo();
 			if (!SpdxComparer.stringsEqual(v1, v2)) {
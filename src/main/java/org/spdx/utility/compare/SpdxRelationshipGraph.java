@@ -0,0 +1,421 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.model.v2.ModelObjectV2;
+import org.spdx.library.model.v2.Relationship;
+import org.spdx.library.model.v2.SpdxConstantsCompatV2;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxElement;
+import org.spdx.library.model.v2.enumerations.RelationshipType;
+
+/**
+ * Adjacency index of the relationships in an SPDX document
+ * <p>
+ * The relationships of the document, files, packages and snippets are read from the model store once.  Each
+ * element is given an ordinal and the relationships are stored for each relationship type in compressed
+ * sparse row arrays in both directions, so the targets or sources of an element for a relationship type
+ * are a contiguous range of ordinals.  The ordinals in each range are sorted.
+ * <p>
+ * Elements are matched between graphs of different documents by key - the SPDX ID for elements in the
+ * document namespace, otherwise the object URI.
+ * <p>
+ * A graph is immutable once constructed and may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+public class SpdxRelationshipGraph {
+
+	private static final RelationshipType[] RELATIONSHIP_TYPES = RelationshipType.values();
+	private static final int[] NO_ORDINALS = new int[0];
+
+	/**
+	 * A relationship between two elements of the graph
+	 */
+	public static final class Edge {
+		private final int source;
+		private final RelationshipType relationshipType;
+		private final int target;
+
+		/**
+		 * @param source ordinal of the element with the relationship
+		 * @param relationshipType type of the relationship
+		 * @param target ordinal of the related element
+		 */
+		public Edge(int source, RelationshipType relationshipType, int target) {
+			this.source = source;
+			this.relationshipType = relationshipType;
+			this.target = target;
+		}
+
+		/**
+		 * @return the ordinal of the element with the relationship
+		 */
+		public int getSource() {
+			return source;
+		}
+
+		/**
+		 * @return the type of the relationship
+		 */
+		public RelationshipType getRelationshipType() {
+			return relationshipType;
+		}
+
+		/**
+		 * @return the ordinal of the related element
+		 */
+		public int getTarget() {
+			return target;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Edge)) {
+				return false;
+			}
+			Edge compare = (Edge)o;
+			return source == compare.source && relationshipType == compare.relationshipType && target == compare.target;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(source, relationshipType, target);
+		}
+
+		@Override
+		public String toString() {
+			return source + " " + relationshipType + " " + target;
+		}
+	}
+
+	/**
+	 * Compressed sparse rows of the relationships of one type in one direction
+	 */
+	private static class AdjacencyRows {
+		final int[] offsets;	// row of element i is from offsets[i] inclusive to offsets[i + 1] exclusive
+		final int[] ordinals;
+
+		/**
+		 * @param elementCount number of elements in the graph
+		 * @param from ordinals the relationships are from
+		 * @param to ordinals the relationships are to
+		 * @param edges positions of the relationships of the type in the from and to arrays
+		 * @param start first position in edges
+		 * @param end last position in edges exclusive
+		 */
+		AdjacencyRows(int elementCount, int[] from, int[] to, int[] edges, int start, int end) {
+			offsets = new int[elementCount + 1];
+			for (int i = start; i < end; i++) {
+				offsets[from[edges[i]] + 1]++;
+			}
+			for (int i = 0; i < elementCount; i++) {
+				offsets[i + 1] += offsets[i];
+			}
+			ordinals = new int[end - start];
+			int[] next = Arrays.copyOf(offsets, elementCount);
+			for (int i = start; i < end; i++) {
+				ordinals[next[from[edges[i]]]++] = to[edges[i]];
+			}
+			for (int i = 0; i < elementCount; i++) {
+				Arrays.sort(ordinals, offsets[i], offsets[i + 1]);
+			}
+		}
+
+		int[] getRow(int ordinal) {
+			return Arrays.copyOfRange(ordinals, offsets[ordinal], offsets[ordinal + 1]);
+		}
+
+		boolean contains(int fromOrdinal, int toOrdinal) {
+			return Arrays.binarySearch(ordinals, offsets[fromOrdinal], offsets[fromOrdinal + 1], toOrdinal) >= 0;
+		}
+	}
+
+	private final SpdxElement[] elements;
+	private final String[] keys;
+	private final Map<String, Integer> ordinalsByObjectUri = new HashMap<>();
+	private final Map<String, Integer> ordinalsByKey = new HashMap<>();
+	/**
+	 * Rows by relationship type ordinal - null if there are no relationships of the type
+	 */
+	private final AdjacencyRows[] forward = new AdjacencyRows[RELATIONSHIP_TYPES.length];
+	private final AdjacencyRows[] reverse = new AdjacencyRows[RELATIONSHIP_TYPES.length];
+	private final int edgeCount;
+
+	/**
+	 * Read the relationships of the document and its files, packages and snippets into a graph
+	 * @param spdxDocument document containing the relationships
+	 * @throws InvalidSPDXAnalysisException on errors reading the relationships
+	 */
+	public SpdxRelationshipGraph(SpdxDocument spdxDocument) throws InvalidSPDXAnalysisException {
+		String documentNamespacePrefix = spdxDocument.getDocumentUri() + "#";
+		List<SpdxElement> elementList = new ArrayList<>();
+		List<SpdxElement> sourceElements = new ArrayList<>();
+		sourceElements.add(spdxDocument);
+		for (String type:new String[] {SpdxConstantsCompatV2.CLASS_SPDX_FILE, SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE,
+				SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET}) {
+			for (ModelObjectV2 element:StreamingSpdxComparer.collectElements(spdxDocument, type)) {
+				sourceElements.add((SpdxElement)element);
+			}
+		}
+		for (SpdxElement element:sourceElements) {
+			addElement(element, elementList);
+		}
+		int[] sources = new int[16];
+		int[] types = new int[16];
+		int[] targets = new int[16];
+		int count = 0;
+		for (SpdxElement element:sourceElements) {
+			int source = ordinalsByObjectUri.get(element.getObjectUri());
+			for (Relationship relationship:element.getRelationships()) {
+				Optional<SpdxElement> related = relationship.getRelatedSpdxElement();
+				RelationshipType relationshipType = relationship.getRelationshipType();
+				if (!related.isPresent() || Objects.isNull(relationshipType)) {
+					continue;
+				}
+				if (count == sources.length) {
+					sources = Arrays.copyOf(sources, count * 2);
+					types = Arrays.copyOf(types, count * 2);
+					targets = Arrays.copyOf(targets, count * 2);
+				}
+				sources[count] = source;
+				types[count] = relationshipType.ordinal();
+				targets[count] = addElement(related.get(), elementList);
+				count++;
+			}
+		}
+		this.edgeCount = count;
+		this.elements = elementList.toArray(new SpdxElement[0]);
+		this.keys = new String[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			String objectUri = elements[i].getObjectUri();
+			keys[i] = objectUri.startsWith(documentNamespacePrefix) ? objectUri.substring(documentNamespacePrefix.length()) : objectUri;
+			ordinalsByKey.putIfAbsent(keys[i], i);
+		}
+		// partition the relationships by type using a counting sort
+		int[] typeOffsets = new int[RELATIONSHIP_TYPES.length + 1];
+		for (int i = 0; i < count; i++) {
+			typeOffsets[types[i] + 1]++;
+		}
+		for (int i = 0; i < RELATIONSHIP_TYPES.length; i++) {
+			typeOffsets[i + 1] += typeOffsets[i];
+		}
+		int[] edgesByType = new int[count];
+		int[] next = Arrays.copyOf(typeOffsets, RELATIONSHIP_TYPES.length);
+		for (int i = 0; i < count; i++) {
+			edgesByType[next[types[i]]++] = i;
+		}
+		for (int i = 0; i < RELATIONSHIP_TYPES.length; i++) {
+			if (typeOffsets[i] < typeOffsets[i + 1]) {
+				forward[i] = new AdjacencyRows(elements.length, sources, targets, edgesByType, typeOffsets[i], typeOffsets[i + 1]);
+				reverse[i] = new AdjacencyRows(elements.length, targets, sources, edgesByType, typeOffsets[i], typeOffsets[i + 1]);
+			}
+		}
+	}
+
+	/**
+	 * @param element element to add
+	 * @param elementList elements in ordinal order
+	 * @return the ordinal of the element
+	 */
+	private int addElement(SpdxElement element, List<SpdxElement> elementList) {
+		Integer ordinal = ordinalsByObjectUri.get(element.getObjectUri());
+		if (ordinal == null) {
+			ordinal = elementList.size();
+			ordinalsByObjectUri.put(element.getObjectUri(), ordinal);
+			elementList.add(element);
+		}
+		return ordinal;
+	}
+
+	/**
+	 * @return the number of elements in the graph
+	 */
+	public int size() {
+		return elements.length;
+	}
+
+	/**
+	 * @return the number of relationships in the graph
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * @param objectUri object URI of an element
+	 * @return the ordinal of the element, or -1 if the element is not in the graph
+	 */
+	public int getOrdinal(String objectUri) {
+		Integer retval = ordinalsByObjectUri.get(objectUri);
+		return retval == null ? -1 : retval;
+	}
+
+	/**
+	 * @param ordinal ordinal of the element
+	 * @return the element
+	 */
+	public SpdxElement getElement(int ordinal) {
+		return elements[ordinal];
+	}
+
+	/**
+	 * @param ordinal ordinal of the element
+	 * @return the key used to match the element to elements of other graphs
+	 */
+	public String getElementKey(int ordinal) {
+		return keys[ordinal];
+	}
+
+	/**
+	 * @param ordinal ordinal of the element
+	 * @param relationshipType type of the relationships
+	 * @return the sorted ordinals of the elements related to the element by relationships of the type
+	 */
+	public int[] getTargets(int ordinal, RelationshipType relationshipType) {
+		AdjacencyRows rows = forward[relationshipType.ordinal()];
+		return rows == null ? NO_ORDINALS : rows.getRow(ordinal);
+	}
+
+	/**
+	 * @param ordinal ordinal of the element
+	 * @param relationshipType type of the relationships
+	 * @return the sorted ordinals of the elements with relationships of the type to the element
+	 */
+	public int[] getSources(int ordinal, RelationshipType relationshipType) {
+		AdjacencyRows rows = reverse[relationshipType.ordinal()];
+		return rows == null ? NO_ORDINALS : rows.getRow(ordinal);
+	}
+
+	/**
+	 * @param source ordinal of the element with the relationship
+	 * @param relationshipType type of the relationship
+	 * @param target ordinal of the related element
+	 * @return true if the graph contains the relationship
+	 */
+	public boolean hasEdge(int source, RelationshipType relationshipType, int target) {
+		AdjacencyRows rows = forward[relationshipType.ordinal()];
+		return rows != null && rows.contains(source, target);
+	}
+
+	/**
+	 * Find the transitive closure of relationships from an element, for example everything a package
+	 * depends on through <code>DEPENDS_ON</code> and <code>CONTAINS</code> relationships
+	 * @param ordinal ordinal of the element to start from
+	 * @param relationshipTypes types of relationships to follow
+	 * @return the ordinals of the elements reachable from the element - the element itself is only included if
+	 * it is part of a cycle
+	 */
+	public BitSet findReachable(int ordinal, Collection<RelationshipType> relationshipTypes) {
+		return traverse(ordinal, relationshipTypes, forward);
+	}
+
+	/**
+	 * Find the transitive closure of relationships to an element, for example every package impacted
+	 * by a change to a dependency through <code>DEPENDS_ON</code> relationships
+	 * @param ordinal ordinal of the element to start from
+	 * @param relationshipTypes types of relationships to follow in reverse
+	 * @return the ordinals of the elements from which the element is reachable - the element itself is only
+	 * included if it is part of a cycle
+	 */
+	public BitSet findReverseReachable(int ordinal, Collection<RelationshipType> relationshipTypes) {
+		return traverse(ordinal, relationshipTypes, reverse);
+	}
+
+	/**
+	 * Breadth first traversal of the rows for the relationship types
+	 * @param start ordinal to start from
+	 * @param relationshipTypes types of relationships to follow
+	 * @param rowsByType forward or reverse rows
+	 * @return ordinals visited
+	 */
+	private BitSet traverse(int start, Collection<RelationshipType> relationshipTypes, AdjacencyRows[] rowsByType) {
+		List<AdjacencyRows> rowsToFollow = new ArrayList<>();
+		for (RelationshipType relationshipType:relationshipTypes) {
+			if (rowsByType[relationshipType.ordinal()] != null) {
+				rowsToFollow.add(rowsByType[relationshipType.ordinal()]);
+			}
+		}
+		BitSet visited = new BitSet(elements.length);
+		// the start is not marked as visited so it is only included if it is part of a cycle - it may be queued
+		// a second time when it is reached, every other element is queued at most once
+		int[] queue = new int[elements.length + 1];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		while (head < tail) {
+			int ordinal = queue[head++];
+			for (AdjacencyRows rows:rowsToFollow) {
+				for (int i = rows.offsets[ordinal]; i < rows.offsets[ordinal + 1]; i++) {
+					int next = rows.ordinals[i];
+					if (!visited.get(next)) {
+						visited.set(next);
+						queue[tail++] = next;
+					}
+				}
+			}
+		}
+		return visited;
+	}
+
+	/**
+	 * Elements are matched between the graphs by element key
+	 * @param other graph to compare
+	 * @return the relationships in this graph which are not in the other graph, in order of relationship type
+	 * and source and target ordinal
+	 */
+	public List<Edge> findUniqueEdges(SpdxRelationshipGraph other) {
+		int[] otherOrdinals = new int[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			Integer otherOrdinal = other.ordinalsByKey.get(keys[i]);
+			otherOrdinals[i] = otherOrdinal == null ? -1 : otherOrdinal;
+		}
+		List<Edge> retval = new ArrayList<>();
+		for (int type = 0; type < RELATIONSHIP_TYPES.length; type++) {
+			AdjacencyRows rows = forward[type];
+			if (rows == null) {
+				continue;
+			}
+			AdjacencyRows otherRows = other.forward[type];
+			for (int source = 0; source < elements.length; source++) {
+				for (int i = rows.offsets[source]; i < rows.offsets[source + 1]; i++) {
+					int target = rows.ordinals[i];
+					if (i > rows.offsets[source] && rows.ordinals[i - 1] == target) {
+						continue;	// duplicate relationship
+					}
+					if (otherRows == null || otherOrdinals[source] < 0 || otherOrdinals[target] < 0 ||
+							!otherRows.contains(otherOrdinals[source], otherOrdinals[target])) {
+						retval.add(new Edge(source, RELATIONSHIP_TYPES[type], target));
+					}
+				}
+			}
+		}
+		return retval;
+	}
+}
@@ -0,0 +1,323 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v2.Annotation;
+import org.spdx.library.model.v2.ModelObjectV2;
+import org.spdx.library.model.v2.Relationship;
+import org.spdx.library.model.v2.SpdxConstantsCompatV2;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxFile;
+import org.spdx.library.model.v2.SpdxPackage;
+import org.spdx.library.model.v2.SpdxSnippet;
+import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
+import org.spdx.utility.compare.SpdxDifferenceEvent.Kind;
+
+/**
+ * Compares two SPDX documents and reports each difference to a {@link SpdxDifferenceSink} as it is found
+ * <p>
+ * Unlike the {@link SpdxComparer}, no comparison results are retained - the memory used does not grow with
+ * the number of differences, which allows comparing large documents with many differences.  The elements
+ * are matched between the documents the same way as the {@link SpdxComparer}:
+ * <ul>
+ * <li>Files are matched by name</li>
+ * <li>Packages are matched by name - only the first package with a given name is compared</li>
+ * <li>Snippets and extracted licenses are matched by the same criteria as the {@link SpdxComparer}</li>
+ * </ul>
+ * Document level fields and creator information are not compared - use the {@link SpdxComparer} for those.
+ * <p>
+ * A comparer may be reused for several comparisons but is not thread safe.
+ *
+ * @author Gary O'Neall
+ */
+public class StreamingSpdxComparer {
+
+	private final SpdxDifferenceSink sink;
+	private SpdxElementDigests elementDigests;	// content digests for the current comparison
+
+	/**
+	 * @param sink receives the differences found
+	 */
+	public StreamingSpdxComparer(SpdxDifferenceSink sink) {
+		Objects.requireNonNull(sink, "Sink can not be null");
+		this.sink = sink;
+	}
+
+	/**
+	 * Compare two documents reporting all differences to the sink
+	 * @param docA original document
+	 * @param docB changed document
+	 * @return the number of differences reported
+	 * @throws SpdxCompareException on compare errors or if the sink stops the comparison
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	public long compare(SpdxDocument docA, SpdxDocument docB) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		CountingSink counter = new CountingSink();
+		this.elementDigests = new SpdxElementDigests();
+		Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap =
+				compareExtractedLicenseInfos(docA, docB, counter);	// must be first to build the license ID map
+		compareFiles(docA, docB, extractedLicenseIdMap, counter);
+		comparePackages(docA, docB, extractedLicenseIdMap, counter);
+		compareSnippets(docA, docB, extractedLicenseIdMap, counter);
+		compareDocumentRelationships(docA, docB, counter);
+		compareDocumentAnnotations(docA, docB, counter);
+		return counter.count;
+	}
+
+	/**
+	 * Counts the differences passed to the sink
+	 */
+	private class CountingSink implements SpdxDifferenceSink {
+		long count = 0;
+
+		@Override
+		public void difference(SpdxDifferenceEvent event) throws SpdxCompareException {
+			count++;
+			sink.difference(event);
+		}
+	}
+
+	/**
+	 * @param docA original document
+	 * @param docB changed document
+	 * @param counter sink for the differences
+	 * @return map of the extracted license IDs considered equal between the documents in both directions
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	private Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> compareExtractedLicenseInfos(
+			SpdxDocument docA, SpdxDocument docB, SpdxDifferenceSink counter) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		Map<String, String> idMapAB = new HashMap<>();
+		Map<String, String> idMapBA = new HashMap<>();
+		List<SpdxLicenseDifference> differences = new ArrayList<>();
+		List<ExtractedLicenseInfo> uniqueLicenses = new ArrayList<>();
+		SpdxComparer.compareLicenses(docA.getExtractedLicenseInfos(), docB.getExtractedLicenseInfos(),
+				idMapAB, differences, uniqueLicenses);
+		for (ExtractedLicenseInfo license:uniqueLicenses) {
+			counter.difference(new SpdxDifferenceEvent(Kind.EXTRACTED_LICENSE_REMOVED, license, null, null));
+		}
+		for (SpdxLicenseDifference difference:differences) {
+			counter.difference(new SpdxDifferenceEvent(Kind.EXTRACTED_LICENSE_CHANGED, null, null, difference));
+		}
+		List<SpdxLicenseDifference> reverseDifferences = new ArrayList<>();
+		SpdxComparer.compareLicenses(docB.getExtractedLicenseInfos(), docA.getExtractedLicenseInfos(),
+				idMapBA, reverseDifferences, uniqueLicenses);
+		for (ExtractedLicenseInfo license:uniqueLicenses) {
+			counter.difference(new SpdxDifferenceEvent(Kind.EXTRACTED_LICENSE_ADDED, null, license, null));
+		}
+		Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> retval = new HashMap<>();
+		retval.put(docA, Collections.singletonMap(docB, idMapAB));
+		retval.put(docB, Collections.singletonMap(docA, idMapBA));
+		return retval;
+	}
+
+	/**
+	 * @param docA original document
+	 * @param docB changed document
+	 * @param extractedLicenseIdMap map of the extracted license IDs between the documents
+	 * @param counter sink for the differences
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	@SuppressWarnings("unchecked")
+	private void compareFiles(SpdxDocument docA, SpdxDocument docB,
+			Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap,
+			SpdxDifferenceSink counter) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		SpdxFileIndex filesA = SpdxFileIndex.sortedByName((List<SpdxFile>)collectElements(docA, SpdxConstantsCompatV2.CLASS_SPDX_FILE));
+		SpdxFileIndex filesB = SpdxFileIndex.sortedByName((List<SpdxFile>)collectElements(docB, SpdxConstantsCompatV2.CLASS_SPDX_FILE));
+		for (SpdxFile file:filesA.findUniqueFiles(filesB)) {
+			counter.difference(new SpdxDifferenceEvent(Kind.FILE_REMOVED, file, null, null));
+		}
+		for (SpdxFile file:filesB.findUniqueFiles(filesA)) {
+			counter.difference(new SpdxDifferenceEvent(Kind.FILE_ADDED, null, file, null));
+		}
+		for (int[] match:filesA.findMatchingPositions(filesB)) {
+			SpdxFile fileA = filesA.getFiles()[match[0]];
+			SpdxFile fileB = filesB.getFiles()[match[1]];
+			SpdxFileComparer fileComparer = new SpdxFileComparer(extractedLicenseIdMap, elementDigests);
+			fileComparer.addDocumentFile(docA, fileA);
+			fileComparer.addDocumentFile(docB, fileB);
+			if (fileComparer.isDifferenceFound()) {
+				counter.difference(new SpdxDifferenceEvent(Kind.FILE_CHANGED, fileA, fileB,
+						fileComparer.getFileDifference(docA, docB)));
+			}
+		}
+	}
+
+	/**
+	 * @param docA original document
+	 * @param docB changed document
+	 * @param extractedLicenseIdMap map of the extracted license IDs between the documents
+	 * @param counter sink for the differences
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	@SuppressWarnings("unchecked")
+	private void comparePackages(SpdxDocument docA, SpdxDocument docB,
+			Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap,
+			SpdxDifferenceSink counter) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		List<SpdxPackage> pkgsA = (List<SpdxPackage>)collectElements(docA, SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE);
+		List<SpdxPackage> pkgsB = (List<SpdxPackage>)collectElements(docB, SpdxConstantsCompatV2.CLASS_SPDX_PACKAGE);
+		// note - the package lists MUST be sorted for the comparator methods to work
+		Collections.sort(pkgsA);
+		Collections.sort(pkgsB);
+		for (SpdxPackage pkg:SpdxComparer.findUniquePackages(pkgsA, pkgsB)) {
+			counter.difference(new SpdxDifferenceEvent(Kind.PACKAGE_REMOVED, pkg, null, null));
+		}
+		for (SpdxPackage pkg:SpdxComparer.findUniquePackages(pkgsB, pkgsA)) {
+			counter.difference(new SpdxDifferenceEvent(Kind.PACKAGE_ADDED, null, pkg, null));
+		}
+		Map<String, SpdxPackage> pkgsBByName = new HashMap<>();
+		for (SpdxPackage pkg:pkgsB) {
+			Optional<String> name = pkg.getName();
+			if (name.isPresent()) {
+				pkgsBByName.putIfAbsent(name.get(), pkg);
+			}
+		}
+		List<String> comparedNames = new ArrayList<>();
+		for (SpdxPackage pkgA:pkgsA) {
+			Optional<String> name = pkgA.getName();
+			if (!name.isPresent() || comparedNames.contains(name.get())) {
+				continue;	// only the first package with a given name is compared
+			}
+			comparedNames.add(name.get());
+			SpdxPackage pkgB = pkgsBByName.get(name.get());
+			if (pkgB == null) {
+				continue;
+			}
+			SpdxPackageComparer packageComparer = new SpdxPackageComparer(extractedLicenseIdMap, elementDigests);
+			packageComparer.addDocumentPackage(docA, pkgA);
+			packageComparer.addDocumentPackage(docB, pkgB);
+			if (packageComparer.isDifferenceFound()) {
+				counter.difference(new SpdxDifferenceEvent(Kind.PACKAGE_CHANGED, pkgA, pkgB, packageComparer));
+				if (!packageComparer.isConcludedLicenseEquals() || !packageComparer.isDeclaredLicensesEquals()) {
+					counter.difference(new SpdxDifferenceEvent(Kind.PACKAGE_LICENSE_CHANGED, pkgA, pkgB, packageComparer));
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param docA original document
+	 * @param docB changed document
+	 * @param extractedLicenseIdMap map of the extracted license IDs between the documents
+	 * @param counter sink for the differences
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	@SuppressWarnings("unchecked")
+	private void compareSnippets(SpdxDocument docA, SpdxDocument docB,
+			Map<SpdxDocument, Map<SpdxDocument, Map<String, String>>> extractedLicenseIdMap,
+			SpdxDifferenceSink counter) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		List<SpdxSnippet> snippetsA = (List<SpdxSnippet>)collectElements(docA, SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET);
+		List<SpdxSnippet> snippetsB = (List<SpdxSnippet>)collectElements(docB, SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET);
+		// note - the snippet lists MUST be sorted for the comparator methods to work
+		Collections.sort(snippetsA);
+		Collections.sort(snippetsB);
+		for (SpdxSnippet snippet:SpdxComparer.findUniqueSnippets(snippetsA, snippetsB)) {
+			counter.difference(new SpdxDifferenceEvent(Kind.SNIPPET_REMOVED, snippet, null, null));
+		}
+		for (SpdxSnippet snippet:SpdxComparer.findUniqueSnippets(snippetsB, snippetsA)) {
+			counter.difference(new SpdxDifferenceEvent(Kind.SNIPPET_ADDED, null, snippet, null));
+		}
+		int indexA = 0;
+		int indexB = 0;
+		while (indexA < snippetsA.size() && indexB < snippetsB.size()) {
+			SpdxSnippet snippetA = snippetsA.get(indexA);
+			SpdxSnippet snippetB = snippetsB.get(indexB);
+			int compareVal = snippetA.compareTo(snippetB);
+			if (compareVal < 0) {
+				indexA++;
+			} else if (compareVal > 0) {
+				indexB++;
+			} else {
+				SpdxSnippetComparer snippetComparer = new SpdxSnippetComparer(extractedLicenseIdMap);
+				snippetComparer.addDocumentSnippet(docA, snippetA);
+				snippetComparer.addDocumentSnippet(docB, snippetB);
+				if (snippetComparer.isDifferenceFound()) {
+					counter.difference(new SpdxDifferenceEvent(Kind.SNIPPET_CHANGED, snippetA, snippetB, snippetComparer));
+				}
+				indexA++;
+				indexB++;
+			}
+		}
+	}
+
+	/**
+	 * @param docA original document
+	 * @param docB changed document
+	 * @param counter sink for the differences
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	private void compareDocumentRelationships(SpdxDocument docA, SpdxDocument docB,
+			SpdxDifferenceSink counter) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		for (Relationship relationship:SpdxComparer.findUniqueRelationships(docA.getRelationships(), docB.getRelationships())) {
+			counter.difference(new SpdxDifferenceEvent(Kind.DOCUMENT_RELATIONSHIP_REMOVED, relationship, null, null));
+		}
+		for (Relationship relationship:SpdxComparer.findUniqueRelationships(docB.getRelationships(), docA.getRelationships())) {
+			counter.difference(new SpdxDifferenceEvent(Kind.DOCUMENT_RELATIONSHIP_ADDED, null, relationship, null));
+		}
+	}
+
+	/**
+	 * @param docA original document
+	 * @param docB changed document
+	 * @param counter sink for the differences
+	 * @throws SpdxCompareException on compare errors
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	private void compareDocumentAnnotations(SpdxDocument docA, SpdxDocument docB,
+			SpdxDifferenceSink counter) throws SpdxCompareException, InvalidSPDXAnalysisException {
+		for (Annotation annotation:SpdxComparer.findUniqueAnnotations(docA.getAnnotations(), docB.getAnnotations())) {
+			counter.difference(new SpdxDifferenceEvent(Kind.DOCUMENT_ANNOTATION_REMOVED, annotation, null, null));
+		}
+		for (Annotation annotation:SpdxComparer.findUniqueAnnotations(docB.getAnnotations(), docA.getAnnotations())) {
+			counter.difference(new SpdxDifferenceEvent(Kind.DOCUMENT_ANNOTATION_ADDED, null, annotation, null));
+		}
+	}
+
+	/**
+	 * @param spdxDocument document containing the elements
+	 * @param type SPDX type of the elements
+	 * @return all elements of the type in the document
+	 * @throws InvalidSPDXAnalysisException on SPDX parsing errors
+	 */
+	static List<? extends ModelObjectV2> collectElements(SpdxDocument spdxDocument, String type) throws InvalidSPDXAnalysisException {
+		@SuppressWarnings("unchecked")
+		Stream<ModelObjectV2> elementStream = (Stream<ModelObjectV2>)SpdxModelFactory.getSpdxObjects(
+				spdxDocument.getModelStore(), null, type, spdxDocument.getDocumentUri(), null);
+		try {
+			return elementStream.collect(Collectors.toList());
+		} finally {
+			elementStream.close();
+		}
+	}
+}
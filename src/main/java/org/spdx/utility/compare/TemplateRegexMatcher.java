@@ -148,6 +148,11 @@ public class TemplateRegexMatcher implements ILicenseTemplateOutputHandler {
 	
 	private final List<OptionalRegexGroup> optionalGroups = new ArrayList<>();
 
+	private Pattern quickPattern = null;
+	private Pattern startPattern = null;
+	private Pattern endPattern = null;
+	private CompareTemplateOutputHandler compareHandler = null;	// parsed on first use for the full comparison
+
 	/**
 	 * Generates regular expressions from a license or exception template
 	 * @throws SpdxCompareException on compare errors
@@ -157,6 +162,13 @@ public class TemplateRegexMatcher implements ILicenseTemplateOutputHandler {
 		parseTemplate();
 	}
 	
+	/**
+	 * @return the template used to generate the regular expressions
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
 	/**
 	 * Parses the template generating the regular expression
 	 * @throws SpdxCompareException on compare errors
@@ -183,6 +195,27 @@ public class TemplateRegexMatcher implements ILicenseTemplateOutputHandler {
 	 * @return a regular expression to match the template with minimum backtracking - avoiding optional and var tags
 	 */
 	public String getQuickMatchRegex(int wordLimit) {
+		return REGEX_GLOBAL_MODIFIERS + getQuickMatchElements(wordLimit);
+	}
+
+	/**
+	 * @param wordLimit maximum number of contiguous words to match
+	 * @return the text which must be present (ignoring case and whitespace) for the quick match regex to match
+	 */
+	String getQuickMatchText(int wordLimit) {
+		StringBuilder sb = new StringBuilder();
+		for (RegexElement element:getQuickMatchElements(wordLimit).getElements()) {
+			String token = ((RegexToken)element).getToken();
+			sb.append(LicenseTextHelper.NORMALIZE_TOKENS.getOrDefault(token.toLowerCase(), token));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param wordLimit maximum number of contiguous words to match
+	 * @return the largest contiguous list of tokens up to the word limit - avoiding optional and var tags
+	 */
+	private RegexList getQuickMatchElements(int wordLimit) {
 		RegexList result = new RegexList();
 		int index = 0;
 		int numWords = 0;
@@ -215,7 +248,7 @@ public class TemplateRegexMatcher implements ILicenseTemplateOutputHandler {
 				}
 			}
 		}
-		return REGEX_GLOBAL_MODIFIERS + result;
+		return result;
 	}
 	
 	/**
@@ -278,12 +311,28 @@ public class TemplateRegexMatcher implements ILicenseTemplateOutputHandler {
 		}
 		String completeText = findTemplateWithinText(text);
 		if (completeText != null) {
-			return !LicenseCompareHelper.isTextMatchingTemplate(template, completeText).isDifferenceFound();
+			try {
+				return getCompareHandler().isMatch(LicenseCompareHelper.normalizeCompareText(completeText));
+			} catch (LicenseParserException e) {
+				throw new SpdxCompareException("Invalid template found during compare: "+e.getMessage(),e);
+			}
 		} else {
 			return false;
 		}
 	}
 
+	/**
+	 * The template is parsed for the full comparison on the first call and the result is reused
+	 * @return a handler containing the parsed template which can compare any number of texts
+	 * @throws SpdxCompareException on invalid templates
+	 */
+	synchronized CompareTemplateOutputHandler getCompareHandler() throws SpdxCompareException {
+		if (compareHandler == null) {
+			compareHandler = LicenseCompareHelper.parseCompareTemplate(template);
+		}
+		return compareHandler;
+	}
+
 	/**
 	 * Normalizes text for use in the template matcher
 	 * @param text text to normalize
@@ -318,13 +367,11 @@ public class TemplateRegexMatcher implements ILicenseTemplateOutputHandler {
 
 		String compareText = normalizeText(text);
 
-		Pattern quickPattern = Pattern.compile(getQuickMatchRegex(WORD_LIMIT));
+		compilePatterns();
 		if (quickPattern.matcher(compareText).find()) {
-			Pattern startPattern = Pattern.compile(getStartRegex(WORD_LIMIT));
 			Matcher startMatcher = startPattern.matcher(compareText);
 			if(startMatcher.find()) {
 				startIndex = startMatcher.start();
-				Pattern endPattern = Pattern.compile(getEndRegex(WORD_LIMIT));
 				Matcher endMatcher = endPattern.matcher(compareText);
 				while (endMatcher.find() && endMatcher.start() >= startIndex) {
 					endIndex = endMatcher.end();
@@ -337,6 +384,17 @@ public class TemplateRegexMatcher implements ILicenseTemplateOutputHandler {
 		return result;
 	}
 	
+	/**
+	 * Compile the quick, start and end patterns once so that the matcher can be used for many texts
+	 */
+	private synchronized void compilePatterns() {
+		if (quickPattern == null) {
+			quickPattern = Pattern.compile(getQuickMatchRegex(WORD_LIMIT));
+			startPattern = Pattern.compile(getStartRegex(WORD_LIMIT));
+			endPattern = Pattern.compile(getEndRegex(WORD_LIMIT));
+		}
+	}
+
 	private RegexList getCurrentList() {
 		return optionalNestLevel == 0 ? regexPatternList : optionalGroups.get(optionalNestLevel - 1);
 	}
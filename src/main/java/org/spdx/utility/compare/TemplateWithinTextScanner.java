@@ -0,0 +1,384 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spdx.core.InvalidSPDXAnalysisException;
+
+/**
+ * Searches a text for many license or exception templates in a single pass
+ * <p>
+ * Each template is converted to a {@link TemplateRegexMatcher}.  The text required by each quick match
+ * regular expression (the largest run of required words in the template) is added to an Aho-Corasick automaton
+ * over lower case characters with whitespace removed.  A single pass over the normalized text finds every
+ * template whose required text is present.  Only those candidates are then checked using
+ * {@link TemplateRegexMatcher#isTemplateMatchWithinText(String)}.
+ * <p>
+ * Since the quick match regular expression can not match unless its required text is present, the result
+ * is the same as checking every template.
+ * <p>
+ * Texts longer than the window size, and text read from a {@link Reader}, are searched in overlapping windows so
+ * that the memory used does not depend on the size of the text.  The overlap is twice the length of the longest
+ * template plus {@link #MIN_WINDOW_OVERLAP} characters - a template found within text spanning more characters
+ * than the overlap (e.g. due to very long variable text) may not be found.
+ * <p>
+ * The scanner is immutable once constructed and may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+public class TemplateWithinTextScanner {
+
+	static final Logger logger = LoggerFactory.getLogger(TemplateWithinTextScanner.class);
+
+	/**
+	 * Default number of new characters searched in each window
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 1 << 20;
+	/**
+	 * Minimum number of characters shared by consecutive windows
+	 */
+	public static final int MIN_WINDOW_OVERLAP = 4096;
+
+	private static final int ROOT = 0;
+
+	private final List<String> ids = new ArrayList<>();
+	private final List<TemplateRegexMatcher> matchers = new ArrayList<>();
+	private final BitSet alwaysCandidates = new BitSet();	// templates without any required text
+
+	// Aho-Corasick automaton - transitions are keyed by the node index and the character
+	private final Map<Long, Integer> transitions = new HashMap<>();
+	private int[] failure;
+	private int[] firstOutput;	// first pattern which ends at the node or -1
+	private int[] outputLink;	// next node in the failure chain with an output or -1
+	private int[] nextOutput;	// next pattern ending at the same node or -1, indexed by pattern
+	private int windowOverlap = MIN_WINDOW_OVERLAP;
+
+	/**
+	 * @param templates map of ID to the license or exception template, searched in the iteration order of the map
+	 */
+	public TemplateWithinTextScanner(Map<String, String> templates) {
+		for (Map.Entry<String, String> entry:templates.entrySet()) {
+			try {
+				matchers.add(new TemplateRegexMatcher(entry.getValue()));
+				ids.add(entry.getKey());
+			} catch (SpdxCompareException e) {
+				logger.warn("Compare error parsing the template for {}", entry.getKey(), e);
+			}
+		}
+		buildAutomaton();
+	}
+
+	/**
+	 * @param ids IDs of the templates
+	 * @param matchers matchers for the templates in the same order as the IDs
+	 */
+	private TemplateWithinTextScanner(List<String> ids, List<TemplateRegexMatcher> matchers) {
+		this.ids.addAll(ids);
+		this.matchers.addAll(matchers);
+		buildAutomaton();
+	}
+
+	/**
+	 * Create a scanner from already compiled templates without parsing the templates again
+	 * @param templates map of ID to the compiled template, searched in the iteration order of the map
+	 * @return a scanner for the templates
+	 */
+	public static TemplateWithinTextScanner fromCompiledTemplates(Map<String, CompiledLicenseTemplate> templates) {
+		List<String> ids = new ArrayList<>();
+		List<TemplateRegexMatcher> matchers = new ArrayList<>();
+		for (Map.Entry<String, CompiledLicenseTemplate> entry:templates.entrySet()) {
+			ids.add(entry.getKey());
+			matchers.add(entry.getValue().getRegexMatcher());
+		}
+		return new TemplateWithinTextScanner(ids, matchers);
+	}
+
+	/**
+	 * Add the required text for each matcher to the automaton
+	 */
+	private void buildAutomaton() {
+		List<Integer> goals = new ArrayList<>();
+		goals.add(-1);	// root
+		List<Integer> patternNodes = new ArrayList<>();
+		for (int patternIndex = 0; patternIndex < matchers.size(); patternIndex++) {
+			String template = matchers.get(patternIndex).getTemplate();
+			if (template != null) {
+				windowOverlap = Math.max(windowOverlap, template.length() * 2 + MIN_WINDOW_OVERLAP);
+			}
+			String required = searchText(matchers.get(patternIndex).getQuickMatchText(TemplateRegexMatcher.WORD_LIMIT));
+			if (required.isEmpty()) {
+				alwaysCandidates.set(patternIndex);
+				patternNodes.add(-1);
+				continue;
+			}
+			int node = ROOT;
+			for (int i = 0; i < required.length(); i++) {
+				long key = transitionKey(node, required.charAt(i));
+				Integer next = transitions.get(key);
+				if (next == null) {
+					next = goals.size();
+					goals.add(-1);
+					transitions.put(key, next);
+				}
+				node = next;
+			}
+			patternNodes.add(node);
+		}
+		buildFailureLinks(goals.size(), patternNodes);
+	}
+
+	/**
+	 * @param numNodes number of nodes in the automaton
+	 * @param patternNodes node at which each pattern ends, or -1 if the pattern has no required text
+	 */
+	private void buildFailureLinks(int numNodes, List<Integer> patternNodes) {
+		failure = new int[numNodes];
+		firstOutput = new int[numNodes];
+		outputLink = new int[numNodes];
+		nextOutput = new int[patternNodes.size()];
+		Arrays.fill(firstOutput, -1);
+		Arrays.fill(outputLink, -1);
+		for (int pattern = 0; pattern < patternNodes.size(); pattern++) {
+			int node = patternNodes.get(pattern);
+			nextOutput[pattern] = -1;
+			if (node >= 0) {
+				nextOutput[pattern] = firstOutput[node];
+				firstOutput[node] = pattern;
+			}
+		}
+		// children of each node for the breadth first traversal
+		Map<Integer, List<long[]>> children = new HashMap<>();
+		for (Map.Entry<Long, Integer> transition:transitions.entrySet()) {
+			int parent = (int)(transition.getKey() >>> 16);
+			children.computeIfAbsent(parent, k -> new ArrayList<>()).add(
+					new long[] {transition.getKey() & 0xFFFF, transition.getValue()});
+		}
+		Queue<Integer> queue = new ArrayDeque<>();
+		queue.add(ROOT);
+		while (!queue.isEmpty()) {
+			int node = queue.remove();
+			for (long[] child:children.getOrDefault(node, Collections.emptyList())) {
+				char c = (char)child[0];
+				int childNode = (int)child[1];
+				int fail = ROOT;
+				if (node != ROOT) {
+					fail = failure[node];
+					Integer next = transitions.get(transitionKey(fail, c));
+					while (next == null && fail != ROOT) {
+						fail = failure[fail];
+						next = transitions.get(transitionKey(fail, c));
+					}
+					fail = next == null ? ROOT : next;
+				}
+				failure[childNode] = fail;
+				outputLink[childNode] = firstOutput[fail] >= 0 ? fail : outputLink[fail];
+				queue.add(childNode);
+			}
+		}
+	}
+
+	private static long transitionKey(int node, char c) {
+		return ((long)node << 16) | c;
+	}
+
+	/**
+	 * Convert text to the form used by the automaton - lower case characters without the whitespace
+	 * skipped by the <code>\s</code> regular expression
+	 * @param text text to convert
+	 * @return converted text
+	 */
+	private static String searchText(String text) {
+		StringBuilder sb = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') {
+				sb.append(Character.toLowerCase(c));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param text text to search
+	 * @return the indexes of the templates whose required text is found within the text
+	 */
+	private BitSet findCandidates(String text) {
+		BitSet retval = (BitSet)alwaysCandidates.clone();
+		if (matchers.isEmpty()) {
+			return retval;
+		}
+		String normalized = searchText(matchers.get(0).normalizeText(text));
+		int node = ROOT;
+		for (int i = 0; i < normalized.length(); i++) {
+			char c = normalized.charAt(i);
+			Integer next = transitions.get(transitionKey(node, c));
+			while (next == null && node != ROOT) {
+				node = failure[node];
+				next = transitions.get(transitionKey(node, c));
+			}
+			node = next == null ? ROOT : next;
+			for (int output = firstOutput[node] >= 0 ? node : outputLink[node]; output >= 0; output = outputLink[output]) {
+				for (int pattern = firstOutput[output]; pattern >= 0; pattern = nextOutput[pattern]) {
+					retval.set(pattern);
+				}
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * @param text text to search
+	 * @return IDs of the templates whose required text is found within the text - the templates may not match
+	 */
+	public List<String> findCandidateIds(String text) {
+		if (text == null || text.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return toIds(findCandidates(text));
+	}
+
+	/**
+	 * @param text text to search
+	 * @return IDs of the templates found within the text, using the SPDX matching guidelines
+	 */
+	public List<String> findMatchingIds(String text) {
+		if (text == null || text.isEmpty()) {
+			return new ArrayList<>();
+		}
+		BitSet found = new BitSet();
+		findMatches(text, found);
+		return toIds(found);
+	}
+
+	/**
+	 * Search text read from a reader in windows of {@link #DEFAULT_WINDOW_SIZE} characters
+	 * @param reader reader for the text to search - the reader is not closed
+	 * @return IDs of the templates found within the text, using the SPDX matching guidelines
+	 * @throws IOException on errors reading from the reader
+	 */
+	public List<String> findMatchingIdsInReader(Reader reader) throws IOException {
+		return findMatchingIdsInReader(reader, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Search text read from a reader in windows - at most <code>windowSize</code> plus the window overlap
+	 * characters are held in memory
+	 * @param reader reader for the text to search - the reader is not closed
+	 * @param windowSize number of new characters searched in each window
+	 * @return IDs of the templates found within the text, using the SPDX matching guidelines
+	 * @throws IOException on errors reading from the reader
+	 */
+	public List<String> findMatchingIdsInReader(Reader reader, int windowSize) throws IOException {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("Window size must be positive");
+		}
+		BitSet found = new BitSet();
+		char[] buf = new char[windowSize + windowOverlap];
+		int len = 0;
+		int retained = 0;	// number of characters at the start of the buffer already searched
+		boolean eof = false;
+		while (!eof) {
+			while (len < buf.length) {
+				int numRead = reader.read(buf, len, buf.length - len);
+				if (numRead < 0) {
+					eof = true;
+					break;
+				}
+				len += numRead;
+			}
+			if (len > retained) {
+				findMatches(new String(buf, 0, len), found);
+			}
+			if (!eof) {
+				// retain the overlap, starting at a line if possible so that comment characters are handled
+				int start = len - windowOverlap;
+				int minStart = Math.max(1, start - windowSize / 2);
+				for (int i = start; i >= minStart; i--) {
+					if (buf[i - 1] == '\n') {
+						start = i;
+						break;
+					}
+				}
+				System.arraycopy(buf, start, buf, 0, len - start);
+				len -= start;
+				retained = len;
+			}
+		}
+		return toIds(found);
+	}
+
+	/**
+	 * Add the templates found within the text to <code>found</code> - templates already found are not checked
+	 * @param text text to search
+	 * @param found indexes of the templates found
+	 */
+	private void findMatches(String text, BitSet found) {
+		BitSet candidates = findCandidates(text);
+		candidates.andNot(found);
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			try {
+				if (matchers.get(i).isTemplateMatchWithinText(text)) {
+					found.set(i);
+				}
+			} catch (SpdxCompareException e) {
+				logger.warn("Compare error matching template for {}", ids.get(i), e);
+			} catch (InvalidSPDXAnalysisException e) {
+				logger.warn("SPDX analysis error matching template for {}", ids.get(i), e);
+			}
+		}
+	}
+
+	/**
+	 * @param indexes template indexes
+	 * @return IDs for the template indexes in the order of the templates
+	 */
+	private List<String> toIds(BitSet indexes) {
+		List<String> retval = new ArrayList<>();
+		for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+			retval.add(ids.get(i));
+		}
+		return retval;
+	}
+
+	/**
+	 * @return number of characters shared by consecutive windows when searching large texts
+	 */
+	public int getWindowOverlap() {
+		return windowOverlap;
+	}
+
+	/**
+	 * @return IDs of all templates which can be found by the scanner
+	 */
+	public List<String> getIds() {
+		return Collections.unmodifiableList(ids);
+	}
+}
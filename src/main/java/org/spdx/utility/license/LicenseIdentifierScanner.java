@@ -0,0 +1,646 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.license;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.core.DefaultStoreNotInitializedException;
+import org.spdx.library.ListedLicenses;
+import org.spdx.library.model.v2.SpdxConstantsCompatV2;
+import org.spdx.storage.listedlicense.LicenseIdDictionary;
+import org.spdx.utility.compare.CanonicalLicenseExpression;
+
+/**
+ * Scans text for <code>SPDX-License-Identifier:</code> tags and parses the license expression following each tag
+ * <p>
+ * The text is scanned from a <code>Reader</code> in fixed size chunks or directly from a <code>ByteBuffer</code>,
+ * so the complete text is never materialized as a String.  Text which does not contain a tag is scanned without
+ * allocating any objects.  Listed license and exception IDs are resolved in place using the
+ * {@link LicenseIdDictionary} for the license list.
+ * <p>
+ * Each tag found is reported as a {@link LicenseIdentifierMatch} containing the offset of the expression and the
+ * expression parsed into a {@link CanonicalLicenseExpression}.  Custom license and addition references
+ * (e.g. <code>LicenseRef-foo</code>) are represented by the object URI the <code>LicenseExpressionParser</code>
+ * would create for them - the custom license URI prefix followed by the ID - so the expressions compare equal to
+ * the result of {@link CanonicalLicenseExpression#canonicalize(org.spdx.library.model.v3_0_1.simplelicensing.AnyLicenseInfo)}
+ * for a license parsed with the same prefix.  External references (e.g. <code>DocumentRef-a:LicenseRef-b</code>)
+ * are represented by their ID since the namespace of the external document is not known.  The end of the line
+ * ends the expression and any trailing comment close characters (e.g. <code>*&#47;</code> or <code>--&gt;</code>)
+ * are ignored.
+ * <p>
+ * Lines read from a <code>Reader</code> are retained up to {@link #MAX_LINE_LENGTH} characters.  A tag on a longer
+ * line is reported as an invalid match with an error and the remainder of the line is skipped.
+ * <p>
+ * Instances are immutable and may be shared between threads.
+ *
+ * @author Gary O'Neall
+ */
+public class LicenseIdentifierScanner {
+
+	/**
+	 * SPDX license identifier tag - matched case insensitively
+	 */
+	public static final String LICENSE_IDENTIFIER_TAG = "SPDX-License-Identifier:";
+	static final int DEFAULT_BUFFER_SIZE = 8192;
+	/**
+	 * Maximum number of characters retained for a line containing a tag
+	 */
+	static final int MAX_LINE_LENGTH = 1024 * 1024;
+	static final String[] COMMENT_END_STRINGS = new String[] {"*/", "-->", "-}", "*)"};
+
+	/**
+	 * License expression found following an SPDX license identifier tag
+	 */
+	public static class LicenseIdentifierMatch {
+		private final long offset;
+		private final int lineNumber;
+		private final String expressionText;
+		private final CanonicalLicenseExpression expression;
+		private final String error;
+
+		LicenseIdentifierMatch(long offset, int lineNumber, String expressionText,
+				@Nullable CanonicalLicenseExpression expression, @Nullable String error) {
+			this.offset = offset;
+			this.lineNumber = lineNumber;
+			this.expressionText = expressionText;
+			this.expression = expression;
+			this.error = error;
+		}
+
+		/**
+		 * @return offset of the start of the expression - in characters for a Reader or bytes for a ByteBuffer
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * @return line number of the tag starting at 1
+		 */
+		public int getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * @return the text of the license expression
+		 */
+		public String getExpressionText() {
+			return expressionText;
+		}
+
+		/**
+		 * @return the parsed license expression or null if the expression is invalid
+		 */
+		public @Nullable CanonicalLicenseExpression getExpression() {
+			return expression;
+		}
+
+		/**
+		 * @return true if the expression was parsed successfully
+		 */
+		public boolean isValid() {
+			return expression != null;
+		}
+
+		/**
+		 * @return description of the parsing error or null if the expression is valid
+		 */
+		public @Nullable String getError() {
+			return error;
+		}
+
+		@Override
+		public String toString() {
+			return lineNumber + ":" + offset + " " + (expression != null ? expression.toString() : expressionText + " [" + error + "]");
+		}
+	}
+
+	/**
+	 * Thrown by the recursive descent parser - never escapes the scanner
+	 */
+	private static class ExpressionSyntaxException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		ExpressionSyntaxException(String msg) {
+			super(msg, null, false, false);
+		}
+	}
+
+	/**
+	 * Read only character view of a ByteBuffer treating each byte as a single character
+	 */
+	private static class ByteBufferCharSequence implements CharSequence {
+		private final ByteBuffer buffer;
+		private final int base;
+		private final int length;
+
+		ByteBufferCharSequence(ByteBuffer buffer, int base, int length) {
+			this.buffer = buffer;
+			this.base = base;
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char)(buffer.get(base + index) & 0xff);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return new ByteBufferCharSequence(buffer, base + start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(length);
+			for (int i = 0; i < length; i++) {
+				sb.append(charAt(i));
+			}
+			return sb.toString();
+		}
+	}
+
+	private final LicenseIdDictionary licenseIds;
+	private final LicenseIdDictionary exceptionIds;
+	private final String customLicenseUriPrefix;
+
+	/**
+	 * Create a scanner using the current SPDX listed licenses and exceptions and the default document URI
+	 * as the prefix for custom license and addition URIs
+	 * @throws DefaultStoreNotInitializedException if the default model store has not been initialized
+	 */
+	public LicenseIdentifierScanner() throws DefaultStoreNotInitializedException {
+		this(ListedLicenses.getListedLicenses().getLicenseIdDictionary(),
+				ListedLicenses.getListedLicenses().getExceptionIdDictionary(),
+				DefaultModelStore.getDefaultDocumentUri() + "#");
+	}
+
+	/**
+	 * @param licenseIds dictionary of listed license IDs
+	 * @param exceptionIds dictionary of listed exception IDs
+	 * @param customLicenseUriPrefix prefix for the object URIs of custom licenses and additions
+	 */
+	public LicenseIdentifierScanner(LicenseIdDictionary licenseIds, LicenseIdDictionary exceptionIds,
+			String customLicenseUriPrefix) {
+		Objects.requireNonNull(licenseIds, "License ID dictionary can not be null");
+		Objects.requireNonNull(exceptionIds, "Exception ID dictionary can not be null");
+		Objects.requireNonNull(customLicenseUriPrefix, "Custom license URI prefix can not be null");
+		this.licenseIds = licenseIds;
+		this.exceptionIds = exceptionIds;
+		this.customLicenseUriPrefix = customLicenseUriPrefix;
+	}
+
+	/**
+	 * @param reader reader for the text to scan - the reader is not closed
+	 * @return all license expressions found in the text
+	 * @throws IOException on errors reading from the reader
+	 */
+	public List<LicenseIdentifierMatch> scan(Reader reader) throws IOException {
+		List<LicenseIdentifierMatch> retval = new ArrayList<>();
+		scan(reader, retval::add);
+		return retval;
+	}
+
+	/**
+	 * Scan text from a reader reporting each license expression found to the consumer
+	 * @param reader reader for the text to scan - the reader is not closed
+	 * @param consumer consumer for the license expressions found
+	 * @throws IOException on errors reading from the reader
+	 */
+	public void scan(Reader reader, Consumer<LicenseIdentifierMatch> consumer) throws IOException {
+		char[] buf = new char[DEFAULT_BUFFER_SIZE];
+		CharBuffer chars = CharBuffer.wrap(buf);
+		int len = 0;
+		long bufOffset = 0;	// offset in the stream of buf[0]
+		int lineNumber = 1;
+		boolean eof = false;
+		boolean skipLine = false;	// true while skipping the remainder of a line which is too long
+		while (!eof) {
+			int numRead = reader.read(buf, len, buf.length - len);
+			if (numRead < 0) {
+				eof = true;
+			} else {
+				len += numRead;
+			}
+			int lineStart = 0;
+			for (int i = 0; i < len; i++) {
+				if (buf[i] == '\n') {
+					if (skipLine) {
+						skipLine = false;
+					} else {
+						scanLine(chars, lineStart, i, bufOffset, lineNumber, consumer);
+					}
+					lineNumber++;
+					lineStart = i + 1;
+				}
+			}
+			if (eof) {
+				if (!skipLine) {
+					scanLine(chars, lineStart, len, bufOffset, lineNumber, consumer);
+				}
+			} else if (lineStart > 0) {
+				// move the partial line to the start of the buffer
+				System.arraycopy(buf, lineStart, buf, 0, len - lineStart);
+				len -= lineStart;
+				bufOffset += lineStart;
+			} else if (len == buf.length) {
+				// the buffer contains a single partial line
+				if (skipLine) {
+					// discard the remainder of a line which is too long
+					bufOffset += len;
+					len = 0;
+				} else {
+					int tagIndex = findTag(chars, 0, len);
+					if (tagIndex < 0) {
+						// keep enough characters to match a tag which spans the reads
+						int keep = LICENSE_IDENTIFIER_TAG.length() - 1;
+						System.arraycopy(buf, len - keep, buf, 0, keep);
+						bufOffset += len - keep;
+						len = keep;
+					} else if (buf.length < MAX_LINE_LENGTH) {
+						buf = Arrays.copyOf(buf, buf.length * 2);
+						chars = CharBuffer.wrap(buf);
+					} else {
+						consumer.accept(lineTooLong(chars, tagIndex, len, bufOffset, lineNumber));
+						skipLine = true;
+						bufOffset += len;
+						len = 0;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param buffer bytes to scan from the position to the limit - ASCII compatible encodings (e.g. UTF-8) are supported
+	 * @return all license expressions found in the buffer
+	 */
+	public List<LicenseIdentifierMatch> scan(ByteBuffer buffer) {
+		List<LicenseIdentifierMatch> retval = new ArrayList<>();
+		scan(buffer, retval::add);
+		return retval;
+	}
+
+	/**
+	 * Scan bytes reporting each license expression found to the consumer - the buffer position is not changed
+	 * @param buffer bytes to scan from the position to the limit - ASCII compatible encodings (e.g. UTF-8) are supported
+	 * @param consumer consumer for the license expressions found
+	 */
+	public void scan(ByteBuffer buffer, Consumer<LicenseIdentifierMatch> consumer) {
+		int base = buffer.position();
+		int limit = buffer.limit();
+		ByteBufferCharSequence chars = new ByteBufferCharSequence(buffer, base, limit - base);
+		int lineNumber = 1;
+		int lineStart = 0;
+		for (int i = 0; i < chars.length(); i++) {
+			if (buffer.get(base + i) == '\n') {
+				scanLine(chars, lineStart, i, 0, lineNumber, consumer);
+				lineNumber++;
+				lineStart = i + 1;
+			}
+		}
+		scanLine(chars, lineStart, chars.length(), 0, lineNumber, consumer);
+	}
+
+	/**
+	 * @param text text to scan - e.g. the contents of a small file
+	 * @return all license expressions found in the text
+	 */
+	public List<LicenseIdentifierMatch> scan(CharSequence text) {
+		List<LicenseIdentifierMatch> retval = new ArrayList<>();
+		int lineNumber = 1;
+		int lineStart = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				scanLine(text, lineStart, i, 0, lineNumber, retval::add);
+				lineNumber++;
+				lineStart = i + 1;
+			}
+		}
+		scanLine(text, lineStart, text.length(), 0, lineNumber, retval::add);
+		return retval;
+	}
+
+	/**
+	 * Parse a license expression without a tag
+	 * @param expression license expression
+	 * @return parsed expression
+	 * @throws LicenseParserException if the expression is not valid
+	 */
+	public CanonicalLicenseExpression parse(CharSequence expression) throws LicenseParserException {
+		try {
+			return parseExpression(expression, 0, trimEnd(expression, 0, expression.length()));
+		} catch (ExpressionSyntaxException e) {
+			throw new LicenseParserException(e.getMessage() + " License expression: '" + expression + "'");
+		}
+	}
+
+	/**
+	 * Scan a single line for a license identifier tag
+	 * @param text text containing the line
+	 * @param start start of the line
+	 * @param end end of the line excluding the line terminator
+	 * @param baseOffset offset of index 0 of the text in the stream
+	 * @param lineNumber line number
+	 * @param consumer consumer for any license expression found
+	 */
+	private void scanLine(CharSequence text, int start, int end, long baseOffset, int lineNumber,
+			Consumer<LicenseIdentifierMatch> consumer) {
+		int tagIndex = findTag(text, start, end);
+		if (tagIndex < 0) {
+			return;
+		}
+		int exprStart = tagIndex + LICENSE_IDENTIFIER_TAG.length();
+		while (exprStart < end && Character.isWhitespace(text.charAt(exprStart))) {
+			exprStart++;
+		}
+		int exprEnd = trimEnd(text, exprStart, end);
+		String expressionText = text.subSequence(exprStart, exprEnd).toString();
+		CanonicalLicenseExpression expression = null;
+		String error = null;
+		try {
+			expression = parseExpression(text, exprStart, exprEnd);
+		} catch (ExpressionSyntaxException e) {
+			error = e.getMessage();
+		}
+		consumer.accept(new LicenseIdentifierMatch(baseOffset + exprStart, lineNumber, expressionText, expression, error));
+	}
+
+	/**
+	 * @param text text containing the start of the line
+	 * @param tagIndex index of the tag
+	 * @param end end of the text retained for the line
+	 * @param baseOffset offset of index 0 of the text in the stream
+	 * @param lineNumber line number
+	 * @return invalid match for a tag on a line longer than the maximum line length
+	 */
+	private static LicenseIdentifierMatch lineTooLong(CharSequence text, int tagIndex, int end, long baseOffset, int lineNumber) {
+		int exprStart = tagIndex + LICENSE_IDENTIFIER_TAG.length();
+		while (exprStart < end && Character.isWhitespace(text.charAt(exprStart))) {
+			exprStart++;
+		}
+		return new LicenseIdentifierMatch(baseOffset + exprStart, lineNumber, text.subSequence(exprStart, end).toString(),
+				null, "License expression exceeds the maximum line length of " + MAX_LINE_LENGTH + " characters");
+	}
+
+	/**
+	 * @return index of the first case insensitive match of the tag or -1 if not found
+	 */
+	static int findTag(CharSequence text, int start, int end) {
+		int last = end - LICENSE_IDENTIFIER_TAG.length();
+		for (int i = start; i <= last; i++) {
+			char c = text.charAt(i);
+			if (c == 'S' || c == 's') {
+				int j = 1;
+				while (j < LICENSE_IDENTIFIER_TAG.length() &&
+						equalsIgnoreCase(text.charAt(i + j), LICENSE_IDENTIFIER_TAG.charAt(j))) {
+					j++;
+				}
+				if (j == LICENSE_IDENTIFIER_TAG.length()) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private static boolean equalsIgnoreCase(char c1, char c2) {
+		return c1 == c2 || Character.toLowerCase(c1) == Character.toLowerCase(c2);
+	}
+
+	/**
+	 * @return end of the expression with trailing whitespace and comment close characters removed
+	 */
+	private static int trimEnd(CharSequence text, int start, int end) {
+		boolean trimmed = true;
+		while (trimmed) {
+			trimmed = false;
+			while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+				end--;
+			}
+			for (String commentEnd:COMMENT_END_STRINGS) {
+				if (endsWith(text, start, end, commentEnd)) {
+					end -= commentEnd.length();
+					trimmed = true;
+					break;
+				}
+			}
+		}
+		return end;
+	}
+
+	private static boolean endsWith(CharSequence text, int start, int end, String suffix) {
+		if (end - start < suffix.length()) {
+			return false;
+		}
+		for (int i = 0; i < suffix.length(); i++) {
+			if (text.charAt(end - suffix.length() + i) != suffix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Recursive descent parser following the operator precedence of LicenseExpressionParser:
+	 *   or-expression   = and-expression *( "OR" and-expression )
+	 *   and-expression  = with-expression *( "AND" with-expression )
+	 *   with-expression = simple-expression [ "WITH" addition-id ]
+	 *   simple-expression = "(" or-expression ")" | license-id [ "+" ]
+	 * The position is held in a single element array to avoid allocating a parser object per expression
+	 */
+
+	private CanonicalLicenseExpression parseExpression(CharSequence text, int start, int end) throws ExpressionSyntaxException {
+		int[] pos = new int[] {start};
+		CanonicalLicenseExpression retval = parseOr(text, pos, end);
+		skipWhitespace(text, pos, end);
+		if (pos[0] < end) {
+			throw new ExpressionSyntaxException("Unexpected text '" + text.subSequence(pos[0], end) + "'");
+		}
+		return retval;
+	}
+
+	private CanonicalLicenseExpression parseOr(CharSequence text, int[] pos, int end) throws ExpressionSyntaxException {
+		CanonicalLicenseExpression first = parseAnd(text, pos, end);
+		if (!matchOperator(text, pos, end, "OR")) {
+			return first;
+		}
+		List<CanonicalLicenseExpression> operands = new ArrayList<>();
+		operands.add(first);
+		do {
+			operands.add(parseAnd(text, pos, end));
+		} while (matchOperator(text, pos, end, "OR"));
+		return CanonicalLicenseExpression.or(operands);
+	}
+
+	private CanonicalLicenseExpression parseAnd(CharSequence text, int[] pos, int end) throws ExpressionSyntaxException {
+		CanonicalLicenseExpression first = parseWith(text, pos, end);
+		if (!matchOperator(text, pos, end, "AND")) {
+			return first;
+		}
+		List<CanonicalLicenseExpression> operands = new ArrayList<>();
+		operands.add(first);
+		do {
+			operands.add(parseWith(text, pos, end));
+		} while (matchOperator(text, pos, end, "AND"));
+		return CanonicalLicenseExpression.and(operands);
+	}
+
+	private CanonicalLicenseExpression parseWith(CharSequence text, int[] pos, int end) throws ExpressionSyntaxException {
+		CanonicalLicenseExpression license = parseSimple(text, pos, end);
+		if (!matchOperator(text, pos, end, "WITH")) {
+			return license;
+		}
+		skipWhitespace(text, pos, end);
+		int idStart = pos[0];
+		int idEnd = scanId(text, idStart, end);
+		if (idEnd == idStart) {
+			throw new ExpressionSyntaxException("Missing exception ID after WITH");
+		}
+		pos[0] = idEnd;
+		String exceptionId = exceptionIds.caseSensitiveId(text, idStart, idEnd);
+		CanonicalLicenseExpression addition = exceptionId != null ?
+				CanonicalLicenseExpression.listedException(exceptionId) :
+				CanonicalLicenseExpression.customAddition(customUri(text, idStart, idEnd), text.subSequence(idStart, idEnd).toString());
+		return CanonicalLicenseExpression.with(license, addition);
+	}
+
+	private CanonicalLicenseExpression parseSimple(CharSequence text, int[] pos, int end) throws ExpressionSyntaxException {
+		skipWhitespace(text, pos, end);
+		if (pos[0] >= end) {
+			throw new ExpressionSyntaxException("Unexpected end of license expression");
+		}
+		if (text.charAt(pos[0]) == '(') {
+			pos[0]++;
+			CanonicalLicenseExpression retval = parseOr(text, pos, end);
+			skipWhitespace(text, pos, end);
+			if (pos[0] >= end || text.charAt(pos[0]) != ')') {
+				throw new ExpressionSyntaxException("Missing closing parenthesis");
+			}
+			pos[0]++;
+			return retval;
+		}
+		int idStart = pos[0];
+		int idEnd = scanId(text, idStart, end);
+		if (idEnd == idStart) {
+			throw new ExpressionSyntaxException("Unexpected character '" + text.charAt(idStart) + "'");
+		}
+		if (isOperator(text, idStart, idEnd)) {
+			throw new ExpressionSyntaxException("Missing license ID before operator " + text.subSequence(idStart, idEnd));
+		}
+		pos[0] = idEnd;
+		CanonicalLicenseExpression license;
+		String licenseId = licenseIds.caseSensitiveId(text, idStart, idEnd);
+		if (licenseId != null) {
+			license = CanonicalLicenseExpression.listedLicense(licenseId);
+		} else if (regionEquals(text, idStart, idEnd, SpdxConstantsCompatV2.NONE_VALUE)) {
+			license = CanonicalLicenseExpression.none();
+		} else if (regionEquals(text, idStart, idEnd, SpdxConstantsCompatV2.NOASSERTION_VALUE)) {
+			license = CanonicalLicenseExpression.noAssertion();
+		} else {
+			license = CanonicalLicenseExpression.customLicense(customUri(text, idStart, idEnd), text.subSequence(idStart, idEnd).toString());
+		}
+		if (pos[0] < end && text.charAt(pos[0]) == '+') {
+			pos[0]++;
+			license = CanonicalLicenseExpression.orLater(license);
+		}
+		return license;
+	}
+
+	/**
+	 * @return object URI for a custom license or addition ID - external references are returned unchanged
+	 */
+	private String customUri(CharSequence text, int start, int end) {
+		String id = text.subSequence(start, end).toString();
+		return id.indexOf(':') >= 0 ? id : customLicenseUriPrefix + id;
+	}
+
+	/**
+	 * @return end of the ID starting at start
+	 */
+	private static int scanId(CharSequence text, int start, int end) {
+		int i = start;
+		while (i < end) {
+			char c = text.charAt(i);
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+					c == '-' || c == '.' || c == ':' || c == '_') {
+				i++;
+			} else {
+				break;
+			}
+		}
+		return i;
+	}
+
+	private static void skipWhitespace(CharSequence text, int[] pos, int end) {
+		while (pos[0] < end && Character.isWhitespace(text.charAt(pos[0]))) {
+			pos[0]++;
+		}
+	}
+
+	/**
+	 * Match an operator in either all upper or all lower case, advancing the position if matched
+	 */
+	private static boolean matchOperator(CharSequence text, int[] pos, int end, String operator) {
+		int i = pos[0];
+		while (i < end && Character.isWhitespace(text.charAt(i))) {
+			i++;
+		}
+		int opEnd = scanId(text, i, end);
+		if (opEnd - i == operator.length() && (regionEquals(text, i, opEnd, operator) ||
+				regionEquals(text, i, opEnd, operator.toLowerCase()))) {
+			pos[0] = opEnd;
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean isOperator(CharSequence text, int start, int end) {
+		return regionEquals(text, start, end, "AND") || regionEquals(text, start, end, "and") ||
+				regionEquals(text, start, end, "OR") || regionEquals(text, start, end, "or") ||
+				regionEquals(text, start, end, "WITH") || regionEquals(text, start, end, "with");
+	}
+
+	private static boolean regionEquals(CharSequence text, int start, int end, String value) {
+		if (end - start != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (text.charAt(start + i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -29,6 +29,7 @@ import org.spdx.library.model.v2.license.SpdxListedLicense;
 import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicense;
 import org.spdx.library.model.v3_0_1.expandedlicensing.ListedLicenseException;
 import org.spdx.storage.compatv2.CompatibleModelStoreWrapper;
+import org.spdx.utility.compare.CompiledLicenseTemplate;
 
 import junit.framework.TestCase;
 
@@ -219,4 +220,30 @@ public class ListedLicensesTest extends TestCase {
 			assertEquals(id, retval.get(id).getId());
 		}
 	}
+
+	public void testGetCompiledLicenseTemplate() throws Exception {
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+		CompiledLicenseTemplate compiled = listedLicenses.getCompiledLicenseTemplate("Apache-2.0");
+		assertNotNull(compiled);
+		assertSame(compiled, listedLicenses.getCompiledLicenseTemplate("Apache-2.0"));
+		String licenseText = listedLicenses.getListedLicenseById("Apache-2.0").getLicenseText();
+		assertTrue(compiled.isMatch(licenseText));
+		assertFalse(compiled.compare(licenseText).isDifferenceFound());
+		assertTrue(compiled.compare("Not the Apache license").isDifferenceFound());
+		assertNull(listedLicenses.getCompiledLicenseTemplate("XXXX"));
+		ListedLicenses.resetListedLicenses();
+		CompiledLicenseTemplate afterReset = ListedLicenses.getListedLicenses().getCompiledLicenseTemplate("Apache-2.0");
+		assertNotSame(compiled, afterReset);
+		assertTrue(afterReset.isMatch(licenseText));
+	}
+
+	public void testGetCompiledExceptionTemplate() throws Exception {
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+		String id = "Classpath-exception-2.0";
+		CompiledLicenseTemplate compiled = listedLicenses.getCompiledExceptionTemplate(id);
+		assertNotNull(compiled);
+		assertSame(compiled, listedLicenses.getCompiledExceptionTemplate(id));
+		assertTrue(compiled.isMatch(listedLicenses.getListedExceptionById(id).getAdditionText()));
+		assertNull(listedLicenses.getCompiledExceptionTemplate("XXXX"));
+	}
 }
@@ -0,0 +1,103 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.storage.listedlicense;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.spdx.library.ListedLicenses;
+import org.spdx.library.SpdxModelFactory;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class LicenseIdDictionaryTest extends TestCase {
+
+	static final List<String> IDS = Arrays.asList("MIT", "Apache-2.0", "GPL-2.0-only", "BSD-3-Clause", "0BSD");
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+	}
+
+	public void testLookup() {
+		LicenseIdDictionary dictionary = new LicenseIdDictionary(IDS, "3.24");
+		assertEquals(IDS.size(), dictionary.size());
+		assertEquals("3.24", dictionary.getLicenseListVersion());
+		for (int i = 0; i < IDS.size(); i++) {
+			assertEquals(i, dictionary.indexOf(IDS.get(i)));
+			assertEquals(i, dictionary.indexOf(IDS.get(i).toLowerCase()));
+			assertEquals(i, dictionary.indexOf(IDS.get(i).toUpperCase()));
+			assertEquals(IDS.get(i), dictionary.getId(i));
+			assertSame(dictionary.getId(i), dictionary.caseSensitiveId(IDS.get(i).toLowerCase()));
+		}
+		assertEquals(-1, dictionary.indexOf("MIT-0"));
+		assertEquals(-1, dictionary.indexOf("MI"));
+		assertEquals(-1, dictionary.indexOf(""));
+		assertNull(dictionary.caseSensitiveId("LicenseRef-MIT"));
+		assertEquals(IDS, dictionary.getIds());
+	}
+
+	public void testSubrange() {
+		LicenseIdDictionary dictionary = new LicenseIdDictionary(IDS, null);
+		StringBuilder buffer = new StringBuilder("(mit OR apache-2.0)");
+		assertTrue(dictionary.contains(buffer, 1, 4));
+		assertEquals("MIT", dictionary.caseSensitiveId(buffer, 1, 4));
+		assertEquals("Apache-2.0", dictionary.caseSensitiveId(buffer, 8, 18));
+		assertFalse(dictionary.contains(buffer, 1, 5));
+		assertFalse(dictionary.contains(buffer, 4, 7));
+	}
+
+	public void testDuplicatesAndEmpty() {
+		LicenseIdDictionary dictionary = new LicenseIdDictionary(Arrays.asList("MIT", "mit", "Apache-2.0"), null);
+		assertEquals(2, dictionary.size());
+		assertEquals("MIT", dictionary.caseSensitiveId("Mit"));
+		LicenseIdDictionary empty = new LicenseIdDictionary(Collections.emptyList(), null);
+		assertEquals(0, empty.size());
+		assertFalse(empty.contains("MIT"));
+	}
+
+	public void testManyIds() {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			ids.add("License-" + i + ".0");
+		}
+		LicenseIdDictionary dictionary = new LicenseIdDictionary(ids, null);
+		for (int i = 0; i < ids.size(); i++) {
+			assertEquals(i, dictionary.indexOf("LICENSE-" + i + ".0"));
+		}
+		assertEquals(-1, dictionary.indexOf("License-2000.0"));
+	}
+
+	public void testListedLicenses() {
+		ListedLicenses listedLicenses = ListedLicenses.getListedLicenses();
+		LicenseIdDictionary licenses = listedLicenses.getLicenseIdDictionary();
+		LicenseIdDictionary exceptions = listedLicenses.getExceptionIdDictionary();
+		assertEquals(listedLicenses.getSpdxListedLicenseIds().size(), licenses.size());
+		assertEquals(listedLicenses.getSpdxListedExceptionIds().size(), exceptions.size());
+		assertEquals(listedLicenses.getLicenseListVersion(), licenses.getLicenseListVersion());
+		assertEquals("Apache-2.0", licenses.caseSensitiveId("apache-2.0"));
+		assertEquals("Classpath-exception-2.0", exceptions.caseSensitiveId("CLASSPATH-exception-2.0"));
+		assertTrue(listedLicenses.isSpdxListedLicenseId("apache-2.0"));
+		assertEquals("Apache-2.0", listedLicenses.listedLicenseIdCaseSensitive("APACHE-2.0").get());
+	}
+}
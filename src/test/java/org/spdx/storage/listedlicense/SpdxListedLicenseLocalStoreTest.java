@@ -405,6 +405,35 @@ public class SpdxListedLicenseLocalStoreTest extends TestCase {
 		slll.close();
 	}
 	
+	public void testIdLookupAfterCreateAndDelete() throws Exception {
+		SpdxListedLicenseLocalStore slll = new SpdxListedLicenseLocalStore();
+		int numLicenses = slll.getLicenseIdDictionary().size();
+		String nextId = slll.getNextId(IdType.ListedLicense);
+		slll.create(new TypedValue(LICENSE_LIST_URI + nextId, SpdxConstantsCompatV2.CLASS_SPDX_LISTED_LICENSE, "SPDX-2.3"));
+		assertTrue(slll.isSpdxListedLicenseId(LICENSE_LIST_URI, nextId.toUpperCase()));
+		assertEquals(nextId, slll.listedLicenseIdCaseSensitive(nextId.toLowerCase()).get());
+		assertEquals(numLicenses + 1, slll.getLicenseIdDictionary().size());
+		assertTrue(slll.getLicenseIdDictionary().contains(nextId));
+		slll.delete(LICENSE_LIST_URI + nextId);
+		assertFalse(slll.isSpdxListedLicenseId(LICENSE_LIST_URI, nextId));
+		assertEquals(numLicenses, slll.getLicenseIdDictionary().size());
+		// loaded IDs
+		slll.delete(LICENSE_LIST_URI + APACHE_ID);
+		assertFalse(slll.isSpdxListedLicenseId(LICENSE_LIST_URI, APACHE_ID));
+		assertFalse(slll.listedLicenseIdCaseSensitive(APACHE_ID).isPresent());
+		assertFalse(slll.getLicenseIdDictionary().contains(APACHE_ID));
+		assertEquals(numLicenses - 1, slll.getLicenseIdDictionary().size());
+		slll.create(new TypedValue(LICENSE_LIST_URI + APACHE_ID, SpdxConstantsCompatV2.CLASS_SPDX_LISTED_LICENSE, "SPDX-2.3"));
+		assertTrue(slll.isSpdxListedLicenseId(LICENSE_LIST_URI, APACHE_ID.toLowerCase()));
+		assertEquals(numLicenses, slll.getLicenseIdDictionary().size());
+
+		int numExceptions = slll.getExceptionIdDictionary().size();
+		slll.delete(LICENSE_LIST_URI + ECOS_EXCEPTION_ID);
+		assertFalse(slll.isSpdxListedExceptionId(LICENSE_LIST_URI, ECOS_EXCEPTION_ID));
+		assertEquals(numExceptions - 1, slll.getExceptionIdDictionary().size());
+		slll.close();
+	}
+
 	public void testCreationInfo() throws Exception {
 		SpdxListedLicenseLocalStore slll = new SpdxListedLicenseLocalStore();
 		SpdxV3ListedLicenseModelStore modelStore = new SpdxV3ListedLicenseModelStore(slll);
@@ -0,0 +1,141 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v3_0_1.simplelicensing.AnyLicenseInfo;
+import org.spdx.storage.simple.InMemSpdxStore;
+import org.spdx.utility.compare.CanonicalLicenseExpression.Kind;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class CanonicalLicenseExpressionTest extends TestCase {
+
+	static final String DEFAULT_DOCUMENT_URI = "http://default/doc";
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+		DefaultModelStore.initialize(new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+	}
+
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		DefaultModelStore.initialize(new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+	}
+
+	private static CanonicalLicenseExpression canonical(String expression) throws Exception {
+		return CanonicalLicenseExpression.canonicalize(LicenseInfoFactory.parseSPDXLicenseString(expression));
+	}
+
+	public void testSingleLicense() throws Exception {
+		CanonicalLicenseExpression result = canonical("mit");
+		assertEquals(Kind.LISTED_LICENSE, result.getKind());
+		assertEquals("MIT", result.getId());
+		assertEquals("MIT", result.toString());
+		assertTrue(result.getOperands().isEmpty());
+		assertEquals(canonical("MIT"), result);
+		assertEquals(canonical("MIT").getHash(), result.getHash());
+	}
+
+	public void testFlattenAndSort() throws Exception {
+		CanonicalLicenseExpression result = canonical("MIT AND (Apache-2.0 AND BSD-3-Clause)");
+		assertEquals(Kind.AND, result.getKind());
+		assertEquals(3, result.getOperands().size());
+		assertEquals("Apache-2.0 AND BSD-3-Clause AND MIT", result.toString());
+		CanonicalLicenseExpression other = canonical("(BSD-3-Clause AND mit) AND apache-2.0");
+		assertEquals(result, other);
+		assertEquals(result.getHash(), other.getHash());
+		assertEquals(result.hashCode(), other.hashCode());
+	}
+
+	public void testNestedOperators() throws Exception {
+		CanonicalLicenseExpression result = canonical("(MIT OR Apache-2.0) AND (GPL-2.0-only OR BSD-3-Clause)");
+		assertEquals("(Apache-2.0 OR MIT) AND (BSD-3-Clause OR GPL-2.0-only)", result.toString());
+		assertEquals(result, canonical("(BSD-3-Clause OR GPL-2.0-only) AND (Apache-2.0 OR MIT)"));
+		assertFalse(result.equals(canonical("(MIT AND Apache-2.0) OR (GPL-2.0-only AND BSD-3-Clause)")));
+		assertFalse(result.getHash() == canonical("(MIT AND Apache-2.0) OR (GPL-2.0-only AND BSD-3-Clause)").getHash());
+	}
+
+	public void testDuplicates() throws Exception {
+		assertEquals(canonical("MIT"), canonical("MIT OR (mit OR MIT)"));
+		assertEquals("Apache-2.0 OR MIT", canonical("MIT OR Apache-2.0 OR MIT").toString());
+	}
+
+	public void testWithAndOrLater() throws Exception {
+		CanonicalLicenseExpression with = canonical("gpl-2.0-only WITH classpath-exception-2.0");
+		assertEquals(Kind.WITH, with.getKind());
+		assertEquals("GPL-2.0-only WITH Classpath-exception-2.0", with.toString());
+		assertEquals(Kind.LISTED_EXCEPTION, with.getOperands().get(1).getKind());
+		CanonicalLicenseExpression orLater = canonical("GPL-2.0+");
+		assertEquals(Kind.OR_LATER, orLater.getKind());
+		assertEquals("GPL-2.0+", orLater.toString());
+		assertFalse(orLater.equals(canonical("GPL-2.0")));
+	}
+
+	public void testNoneNoAssertion() throws Exception {
+		assertEquals(Kind.NONE, canonical("NONE").getKind());
+		assertEquals("NONE", canonical("NONE").toString());
+		assertEquals(Kind.NOASSERTION, canonical("NOASSERTION").getKind());
+		assertFalse(canonical("NONE").equals(canonical("NOASSERTION")));
+	}
+
+	public void testCustomLicenseTranslation() throws Exception {
+		AnyLicenseInfo lic1 = LicenseInfoFactory.parseSPDXLicenseString("LicenseRef-1 AND MIT");
+		AnyLicenseInfo lic2 = LicenseInfoFactory.parseSPDXLicenseString("MIT AND LicenseRef-2");
+		assertFalse(CanonicalLicenseExpression.canonicalize(lic1).equals(CanonicalLicenseExpression.canonicalize(lic2)));
+		Map<String, String> xlationMap = new HashMap<>();
+		xlationMap.put(DEFAULT_DOCUMENT_URI + "#LicenseRef-1", DEFAULT_DOCUMENT_URI + "#LicenseRef-2");
+		CanonicalLicenseExpression result1 = CanonicalLicenseExpression.canonicalize(lic1, xlationMap);
+		CanonicalLicenseExpression result2 = CanonicalLicenseExpression.canonicalize(lic2);
+		assertEquals(result1, result2);
+		assertEquals(Kind.CUSTOM_LICENSE, result1.getOperands().get(1).getKind());
+		assertEquals(DEFAULT_DOCUMENT_URI + "#LicenseRef-2", result1.getOperands().get(1).getId());
+		assertTrue(LicenseCompareHelper.isLicenseEqual(lic1, lic2, xlationMap));
+	}
+
+	public void testGrouping() throws Exception {
+		Set<CanonicalLicenseExpression> groups = new HashSet<>();
+		groups.add(canonical("MIT OR Apache-2.0"));
+		groups.add(canonical("apache-2.0 OR mit"));
+		groups.add(canonical("(MIT OR Apache-2.0) OR MIT"));
+		groups.add(canonical("MIT AND Apache-2.0"));
+		assertEquals(2, groups.size());
+	}
+
+	public void testCompatV2() throws Exception {
+		CanonicalLicenseExpression expected = canonical("(MIT AND Apache-2.0) AND GPL-2.0-only WITH Classpath-exception-2.0");
+		org.spdx.library.model.v2.license.AnyLicenseInfo v2 = LicenseInfoFactory.parseSPDXLicenseStringCompatV2(
+				"(mit AND apache-2.0) AND GPL-2.0-only WITH Classpath-exception-2.0",
+				new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+		CanonicalLicenseExpression result = CanonicalLicenseExpression.canonicalize(v2);
+		assertEquals("Apache-2.0 AND GPL-2.0-only WITH Classpath-exception-2.0 AND MIT", result.toString());
+		assertEquals(expected, result);
+	}
+}
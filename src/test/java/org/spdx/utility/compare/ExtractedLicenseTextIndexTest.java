@@ -0,0 +1,125 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
+import org.spdx.licenseTemplate.LicenseTextHelper;
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.simple.InMemSpdxStore;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class ExtractedLicenseTextIndexTest extends TestCase {
+
+	static final String DOC_URI = "http://doc/uri";
+	static final String[] TEXTS = new String[] {
+			"Permission is granted to use this software.",
+			"Permission is granted to use this software.",
+			"PERMISSION   is granted\nto use this software.",
+			"Permission is granted to use this software",
+			"// Permission is granted to use this software.",
+			"Permission is granted to use this software. */",
+			"Permission is granted to use this soft-ware.",
+			"Permission is granted to use this soft—ware.",
+			"Permission is granted to use \"this\" software.",
+			"Permission is granted to use 'this' software.",
+			"Permission is granted to use this software & documentation.",
+			"Permission is granted to use this software and documentation.",
+			"Copyright (c) 2024 Permission is granted to use this software.",
+			"Copyright © 2024 Permission is granted to use this software.",
+			"Permission is not granted to use this software.",
+			"",
+			" ",
+			"\n"
+	};
+
+	IModelStore modelStore;
+	List<ExtractedLicenseInfo> licenses;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+		modelStore = new InMemSpdxStore();
+		ModelCopyManager copyManager = new ModelCopyManager();
+		DefaultModelStore.initialize(modelStore, DOC_URI, copyManager);
+		List<String> texts = new ArrayList<>();
+		for (String text:TEXTS) {
+			texts.add(text);
+		}
+		for (String textId:new String[] {"BSD-2-Clause", "Apache-1.0", "ISC"}) {
+			String text = UnitTestHelper.fileToText("TestFiles" + File.separator + textId + ".txt");
+			texts.add(text);
+			texts.add(text.toUpperCase());
+			texts.add(text.replace(',', ' '));
+		}
+		licenses = new ArrayList<>();
+		for (int i = 0; i < texts.size(); i++) {
+			ExtractedLicenseInfo license = new ExtractedLicenseInfo(modelStore, DOC_URI, "LicenseRef-" + i, copyManager, true);
+			license.setExtractedText(texts.get(i));
+			licenses.add(license);
+		}
+		licenses.add(new ExtractedLicenseInfo(modelStore, DOC_URI, "LicenseRef-NoText", copyManager, true));
+	}
+
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		DefaultModelStore.initialize(new InMemSpdxStore(), "http://default/doc", new ModelCopyManager());
+	}
+
+	public void testFindEquivalentLicenses() throws Exception {
+		ExtractedLicenseTextIndex index = new ExtractedLicenseTextIndex(licenses);
+		assertEquals(licenses.size(), index.size());
+		for (int i = 0; i < index.size(); i++) {
+			List<ExtractedLicenseInfo> expected = new ArrayList<>();
+			for (ExtractedLicenseInfo license:licenses) {
+				if (LicenseTextHelper.isLicenseTextEquivalent(index.getLicense(i).getExtractedText(), license.getExtractedText())) {
+					expected.add(license);
+				}
+			}
+			assertEquals(index.getLicense(i).getExtractedText(), expected, index.findEquivalentLicenses(index, i));
+		}
+	}
+
+	public void testTextKey() throws Exception {
+		ExtractedLicenseTextIndex index = new ExtractedLicenseTextIndex(licenses);
+		Map<List<String>, String> textByKey = new HashMap<>();
+		for (int i = 0; i < index.size(); i++) {
+			String text = index.getLicense(i).getExtractedText();
+			String previous = textByKey.put(index.getTextKey(i), text);
+			if (previous != null) {
+				assertTrue(LicenseTextHelper.isLicenseTextEquivalent(previous, text));
+			}
+		}
+		// identical and case or white space only differences share the same key
+		assertEquals(index.getTextKey(0), index.getTextKey(1));
+		assertEquals(index.getTextKey(0), index.getTextKey(2));
+		assertFalse(index.getTextKey(0).equals(index.getTextKey(14)));
+	}
+}
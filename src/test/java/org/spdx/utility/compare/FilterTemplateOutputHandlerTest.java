@@ -142,4 +142,22 @@ public class FilterTemplateOutputHandlerTest {
 		assertEquals(2, result.size());
 	}
 
+	@Test
+	public void testFilteredTextViews() throws SpdxCompareException, IOException {
+		String[] templates = new String[] {TEST_TEMPLATE, UnitTestHelper.fileToText(GPL_TEMPLATE_SNIPPET_FILE)};
+		for (String template:templates) {
+			FilteredTextViews views = new FilteredTextViews(template);
+			for (VarTextHandling varTextHandling:VarTextHandling.values()) {
+				for (OptionalTextHandling optionalTextHandling:OptionalTextHandling.values()) {
+					assertEquals(varTextHandling + ", " + optionalTextHandling,
+							LicenseCompareHelper.getNonOptionalLicenseText(template, varTextHandling, optionalTextHandling),
+							views.getFilteredText(varTextHandling, optionalTextHandling));
+				}
+				assertEquals(LicenseCompareHelper.getNonOptionalLicenseText(template, varTextHandling),
+						views.getNonOptionalText(varTextHandling));
+			}
+		}
+		CompiledLicenseTemplate compiled = new CompiledLicenseTemplate(TEST_TEMPLATE);
+		assertSame(compiled.getFilteredTextViews(), compiled.getFilteredTextViews());
+	}
 }
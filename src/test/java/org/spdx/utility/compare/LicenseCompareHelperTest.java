@@ -790,6 +790,75 @@ public class LicenseCompareHelperTest extends TestCase {
 		}
 	}
 
+	public void testClosestListedLicenses() throws InvalidSPDXAnalysisException, SpdxCompareException, IOException {
+		String licText = UnitTestHelper.fileToText(MIT_2_SPACES).replace("free of charge,", "");
+		assertTrue(LicenseCompareHelper.listAllListedLicenseIdsMatched(licText).isEmpty());
+		List<LicenseSimilarityIndex.SimilarityScore> result = LicenseCompareHelper.closestListedLicenses(licText, 5);
+		assertEquals(5, result.size());
+		assertEquals(result.toString(), "MIT", result.get(0).getId());
+	}
+
+	public void testMaxCompareTextLength() throws InvalidSPDXAnalysisException, SpdxCompareException, IOException {
+		String licText = UnitTestHelper.fileToText(MIT_2_SPACES);
+		String templateText = UnitTestHelper.fileToText(MIT_TEMPLATE);
+		assertFalse(LicenseCompareHelper.isTextMatchingTemplate(templateText, licText).isDifferenceFound());
+		CompiledLicenseTemplate compiled = new CompiledLicenseTemplate(templateText);
+		assertTrue(compiled.isMatch(new StringReader(licText)));
+		int maxLength = LicenseCompareHelper.getMaxCompareTextLength();
+		assertEquals(LicenseCompareHelper.DEFAULT_MAX_COMPARE_TEXT_LENGTH, maxLength);
+		LicenseCompareHelper.setMaxCompareTextLength(licText.length() - 1);
+		try {
+			DifferenceDescription result = LicenseCompareHelper.isTextMatchingTemplate(templateText, licText);
+			assertTrue(result.isDifferenceFound());
+			assertTrue(result.isTextTooLarge());
+			assertTrue(LicenseCompareHelper.isTextMatchingTemplate(templateText, licText, 60000).isTextTooLarge());
+			assertFalse(LicenseCompareHelper.textMatchesTemplate(templateText, licText));
+			assertFalse(compiled.isMatch(licText));
+			assertFalse(compiled.isMatch(new StringReader(licText)));
+			assertTrue(compiled.compare(new StringReader(licText)).isTextTooLarge());
+			assertTrue(LicenseCompareHelper.listAllListedLicenseIdsMatched(licText).isEmpty());
+		} finally {
+			LicenseCompareHelper.setMaxCompareTextLength(maxLength);
+		}
+		assertFalse(LicenseCompareHelper.isTextMatchingTemplate(templateText, licText).isTextTooLarge());
+	}
+
+	public void testCompareTimeout() throws InvalidSPDXAnalysisException, SpdxCompareException, IOException {
+		String licText = UnitTestHelper.fileToText(GPL_2_TEXT);
+		String templateText = UnitTestHelper.fileToText(GPL_2_TEMPLATE);
+		DifferenceDescription result = LicenseCompareHelper.isTextMatchingTemplate(templateText, licText, 0);
+		assertTrue(result.isTimedOut());
+		assertTrue(result.isDifferenceFound());
+		result = LicenseCompareHelper.isTextMatchingTemplate(templateText, licText, 60000);
+		assertFalse(result.isTimedOut());
+		assertEquals(LicenseCompareHelper.isTextMatchingTemplate(templateText, licText).isDifferenceFound(),
+				result.isDifferenceFound());
+		CompiledLicenseTemplate compiled = new CompiledLicenseTemplate(templateText);
+		assertTrue(compiled.compare(licText, 0).isTimedOut());
+		assertFalse(compiled.compare(licText, 60000).isTimedOut());
+		assertFalse(compiled.compare(licText).isTimedOut());
+		String mitText = UnitTestHelper.fileToText(MIT_2_SPACES);
+		List<String> timedOut = new ArrayList<>();
+		assertEquals(LicenseCompareHelper.listAllListedLicenseIdsMatched(mitText),
+				LicenseCompareHelper.listAllListedLicenseIdsMatched(mitText, 60000, timedOut));
+		assertTrue(timedOut.isEmpty());
+	}
+
+	public void testTextMatchesTemplate() throws InvalidSPDXAnalysisException, SpdxCompareException, IOException {
+		String[] texts = new String[] {BSD_PROTECTION_TEXT, EUPL_1_2_TEXT, PYTHON201_TEXT, FTL_TEXT, MIT_2_SPACES, BSD_3_CLAUSE_NL, GPL_2_NL};
+		String[] templates = new String[] {BSD_PROTECTION_TEMPLATE, EUPL_1_2_TEMPLATE, PYTHON201_TEMPLATE, FTL_TEMPLATE, MIT_TEMPLATE, BSD_3_CLAUSE_TEMPLATE, GPL_2_TEMPLATE};
+		for (int i = 0; i < texts.length; i++) {
+			String text = UnitTestHelper.fileToText(texts[i]);
+			for (int j = 0; j < templates.length; j++) {
+				String template = UnitTestHelper.fileToText(templates[j]);
+				boolean expected = !LicenseCompareHelper.isTextMatchingTemplate(template, text).isDifferenceFound();
+				assertEquals(texts[i] + " - " + templates[j], expected, LicenseCompareHelper.textMatchesTemplate(template, text));
+			}
+		}
+		assertTrue(LicenseCompareHelper.textMatchesTemplate(UnitTestHelper.fileToText(MIT_TEMPLATE), 
+				"// " + UnitTestHelper.fileToText(MIT_2_SPACES).replace("\n", "\n// ")));
+	}
+
 	public void testRegressionBSDProtection() throws InvalidSPDXAnalysisException, SpdxCompareException, IOException {
         String licText = UnitTestHelper.fileToText(BSD_PROTECTION_TEXT);
         String templateText = UnitTestHelper.fileToText(BSD_PROTECTION_TEMPLATE);
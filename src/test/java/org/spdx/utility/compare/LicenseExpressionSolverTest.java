@@ -0,0 +1,130 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.storage.simple.InMemSpdxStore;
+import org.spdx.utility.license.LicenseIdentifierScanner;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class LicenseExpressionSolverTest extends TestCase {
+
+	LicenseIdentifierScanner parser;
+	LicenseExpressionSolver solver;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+		DefaultModelStore.initialize(new InMemSpdxStore(), "http://default/doc", new ModelCopyManager());
+		parser = new LicenseIdentifierScanner();
+		solver = new LicenseExpressionSolver();
+	}
+
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		DefaultModelStore.initialize(new InMemSpdxStore(), "http://default/doc", new ModelCopyManager());
+	}
+
+	private CanonicalLicenseExpression expr(String expression) throws Exception {
+		return parser.parse(expression);
+	}
+
+	public void testSatisfyingLicenseSets() throws Exception {
+		List<Set<CanonicalLicenseExpression>> result = solver.getSatisfyingLicenseSets(
+				expr("(MIT OR Apache-2.0) AND (MIT OR BSD-3-Clause)"));
+		assertEquals(2, result.size());
+		assertEquals(1, result.get(0).size());
+		assertTrue(result.get(0).contains(expr("MIT")));
+		assertEquals(2, result.get(1).size());
+		assertTrue(result.get(1).contains(expr("Apache-2.0")));
+		assertTrue(result.get(1).contains(expr("BSD-3-Clause")));
+	}
+
+	public void testEquivalent() throws Exception {
+		assertTrue(solver.isEquivalent(expr("MIT OR (MIT AND Apache-2.0)"), expr("MIT")));
+		assertTrue(solver.isEquivalent(expr("(MIT OR Apache-2.0) AND (MIT OR BSD-3-Clause)"),
+				expr("MIT OR (Apache-2.0 AND BSD-3-Clause)")));
+		assertTrue(solver.isEquivalent(expr("MIT AND (Apache-2.0 OR BSD-3-Clause)"),
+				expr("(MIT AND Apache-2.0) OR (MIT AND BSD-3-Clause)")));
+		assertFalse(solver.isEquivalent(expr("MIT OR Apache-2.0"), expr("MIT AND Apache-2.0")));
+		assertFalse(solver.isEquivalent(expr("GPL-2.0+"), expr("GPL-2.0")));
+		assertFalse(solver.isEquivalent(expr("GPL-2.0-only WITH Classpath-exception-2.0"), expr("GPL-2.0-only")));
+	}
+
+	public void testImplies() throws Exception {
+		assertTrue(solver.implies(expr("MIT AND Apache-2.0"), expr("MIT")));
+		assertTrue(solver.implies(expr("MIT"), expr("MIT OR Apache-2.0")));
+		assertFalse(solver.implies(expr("MIT"), expr("MIT AND Apache-2.0")));
+		assertFalse(solver.implies(expr("MIT OR Apache-2.0"), expr("MIT")));
+	}
+
+	public void testSimplify() throws Exception {
+		assertEquals(expr("MIT"), solver.simplify(expr("MIT OR (MIT AND Apache-2.0)")));
+		assertEquals(expr("MIT AND Apache-2.0"), solver.simplify(expr("MIT AND (MIT OR BSD-3-Clause) AND Apache-2.0")));
+		assertEquals(expr("MIT OR Apache-2.0"), solver.simplify(expr("MIT OR Apache-2.0")));
+		CanonicalLicenseExpression complex = expr("(MIT OR (MIT AND GPL-2.0-only)) AND (Apache-2.0 OR (Apache-2.0 AND MIT))");
+		CanonicalLicenseExpression simplified = solver.simplify(complex);
+		assertEquals(expr("MIT AND Apache-2.0"), simplified);
+		assertTrue(solver.isEquivalent(complex, simplified));
+	}
+
+	public void testChooseLicenses() throws Exception {
+		LicensePolicy policy = LicensePolicy.builder().allow("MIT", "Apache-2.0", "BSD-3-Clause").build();
+		Optional<Set<CanonicalLicenseExpression>> result = solver.chooseLicenses(
+				expr("(GPL-2.0-only OR Apache-2.0) AND (GPL-2.0-only OR BSD-3-Clause)"), policy);
+		assertTrue(result.isPresent());
+		assertEquals(2, result.get().size());
+		assertTrue(result.get().contains(expr("Apache-2.0")));
+		result = solver.chooseLicenses(expr("GPL-2.0-only OR (MIT AND Apache-2.0) OR BSD-3-Clause"), policy);
+		assertTrue(result.isPresent());
+		assertEquals(1, result.get().size());
+		assertTrue(result.get().contains(expr("BSD-3-Clause")));
+		assertFalse(solver.chooseLicenses(expr("GPL-2.0-only AND MIT"), policy).isPresent());
+	}
+
+	public void testTooComplex() throws Exception {
+		LicenseExpressionSolver smallSolver = new LicenseExpressionSolver(3);
+		try {
+			smallSolver.getSatisfyingLicenseSets(expr("(MIT OR Apache-2.0) AND (BSD-3-Clause OR GPL-2.0-only)"));
+			fail("Expected too many sets");
+		} catch (SpdxCompareException ex) {
+			// expected
+		}
+	}
+
+	public void testIsLicenseEquivalent() throws Exception {
+		assertTrue(LicenseCompareHelper.isLicenseEquivalent(
+				LicenseInfoFactory.parseSPDXLicenseString("MIT OR (MIT AND Apache-2.0)"),
+				LicenseInfoFactory.parseSPDXLicenseString("MIT"), new HashMap<>()));
+		assertFalse(LicenseCompareHelper.isLicenseEquivalent(
+				LicenseInfoFactory.parseSPDXLicenseString("MIT OR Apache-2.0"),
+				LicenseInfoFactory.parseSPDXLicenseString("MIT"), new HashMap<>()));
+	}
+}
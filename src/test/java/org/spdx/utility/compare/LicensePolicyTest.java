@@ -0,0 +1,137 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v3_0_1.simplelicensing.AnyLicenseInfo;
+import org.spdx.storage.simple.InMemSpdxStore;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class LicensePolicyTest extends TestCase {
+
+	static final String DEFAULT_DOCUMENT_URI = "http://default/doc";
+
+	static final String[] EXPRESSIONS = new String[] {
+			"MIT", "Apache-2.0", "GPL-2.0-only", "MIT AND Apache-2.0", "MIT OR GPL-2.0-only",
+			"GPL-2.0-only AND (MIT OR Apache-2.0)", "GPL-2.0+", "LicenseRef-1", "NONE",
+			"(MIT AND GPL-2.0-only) OR (Apache-2.0 AND LicenseRef-1)"
+	};
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+		DefaultModelStore.initialize(new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+	}
+
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		DefaultModelStore.initialize(new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+	}
+
+	public void testConsistentWithWhiteList() throws Exception {
+		String[] whiteList = new String[] {"MIT", "Apache-2.0", "LicenseRef-1"};
+		LicensePolicy policy = LicensePolicy.builder().allow(whiteList).build();
+		for (String expression:EXPRESSIONS) {
+			AnyLicenseInfo license = LicenseInfoFactory.parseSPDXLicenseString(expression);
+			assertEquals(expression, LicenseCompareHelper.isLicensePassWhiteList(license, whiteList),
+					policy.isAllowed(license));
+		}
+	}
+
+	public void testConsistentWithBlackList() throws Exception {
+		String[] blackList = new String[] {"GPL-2.0-only", "GPL-2.0+", "LicenseRef-1"};
+		LicensePolicy policy = LicensePolicy.builder().deny(blackList).build();
+		for (String expression:EXPRESSIONS) {
+			AnyLicenseInfo license = LicenseInfoFactory.parseSPDXLicenseString(expression);
+			assertEquals(expression, LicenseCompareHelper.isLicensePassBlackList(license, blackList),
+					policy.isAllowed(license));
+		}
+	}
+
+	public void testCaseInsensitive() throws Exception {
+		LicensePolicy policy = LicensePolicy.builder().allow("mit", "apache-2.0").deny("gpl-2.0+").build();
+		assertTrue(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("MIT AND Apache-2.0")));
+		assertFalse(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("GPL-2.0+")));
+	}
+
+	public void testAllowAndDeny() throws Exception {
+		LicensePolicy policy = LicensePolicy.builder().allow("MIT", "GPL-2.0-only").deny("GPL-2.0-only").build();
+		assertTrue(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("MIT")));
+		assertFalse(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("GPL-2.0-only")));
+		assertTrue(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("GPL-2.0-only OR MIT")));
+		assertFalse(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("GPL-2.0-only AND MIT")));
+	}
+
+	public void testExceptionRules() throws Exception {
+		LicensePolicy policy = LicensePolicy.builder()
+				.allow("GPL-2.0-only", "MIT", "GPL-3.0-only", "Apache-2.0 WITH LLVM-exception")
+				.allowExceptionWith("classpath-exception-2.0", "GPL-2.0-only")
+				.build();
+		assertTrue(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("GPL-2.0-only WITH Classpath-exception-2.0")));
+		assertFalse(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("GPL-3.0-only WITH Classpath-exception-2.0")));
+		assertFalse(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("GPL-2.0-only WITH Autoconf-exception-2.0")));
+		assertTrue(policy.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("Apache-2.0 WITH LLVM-exception")));
+		LicensePolicy denyGpl = LicensePolicy.builder()
+				.allow("MIT")
+				.deny("GPL-2.0-only")
+				.allowExceptionWith("Classpath-exception-2.0", "GPL-2.0-only")
+				.build();
+		assertFalse(denyGpl.isAllowed(LicenseInfoFactory.parseSPDXLicenseString("GPL-2.0-only WITH Classpath-exception-2.0")));
+	}
+
+	public void testEvaluate() throws Exception {
+		LicensePolicy policy = LicensePolicy.builder().allow("MIT").build();
+		CanonicalLicenseExpression mit = CanonicalLicenseExpression.canonicalize(
+				LicenseInfoFactory.parseSPDXLicenseString("MIT"));
+		CanonicalLicenseExpression mitOrApache = CanonicalLicenseExpression.canonicalize(
+				LicenseInfoFactory.parseSPDXLicenseString("MIT OR Apache-2.0"));
+		CanonicalLicenseExpression apacheOrMit = CanonicalLicenseExpression.canonicalize(
+				LicenseInfoFactory.parseSPDXLicenseString("Apache-2.0 OR MIT"));
+		CanonicalLicenseExpression apache = CanonicalLicenseExpression.canonicalize(
+				LicenseInfoFactory.parseSPDXLicenseString("Apache-2.0"));
+		Map<CanonicalLicenseExpression, Boolean> result = policy.evaluate(Arrays.asList(mit, mitOrApache, apacheOrMit, apache, mit));
+		assertEquals(3, result.size());
+		assertTrue(result.get(mit));
+		assertTrue(result.get(apacheOrMit));
+		assertFalse(result.get(apache));
+	}
+
+	public void testCustomLicenseWithoutFragment() throws Exception {
+		InMemSpdxStore store = new InMemSpdxStore();
+		AnyLicenseInfo license = LicenseInfoFactory.parseSPDXLicenseString("MIT AND LicenseRef-1", store,
+				"https://example.com/doc/", new ModelCopyManager(), null);
+		assertTrue(LicensePolicy.builder().allow("MIT", "LicenseRef-1").build().isAllowed(license));
+		assertFalse(LicensePolicy.builder().allow("MIT").build().isAllowed(license));
+		assertFalse(LicensePolicy.builder().deny("LicenseRef-1").build().isAllowed(license));
+	}
+
+	public void testNull() throws Exception {
+		assertFalse(LicensePolicy.builder().allow("MIT").build().isAllowed((AnyLicenseInfo)null));
+		assertTrue(LicensePolicy.builder().deny("MIT").build().isAllowed((AnyLicenseInfo)null));
+	}
+}
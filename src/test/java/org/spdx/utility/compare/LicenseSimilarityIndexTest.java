@@ -0,0 +1,87 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.spdx.utility.compare.LicenseSimilarityIndex.SimilarityScore;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class LicenseSimilarityIndexTest extends TestCase {
+
+	static final String TEMPLATE_SUFFIX = ".template.txt";
+	static final String TEST_DIR = "TestFiles";
+
+	Map<String, String> templates;
+	LicenseSimilarityIndex index;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		templates = new LinkedHashMap<>();
+		File[] files = new File(TEST_DIR).listFiles((dir, name) -> name.endsWith(TEMPLATE_SUFFIX));
+		assertNotNull(files);
+		Arrays.sort(files);
+		for (File file:files) {
+			String id = file.getName().substring(0, file.getName().length() - TEMPLATE_SUFFIX.length());
+			templates.put(id, UnitTestHelper.fileToText(file.getPath()));
+		}
+		index = new LicenseSimilarityIndex(templates);
+	}
+
+	public void testFindClosest() throws Exception {
+		String[] textIds = new String[] {"BSD-2-Clause", "Apache-1.0", "ISC", "MPL-1.0", "Crossword", "GD"};
+		for (String textId:textIds) {
+			String text = UnitTestHelper.fileToText(TEST_DIR + File.separator + textId + ".txt");
+			List<SimilarityScore> result = index.findClosest(text, 3);
+			assertFalse(result.isEmpty());
+			assertTrue(result.size() <= 3);
+			assertEquals(textId, result.get(0).getId());
+			assertTrue(result.get(0).getScore() > 0.25);
+			for (int i = 1; i < result.size(); i++) {
+				assertTrue(result.get(i - 1).getScore() >= result.get(i).getScore());
+			}
+			assertEquals(result.get(0).getScore(), index.getScore(text, textId), 0.0001);
+		}
+	}
+
+	public void testFindClosestModifiedText() throws Exception {
+		String text = UnitTestHelper.fileToText(TEST_DIR + File.separator + "Apache-1.0.txt");
+		// remove a sentence and add some text - the text no longer matches but the closest license is the same
+		int start = text.indexOf("Redistribution");
+		String modified = "/* Header for the file */\n" + text.substring(0, start) +
+				text.substring(text.indexOf('.', start) + 1) + "\nSome added terms and conditions.";
+		assertEquals("Apache-1.0", index.findClosest(modified, 1).get(0).getId());
+		assertTrue(index.getScore(modified, "Apache-1.0") < index.getScore(text, "Apache-1.0"));
+	}
+
+	public void testNoSimilarity() {
+		assertTrue(index.findClosest("", 5).isEmpty());
+		assertTrue(index.findClosest(null, 5).isEmpty());
+		assertTrue(index.findClosest("zzyzx qwerty plugh", 5).isEmpty());
+		assertEquals(0.0, index.getScore("some text", "NOT-AN-ID"));
+		assertEquals(templates.size(), index.getIds().size());
+	}
+}
@@ -29,6 +29,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 import org.spdx.core.DefaultModelStore;
@@ -2062,6 +2064,23 @@ public class SpdxComparerTest extends TestCase {
 		assertTrue(SpdxComparer.elementsEquivalent(none1, none2));
 	}
 
+	public void testCollectionsEquivalentNormalizedNames() throws InvalidSPDXAnalysisException {
+		GenericSpdxElement a1 = new GenericSpdxElement();
+		a1.setName("pkg");
+		GenericSpdxElement a2 = new GenericSpdxElement();
+		a2.setName("line1\nline2");
+		GenericSpdxElement b1 = new GenericSpdxElement();
+		b1.setName("pkg ");
+		GenericSpdxElement b2 = new GenericSpdxElement();
+		b2.setName(" line1\r\nline2\r\n");
+		assertTrue(a1.equivalent(b1));
+		assertTrue(a2.equivalent(b2));
+		assertTrue(SpdxComparer.collectionsEquivalent(Arrays.asList(a1, a2), Arrays.asList(b2, b1)));
+		GenericSpdxElement b3 = new GenericSpdxElement();
+		b3.setName("pkg2");
+		assertFalse(SpdxComparer.collectionsEquivalent(Arrays.asList(a1, a2), Arrays.asList(b2, b3)));
+	}
+
 	public void testFindUniqueChecksums() throws InvalidSPDXAnalysisException {
 		Collection<Checksum> checksumsA = new HashSet<>(Arrays.asList(new Checksum[] {CHECKSUM1, CHECKSUM2, CHECKSUM3}));
 		Collection<Checksum> checksumsB = new HashSet<>(Arrays.asList(new Checksum[] {CHECKSUM2, CHECKSUM3, CHECKSUM4}));
@@ -2070,6 +2089,22 @@ public class SpdxComparerTest extends TestCase {
 		assertEquals(CHECKSUM1, result.get(0));
 	}
 
+	public void testFindUniqueFilesIndexed() throws InvalidSPDXAnalysisException {
+		SpdxFile[] filesA = new SpdxFile[] {FILE1A, FILE2A, FILE3A};
+		SpdxFile[] filesB = new SpdxFile[] {FILE1B_DIFF_CHECKSUM, FILE3B};
+		List<SpdxFile> result = SpdxComparer.findUniqueFiles(filesA, filesB);
+		assertEquals(1, result.size());
+		assertEquals(FILE2A, result.get(0));
+		assertTrue(SpdxComparer.findUniqueFiles(filesB, filesA).isEmpty());
+		// duplicate names are matched one to one
+		SpdxFile[] duplicates = new SpdxFile[] {FILE1A, FILE1A};
+		result = SpdxComparer.findUniqueFiles(duplicates, new SpdxFile[] {FILE1B});
+		assertEquals(1, result.size());
+		assertTrue(SpdxComparer.findUniqueFiles(new SpdxFile[] {FILE1B}, duplicates).isEmpty());
+		SpdxFileIndex index = SpdxFileIndex.sortedByName(Arrays.asList(FILE3A, FILE1A, FILE2A));
+		assertEquals(Arrays.asList(FILE1A, FILE2A, FILE3A), Arrays.asList(index.getFiles()));
+	}
+
 	public void testCollectAllFiles() throws InvalidSPDXAnalysisException {
 		SpdxDocument docA = new SpdxDocument(DOC_URIA);
 		docA.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESA));
@@ -2321,4 +2356,320 @@ public class SpdxComparerTest extends TestCase {
 		assertTrue(comparer.isDifferenceFound());
 		assertFalse(comparer.isSnippetsEqual());
 	}
+
+	public void testCompareWithExecutor() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxDocument docA = createTestSpdxDoc(DOC_URIA);
+		SpdxDocument docB = createTestSpdxDoc(DOC_URIB);
+		SpdxDocument docC = createTestSpdxDoc("http://uric");
+		alterExtractedLicenseInfoIds(docB, 1);
+		docC.setName(DOC_NAMEC);
+		docC.getExternalDocumentRefs().clear();
+		UnitTestHelper.copyObjectsToDoc(docA, Arrays.asList(new SpdxFile[] {FILE1A, FILE2A, FILE3A}));
+		UnitTestHelper.copyObjectsToDoc(docB, Arrays.asList(new SpdxFile[] {FILE1B_DIFF_CHECKSUM, FILE2B, FILE3B}));
+		UnitTestHelper.copyObjectsToDoc(docC, Arrays.asList(new SpdxFile[] {FILE1A}));
+		List<SpdxDocument> docs = Arrays.asList(docA, docB, docC);
+		SpdxComparer sequential = new SpdxComparer();
+		sequential.compare(docs);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			SpdxComparer concurrent = new SpdxComparer(executor);
+			concurrent.compare(docs);
+			assertTrue(sequential.isDifferenceFound());
+			assertEquals(sequential.isDifferenceFound(), concurrent.isDifferenceFound());
+			assertEquals(sequential.isFilesEquals(), concurrent.isFilesEquals());
+			assertEquals(sequential.isPackagesEquals(), concurrent.isPackagesEquals());
+			assertEquals(sequential.isSnippetsEqual(), concurrent.isSnippetsEqual());
+			assertEquals(sequential.isExtractedLicensingInfosEqual(), concurrent.isExtractedLicensingInfosEqual());
+			assertEquals(sequential.isExternalDocumentRefsEquals(), concurrent.isExternalDocumentRefsEquals());
+			assertEquals(sequential.isDocumentRelationshipsEquals(), concurrent.isDocumentRelationshipsEquals());
+			assertEquals(sequential.isDocumentAnnotationsEquals(), concurrent.isDocumentAnnotationsEquals());
+			for (int i = 0; i < docs.size(); i++) {
+				for (int j = 0; j < docs.size(); j++) {
+					if (i == j) {
+						continue;
+					}
+					assertEquals(sequential.getUniqueFiles(i, j), concurrent.getUniqueFiles(i, j));
+					assertEquals(sequential.getFileDifferences(i, j).size(), concurrent.getFileDifferences(i, j).size());
+					for (int k = 0; k < sequential.getFileDifferences(i, j).size(); k++) {
+						assertEquals(sequential.getFileDifferences(i, j).get(k).getName(),
+								concurrent.getFileDifferences(i, j).get(k).getName());
+					}
+					assertEquals(sequential.getUniqueExtractedLicenses(i, j), concurrent.getUniqueExtractedLicenses(i, j));
+					assertEquals(sequential.getUniqueExternalDocumentRefs(i, j), concurrent.getUniqueExternalDocumentRefs(i, j));
+					assertEquals(sequential.getUniqueDocumentRelationship(i, j), concurrent.getUniqueDocumentRelationship(i, j));
+					assertEquals(sequential.getUniqueDocumentAnnotations(i, j), concurrent.getUniqueDocumentAnnotations(i, j));
+					assertEquals(sequential.getUniquePackages(i, j), concurrent.getUniquePackages(i, j));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	public void testComparePackagesWithExecutor() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxDocument docA = new SpdxDocument(DOC_URIA);
+		SpdxDocument docB = new SpdxDocument(DOC_URIB);
+		docA.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESA));
+		docB.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESB));
+		docA.setName(DOC_NAMEA);
+		docB.setName(DOC_NAMEB);
+		docA.setCreationInfo(CREATION_INFOA);
+		docB.setCreationInfo(CREATION_INFOB);
+		for (SpdxItem item:new SpdxItem[] {pkgA1, pkgA2}) {
+			docA.addRelationship(docA.createRelationship(item, RelationshipType.DESCRIBES, ""));
+		}
+		for (SpdxItem item:new SpdxItem[] {pkgB1, pkgB2}) {
+			docB.addRelationship(docB.createRelationship(item, RelationshipType.DESCRIBES, ""));
+		}
+		SpdxComparer sequential = new SpdxComparer();
+		sequential.compare(docA, docB);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			SpdxComparer concurrent = new SpdxComparer(executor);
+			concurrent.compare(docA, docB);
+			assertEquals(sequential.getPackageComparers().length, concurrent.getPackageComparers().length);
+			List<SpdxPackageComparer> expected = sequential.getPackageDifferences();
+			List<SpdxPackageComparer> result = concurrent.getPackageDifferences();
+			assertEquals(1, result.size());
+			assertEquals(expected.size(), result.size());
+			assertEquals(expected.get(0).getPackageName(), result.get(0).getPackageName());
+			assertEquals(expected.get(0).isCommentsEquals(), result.get(0).isCommentsEquals());
+			assertEquals(expected.get(0).isDeclaredLicensesEquals(), result.get(0).isDeclaredLicensesEquals());
+			assertEquals(expected.get(0).isPackageVersionsEquals(), result.get(0).isPackageVersionsEquals());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	public void testElementDigests() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxDocument docA = new SpdxDocument(DOC_URIA);
+		SpdxDocument docB = new SpdxDocument(DOC_URIB);
+		docA.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESA));
+		docB.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESB));
+		docA.setName(DOC_NAMEA);
+		docB.setName(DOC_NAMEB);
+		docA.setCreationInfo(CREATION_INFOA);
+		docB.setCreationInfo(CREATION_INFOB);
+		UnitTestHelper.copyObjectsToDoc(docA, Arrays.asList(new SpdxFile[] {FILE1A, FILE2A}));
+		UnitTestHelper.copyObjectsToDoc(docB, Arrays.asList(new SpdxFile[] {FILE1B_DIFF_CHECKSUM, FILE2B}));
+		SpdxComparer comparer = new SpdxComparer();
+		Map<String, SpdxFile> filesA = new HashMap<>();
+		for (SpdxFile file:comparer.collectAllFiles(docA)) {
+			filesA.put(file.getName().get(), file);
+		}
+		Map<String, SpdxFile> filesB = new HashMap<>();
+		for (SpdxFile file:comparer.collectAllFiles(docB)) {
+			filesB.put(file.getName().get(), file);
+		}
+		SpdxElementDigests digests = new SpdxElementDigests();
+		String digest2A = digests.getDigest(filesA.get(FILE2_NAME));
+		assertNotNull(digest2A);
+		assertEquals(digest2A, digests.getDigest(filesB.get(FILE2_NAME)));
+		assertTrue(digests.isIdentical(docA, filesA.get(FILE2_NAME), docB, filesB.get(FILE2_NAME)));
+		assertFalse(digests.getDigest(filesA.get(FILE1_NAME)).equals(digests.getDigest(filesB.get(FILE1_NAME))));
+		assertFalse(digests.isIdentical(docA, filesA.get(FILE1_NAME), docB, filesB.get(FILE1_NAME)));
+		
+		filesB.get(FILE2_NAME).setCopyrightText("Changed copyright");
+		// cached until invalidated
+		assertEquals(digest2A, digests.getDigest(filesB.get(FILE2_NAME)));
+		digests.invalidate(Collections.singletonList(filesB.get(FILE2_NAME).getObjectUri()));
+		assertFalse(digest2A.equals(digests.getDigest(filesB.get(FILE2_NAME))));
+		
+		// the comparison results do not change when identical files are skipped
+		comparer.compare(docA, docB);
+		assertEquals(2, comparer.getFileDifferences(0, 1).size());
+		assertFalse(comparer.isFilesEquals());
+	}
+
+	public void testElementDigestsSameNamespaceDifferentStores() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxDocument docA = createTestSpdxDoc(DOC_URIA);
+		SpdxDocument docB = createTestSpdxDoc(DOC_URIA);
+		SpdxComparer comparer = new SpdxComparer();
+		comparer.compare(docA, docB);
+		assertTrue(comparer.isFilesEquals());
+		new SpdxFile(docB.getModelStore(), DOC_URIA, "SPDXRef-FILE1A", copyManager, false)
+				.setCopyrightText("Changed copyright");
+		comparer.compare(docA, docB);
+		assertFalse(comparer.isFilesEquals());
+		assertEquals(1, comparer.getFileDifferences(0, 1).size());
+	}
+
+	public void testCompareChanged() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxDocument docA = new SpdxDocument(DOC_URIA);
+		SpdxDocument docB = new SpdxDocument(DOC_URIB);
+		docA.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESA));
+		docB.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESB));
+		docA.setName(DOC_NAMEA);
+		docB.setName(DOC_NAMEB);
+		docA.setCreationInfo(CREATION_INFOA);
+		docB.setCreationInfo(CREATION_INFOB);
+		UnitTestHelper.copyObjectsToDoc(docA, Arrays.asList(new SpdxFile[] {FILE1A, FILE2A, FILE3A}));
+		UnitTestHelper.copyObjectsToDoc(docB, Arrays.asList(new SpdxFile[] {FILE1B_DIFF_CHECKSUM, FILE2B, FILE3B}));
+		SpdxComparer comparer = new SpdxComparer();
+		try {
+			comparer.compareChanged(Collections.singletonList(DOC_URIA));
+			fail("No previous comparison");
+		} catch (SpdxCompareException e) {
+			// expected
+		}
+		comparer.compare(docA, docB);
+		assertEquals(1, comparer.getFileDifferences(0, 1).size());
+		SpdxFile file2B = null;
+		SpdxFile file3B = null;
+		for (SpdxFile file:comparer.collectAllFiles(docB)) {
+			if (FILE2_NAME.equals(file.getName().get())) {
+				file2B = file;
+			} else if (FILE3_NAME.equals(file.getName().get())) {
+				file3B = file;
+			}
+		}
+		assertNotNull(file2B);
+		assertNotNull(file3B);
+		file2B.setCopyrightText("Changed copyright");
+		// the file comparison is reused when the file is not in the changed elements
+		comparer.compareChanged(Collections.singletonList(file3B.getObjectUri()));
+		assertEquals(1, comparer.getFileDifferences(0, 1).size());
+		comparer.compareChanged(Collections.singletonList(file2B.getObjectUri()));
+		SpdxComparer fullComparer = new SpdxComparer();
+		fullComparer.compare(docA, docB);
+		assertEquals(2, fullComparer.getFileDifferences(0, 1).size());
+		assertEquals(fullComparer.isDifferenceFound(), comparer.isDifferenceFound());
+		assertEquals(fullComparer.isFilesEquals(), comparer.isFilesEquals());
+		assertEquals(fullComparer.isPackagesEquals(), comparer.isPackagesEquals());
+		assertEquals(fullComparer.isExtractedLicensingInfosEqual(), comparer.isExtractedLicensingInfosEqual());
+		for (int i = 0; i < 2; i++) {
+			int j = 1 - i;
+			assertEquals(fullComparer.getUniqueFiles(i, j), comparer.getUniqueFiles(i, j));
+			List<SpdxFileDifference> expected = fullComparer.getFileDifferences(i, j);
+			List<SpdxFileDifference> result = comparer.getFileDifferences(i, j);
+			assertEquals(expected.size(), result.size());
+			for (int k = 0; k < expected.size(); k++) {
+				assertEquals(expected.get(k).getName(), result.get(k).getName());
+				assertEquals(expected.get(k).isCopyrightsEqual(), result.get(k).isCopyrightsEqual());
+			}
+		}
+	}
+
+	public void testCompareChangedRemovedDifference() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxDocument docA = new SpdxDocument(DOC_URIA);
+		SpdxDocument docB = new SpdxDocument(DOC_URIB);
+		docA.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESA));
+		docB.setExtractedLicenseInfos(Arrays.asList(EXTRACTED_LICENSESA));
+		docA.setName(DOC_NAMEA);
+		docB.setName(DOC_NAMEA);
+		docA.setCreationInfo(CREATION_INFOA);
+		docB.setCreationInfo(CREATION_INFOB);
+		docB.getAnnotations().add(ANNOTATION3);
+		SpdxComparer comparer = new SpdxComparer();
+		comparer.compare(docA, docB);
+		assertTrue(comparer.isDifferenceFound());
+		assertFalse(comparer.isCreatorCommentsEqual());
+		assertFalse(comparer.isCreatorDatesEqual());
+		assertEquals(1, comparer.getUniqueCreators(1, 0).size());
+		assertEquals(1, comparer.getUniqueDocumentAnnotations(1, 0).size());
+		docB.setCreationInfo(CREATION_INFOA);
+		docB.getAnnotations().clear();
+		comparer.compareChanged(Collections.singletonList(DOC_URIB));
+		assertTrue(comparer.isCreatorCommentsEqual());
+		assertTrue(comparer.isCreatorDatesEqual());
+		assertTrue(comparer.getUniqueCreators(1, 0).isEmpty());
+		assertTrue(comparer.getUniqueDocumentAnnotations(1, 0).isEmpty());
+		assertTrue(comparer.isDocumentAnnotationsEquals());
+		SpdxComparer fullComparer = new SpdxComparer();
+		fullComparer.compare(docA, docB);
+		assertEquals(fullComparer.isDifferenceFound(), comparer.isDifferenceFound());
+	}
+
+	public void testStreamingCompare() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxDocument docA = createTestSpdxDoc(DOC_URIA);
+		SpdxDocument docC = createTestSpdxDoc("http://uric");
+		docC.setName(DOC_NAMEC);
+		UnitTestHelper.copyObjectsToDoc(docA, Arrays.asList(new SpdxFile[] {FILE1A, FILE2A, FILE3A}));
+		UnitTestHelper.copyObjectsToDoc(docC, Arrays.asList(new SpdxFile[] {FILE1B_DIFF_CHECKSUM, FILE3B}));
+		SpdxComparer comparer = new SpdxComparer();
+		comparer.compare(docA, docC);
+		final List<SpdxDifferenceEvent> events = new ArrayList<>();
+		long count = new StreamingSpdxComparer(events::add).compare(docA, docC);
+		assertEquals(events.size(), count);
+		assertEquals(comparer.getUniqueFiles(0, 1).size(), countEvents(events, SpdxDifferenceEvent.Kind.FILE_REMOVED));
+		assertEquals(comparer.getUniqueFiles(1, 0).size(), countEvents(events, SpdxDifferenceEvent.Kind.FILE_ADDED));
+		assertEquals(1, countEvents(events, SpdxDifferenceEvent.Kind.FILE_REMOVED));
+		assertEquals(0, countEvents(events, SpdxDifferenceEvent.Kind.FILE_ADDED));
+		assertEquals(comparer.getFileDifferences(0, 1).size(), countEvents(events, SpdxDifferenceEvent.Kind.FILE_CHANGED));
+		List<String> changedFileNames = new ArrayList<>();
+		for (SpdxDifferenceEvent event:events) {
+			if (SpdxDifferenceEvent.Kind.FILE_CHANGED.equals(event.getKind())) {
+				changedFileNames.add(event.getFileDifference().getName());
+				if (FILE1A.getName().get().equals(event.getFileDifference().getName())) {
+					assertFalse(event.getFileDifference().isChecksumsEquals());
+				}
+			} else if (SpdxDifferenceEvent.Kind.FILE_REMOVED.equals(event.getKind())) {
+				assertEquals(FILE2A.getName(), ((SpdxFile)event.getElementA()).getName());
+				assertNull(event.getElementB());
+			}
+		}
+		assertTrue(changedFileNames.contains(FILE1A.getName().get()));
+		assertEquals(comparer.getUniquePackages(0, 1).size(), countEvents(events, SpdxDifferenceEvent.Kind.PACKAGE_REMOVED));
+		assertEquals(comparer.getUniquePackages(1, 0).size(), countEvents(events, SpdxDifferenceEvent.Kind.PACKAGE_ADDED));
+		assertEquals(comparer.getPackageDifferences().size(), countEvents(events, SpdxDifferenceEvent.Kind.PACKAGE_CHANGED));
+		assertEquals(comparer.getUniqueExtractedLicenses(0, 1).size(), countEvents(events, SpdxDifferenceEvent.Kind.EXTRACTED_LICENSE_REMOVED));
+		assertEquals(comparer.getUniqueExtractedLicenses(1, 0).size(), countEvents(events, SpdxDifferenceEvent.Kind.EXTRACTED_LICENSE_ADDED));
+		assertEquals(comparer.getUniqueDocumentRelationship(0, 1).size(), countEvents(events, SpdxDifferenceEvent.Kind.DOCUMENT_RELATIONSHIP_REMOVED));
+		assertEquals(comparer.getUniqueDocumentAnnotations(0, 1).size(), countEvents(events, SpdxDifferenceEvent.Kind.DOCUMENT_ANNOTATION_REMOVED));
+		// the sink can stop the comparison
+		try {
+			new StreamingSpdxComparer(event -> {
+				throw new SpdxCompareException("stop");
+			}).compare(docA, docC);
+			fail("Sink exception not propagated");
+		} catch (SpdxCompareException e) {
+			assertEquals("stop", e.getMessage());
+		}
+	}
+
+	public void testStreamingCompareSnippets() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		IModelStore newModelStore = new InMemSpdxStore();
+		SpdxDocument docA = new SpdxDocument(newModelStore, "http://uri1", copyManager, true);
+		SpdxDocument docB = new SpdxDocument(newModelStore, "http://uri2", copyManager, true);
+		docA.setName(DOC_NAMEA);
+		docB.setName(DOC_NAMEB);
+		docA.setCreationInfo(CREATION_INFOA);
+		docB.setCreationInfo(CREATION_INFOA);
+		AnyLicenseInfo concludedLicense = LicenseInfoFactory.getListedLicenseByIdCompatV2("Apache-2.0");
+		SpdxFile fromFileA = docA.createSpdxFile(newModelStore.getNextId(IdType.SpdxId), "fileName",
+				concludedLicense, Arrays.asList(new AnyLicenseInfo[] {concludedLicense}), "fileCopyright", CHECKSUM1).build();
+		SpdxSnippet snippetA = docA.createSpdxSnippet(newModelStore.getNextId(IdType.SpdxId),
+				"name", concludedLicense, Arrays.asList(new AnyLicenseInfo[] {concludedLicense}), "Copyright", fromFileA, 0, 10).build();
+		docA.createSpdxSnippet(newModelStore.getNextId(IdType.SpdxId),
+				"same", concludedLicense, Arrays.asList(new AnyLicenseInfo[] {concludedLicense}), "Copyright", fromFileA, 20, 30).build();
+		SpdxFile fromFileB = docB.createSpdxFile(newModelStore.getNextId(IdType.SpdxId), "fileName",
+				concludedLicense, Arrays.asList(new AnyLicenseInfo[] {concludedLicense}), "fileCopyright", CHECKSUM1).build();
+		SpdxSnippet snippetB = docB.createSpdxSnippet(newModelStore.getNextId(IdType.SpdxId),
+				"name", concludedLicense, Arrays.asList(new AnyLicenseInfo[] {concludedLicense}), "Other Copyright", fromFileB, 0, 10).build();
+		docB.createSpdxSnippet(newModelStore.getNextId(IdType.SpdxId),
+				"same", concludedLicense, Arrays.asList(new AnyLicenseInfo[] {concludedLicense}), "Copyright", fromFileB, 20, 30).build();
+		final List<SpdxDifferenceEvent> events = new ArrayList<>();
+		new StreamingSpdxComparer(events::add).compare(docA, docB);
+		assertEquals(0, countEvents(events, SpdxDifferenceEvent.Kind.SNIPPET_ADDED));
+		assertEquals(0, countEvents(events, SpdxDifferenceEvent.Kind.SNIPPET_REMOVED));
+		assertEquals(1, countEvents(events, SpdxDifferenceEvent.Kind.SNIPPET_CHANGED));
+		for (SpdxDifferenceEvent event:events) {
+			if (SpdxDifferenceEvent.Kind.SNIPPET_CHANGED.equals(event.getKind())) {
+				assertEquals(snippetA, event.getElementA());
+				assertEquals(snippetB, event.getElementB());
+				assertFalse(event.getSnippetComparer().isCopyrightsEquals());
+				assertTrue(event.getSnippetComparer().isByteRangeEquals());
+			}
+		}
+	}
+
+	private static int countEvents(List<SpdxDifferenceEvent> events, SpdxDifferenceEvent.Kind kind) {
+		int retval = 0;
+		for (SpdxDifferenceEvent event:events) {
+			if (kind.equals(event.getKind())) {
+				retval++;
+			}
+		}
+		return retval;
+	}
 }
@@ -0,0 +1,199 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxFile;
+import org.spdx.library.model.v2.enumerations.ChecksumAlgorithm;
+import org.spdx.library.model.v2.enumerations.RelationshipType;
+import org.spdx.library.model.v2.license.AnyLicenseInfo;
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.simple.InMemSpdxStore;
+import org.spdx.utility.compare.SpdxDifferenceEvent.Kind;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class SpdxComparisonCacheTest extends TestCase {
+
+	static final String DEFAULT_DOCUMENT_URI = "http://default/doc";
+	static final String DOC_URI_A = "http://doc/a";
+	static final String DOC_URI_B = "http://doc/b";
+	static final String SHA1 = "027bf72bf99b7e471f1a27989667a903658652bb";
+
+	Path tempDir;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+		DefaultModelStore.initialize(new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+		tempDir = Files.createTempDirectory("spdxcmp");
+	}
+
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir)) {
+			for (Path file:files) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(tempDir);
+		DefaultModelStore.initialize(new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+	}
+
+	/**
+	 * @param store store for the document
+	 * @param documentUri URI of the document
+	 * @param fileNames names of the files in the document
+	 * @return a document containing the files
+	 */
+	private SpdxDocument createDocument(IModelStore store, String documentUri, String... fileNames) throws InvalidSPDXAnalysisException {
+		ModelCopyManager copyManager = new ModelCopyManager();
+		SpdxDocument doc = new SpdxDocument(store, documentUri, copyManager, true);
+		doc.setName("Cache test");
+		AnyLicenseInfo license = LicenseInfoFactory.parseSPDXLicenseStringCompatV2("MPL-1.1");
+		int id = 1;
+		for (String fileName:fileNames) {
+			SpdxFile file = doc.createSpdxFile("SPDXRef-" + id++, fileName, license, Arrays.asList(new AnyLicenseInfo[] {license}),
+					"Copyright", doc.createChecksum(ChecksumAlgorithm.SHA1, SHA1))
+					.build();
+			doc.addRelationship(doc.createRelationship(file, RelationshipType.DESCRIBES, null));
+		}
+		return doc;
+	}
+
+	public void testContentHash() throws InvalidSPDXAnalysisException {
+		String hash = SpdxComparisonCache.contentHash(createDocument(new InMemSpdxStore(), DOC_URI_A, "file1", "file2"));
+		assertEquals(hash, SpdxComparisonCache.contentHash(createDocument(new InMemSpdxStore(), DOC_URI_A, "file1", "file2")));
+		// the document URI is not part of the content
+		assertEquals(hash, SpdxComparisonCache.contentHash(createDocument(new InMemSpdxStore(), DOC_URI_B, "file1", "file2")));
+		assertFalse(hash.equals(SpdxComparisonCache.contentHash(createDocument(new InMemSpdxStore(), DOC_URI_A, "file1", "file3"))));
+		// documents in the same store are not included
+		IModelStore store = new InMemSpdxStore();
+		SpdxDocument doc = createDocument(store, DOC_URI_A, "file1", "file2");
+		createDocument(store, DOC_URI_A + "2", "file4");
+		assertEquals(hash, SpdxComparisonCache.contentHash(doc));
+	}
+
+	public void testCompare() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxComparisonCache cache = new SpdxComparisonCache(10);
+		SpdxDocument docA = createDocument(new InMemSpdxStore(), DOC_URI_A, "file1", "file2");
+		SpdxDocument docB = createDocument(new InMemSpdxStore(), DOC_URI_B, "file1", "file3");
+		SpdxComparisonSummary summary = cache.compare(docA, docB);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, summary.getDifferenceCount(Kind.FILE_REMOVED));
+		assertEquals(1, summary.getDifferenceCount(Kind.FILE_ADDED));
+		assertTrue(summary.getDifferences().contains(new SpdxComparisonSummary.Difference(Kind.FILE_REMOVED, "SPDXRef-2", null)));
+		assertTrue(summary.getDifferences().contains(new SpdxComparisonSummary.Difference(Kind.DOCUMENT_RELATIONSHIP_ADDED,
+				null, "DESCRIBES SPDXRef-2")));
+		// documents with the same content read into other stores
+		SpdxDocument copyA = createDocument(new InMemSpdxStore(), DOC_URI_A, "file1", "file2");
+		SpdxDocument copyB = createDocument(new InMemSpdxStore(), DOC_URI_B, "file1", "file3");
+		assertSame(summary, cache.compare(copyA, copyB));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		// the order of the documents matters
+		SpdxComparisonSummary reversed = cache.compare(docB, docA);
+		assertEquals(2, cache.getMissCount());
+		assertTrue(reversed.getDifferences().contains(new SpdxComparisonSummary.Difference(Kind.FILE_ADDED, null, "SPDXRef-2")));
+		assertFalse(cache.compare(docA, copyA).isDifferenceFound());
+	}
+
+	public void testEviction() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		SpdxComparisonCache cache = new SpdxComparisonCache(1);
+		SpdxDocument docA = createDocument(new InMemSpdxStore(), DOC_URI_A, "file1");
+		SpdxDocument docB = createDocument(new InMemSpdxStore(), DOC_URI_B, "file2");
+		cache.compare(docA, docB);
+		cache.compare(docB, docA);
+		cache.compare(docA, docB);
+		assertEquals(3, cache.getMissCount());
+		cache.compare(docA, docB);
+		assertEquals(1, cache.getHitCount());
+	}
+
+	public void testDirectory() throws InvalidSPDXAnalysisException, SpdxCompareException, IOException {
+		SpdxDocument docA = createDocument(new InMemSpdxStore(), DOC_URI_A, "file1", "file2");
+		SpdxDocument docB = createDocument(new InMemSpdxStore(), DOC_URI_B, "file1", "file3");
+		SpdxComparisonSummary summary = new SpdxComparisonCache(0, tempDir).compare(docA, docB);
+		SpdxComparisonCache cache = new SpdxComparisonCache(10, tempDir);
+		assertEquals(summary.getDifferences(), cache.compare(docA, docB).getDifferences());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+		cache.clear();
+		cache.compare(docA, docB);
+		assertEquals(1, cache.getMissCount());
+	}
+
+	public void testConcurrentCompare() throws Exception {
+		SpdxComparisonCache cache = new SpdxComparisonCache(10);
+		SpdxDocument docA = createDocument(new InMemSpdxStore(), DOC_URI_A, "file1", "file2");
+		SpdxDocument docB = createDocument(new InMemSpdxStore(), DOC_URI_B, "file1", "file3");
+		SpdxComparisonSummary expected = new SpdxComparisonCache(0).compare(docA, docB);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<SpdxComparisonSummary>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> cache.compare(docA, docB)));
+			}
+			for (Future<SpdxComparisonSummary> result:results) {
+				assertEquals(expected.getDifferences(), result.get().getDifferences());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(8, cache.getHitCount() + cache.getMissCount());
+	}
+
+	public void testSummarySerialization() throws IOException {
+		SpdxComparisonSummary summary = new SpdxComparisonSummary(Arrays.asList(
+				new SpdxComparisonSummary.Difference(Kind.FILE_CHANGED, "SPDXRef-1", "SPDXRef-2"),
+				new SpdxComparisonSummary.Difference(Kind.PACKAGE_ADDED, null, "SPDXRef-3"),
+				new SpdxComparisonSummary.Difference(Kind.EXTRACTED_LICENSE_REMOVED, "LicenseRef-1", null)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		summary.writeTo(out);
+		SpdxComparisonSummary result = SpdxComparisonSummary.readFrom(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(summary.getDifferences(), result.getDifferences());
+		try {
+			SpdxComparisonSummary.readFrom(new ByteArrayInputStream(new byte[] {0, 0, 0, 9}));
+			fail("Invalid format version");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
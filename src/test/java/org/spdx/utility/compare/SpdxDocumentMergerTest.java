@@ -0,0 +1,242 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.core.IModelCopyManager;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v2.ModelObjectV2;
+import org.spdx.library.model.v2.SpdxConstantsCompatV2;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxFile;
+import org.spdx.library.model.v2.SpdxPackage;
+import org.spdx.library.model.v2.SpdxSnippet;
+import org.spdx.library.model.v2.enumerations.ChecksumAlgorithm;
+import org.spdx.library.model.v2.license.AnyLicenseInfo;
+import org.spdx.library.model.v2.license.ExtractedLicenseInfo;
+import org.spdx.library.model.v2.pointer.ByteOffsetPointer;
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.simple.InMemSpdxStore;
+
+import junit.framework.TestCase;
+
+/**
+ * Test the three-way merge of SPDX documents
+ *
+ * @author Gary O'Neall
+ */
+public class SpdxDocumentMergerTest extends TestCase {
+
+	static final String DEFAULT_DOCUMENT_URI = "http://default/doc";
+	static final String BASE_URI = "http://doc/base";
+	static final String OURS_URI = "http://doc/ours";
+	static final String THEIRS_URI = "http://doc/theirs";
+	static final String MERGED_URI = "http://doc/merged";
+	static final String COPYRIGHT = "Copyright";
+	static final String SHA1 = "027bf72bf99b7e471f1a27989667a903658652bb";
+	static final String EXTRACTED_TEXT = "Extracted license text";
+
+	IModelStore modelStore;
+	IModelCopyManager copyManager;
+	SpdxDocument base;
+	SpdxDocument ours;
+	SpdxDocument theirs;
+	AnyLicenseInfo license;
+
+	public void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+		modelStore = new InMemSpdxStore();
+		copyManager = new ModelCopyManager();
+		DefaultModelStore.initialize(modelStore, DEFAULT_DOCUMENT_URI, copyManager);
+		base = new SpdxDocument(modelStore, BASE_URI, copyManager, true);
+		ours = new SpdxDocument(modelStore, OURS_URI, copyManager, true);
+		theirs = new SpdxDocument(modelStore, THEIRS_URI, copyManager, true);
+		for (SpdxDocument doc:new SpdxDocument[] {base, ours, theirs}) {
+			doc.setName("Merge test");
+		}
+		license = LicenseInfoFactory.parseSPDXLicenseStringCompatV2("MPL-1.1");
+	}
+
+	public void tearDown() throws Exception {
+		super.tearDown();
+		DefaultModelStore.initialize(new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+	}
+
+	private SpdxFile createFile(SpdxDocument doc, String id, String name, String copyright) throws InvalidSPDXAnalysisException {
+		return doc.createSpdxFile(id, name, license, Arrays.asList(new AnyLicenseInfo[] {license}),
+				copyright, doc.createChecksum(ChecksumAlgorithm.SHA1, SHA1))
+				.build();
+	}
+
+	private SpdxPackage createPackage(SpdxDocument doc, String id, String version, SpdxFile file) throws InvalidSPDXAnalysisException {
+		return doc.createPackage(id, "package", license, COPYRIGHT, license)
+				.setVersionInfo(version)
+				.setFilesAnalyzed(false)
+				.setFiles(Arrays.asList(new SpdxFile[] {file}))
+				.setDownloadLocation("NOASSERTION")
+				.build();
+	}
+
+	private SpdxSnippet createUnnamedSnippet(SpdxDocument doc, String id, SpdxFile fromFile, int start, int end,
+			String copyright) throws InvalidSPDXAnalysisException {
+		SpdxSnippet retval = doc.createSpdxSnippet(id, "snippet", license, Arrays.asList(new AnyLicenseInfo[] {license}),
+				copyright, fromFile, start, end).build();
+		retval.setName(null);
+		return retval;
+	}
+
+	private Map<String, SpdxFile> mergedFiles(SpdxDocument mergedDoc) throws InvalidSPDXAnalysisException {
+		Map<String, SpdxFile> retval = new HashMap<>();
+		for (SpdxFile file:new SpdxComparer().collectAllFiles(mergedDoc)) {
+			assertNull("Duplicate file " + file.getName().get(), retval.put(file.getName().get(), file));
+		}
+		return retval;
+	}
+
+	public void testMerge() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		for (SpdxDocument doc:new SpdxDocument[] {base, ours, theirs}) {
+			createFile(doc, "SPDXRef-1", "file1", COPYRIGHT);
+			createFile(doc, "SPDXRef-2", "file2", COPYRIGHT);
+			createFile(doc, "SPDXRef-3", "file3", COPYRIGHT);
+			SpdxFile file4 = createFile(doc, "SPDXRef-4", "file4", COPYRIGHT);
+			createPackage(doc, "SPDXRef-5", doc == theirs ? "2.0" : "1.0", file4);
+		}
+		ours.setExtractedLicenseInfos(Arrays.asList(new ExtractedLicenseInfo[] {
+				new ExtractedLicenseInfo(modelStore, OURS_URI, "LicenseRef-1", copyManager, true)}));
+		ours.getExtractedLicenseInfos().iterator().next().setExtractedText(EXTRACTED_TEXT);
+		theirs.setExtractedLicenseInfos(Arrays.asList(new ExtractedLicenseInfo[] {
+				new ExtractedLicenseInfo(modelStore, THEIRS_URI, "LicenseRef-1", copyManager, true)}));
+		theirs.getExtractedLicenseInfos().iterator().next().setExtractedText(EXTRACTED_TEXT);
+		SpdxComparer comparer = new SpdxComparer();
+		Map<String, SpdxFile> oursFiles = new HashMap<>();
+		for (SpdxFile file:comparer.collectAllFiles(ours)) {
+			oursFiles.put(file.getName().get(), file);
+		}
+		Map<String, SpdxFile> theirsFiles = new HashMap<>();
+		for (SpdxFile file:comparer.collectAllFiles(theirs)) {
+			theirsFiles.put(file.getName().get(), file);
+		}
+		oursFiles.get("file1").setCopyrightText("Ours copyright");
+		theirsFiles.get("file2").setCopyrightText("Theirs copyright");
+		oursFiles.get("file3").setName("file3-ours");	// removed in ours and added file3-ours
+		createFile(theirs, "SPDXRef-6", "file6", COPYRIGHT);
+
+		SpdxMergeResult result = new SpdxDocumentMerger(new InMemSpdxStore()).merge(base, ours, theirs, MERGED_URI);
+		assertFalse(result.isConflictFound());
+		Map<String, SpdxFile> merged = mergedFiles(result.getMergedDocument());
+		assertEquals(new HashSet<>(Arrays.asList("file1", "file2", "file3-ours", "file4", "file6")), merged.keySet());
+		assertEquals("Ours copyright", merged.get("file1").getCopyrightText());
+		assertEquals("Theirs copyright", merged.get("file2").getCopyrightText());
+		List<SpdxPackage> packages = comparer.collectAllPackages(result.getMergedDocument());
+		assertEquals(1, packages.size());
+		assertEquals("2.0", packages.get(0).getVersionInfo().get());
+		// the theirs file in the package is replaced by the merged file
+		assertEquals(1, packages.get(0).getFiles().size());
+		assertEquals(merged.get("file4"), packages.get(0).getFiles().iterator().next());
+		assertEquals(1, result.getMergedDocument().getExtractedLicenseInfos().size());
+	}
+
+	public void testMergeConflicts() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		for (SpdxDocument doc:new SpdxDocument[] {base, ours, theirs}) {
+			createFile(doc, "SPDXRef-1", "modified", COPYRIGHT);
+			createFile(doc, "SPDXRef-2", "deletedByOurs", COPYRIGHT);
+			createFile(doc, "SPDXRef-3", "deletedByTheirs", COPYRIGHT);
+		}
+		createFile(ours, "SPDXRef-4", "added", "Ours copyright");
+		createFile(theirs, "SPDXRef-4", "added", "Theirs copyright");
+		SpdxComparer comparer = new SpdxComparer();
+		for (SpdxFile file:comparer.collectAllFiles(ours)) {
+			if ("modified".equals(file.getName().get()) || "deletedByTheirs".equals(file.getName().get())) {
+				file.setCopyrightText("Ours copyright");
+			} else if ("deletedByOurs".equals(file.getName().get())) {
+				file.setName("removed");
+			}
+		}
+		for (SpdxFile file:comparer.collectAllFiles(theirs)) {
+			if ("modified".equals(file.getName().get()) || "deletedByOurs".equals(file.getName().get())) {
+				file.setCopyrightText("Theirs copyright");
+			} else if ("deletedByTheirs".equals(file.getName().get())) {
+				file.setName("removed");
+			}
+		}
+
+		SpdxMergeResult result = new SpdxDocumentMerger(new InMemSpdxStore()).merge(base, ours, theirs, MERGED_URI);
+		Map<String, SpdxMergeConflict.Kind> conflicts = new HashMap<>();
+		for (SpdxMergeConflict conflict:result.getConflicts()) {
+			conflicts.put(conflict.getName(), conflict.getKind());
+		}
+		Map<String, SpdxMergeConflict.Kind> expected = new HashMap<>();
+		expected.put("modified", SpdxMergeConflict.Kind.BOTH_MODIFIED);
+		expected.put("deletedByOurs", SpdxMergeConflict.Kind.DELETED_BY_OURS);
+		expected.put("deletedByTheirs", SpdxMergeConflict.Kind.DELETED_BY_THEIRS);
+		expected.put("added", SpdxMergeConflict.Kind.BOTH_ADDED);
+		assertEquals(expected, conflicts);
+		Map<String, SpdxFile> merged = mergedFiles(result.getMergedDocument());
+		// the ours version is used for all conflicts
+		assertEquals(new HashSet<>(Arrays.asList("modified", "deletedByTheirs", "added", "removed")), merged.keySet());
+		assertEquals("Ours copyright", merged.get("modified").getCopyrightText());
+		assertEquals("Ours copyright", merged.get("added").getCopyrightText());
+	}
+
+	public void testMergeUnnamedSnippets() throws InvalidSPDXAnalysisException, SpdxCompareException {
+		for (SpdxDocument doc:new SpdxDocument[] {base, ours, theirs}) {
+			SpdxFile file = createFile(doc, "SPDXRef-1", "file1", COPYRIGHT);
+			if (doc == theirs) {
+				// different order than the other documents
+				createUnnamedSnippet(doc, "SPDXRef-2", file, 20, 30, "Theirs copyright");
+				createUnnamedSnippet(doc, "SPDXRef-3", file, 0, 10, COPYRIGHT);
+			} else {
+				createUnnamedSnippet(doc, "SPDXRef-2", file, 0, 10, doc == ours ? "Ours copyright" : COPYRIGHT);
+				createUnnamedSnippet(doc, "SPDXRef-3", file, 20, 30, COPYRIGHT);
+			}
+		}
+		SpdxMergeResult result = new SpdxDocumentMerger(new InMemSpdxStore()).merge(base, ours, theirs, MERGED_URI);
+		assertFalse(result.isConflictFound());
+		Map<Integer, String> copyrights = new HashMap<>();
+		for (ModelObjectV2 element:StreamingSpdxComparer.collectElements(result.getMergedDocument(),
+				SpdxConstantsCompatV2.CLASS_SPDX_SNIPPET)) {
+			SpdxSnippet snippet = (SpdxSnippet)element;
+			assertFalse(snippet.getName().isPresent());
+			copyrights.put(((ByteOffsetPointer)snippet.getByteRange().getStartPointer()).getOffset(),
+					snippet.getCopyrightText());
+		}
+		Map<Integer, String> expected = new HashMap<>();
+		expected.put(0, "Ours copyright");
+		expected.put(20, "Theirs copyright");
+		assertEquals(expected, copyrights);
+	}
+
+	public void testMergeSameStore() throws InvalidSPDXAnalysisException {
+		try {
+			new SpdxDocumentMerger(modelStore).merge(base, ours, theirs, MERGED_URI);
+			fail("Merged document in the same store");
+		} catch (SpdxCompareException e) {
+			// expected
+		}
+	}
+}
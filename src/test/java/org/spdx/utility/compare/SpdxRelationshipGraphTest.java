@@ -0,0 +1,180 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.core.IModelCopyManager;
+import org.spdx.core.InvalidSPDXAnalysisException;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.library.model.v2.SpdxDocument;
+import org.spdx.library.model.v2.SpdxPackage;
+import org.spdx.library.model.v2.enumerations.RelationshipType;
+import org.spdx.library.model.v2.license.AnyLicenseInfo;
+import org.spdx.storage.IModelStore;
+import org.spdx.storage.simple.InMemSpdxStore;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class SpdxRelationshipGraphTest extends TestCase {
+
+	static final String DEFAULT_DOCUMENT_URI = "http://default/doc";
+	static final String DOC_URI_A = "http://doc/a";
+	static final String DOC_URI_B = "http://doc/b";
+
+	IModelStore modelStore;
+	IModelCopyManager copyManager;
+	AnyLicenseInfo license;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+		modelStore = new InMemSpdxStore();
+		copyManager = new ModelCopyManager();
+		DefaultModelStore.initialize(modelStore, DEFAULT_DOCUMENT_URI, copyManager);
+		license = LicenseInfoFactory.parseSPDXLicenseStringCompatV2("MPL-1.1");
+	}
+
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		DefaultModelStore.initialize(new InMemSpdxStore(), DEFAULT_DOCUMENT_URI, new ModelCopyManager());
+	}
+
+	private SpdxPackage createPackage(SpdxDocument doc, String id) throws InvalidSPDXAnalysisException {
+		return doc.createPackage(id, id, license, "Copyright", license)
+				.setFilesAnalyzed(false)
+				.setDownloadLocation("NOASSERTION")
+				.build();
+	}
+
+	/**
+	 * Create a document describing package 1 where 1 depends on 2 and 3, 2 and 3 depend on 4 and 4 depends on 2
+	 * @param doc document to add the packages to
+	 * @return the packages by number - there is no package 0
+	 */
+	private SpdxPackage[] createDependencies(SpdxDocument doc) throws InvalidSPDXAnalysisException {
+		SpdxPackage[] packages = new SpdxPackage[5];
+		for (int i = 1; i < packages.length; i++) {
+			packages[i] = createPackage(doc, "SPDXRef-" + i);
+		}
+		doc.addRelationship(doc.createRelationship(packages[1], RelationshipType.DESCRIBES, null));
+		packages[1].addRelationship(doc.createRelationship(packages[2], RelationshipType.DEPENDS_ON, null));
+		packages[1].addRelationship(doc.createRelationship(packages[3], RelationshipType.DEPENDS_ON, null));
+		packages[2].addRelationship(doc.createRelationship(packages[4], RelationshipType.DEPENDS_ON, null));
+		packages[3].addRelationship(doc.createRelationship(packages[4], RelationshipType.DEPENDS_ON, null));
+		packages[4].addRelationship(doc.createRelationship(packages[2], RelationshipType.DEPENDS_ON, null));
+		return packages;
+	}
+
+	private BitSet ordinals(SpdxRelationshipGraph graph, SpdxPackage... packages) {
+		BitSet retval = new BitSet();
+		for (SpdxPackage pkg:packages) {
+			retval.set(graph.getOrdinal(pkg.getObjectUri()));
+		}
+		return retval;
+	}
+
+	public void testTraversal() throws InvalidSPDXAnalysisException {
+		SpdxDocument doc = new SpdxDocument(modelStore, DOC_URI_A, copyManager, true);
+		SpdxPackage[] packages = createDependencies(doc);
+		SpdxRelationshipGraph graph = new SpdxRelationshipGraph(doc);
+		assertEquals(5, graph.size());
+		assertEquals(6, graph.getEdgeCount());
+		int documentOrdinal = graph.getOrdinal(doc.getObjectUri());
+		int p1 = graph.getOrdinal(packages[1].getObjectUri());
+		int p4 = graph.getOrdinal(packages[4].getObjectUri());
+		assertEquals(doc, graph.getElement(documentOrdinal));
+		assertEquals("SPDXRef-1", graph.getElementKey(p1));
+		assertEquals(-1, graph.getOrdinal("http://doc/a#SPDXRef-none"));
+
+		assertTrue(Arrays.equals(new int[] {p1}, graph.getTargets(documentOrdinal, RelationshipType.DESCRIBES)));
+		assertEquals(0, graph.getTargets(documentOrdinal, RelationshipType.DEPENDS_ON).length);
+		assertEquals(0, graph.getTargets(documentOrdinal, RelationshipType.CONTAINS).length);
+		int[] sources = graph.getSources(p4, RelationshipType.DEPENDS_ON);
+		assertEquals(ordinals(graph, packages[2], packages[3]), ordinals(sources));
+		assertTrue(graph.hasEdge(p4, RelationshipType.DEPENDS_ON, graph.getOrdinal(packages[2].getObjectUri())));
+		assertFalse(graph.hasEdge(p1, RelationshipType.DEPENDS_ON, p4));
+
+		List<RelationshipType> dependsOn = Collections.singletonList(RelationshipType.DEPENDS_ON);
+		assertEquals(ordinals(graph, packages[2], packages[3], packages[4]), graph.findReachable(p1, dependsOn));
+		// package 4 is part of a cycle
+		assertEquals(ordinals(graph, packages[2], packages[4]), graph.findReachable(p4, dependsOn));
+		assertEquals(ordinals(graph, packages[1], packages[2], packages[3], packages[4]), graph.findReverseReachable(p4, dependsOn));
+		assertTrue(graph.findReverseReachable(p1, dependsOn).isEmpty());
+		BitSet described = graph.findReachable(documentOrdinal, Arrays.asList(RelationshipType.DESCRIBES, RelationshipType.DEPENDS_ON));
+		assertEquals(ordinals(graph, packages[1], packages[2], packages[3], packages[4]), described);
+	}
+
+	public void testCycleThroughStart() throws InvalidSPDXAnalysisException {
+		SpdxDocument doc = new SpdxDocument(modelStore, DOC_URI_A, copyManager, true);
+		SpdxPackage p1 = createPackage(doc, "SPDXRef-1");
+		SpdxPackage p2 = createPackage(doc, "SPDXRef-2");
+		p1.addRelationship(doc.createRelationship(p2, RelationshipType.DEPENDS_ON, null));
+		p2.addRelationship(doc.createRelationship(p1, RelationshipType.DEPENDS_ON, null));
+		p2.addRelationship(doc.createRelationship(doc, RelationshipType.DEPENDS_ON, null));
+		SpdxRelationshipGraph graph = new SpdxRelationshipGraph(doc);
+		assertEquals(3, graph.size());
+		List<RelationshipType> dependsOn = Collections.singletonList(RelationshipType.DEPENDS_ON);
+		int p1Ordinal = graph.getOrdinal(p1.getObjectUri());
+		int documentOrdinal = graph.getOrdinal(doc.getObjectUri());
+		// every element is reachable and the start is reached again through the cycle
+		BitSet expected = ordinals(graph, p1, p2);
+		expected.set(documentOrdinal);
+		assertEquals(expected, graph.findReachable(p1Ordinal, dependsOn));
+		assertEquals(ordinals(graph, p1, p2), graph.findReverseReachable(p1Ordinal, dependsOn));
+		assertEquals(ordinals(graph, p1, p2), graph.findReverseReachable(documentOrdinal, dependsOn));
+	}
+
+	private BitSet ordinals(int[] values) {
+		BitSet retval = new BitSet();
+		for (int value:values) {
+			retval.set(value);
+		}
+		return retval;
+	}
+
+	public void testFindUniqueEdges() throws InvalidSPDXAnalysisException {
+		SpdxDocument docA = new SpdxDocument(modelStore, DOC_URI_A, copyManager, true);
+		SpdxPackage[] packagesA = createDependencies(docA);
+		SpdxDocument docB = new SpdxDocument(modelStore, DOC_URI_B, copyManager, true);
+		SpdxPackage[] packagesB = createDependencies(docB);
+		assertTrue(new SpdxRelationshipGraph(docA).findUniqueEdges(new SpdxRelationshipGraph(docB)).isEmpty());
+
+		packagesA[1].addRelationship(docA.createRelationship(packagesA[4], RelationshipType.DEPENDS_ON, null));
+		packagesB[3].addRelationship(docB.createRelationship(createPackage(docB, "SPDXRef-5"), RelationshipType.CONTAINS, null));
+		SpdxRelationshipGraph graphA = new SpdxRelationshipGraph(docA);
+		SpdxRelationshipGraph graphB = new SpdxRelationshipGraph(docB);
+		List<SpdxRelationshipGraph.Edge> uniqueA = graphA.findUniqueEdges(graphB);
+		assertEquals(Collections.singletonList(new SpdxRelationshipGraph.Edge(graphA.getOrdinal(packagesA[1].getObjectUri()),
+				RelationshipType.DEPENDS_ON, graphA.getOrdinal(packagesA[4].getObjectUri()))), uniqueA);
+		List<SpdxRelationshipGraph.Edge> uniqueB = graphB.findUniqueEdges(graphA);
+		assertEquals(1, uniqueB.size());
+		assertEquals(RelationshipType.CONTAINS, uniqueB.get(0).getRelationshipType());
+		assertEquals("SPDXRef-3", graphB.getElementKey(uniqueB.get(0).getSource()));
+		assertEquals("SPDXRef-5", graphB.getElementKey(uniqueB.get(0).getTarget()));
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.compare;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class TemplateWithinTextScannerTest extends TestCase {
+
+	static final String TEMPLATE_SUFFIX = ".template.txt";
+	static final String TEST_DIR = "TestFiles";
+
+	Map<String, String> templates;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		templates = new LinkedHashMap<>();
+		File[] files = new File(TEST_DIR).listFiles((dir, name) -> name.endsWith(TEMPLATE_SUFFIX));
+		assertNotNull(files);
+		Arrays.sort(files);
+		for (File file:files) {
+			String id = file.getName().substring(0, file.getName().length() - TEMPLATE_SUFFIX.length());
+			templates.put(id, UnitTestHelper.fileToText(file.getPath()));
+		}
+	}
+
+	public void testFindMatchingIds() throws Exception {
+		TemplateWithinTextScanner scanner = new TemplateWithinTextScanner(templates);
+		String[] textIds = new String[] {"BSD-2-Clause", "Apache-1.0", "ISC", "MPL-1.0", "Crossword", "GD"};
+		for (String textId:textIds) {
+			String text = "/* Some header text\n" + 
+					UnitTestHelper.fileToText(TEST_DIR + File.separator + textId + ".txt") +
+					"\n Some trailing text */";
+			List<String> expected = new ArrayList<>();
+			for (Map.Entry<String, String> entry:templates.entrySet()) {
+				if (new TemplateRegexMatcher(entry.getValue()).isTemplateMatchWithinText(text)) {
+					expected.add(entry.getKey());
+				}
+			}
+			assertTrue(expected.contains(textId));
+			List<String> candidates = scanner.findCandidateIds(text);
+			assertTrue(candidates.containsAll(expected));
+			assertTrue(candidates.size() < templates.size());
+			assertEquals(expected, scanner.findMatchingIds(text));
+			// the scanner may be reused
+			assertEquals(expected, scanner.findMatchingIds(text));
+		}
+	}
+
+	public void testNoMatch() throws Exception {
+		TemplateWithinTextScanner scanner = new TemplateWithinTextScanner(templates);
+		assertEquals(new ArrayList<>(templates.keySet()), scanner.getIds());
+		assertTrue(scanner.findMatchingIds("Some random text that isn't a standard license").isEmpty());
+		assertTrue(scanner.findCandidateIds("").isEmpty());
+		assertTrue(scanner.findMatchingIds(null).isEmpty());
+	}
+
+	public void testFindMatchingIdsReader() throws Exception {
+		Map<String, String> smallTemplates = new LinkedHashMap<>();
+		for (String id:new String[] {"ISC", "BSD-2-Clause", "BSD-3-Clause", "MIT"}) {
+			smallTemplates.put(id, templates.get(id));
+		}
+		TemplateWithinTextScanner scanner = new TemplateWithinTextScanner(smallTemplates);
+		StringBuilder filler = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			filler.append("filler line ").append(i).append('\n');
+		}
+		String text = filler + UnitTestHelper.fileToText(TEST_DIR + File.separator + "ISC.txt") + "\n" +
+				filler + UnitTestHelper.fileToText(TEST_DIR + File.separator + "BSD-2-Clause.txt") + "\n" + filler;
+		assertTrue(text.length() > scanner.getWindowOverlap() * 3);
+		List<String> expected = scanner.findMatchingIds(text);
+		assertTrue(expected.contains("ISC"));
+		assertTrue(expected.contains("BSD-2-Clause"));
+		// windows much smaller than the text
+		assertEquals(expected, scanner.findMatchingIdsInReader(new StringReader(text), 2000));
+		assertEquals(expected, scanner.findMatchingIdsInReader(new StringReader(text)));
+		assertTrue(scanner.findMatchingIdsInReader(new StringReader(filler.toString()), 2000).isEmpty());
+		assertTrue(scanner.findMatchingIdsInReader(new StringReader("")).isEmpty());
+	}
+}
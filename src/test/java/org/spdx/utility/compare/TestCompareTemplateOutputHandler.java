@@ -21,6 +21,7 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -30,9 +31,11 @@ import org.junit.Test;
 import org.spdx.licenseTemplate.LicenseParserException;
 import org.spdx.licenseTemplate.LicenseTemplateRule;
 import org.spdx.licenseTemplate.LicenseTemplateRuleException;
+import org.spdx.licenseTemplate.LicenseTextHelper;
 import org.spdx.licenseTemplate.SpdxLicenseTemplateHelper;
 import org.spdx.licenseTemplate.LicenseTemplateRule.RuleType;
 import org.spdx.licenseTemplate.LineColumn;
+import org.spdx.utility.compare.CompareTemplateOutputHandler.DifferenceDescription;
 
 /**
  * Test compare template output handler
@@ -691,4 +694,94 @@ public class TestCompareTemplateOutputHandler {
         assertEquals("end", failedToken);
     }
 
+
+	@Test
+	public void testCompareReusedTemplate() throws IOException, LicenseTemplateRuleException, LicenseParserException {
+		String[][] textTemplates = new String[][] {{ADOBE_GLYPH_TEXT, ADOBE_GLYPH_TEMPLATE}, {AFL_3_TEXT, AFL_3_TEMPLATE},
+			{BSD_4_CLAUSE_TEXT, BSD_4_CLAUSE_TEMPLATE}, {CROSSWORD_TEXT, CROSSWORD_TEMPLATE}, {LPPL_1_3_C_TEXT, LPPL_1_3_C_TEMPLATE},
+			{EUPL_1_2_TEXT, EUPL_1_2_TEMPLATE}, {GPL_1_ONLY_TEXT, GPL_1_ONLY_TEMPLATE}};
+		for (String[] textTemplate:textTemplates) {
+			String compareText = UnitTestHelper.fileToText(textTemplate[0]);
+			CompareTemplateOutputHandler templateOutputHandler = new CompareTemplateOutputHandler();
+			SpdxLicenseTemplateHelper.parseTemplate(UnitTestHelper.fileToText(textTemplate[1]), templateOutputHandler);
+			assertFalse(templateOutputHandler.compare(compareText).isDifferenceFound());
+			assertTrue(templateOutputHandler.compare("Some other text").isDifferenceFound());
+			assertTrue(templateOutputHandler.compare(compareText + " with additional text").isDifferenceFound());
+			DifferenceDescription result = templateOutputHandler.compare(compareText);
+			assertFalse(textTemplate[0] + ": " + result.getDifferenceMessage(), result.isDifferenceFound());
+		}
+	}
+
+	@Test
+	public void testCompareReusedTemplateDifferences() throws IOException, LicenseTemplateRuleException, LicenseParserException {
+		String templateText = "a<<var;name=\"more\";original=\"\";match=\"[b-y\\s]*\">><<beginOptional>>z<<endOptional>>";
+		String compareText = "a b\tc d e f g h i j k l m n o p\nq r s t u v w x y z end";
+		CompareTemplateOutputHandler singleUseHandler = new CompareTemplateOutputHandler(compareText);
+		SpdxLicenseTemplateHelper.parseTemplate(templateText, singleUseHandler);
+		CompareTemplateOutputHandler templateOutputHandler = new CompareTemplateOutputHandler();
+		SpdxLicenseTemplateHelper.parseTemplate(templateText, templateOutputHandler);
+		assertFalse(templateOutputHandler.getDifferences().isDifferenceFound());
+		assertFalse(templateOutputHandler.compare("a b c d z").isDifferenceFound());
+		DifferenceDescription result = templateOutputHandler.compare(compareText);
+		assertTrue(result.isDifferenceFound());
+		assertEquals(singleUseHandler.getDifferences().getDifferenceMessage(), result.getDifferenceMessage());
+		assertEquals(1, result.getDifferences().size());
+		LineColumn expected = singleUseHandler.getDifferences().getDifferences().get(0);
+		assertEquals(expected.getLine(), result.getDifferences().get(0).getLine());
+		assertEquals(expected.getColumn(), result.getDifferences().get(0).getColumn());
+		assertEquals(expected.getLen(), result.getDifferences().get(0).getLen());
+	}
+
+	@Test
+	public void testLocateOriginalText() throws IOException {
+		String[] texts = new String[] {UnitTestHelper.fileToText(AFL_3_TEXT), UnitTestHelper.fileToText(BSD_4_CLAUSE_TEXT),
+				"first line\n\n  second, line.\nthird\n", "a\r\nb c\rd"};
+		for (String text:texts) {
+			CompareTemplateOutputHandler ctoh = new CompareTemplateOutputHandler(text);
+			int numTokens = ctoh.compareTokens.length;
+			for (int startToken = 0; startToken <= numTokens; startToken++) {
+				for (int endToken = startToken - 1; endToken <= Math.min(numTokens, startToken + 40); endToken++) {
+					assertEquals(LicenseCompareHelper.locateOriginalText(ctoh.compareText, startToken, endToken, ctoh.tokenToLocation, ctoh.compareTokens),
+							ctoh.locateOriginalText(ctoh.compareText, startToken, endToken, ctoh.tokenToLocation, ctoh.compareTokens));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testTokenKey() {
+		String[] tokens = new String[] {"license", "Licence", "LICENSE", "-", "\u2014", "--", "non-commercial", "non\u2013commercial",
+				"copyright", "(c)", "\u00a9", "and", "&", "the", ",", "acknowledgment", "acknowledgement", "3.0"};
+		for (String token1:tokens) {
+			for (String token2:tokens) {
+				assertEquals(token1 + " - " + token2, LicenseTextHelper.tokensEquivalent(token1, token2),
+						LicenseTokens.tokenKey(token1).equals(LicenseTokens.tokenKey(token2)));
+			}
+		}
+	}
+
+	@Test
+	public void testAnchorIndexNextCandidate() throws IOException {
+		String compareText = UnitTestHelper.fileToText(AFL_3_TEXT);
+		CompareTemplateOutputHandler ctoh = new CompareTemplateOutputHandler(compareText);
+		CompareTemplateOutputHandler.AnchorIndex index = new CompareTemplateOutputHandler.AnchorIndex(ctoh.compareTokens);
+		int numTokens = ctoh.compareTokens.length;
+		String[] anchors = new String[] {"Licensor", "the Original Work", ", the", "- Licensor", "\"Licensor\" means", "not found anywhere", ","};
+		int[] endTokens = new int[] {numTokens - 1, numTokens / 2, 3};
+		for (String anchor:anchors) {
+			String[] anchorTokens = LicenseTextHelper.tokenizeLicenseText(anchor, new HashMap<>());
+			for (int endToken:endTokens) {
+				int start = 0;
+				while (start <= numTokens) {
+					int candidate = index.nextCandidate(anchorTokens, start, endToken);
+					assertTrue(candidate >= start);
+					for (int i = start; i < candidate && i <= numTokens; i++) {
+						int result = ctoh.textEquivalent(anchor, i);
+						assertTrue(anchor + " at " + i, result < 0 && -result <= endToken);
+					}
+					start = candidate + 1;
+				}
+			}
+		}
+	}
 }
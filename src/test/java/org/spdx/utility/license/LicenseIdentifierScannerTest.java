@@ -0,0 +1,170 @@
+/**
+ * SPDX-FileCopyrightText: Copyright (c) 2024 Source Auditor Inc.
+ * SPDX-FileType: SOURCE
+ * SPDX-License-Identifier: Apache-2.0
+ * <p>
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ * <p>
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.spdx.utility.license;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.spdx.core.DefaultModelStore;
+import org.spdx.library.LicenseInfoFactory;
+import org.spdx.library.ListedLicenses;
+import org.spdx.library.ModelCopyManager;
+import org.spdx.library.SpdxModelFactory;
+import org.spdx.storage.simple.InMemSpdxStore;
+import org.spdx.utility.compare.CanonicalLicenseExpression;
+import org.spdx.utility.compare.CanonicalLicenseExpression.Kind;
+import org.spdx.utility.license.LicenseIdentifierScanner.LicenseIdentifierMatch;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gary O'Neall
+ */
+public class LicenseIdentifierScannerTest extends TestCase {
+
+	static final String JAVA_SOURCE = "/*\n" +
+			" * SPDX-License-Identifier: Apache-2.0 OR mit\n" +
+			" */\n" +
+			"package foo;\n" +
+			"// spdx-license-identifier: (GPL-2.0-only WITH Classpath-exception-2.0) AND LicenseRef-foo\n" +
+			"<!-- SPDX-License-Identifier: GPL-2.0+ -->\n" +
+			"/* SPDX-License-Identifier: MIT AND */\n";
+
+	LicenseIdentifierScanner scanner;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		SpdxModelFactory.init();
+		DefaultModelStore.initialize(new InMemSpdxStore(), "http://default/doc", new ModelCopyManager());
+		scanner = new LicenseIdentifierScanner();
+	}
+
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		DefaultModelStore.initialize(new InMemSpdxStore(), "http://default/doc", new ModelCopyManager());
+	}
+
+	private void assertExpected(List<LicenseIdentifierMatch> result, String text) {
+		assertEquals(4, result.size());
+		assertEquals(2, result.get(0).getLineNumber());
+		assertEquals("Apache-2.0 OR MIT", result.get(0).getExpression().toString());
+		assertEquals("Apache-2.0 OR mit", result.get(0).getExpressionText());
+		assertEquals(text.indexOf("Apache-2.0 OR mit"), result.get(0).getOffset());
+		assertEquals(5, result.get(1).getLineNumber());
+		assertEquals("GPL-2.0-only WITH Classpath-exception-2.0 AND http://default/doc#LicenseRef-foo", result.get(1).getExpression().toString());
+		assertEquals(Kind.AND, result.get(1).getExpression().getKind());
+		assertEquals(6, result.get(2).getLineNumber());
+		assertEquals(Kind.OR_LATER, result.get(2).getExpression().getKind());
+		assertEquals("GPL-2.0+", result.get(2).getExpressionText());
+		assertFalse(result.get(3).isValid());
+		assertNotNull(result.get(3).getError());
+		assertEquals("MIT AND", result.get(3).getExpressionText());
+	}
+
+	public void testScanString() {
+		assertExpected(scanner.scan(JAVA_SOURCE), JAVA_SOURCE);
+	}
+
+	public void testScanReader() throws Exception {
+		assertExpected(scanner.scan(new StringReader(JAVA_SOURCE)), JAVA_SOURCE);
+	}
+
+	public void testScanByteBuffer() {
+		ByteBuffer buffer = ByteBuffer.wrap(JAVA_SOURCE.getBytes(StandardCharsets.UTF_8));
+		assertExpected(scanner.scan(buffer), JAVA_SOURCE);
+		assertEquals(0, buffer.position());
+	}
+
+	public void testLongReader() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			sb.append("line number ");
+			sb.append(i);
+			sb.append('\n');
+		}
+		// very long line followed by a tag on the same line
+		for (int i = 0; i < LicenseIdentifierScanner.DEFAULT_BUFFER_SIZE * 3; i++) {
+			sb.append('x');
+		}
+		sb.append(" SPDX-License-Identifier: MIT\n");
+		int offset = sb.length();
+		sb.append("// SPDX-License-Identifier: BSD-3-Clause");
+		String text = sb.toString();
+		List<LicenseIdentifierMatch> result = scanner.scan(new StringReader(text));
+		assertEquals(2, result.size());
+		assertEquals("MIT", result.get(0).getExpression().toString());
+		assertEquals(text.indexOf("MIT"), result.get(0).getOffset());
+		assertEquals(5001, result.get(0).getLineNumber());
+		assertEquals("BSD-3-Clause", result.get(1).getExpression().toString());
+		assertEquals(offset + 28, result.get(1).getOffset());
+		assertEquals(5002, result.get(1).getLineNumber());
+	}
+
+	public void testTooLongLine() throws Exception {
+		StringBuilder sb = new StringBuilder("// SPDX-License-Identifier: MIT AND ");
+		while (sb.length() <= LicenseIdentifierScanner.MAX_LINE_LENGTH) {
+			sb.append("LicenseRef-x AND ");
+		}
+		sb.append("Apache-2.0 SPDX-License-Identifier: BSD-2-Clause\n");
+		sb.append("// SPDX-License-Identifier: BSD-3-Clause\n");
+		String text = sb.toString();
+		List<LicenseIdentifierMatch> result = scanner.scan(new StringReader(text));
+		assertEquals(2, result.size());
+		assertFalse(result.get(0).isValid());
+		assertNotNull(result.get(0).getError());
+		assertEquals(1, result.get(0).getLineNumber());
+		assertEquals(text.indexOf("MIT"), result.get(0).getOffset());
+		assertTrue(result.get(0).getExpressionText().startsWith("MIT AND LicenseRef-x"));
+		assertEquals("BSD-3-Clause", result.get(1).getExpression().toString());
+		assertEquals(2, result.get(1).getLineNumber());
+		assertEquals(text.lastIndexOf("BSD-3-Clause"), result.get(1).getOffset());
+	}
+
+	public void testCustomLicenseUri() throws Exception {
+		String expression = "LicenseRef-foo OR MIT WITH AdditionRef-bar";
+		CanonicalLicenseExpression result = scanner.parse(expression);
+		assertEquals(CanonicalLicenseExpression.canonicalize(LicenseInfoFactory.parseSPDXLicenseString(expression)), result);
+		assertEquals("MIT WITH http://default/doc#AdditionRef-bar OR http://default/doc#LicenseRef-foo", result.toString());
+		LicenseIdentifierScanner prefixed = new LicenseIdentifierScanner(ListedLicenses.getListedLicenses().getLicenseIdDictionary(),
+				ListedLicenses.getListedLicenses().getExceptionIdDictionary(), "http://other/doc#");
+		assertEquals("http://other/doc#LicenseRef-foo", prefixed.parse("LicenseRef-foo").getId());
+		assertEquals("DocumentRef-a:LicenseRef-foo", prefixed.parse("DocumentRef-a:LicenseRef-foo").getId());
+	}
+
+	public void testParse() throws Exception {
+		CanonicalLicenseExpression result = scanner.parse("mit or (apache-2.0 and bsd-3-clause)");
+		assertEquals(CanonicalLicenseExpression.canonicalize(
+				LicenseInfoFactory.parseSPDXLicenseString("MIT OR (Apache-2.0 AND BSD-3-Clause)")), result);
+		assertEquals(Kind.NONE, scanner.parse("NONE").getKind());
+		assertEquals(Kind.NOASSERTION, scanner.parse("NOASSERTION").getKind());
+		assertEquals(Kind.CUSTOM_ADDITION, scanner.parse("MIT WITH AdditionRef-foo").getOperands().get(1).getKind());
+		// precedence - AND binds tighter than OR
+		assertEquals("(Apache-2.0 AND BSD-3-Clause) OR MIT", scanner.parse("MIT OR Apache-2.0 AND BSD-3-Clause").toString());
+		String[] invalid = new String[] {"", "MIT AND", "(MIT", "MIT)", "AND MIT", "MIT WITH", "MIT OR OR Apache-2.0"};
+		for (String expression:invalid) {
+			try {
+				scanner.parse(expression);
+				fail("Expected parser exception for '" + expression + "'");
+			} catch (LicenseParserException ex) {
+				// expected
+			}
+		}
+	}
+}